@@ -0,0 +1,146 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookStatus;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 基准测试数据
+ * 生成固定的样例图书，并提供不访问数据库的图书DAO；
+ * Specification需要真实的CriteriaBuilder才能展开，由H2内存库上的Hibernate提供
+ */
+public final class BenchmarkData {
+
+    private static final String[] CATEGORIES = {"计算机", "文学", "历史", "经济", "艺术", "哲学", "科普", "教育"};
+    private static final String[] AUTHORS = {"周志明", "余华", "钱穆", "曼昆", "贡布里希", "冯友兰", "霍金", "叶圣陶"};
+    private static final String[] TOPICS = {"Java虚拟机", "活着", "国史大纲", "经济学原理", "艺术的故事", "中国哲学简史", "时间简史", "语文教学"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 生成样例图书，同一ID每次生成的内容相同
+     * @param id 图书ID
+     * @return 图书
+     */
+    public static Book book(long id) {
+        int i = (int) (id % CATEGORIES.length);
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle("深入理解" + TOPICS[i] + "（第" + id + "版）");
+        book.setAuthor(AUTHORS[i]);
+        book.setIsbn(String.valueOf(9787111000000L + id));
+        book.setPublishDate(LocalDate.of(2000, 1, 1).plusDays(id % 9000));
+        book.setStatus(id % 10 == 0 ? BookStatus.BORROWED : BookStatus.AVAILABLE);
+        book.setCategory(CATEGORIES[i]);
+        book.setDescription("本书从读者的角度出发，系统地将" + TOPICS[i] + "涉及的各种知识整合到一起。");
+        book.setPrice(10.0 + id % 200);
+        book.setLocation("A区-1层-" + (id % 50) + "架-" + (id % 20) + "号");
+        book.setTotalCopies(10);
+        book.setAvailableCopies(5);
+        book.setVersion(0L);
+        book.setCreatedAt(LocalDate.of(2024, 1, 1));
+        book.setUpdatedAt(LocalDate.of(2024, 1, 2));
+        return book;
+    }
+
+    /**
+     * 生成ID为1到count的样例图书
+     * @param count 图书数量
+     * @return 图书列表
+     */
+    public static List<Book> books(int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            books.add(book(id));
+        }
+        return books;
+    }
+
+    /**
+     * 按ID生成图书的DAO，代替数据库返回结果，只实现基准测试用到的方法
+     * @param count 图书总数
+     * @param criteriaBuilder 用于展开Specification的CriteriaBuilder，为null时不展开
+     * @return 图书DAO
+     */
+    @SuppressWarnings("unchecked")
+    public static BookDAO bookDAO(int count, CriteriaBuilder criteriaBuilder) {
+        return (BookDAO) Proxy.newProxyInstance(BookDAO.class.getClassLoader(), new Class<?>[]{BookDAO.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById":
+                            long id = (Long) args[0];
+                            return id >= 1 && id <= count ? Optional.of(book(id)) : Optional.empty();
+                        case "findAllById":
+                            List<Book> found = new ArrayList<>();
+                            for (Long bookId : (Iterable<Long>) args[0]) {
+                                if (bookId >= 1 && bookId <= count) {
+                                    found.add(book(bookId));
+                                }
+                            }
+                            return found;
+                        case "findTop1000ByIdGreaterThanOrderByIdAsc":
+                            List<Book> batch = new ArrayList<>(1000);
+                            for (long next = (Long) args[0] + 1; next <= count && batch.size() < 1000; next++) {
+                                batch.add(book(next));
+                            }
+                            return batch;
+                        case "findContent":
+                            if (criteriaBuilder != null) {
+                                toQuery((Specification<Book>) args[0], criteriaBuilder);
+                            }
+                            return books(20);
+                        case "count":
+                            return (long) count;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "BenchmarkBookDAO";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * 按Specification构建JPA查询条件，不执行查询
+     * @param spec 查询条件
+     * @param criteriaBuilder CriteriaBuilder
+     * @return 构建好的查询
+     */
+    public static CriteriaQuery<Book> toQuery(Specification<Book> spec, CriteriaBuilder criteriaBuilder) {
+        CriteriaQuery<Book> query = criteriaBuilder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        return query.where(spec.toPredicate(root, query, criteriaBuilder));
+    }
+
+    /**
+     * 在H2内存库上启动Hibernate，只用于获取CriteriaBuilder，不建表
+     * @return EntityManagerFactory，使用完后需关闭
+     */
+    public static EntityManagerFactory entityManagerFactory() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan(Book.class.getPackage().getName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.Service.impl.BookServiceImpl;
+import com.example.demo.cache.BookCache;
+import com.example.demo.cache.BookCountCache;
+import com.example.demo.cache.BookQueryCache;
+import com.example.demo.cache.SingleFlightCacheLoader;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookCriteria;
+import com.example.demo.model.BookStatus;
+import com.example.demo.search.BookFacetIndex;
+import com.example.demo.serializer.RedisSerializers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图书服务读路径基准
+ * getBookById分别测本地缓存命中、Redis命中和回源三种路径；
+ * findBooksByCriteria分别测结果缓存命中，以及未命中时构建Specification、展开为JPA查询条件并写回缓存的开销。
+ * Redis由进程内实现代替，数据库由按ID生成图书的DAO代替，测得的是本服务自身的CPU开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    private static final int BOOK_COUNT = 10_000;
+    private static final long BOOK_ID = 42L;
+
+    /**
+     * Redis value序列化方式，与app.redis.value-serializer一致
+     */
+    @Param({RedisSerializers.BINARY, RedisSerializers.JSON})
+    public String serializer;
+
+    private EntityManagerFactory entityManagerFactory;
+    private InMemoryRedisUtils redisUtils;
+    private BookCache bookCache;
+    private BookServiceImpl bookService;
+
+    private final Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
+    private final BookCriteria cachedCriteria = new BookCriteria(
+            "计算机", BookStatus.AVAILABLE, 20.0, 100.0, null, null, null, null);
+    private final BookCriteria uncachedCriteria = new BookCriteria(
+            "文学", BookStatus.AVAILABLE, 20.0, 100.0, null, null, null, null);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entityManagerFactory = BenchmarkData.entityManagerFactory();
+        redisUtils = new InMemoryRedisUtils(RedisSerializers.create(serializer, 1024));
+        BookDAO bookDAO = BenchmarkData.bookDAO(BOOK_COUNT, entityManagerFactory.getCriteriaBuilder());
+        SingleFlightCacheLoader cacheLoader = new SingleFlightCacheLoader(redisUtils, false, 10000, 2000, 0);
+        bookCache = new BookCache(redisUtils, 10000, 60, 30);
+        // 分面索引不构建，多条件查询走结果缓存和数据库路径
+        bookService = new BookServiceImpl(bookDAO, null, null, redisUtils, bookCache, null, cacheLoader, null, null,
+                new BookCountCache(redisUtils, cacheLoader, 10, 60), new BookQueryCache(redisUtils, 10),
+                new BookFacetIndex(bookDAO, new double[]{20, 50, 100, 200}), null, null, null, null,
+                new SimpleMeterRegistry());
+
+        bookService.getBookById(BOOK_ID);
+        bookService.findBooksByCriteria(cachedCriteria, pageable, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public Book getBookById_localHit() {
+        return bookService.getBookById(BOOK_ID);
+    }
+
+    @Benchmark
+    public Book getBookById_redisHit() {
+        bookCache.evictLocal(BOOK_ID);
+        return bookService.getBookById(BOOK_ID);
+    }
+
+    @Benchmark
+    public Book getBookById_miss() {
+        bookCache.evict(BOOK_ID);
+        return bookService.getBookById(BOOK_ID);
+    }
+
+    @Benchmark
+    public Page<Book> findBooksByCriteria_cached() {
+        return bookService.findBooksByCriteria(cachedCriteria, pageable, false);
+    }
+
+    /**
+     * 每次先删除该条件的结果和精确总数，走构建并展开查询条件、统计总数、写回两个缓存的完整路径
+     */
+    @Benchmark
+    public Page<Book> findBooksByCriteria_uncached() {
+        redisUtils.delete(BookQueryCache.RESULT_PREFIX + uncachedCriteria.cacheKey());
+        redisUtils.delete(BookCountCache.COUNT_PREFIX + uncachedCriteria.cacheKey());
+        return bookService.findBooksByCriteria(uncachedCriteria, pageable, false);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.Service.impl.BorrowServiceImpl;
+import com.example.demo.borrow.BorrowRecordBatcher;
+import com.example.demo.cache.BookCache;
+import com.example.demo.cache.SingleFlightCacheLoader;
+import com.example.demo.cache.UserSummaryCache;
+import com.example.demo.config.RedisConfig;
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.inventory.BookInventory;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.mapper.BorrowRecordDAOCustomImpl;
+import com.example.demo.mapper.ReservationDAO;
+import com.example.demo.model.Book;
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.LoanTotals;
+import com.example.demo.reservation.ReservationQueue;
+import com.example.demo.serializer.RedisSerializers;
+import com.example.demo.utils.RedisUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 借书吞吐量基准
+ * 模拟开学高峰：多个线程同时调用{@link BorrowServiceImpl#checkout}，经过名额检查、预约保留、库存扣减、
+ * 借阅记录批量写入和借阅汇总更新的完整路径，输出每秒完成的借书数。
+ * 库存、预约保留和借阅汇总的Lua脚本需要真实的Redis，默认连接localhost:6379的15号库，
+ * 可通过-Dbenchmark.redis.host、-Dbenchmark.redis.port、-Dbenchmark.redis.database指定；
+ * 该库在开始和结束时会被清空。借阅记录写入H2内存库，图书和预约由DAO桩代替
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(64)
+public class BorrowCheckoutBenchmark {
+
+    private static final int BOOK_COUNT = 1000;
+
+    private static final String H2_URL = "jdbc:h2:mem:borrow;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String H2_DDL = "create table if not exists borrow_records ("
+            + "id bigint primary key auto_increment, book_id bigint not null, user_id bigint not null, "
+            + "borrow_date datetime not null, due_date datetime not null, return_date datetime, "
+            + "status varchar(20) not null, fine_amount decimal(10,2) default 0.0, "
+            + "fine_paid boolean not null default false, created_at datetime not null, updated_at datetime not null)";
+
+    private final AtomicLong nextUserId = new AtomicLong();
+
+    private LettuceConnectionFactory connectionFactory;
+    private BorrowRecordBatcher batcher;
+    private BorrowServiceImpl borrowService;
+
+    /**
+     * 每个线程一个借阅人，依次借阅不同的图书
+     */
+    @State(Scope.Thread)
+    public static class Borrower {
+        long userId;
+        long next;
+
+        @Setup(Level.Trial)
+        public void setUp(BorrowCheckoutBenchmark benchmark) {
+            userId = benchmark.nextUserId.incrementAndGet();
+        }
+
+        long nextBookId() {
+            return next++ % BOOK_COUNT + 1;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RedisStandaloneConfiguration redis = new RedisStandaloneConfiguration(
+                System.getProperty("benchmark.redis.host", "localhost"),
+                Integer.getInteger("benchmark.redis.port", 6379));
+        redis.setDatabase(Integer.getInteger("benchmark.redis.database", 15));
+        connectionFactory = new LettuceConnectionFactory(redis);
+        connectionFactory.afterPropertiesSet();
+        flushRedis();
+        RedisUtils redisUtils = new RedisUtils(
+                new RedisConfig().redisTemplate(connectionFactory, RedisSerializers.BINARY, 1024),
+                new SimpleMeterRegistry());
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(H2_URL);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(H2_DDL);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        // 借阅记录只会被批量插入，借阅人没有历史借阅和预约，图书的副本足够整个基准借出
+        BorrowRecordDAO borrowRecordDAO = Mockito.mock(BorrowRecordDAO.class,
+                AdditionalAnswers.delegatesTo(new BorrowRecordDAOCustomImpl(jdbcTemplate)));
+        LoanTotals noLoans = Mockito.mock(LoanTotals.class);
+        Mockito.when(noLoans.getActiveLoans()).thenReturn(0L);
+        Mockito.when(noLoans.getOverdueLoans()).thenReturn(0L);
+        Mockito.when(noLoans.getOutstandingFines()).thenReturn(0.0);
+        Mockito.doReturn(noLoans).when(borrowRecordDAO).sumActiveLoans(
+                ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.anyCollection());
+        ReservationDAO reservationDAO = Mockito.mock(ReservationDAO.class);
+        BookDAO bookDAO = Mockito.mock(BookDAO.class);
+        Mockito.when(bookDAO.findById(ArgumentMatchers.anyLong())).thenAnswer(invocation -> {
+            Book book = BenchmarkData.book(invocation.getArgument(0));
+            book.setTotalCopies(Integer.MAX_VALUE);
+            book.setAvailableCopies(Integer.MAX_VALUE);
+            return Optional.of(book);
+        });
+
+        SingleFlightCacheLoader cacheLoader = new SingleFlightCacheLoader(redisUtils, false, 10000, 2000, 0);
+        BookInventory bookInventory = new BookInventory(redisUtils, bookDAO,
+                new BookCache(redisUtils, 10000, 60, 30), transactionManager, 1000);
+        UserSummaryCache userSummaryCache = new UserSummaryCache(redisUtils, cacheLoader,
+                borrowRecordDAO, reservationDAO, 60);
+        // 借书路径只发布借出事件，交给借阅汇总计入借阅数
+        ApplicationEventPublisher eventPublisher = event -> {
+            if (event instanceof BorrowEvent) {
+                userSummaryCache.onBorrowEvent((BorrowEvent) event);
+            }
+        };
+        ReservationQueue reservationQueue = new ReservationQueue(redisUtils, reservationDAO, bookInventory,
+                transactionManager, eventPublisher, 3, 1000, 500);
+
+        batcher = new BorrowRecordBatcher(borrowRecordDAO, transactionManager, 500, 10_000);
+        batcher.start();
+        // 借阅数不设上限，每个线程在整个基准期间都能继续借书
+        borrowService = new BorrowServiceImpl(borrowRecordDAO, batcher, bookInventory, reservationQueue,
+                userSummaryCache, eventPublisher, 30, 90, 5000, Long.MAX_VALUE, 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        batcher.shutdown();
+        flushRedis();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public BorrowRecordDTO checkout(Borrower borrower) {
+        return borrowService.checkout(borrower.userId, borrower.nextBookId());
+    }
+
+    private void flushRedis() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushDb();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("BorrowCheckoutBenchmark needs a Redis server at "
+                    + connectionFactory.getHostName() + ":" + connectionFactory.getPort(), e);
+        }
+    }
+}
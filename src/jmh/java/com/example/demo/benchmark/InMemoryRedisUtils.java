@@ -0,0 +1,124 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.utils.RedisUtils;
+import com.example.demo.utils.ScriptArgs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基准测试用的进程内Redis
+ * 只实现图书缓存路径用到的字符串和Hash命令，值按真实的序列化器编码后保存，
+ * 测得的耗时包含序列化开销但不含网络往返；Lua脚本只模拟查询条件登记写入结果的部分，
+ * 其他命令没有RedisTemplate可用，调用时直接失败
+ */
+public class InMemoryRedisUtils extends RedisUtils {
+
+    private final RedisSerializer<Object> serializer;
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, byte[]>> hashes = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     * @param serializer value序列化器，与RedisConfig中的配置一致
+     */
+    public InMemoryRedisUtils(RedisSerializer<Object> serializer) {
+        super(null, new SimpleMeterRegistry());
+        this.serializer = serializer;
+    }
+
+    @Override
+    public void set(String key, Object value) {
+        values.put(key, serializer.serialize(value));
+    }
+
+    @Override
+    public void set(String key, Object value, long timeout, TimeUnit unit) {
+        set(key, value);
+    }
+
+    @Override
+    public Boolean setIfAbsent(String key, Object value, long timeout, TimeUnit unit) {
+        return values.putIfAbsent(key, serializer.serialize(value)) == null;
+    }
+
+    @Override
+    public Object get(String key) {
+        byte[] bytes = values.get(key);
+        return bytes == null ? null : serializer.deserialize(bytes);
+    }
+
+    @Override
+    public List<Object> multiGet(Collection<String> keys) {
+        List<Object> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            result.add(get(key));
+        }
+        return result;
+    }
+
+    @Override
+    public void multiSet(Map<String, ?> map, long timeout, TimeUnit unit) {
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        boolean removed = values.remove(key) != null;
+        return hashes.remove(key) != null || removed;
+    }
+
+    @Override
+    public Boolean expire(String key, long timeout, TimeUnit unit) {
+        return values.containsKey(key) || hashes.containsKey(key);
+    }
+
+    @Override
+    public Object hGet(String key, String hashKey) {
+        Map<String, byte[]> hash = hashes.get(key);
+        byte[] bytes = hash == null ? null : hash.get(hashKey);
+        return bytes == null ? null : serializer.deserialize(bytes);
+    }
+
+    @Override
+    public void hSet(String key, String hashKey, Object value) {
+        hashes.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(hashKey, serializer.serialize(value));
+    }
+
+    @Override
+    public void hSet(String key, String hashKey, Object value, long timeout, TimeUnit unit) {
+        hSet(key, hashKey, value);
+    }
+
+    /**
+     * 模拟查询条件登记脚本：KEYS[3]为结果Hash，KEYS[4]为代数，ARGV[1]为查询前读取的代数，
+     * ARGV[8]、ARGV[9]为结果字段和结果；代数未变化时写入结果，不维护登记表和过期时间
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T executeWithArgs(RedisScript<T> script, List<String> keys, ScriptArgs args) {
+        if (keys.size() != 5 || args.size() != 9) {
+            throw new UnsupportedOperationException("Only the criteria registry script is supported");
+        }
+        Object generation = get(keys.get(3));
+        if (!String.valueOf(generation == null ? 0 : generation).equals(args.get(0))) {
+            return (T) Long.valueOf(-1);
+        }
+        hSet(keys.get(2), (String) args.get(7), args.get(8));
+        return (T) Long.valueOf(1);
+    }
+
+    @Override
+    public Long publish(String channel, String message) {
+        return 0L;
+    }
+}
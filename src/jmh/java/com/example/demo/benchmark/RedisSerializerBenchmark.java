@@ -0,0 +1,92 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.cache.BookIdPage;
+import com.example.demo.serializer.RedisSerializers;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis序列化器对比基准
+ * 对比JSON与二进制序列化器在缓存实际存放的值上的序列化、反序列化耗时，并以辅助计数器输出单条字节数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({RedisSerializers.JSON, RedisSerializers.BINARY})
+    public String format;
+
+    /**
+     * 单本图书、20本图书的列表、一页查询结果的ID
+     */
+    @Param({"book", "books", "idPage"})
+    public String value;
+
+    private RedisSerializer<Object> serializer;
+    private Object object;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = RedisSerializers.create(format, 1024);
+        switch (value) {
+            case "book":
+                object = BenchmarkData.book(1);
+                break;
+            case "books":
+                object = BenchmarkData.books(20);
+                break;
+            case "idPage":
+                List<Long> ids = new ArrayList<>(20);
+                for (long id = 1; id <= 20; id++) {
+                    ids.add(id * 1000);
+                }
+                object = new BookIdPage(ids, 500_000);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown value: " + value);
+        }
+        bytes = serializer.serialize(object);
+    }
+
+    @Benchmark
+    public byte[] serialize(Size size) {
+        byte[] serialized = serializer.serialize(object);
+        size.bytes = serialized.length;
+        return serialized;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    /**
+     * 序列化后的字节数，随结果一起输出
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long bytes;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.search.BookSearchIndex;
+import com.example.demo.strategy.AuthorSearchStrategy;
+import com.example.demo.strategy.FullTextSearchStrategy;
+import com.example.demo.strategy.SearchStrategy;
+import com.example.demo.strategy.TitleSearchStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 搜索策略基准
+ * 标题、作者搜索策略测关键词转换为Specification并展开为JPA查询条件的开销；
+ * 全文搜索策略测在内存倒排索引上求交集、排序并按ID加载当前页的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchStrategyBenchmark {
+
+    /**
+     * 全文索引中的图书数
+     */
+    @Param({"10000", "100000"})
+    public int bookCount;
+
+    private EntityManagerFactory entityManagerFactory;
+    private CriteriaBuilder criteriaBuilder;
+    private BookDAO bookDAO;
+    private SearchStrategy titleStrategy;
+    private SearchStrategy authorStrategy;
+    private SearchStrategy fullTextStrategy;
+
+    private final Pageable pageable = PageRequest.of(0, 20);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entityManagerFactory = BenchmarkData.entityManagerFactory();
+        criteriaBuilder = entityManagerFactory.getCriteriaBuilder();
+        bookDAO = BenchmarkData.bookDAO(bookCount, criteriaBuilder);
+        titleStrategy = new TitleSearchStrategy();
+        authorStrategy = new AuthorSearchStrategy();
+        BookSearchIndex searchIndex = new BookSearchIndex(bookDAO);
+        searchIndex.rebuild();
+        fullTextStrategy = new FullTextSearchStrategy(searchIndex);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public CriteriaQuery<Book> title() {
+        return BenchmarkData.toQuery(titleStrategy.toSpecification("Java虚拟机"), criteriaBuilder);
+    }
+
+    @Benchmark
+    public CriteriaQuery<Book> author() {
+        return BenchmarkData.toQuery(authorStrategy.toSpecification("周志明"), criteriaBuilder);
+    }
+
+    @Benchmark
+    public Page<Book> fullText() {
+        return fullTextStrategy.search(bookDAO, "深入理解 Java虚拟机", pageable);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Book;
+import com.example.demo.utils.ListUtils;
+import com.example.demo.utils.MapUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ListUtils、MapUtils基准
+ * 在不同规模的图书列表上测分组、转Map、排序、去重、分页和按值排序的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private List<Book> books;
+    private Map<Long, Double> prices;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        books = BenchmarkData.books(size);
+        prices = ListUtils.toMap(books, Book::getId, Book::getPrice);
+    }
+
+    @Benchmark
+    public Map<String, List<Book>> groupByCategory() {
+        return ListUtils.groupBy(books, Book::getCategory);
+    }
+
+    @Benchmark
+    public Map<Long, Double> toMap() {
+        return ListUtils.toMap(books, Book::getId, Book::getPrice);
+    }
+
+    @Benchmark
+    public List<Book> sortByPrice() {
+        return ListUtils.sort(books, Comparator.comparing(Book::getPrice));
+    }
+
+    @Benchmark
+    public List<String> distinctAuthors() {
+        return ListUtils.distinct(ListUtils.map(books, Book::getAuthor));
+    }
+
+    @Benchmark
+    public List<Book> lastPage() {
+        return ListUtils.page(books, 20, size / 20);
+    }
+
+    @Benchmark
+    public Map<Long, Double> sortMapByValue() {
+        return MapUtils.sortByValue(prices, Comparator.reverseOrder());
+    }
+
+    @Benchmark
+    public Map<Long, Double> filterMap() {
+        return MapUtils.filter(prices, entry -> entry.getValue() >= 100);
+    }
+}
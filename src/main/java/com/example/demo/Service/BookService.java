@@ -1,14 +1,28 @@
 package com.example.demo.Service;
 
+import com.example.demo.importer.BookImportFormat;
 import com.example.demo.model.Book;
+import com.example.demo.model.BookAvailability;
+import com.example.demo.model.BookCriteria;
 import com.example.demo.model.BookDTO;
+import com.example.demo.model.BookFacetPage;
+import com.example.demo.model.BookImportResult;
 import com.example.demo.model.BookStatus;
+import com.example.demo.model.BookSuggestion;
+import com.example.demo.pagination.BookCursorRequest;
+import com.example.demo.pagination.CursorSlice;
+import com.example.demo.projection.BookProjection;
+import com.example.demo.retry.ConflictStats;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import javax.validation.Valid;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 图书服务接口
@@ -22,6 +36,14 @@ public interface BookService {
      */
     Page<Book> findAllBooks(Pageable pageable);
 
+    /**
+     * 分页获取图书的部分字段
+     * @param pageable 分页参数
+     * @param projection 字段投影
+     * @return 分页后的字段映射列表
+     */
+    Page<Map<String, Object>> findAllBooks(Pageable pageable, BookProjection projection);
+
     /**
      * 根据ID查找图书
      * @param id 图书ID
@@ -29,6 +51,14 @@ public interface BookService {
      */
     Book findBookById(Long id);
 
+    /**
+     * 根据ID批量获取图书
+     * 先通过一次MGET查缓存，未命中的用一次IN查询加载并回填缓存
+     * @param ids 图书ID集合，重复的ID只返回一次
+     * @return 图书列表，顺序与请求一致，不存在的ID会被跳过
+     */
+    List<Book> findBooksByIds(Collection<Long> ids);
+
     /**
      * 创建新图书
      * @param bookDTO 图书信息DTO
@@ -59,6 +89,36 @@ public interface BookService {
      */
     Page<Book> searchBooks(String keyword, String searchType, Pageable pageable);
 
+    /**
+     * 搜索图书，可选择接受近似总数
+     * @param keyword 搜索关键词
+     * @param searchType 搜索类型（title/author）
+     * @param pageable 分页参数
+     * @param approximateCount 是否接受近似总数，为true时总数可能略有滞后，但几乎不再执行COUNT
+     * @return 分页后的搜索结果
+     */
+    Page<Book> searchBooks(String keyword, String searchType, Pageable pageable, boolean approximateCount);
+
+    /**
+     * 搜索图书，只返回投影中的字段
+     * @param keyword 搜索关键词
+     * @param searchType 搜索类型（title/author）
+     * @param pageable 分页参数
+     * @param approximateCount 是否接受近似总数
+     * @param projection 字段投影
+     * @return 分页后的字段映射列表
+     */
+    Page<Map<String, Object>> searchBooks(String keyword, String searchType, Pageable pageable,
+                                          boolean approximateCount, BookProjection projection);
+
+    /**
+     * 按前缀获取搜索联想建议（标题、作者、ISBN）
+     * @param prefix 输入前缀
+     * @param limit 最大条数
+     * @return 按热度排序的建议列表
+     */
+    List<BookSuggestion> suggestBooks(String prefix, int limit);
+
     /**
      * 更新图书状态
      * @param id 图书ID
@@ -87,4 +147,159 @@ public interface BookService {
             LocalDate endDate,
             Pageable pageable
     );
-}
\ No newline at end of file
+
+    /**
+     * 根据条件查询图书，可选择接受近似总数
+     * @param criteria 查询条件
+     * @param pageable 分页参数
+     * @param approximateCount 是否接受近似总数，为true时总数可能略有滞后，但几乎不再执行COUNT
+     * @return 分页后的图书列表
+     */
+    Page<Book> findBooksByCriteria(BookCriteria criteria, Pageable pageable, boolean approximateCount);
+
+    /**
+     * 根据条件查询图书，只返回投影中的字段
+     * @param criteria 查询条件
+     * @param pageable 分页参数
+     * @param approximateCount 是否接受近似总数
+     * @param projection 字段投影
+     * @return 分页后的字段映射列表
+     */
+    Page<Map<String, Object>> findBooksByCriteria(BookCriteria criteria, Pageable pageable, boolean approximateCount,
+                                                  BookProjection projection);
+
+    /**
+     * 根据条件查询图书，同时返回分类、状态、价格区间的分面统计
+     * @param criteria 查询条件
+     * @param pageable 分页参数
+     * @return 分页结果和分面统计
+     */
+    BookFacetPage findBooksWithFacets(BookCriteria criteria, Pageable pageable);
+
+    /**
+     * 添加图书（实体方式）
+     * @param book 图书实体
+     * @return 保存后的图书信息
+     */
+    Book addBook(Book book);
+
+    /**
+     * 更新图书（实体方式）
+     * @param id 图书ID
+     * @param book 图书实体
+     * @return 更新后的图书信息
+     */
+    Book updateBook(Long id, Book book);
+
+    /**
+     * 根据ID获取图书（优先从缓存读取）
+     * @param id 图书ID
+     * @return 图书信息
+     */
+    Book getBookById(Long id);
+
+    /**
+     * 获取所有图书（优先从缓存读取）
+     * @return 图书列表
+     */
+    List<Book> getAllBooks();
+
+    /**
+     * 分页获取图书（优先从缓存读取）
+     * @param page 页码，从0开始
+     * @param size 每页数量，小于0时返回全部
+     * @return 图书列表
+     */
+    List<Book> getBooksPage(int page, int size);
+
+    /**
+     * 按标题或作者搜索图书
+     * @param keyword 搜索关键词
+     * @param pageable 分页参数
+     * @return 分页后的搜索结果
+     */
+    Page<Book> searchBooks(String keyword, Pageable pageable);
+
+    /**
+     * 根据分类获取图书（优先从缓存读取）
+     * @param category 分类
+     * @return 图书列表
+     */
+    List<Book> getBooksByCategory(String category);
+
+    /**
+     * 根据状态获取图书（优先从缓存读取）
+     * @param status 状态
+     * @return 图书列表
+     */
+    List<Book> getBooksByStatus(String status);
+
+    /**
+     * 游标分页获取图书列表，不统计总数，翻页深度不影响查询耗时
+     * @param request 游标分页请求
+     * @return 游标分页结果
+     */
+    CursorSlice<Book> findAllBooks(BookCursorRequest request);
+
+    /**
+     * 游标分页搜索图书
+     * @param keyword 搜索关键词
+     * @param searchType 搜索类型，需支持生成查询条件
+     * @param request 游标分页请求
+     * @return 游标分页结果
+     */
+    CursorSlice<Book> searchBooks(String keyword, String searchType, BookCursorRequest request);
+
+    /**
+     * 游标分页按条件查询图书
+     * @param category 分类（可选）
+     * @param status 状态（可选）
+     * @param minPrice 最低价格（可选）
+     * @param maxPrice 最高价格（可选）
+     * @param startDate 开始日期（可选）
+     * @param endDate 结束日期（可选）
+     * @param request 游标分页请求
+     * @return 游标分页结果
+     */
+    CursorSlice<Book> findBooksByCriteria(
+            String category,
+            BookStatus status,
+            Double minPrice,
+            Double maxPrice,
+            LocalDate startDate,
+            LocalDate endDate,
+            BookCursorRequest request
+    );
+
+    /**
+     * 批量导入图书
+     * 按批写入，每批独立提交；校验或写入失败的行记录在结果中，不会中止整个导入
+     * @param in 输入流，UTF-8编码
+     * @param format 导入格式
+     * @return 导入结果，包括吞吐量和失败行明细
+     */
+    BookImportResult importBooks(InputStream in, BookImportFormat format);
+
+    /**
+     * 流式导出所有图书
+     * 通过数据库游标逐行读取并直接写入输出流，格式与批量导入一致
+     * @param out 输出流，导出完成后不会关闭
+     * @param format 导出格式
+     * @param gzip 是否gzip压缩
+     * @return 导出的行数
+     */
+    long exportBooks(OutputStream out, BookImportFormat format, boolean gzip);
+
+    /**
+     * 获取实时库存
+     * @param id 图书ID
+     * @return 当前库存
+     */
+    BookAvailability getAvailability(Long id);
+
+    /**
+     * 获取乐观锁冲突统计
+     * @return key为操作名，value为调用、冲突、重试耗尽次数和冲突率
+     */
+    Map<String, ConflictStats> getConflictStats();
+}
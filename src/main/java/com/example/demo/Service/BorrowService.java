@@ -0,0 +1,57 @@
+package com.example.demo.Service;
+
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.UserSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * 借阅服务接口
+ * 提供借书、还书、续借和借阅记录查询
+ */
+public interface BorrowService {
+    /**
+     * 借书
+     * 先按借阅人汇总检查借书资格，再在Redis中扣减可借副本，再与其他并发请求合并批量写入借阅记录；写入失败时归还副本
+     * @param userId 借阅人ID
+     * @param bookId 图书ID
+     * @return 新建的借阅记录
+     */
+    BorrowRecordDTO checkout(Long userId, Long bookId);
+
+    /**
+     * 还书
+     * @param recordId 借阅记录ID
+     * @return 归还后的借阅记录
+     */
+    BorrowRecordDTO returnBook(Long recordId);
+
+    /**
+     * 续借，应还日期顺延一个借期，但不超过最长借阅期限；已逾期的记录不能续借
+     * @param recordId 借阅记录ID
+     * @return 续借后的借阅记录
+     */
+    BorrowRecordDTO renew(Long recordId);
+
+    /**
+     * 缴清已归还借阅的罚款
+     * @param recordId 借阅记录ID
+     * @return 借阅记录
+     */
+    BorrowRecordDTO payFine(Long recordId);
+
+    /**
+     * 分页查询用户的借阅记录，按借阅时间倒序
+     * @param userId 借阅人ID
+     * @param pageable 分页参数
+     * @return 分页后的借阅记录
+     */
+    Page<BorrowRecordDTO> findByUser(Long userId, Pageable pageable);
+
+    /**
+     * 获取借阅人汇总：借阅数、逾期数、未结罚款和有效预约数
+     * @param userId 借阅人ID
+     * @return 借阅人汇总
+     */
+    UserSummary getSummary(Long userId);
+}
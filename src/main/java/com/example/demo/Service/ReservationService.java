@@ -0,0 +1,31 @@
+package com.example.demo.Service;
+
+import com.example.demo.model.ReservationDTO;
+
+/**
+ * 预约服务接口
+ * 图书没有可借副本时排队预约，有副本归还时按预约先后自动批准
+ */
+public interface ReservationService {
+    /**
+     * 预约图书，加入该图书的排队队尾
+     * @param userId 预约人ID
+     * @param bookId 图书ID
+     * @return 排队中的预约
+     */
+    ReservationDTO reserve(Long userId, Long bookId);
+
+    /**
+     * 取消预约，已批准的预约取消后保留的副本交给下一位
+     * @param id 预约记录ID
+     * @return 取消后的预约
+     */
+    ReservationDTO cancel(Long id);
+
+    /**
+     * 根据ID查询预约
+     * @param id 预约记录ID
+     * @return 预约
+     */
+    ReservationDTO findById(Long id);
+}
@@ -1,26 +1,67 @@
 package com.example.demo.Service.impl;
 
 import com.example.demo.Service.BookService;
+import com.example.demo.cache.BookCache;
+import com.example.demo.cache.BookCount;
+import com.example.demo.cache.BookCountCache;
+import com.example.demo.cache.BookIdPage;
+import com.example.demo.cache.BookListCache;
+import com.example.demo.cache.BookQueryCache;
+import com.example.demo.cache.SingleFlightCacheLoader;
 import com.example.demo.chain.BookStatusValidator;
+import com.example.demo.datasource.ReplicaRoutingDataSource;
+import com.example.demo.event.BookChangeEvent;
 import com.example.demo.exception.BookNotFoundException;
+import com.example.demo.exporter.BookExporter;
 import com.example.demo.factory.SearchStrategyFactory;
+import com.example.demo.importer.BookImportFormat;
+import com.example.demo.importer.BookImporter;
+import com.example.demo.inventory.BookInventory;
 import com.example.demo.mapper.BookDAO;
 import com.example.demo.model.Book;
+import com.example.demo.model.BookAvailability;
+import com.example.demo.model.BookCriteria;
 import com.example.demo.model.BookDTO;
+import com.example.demo.model.BookFacetPage;
+import com.example.demo.model.BookImportResult;
 import com.example.demo.model.BookStatus;
+import com.example.demo.model.BookSuggestion;
+import com.example.demo.pagination.BookCursorRequest;
+import com.example.demo.pagination.CountedPage;
+import com.example.demo.pagination.CursorSlice;
+import com.example.demo.projection.BookProjection;
+import com.example.demo.retry.ConflictStats;
+import com.example.demo.retry.OptimisticLockRetry;
+import com.example.demo.search.BookFacetIndex;
+import com.example.demo.search.BookSuggester;
 import com.example.demo.strategy.SearchStrategy;
 import com.example.demo.utils.RedisUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import javax.persistence.criteria.Predicate;
 import javax.validation.Valid;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -36,11 +77,25 @@ public class BookServiceImpl implements BookService {
     private final SearchStrategyFactory searchStrategyFactory;
     private final BookStatusValidator statusValidator;
     private final RedisUtils redisUtils;
+    private final BookCache bookCache;
+    private final BookListCache bookListCache;
+    private final SingleFlightCacheLoader cacheLoader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookSuggester bookSuggester;
+    private final BookCountCache bookCountCache;
+    private final BookQueryCache bookQueryCache;
+    private final BookFacetIndex bookFacetIndex;
+    private final BookImporter bookImporter;
+    private final BookExporter bookExporter;
+    private final BookInventory bookInventory;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final MeterRegistry meterRegistry;
     
     // Redis缓存相关常量
-    private static final String BOOK_CACHE_PREFIX = "book:";
-    private static final String BOOK_LIST_CACHE_KEY = "book:list";
+    private static final String BOOK_CACHE_PREFIX = BookCache.BOOK_CACHE_PREFIX;
     private static final long CACHE_EXPIRE_TIME = 30; // 缓存过期时间（分钟）
+    private static final String BOOK_LOAD_PREFIX = BOOK_CACHE_PREFIX + "load:";
+    private static final BookCriteria ALL_BOOKS = new BookCriteria(null, null, null, null, null, null, null, null);
 
     /**
      * 构造函数
@@ -48,71 +103,194 @@ public class BookServiceImpl implements BookService {
      * @param searchStrategyFactory 搜索策略工厂
      * @param statusValidator 状态验证器
      * @param redisUtils Redis工具类
+     * @param bookCache 图书两级缓存
+     * @param bookListCache 图书列表缓存
+     * @param cacheLoader 防击穿缓存加载器
+     * @param eventPublisher 事件发布器，用于发布图书变更事件
+     * @param bookSuggester 图书前缀联想
+     * @param bookCountCache 查询总数缓存
+     * @param bookQueryCache 多条件查询结果缓存
+     * @param bookFacetIndex 分面索引
+     * @param bookImporter 图书批量导入
+     * @param bookExporter 图书流式导出
+     * @param bookInventory 图书副本库存
+     * @param optimisticLockRetry 乐观锁冲突重试
+     * @param meterRegistry 指标注册表，按搜索类型记录搜索耗时
      */
     public BookServiceImpl(
             BookDAO bookDAO,
             SearchStrategyFactory searchStrategyFactory,
             BookStatusValidator statusValidator,
-            RedisUtils redisUtils
+            RedisUtils redisUtils,
+            BookCache bookCache,
+            BookListCache bookListCache,
+            SingleFlightCacheLoader cacheLoader,
+            ApplicationEventPublisher eventPublisher,
+            BookSuggester bookSuggester,
+            BookCountCache bookCountCache,
+            BookQueryCache bookQueryCache,
+            BookFacetIndex bookFacetIndex,
+            BookImporter bookImporter,
+            BookExporter bookExporter,
+            BookInventory bookInventory,
+            OptimisticLockRetry optimisticLockRetry,
+            MeterRegistry meterRegistry
     ) {
         this.bookDAO = bookDAO;
         this.searchStrategyFactory = searchStrategyFactory;
         this.statusValidator = statusValidator;
         this.redisUtils = redisUtils;
+        this.bookCache = bookCache;
+        this.bookListCache = bookListCache;
+        this.cacheLoader = cacheLoader;
+        this.eventPublisher = eventPublisher;
+        this.bookSuggester = bookSuggester;
+        this.bookCountCache = bookCountCache;
+        this.bookQueryCache = bookQueryCache;
+        this.bookFacetIndex = bookFacetIndex;
+        this.bookImporter = bookImporter;
+        this.bookExporter = bookExporter;
+        this.bookInventory = bookInventory;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Book> findAllBooks(Pageable pageable) {
         return bookDAO.findAll(pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findAllBooks(Pageable pageable, BookProjection projection) {
+        // 总数与多条件查询共用计数缓存，不限条件即全部图书；总数要写入缓存，在主库上统计
+        return ReplicaRoutingDataSource.readPrimary(() -> {
+            List<Map<String, Object>> content = bookDAO.findFields(null, projection, pageable);
+            return countedPage(content, pageable, ALL_BOOKS, null, false);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Book findBookById(Long id) {
         return bookDAO.findById(id)
                 .orElseThrow(() -> new BookNotFoundException("Book not found with id: " + id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> findBooksByIds(Collection<Long> ids) {
+        // 去重并保留请求顺序
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return resolveBooks(new ArrayList<>(distinctIds));
+    }
+
     @Override
     @Transactional
     public Book createBook(@Valid BookDTO bookDTO) {
         Book book = new Book();
         updateBookFromDTO(book, bookDTO);
-        return bookDAO.save(book);
+        book.setAvailableCopies(bookDTO.getAvailableCopies());
+        Book savedBook = bookDAO.save(book);
+        // 列表索引在事务提交后由BookListCache根据变更事件更新
+        publishChange(BookChangeEvent.Type.CREATED, savedBook.getId(), savedBook);
+        return savedBook;
     }
 
     @Override
     @Transactional
     public Book updateBook(Long id, @Valid BookDTO bookDTO) {
         Book existingBook = findBookById(id);
+        Book previous = snapshot(existingBook);
         updateBookFromDTO(existingBook, bookDTO);
-        return bookDAO.save(existingBook);
+        Book updatedBook = bookDAO.save(existingBook);
+        adjustAvailableCopies(previous, updatedBook);
+        // 图书缓存在事务提交后由BookCache根据变更事件清除，列表索引只保存ID，无需变更
+        publishChange(BookChangeEvent.Type.UPDATED, id, updatedBook, previous);
+        return updatedBook;
     }
 
     @Override
     @Transactional
     public void deleteBook(Long id) {
-        if (!bookDAO.existsById(id)) {
-            throw new BookNotFoundException("Book not found with id: " + id);
-        }
+        Book existingBook = findBookById(id);
         bookDAO.deleteById(id);
+        // 图书缓存和列表索引在事务提交后更新
+        publishChange(BookChangeEvent.Type.DELETED, id, null, existingBook);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Book> searchBooks(String keyword, String searchType, Pageable pageable) {
+        return searchBooks(keyword, searchType, pageable, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book> searchBooks(String keyword, String searchType, Pageable pageable, boolean approximateCount) {
         SearchStrategy strategy = searchStrategyFactory.getStrategy(searchType);
-        return strategy.search(bookDAO, keyword, pageable);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (!strategy.supportsSpecification()) {
+                // 全文索引直接给出命中数，无需COUNT
+                return strategy.search(bookDAO, keyword, pageable);
+            }
+            // 过滤条件与计数缓存键使用同一份规范化后的关键词；总数会写入计数缓存，在主库上查询
+            BookCriteria criteria = BookCriteria.ofKeyword(keyword, searchType);
+            return ReplicaRoutingDataSource.readPrimary(() -> findPage(
+                    criteria, strategy.toSpecification(keywordOf(criteria)), pageable, approximateCount));
+        } finally {
+            sample.stop(searchTimer(searchType, "offset"));
+        }
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> searchBooks(String keyword, String searchType, Pageable pageable,
+                                                 boolean approximateCount, BookProjection projection) {
+        SearchStrategy strategy = searchStrategyFactory.getStrategy(searchType);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (!strategy.supportsSpecification()) {
+                // 全文索引按ID回表，结果已是实体，直接取字段
+                return strategy.search(bookDAO, keyword, pageable).map(projection::toMap);
+            }
+            BookCriteria criteria = BookCriteria.ofKeyword(keyword, searchType);
+            return ReplicaRoutingDataSource.readPrimary(() -> findFieldsPage(
+                    criteria, strategy.toSpecification(keywordOf(criteria)), projection, pageable, approximateCount));
+        } finally {
+            sample.stop(searchTimer(searchType, "offset"));
+        }
+    }
+
+    @Override
+    public List<BookSuggestion> suggestBooks(String prefix, int limit) {
+        return bookSuggester.suggest(prefix, limit);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Book updateBookStatus(Long id, BookStatus newStatus) {
-        Book book = findBookById(id);
-        statusValidator.validate(book, newStatus);
-        book.setStatus(newStatus);
-        return bookDAO.save(book);
+        // 版本冲突时在新事务中重新读取、重新校验，不使用行锁
+        return optimisticLockRetry.execute("updateBookStatus", () -> {
+            Book book = findBookById(id);
+            statusValidator.validate(book, newStatus);
+            Book previous = snapshot(book);
+            book.setStatus(newStatus);
+            // 立即刷新，使版本冲突在事务内抛出
+            Book updatedBook = bookDAO.saveAndFlush(book);
+            publishChange(BookChangeEvent.Type.UPDATED, id, updatedBook, previous);
+            return updatedBook;
+        });
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Book> findBooksByCriteria(
             String category,
             BookStatus status,
@@ -122,7 +300,234 @@ public class BookServiceImpl implements BookService {
             LocalDate endDate,
             Pageable pageable
     ) {
-        return bookDAO.findAll((root, query, cb) -> {
+        BookCriteria criteria = new BookCriteria(
+                category, status, minPrice, maxPrice, startDate, endDate, null, null);
+        return findBooksByCriteria(criteria, pageable, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book> findBooksByCriteria(BookCriteria criteria, Pageable pageable, boolean approximateCount) {
+        // 分面索引可用时直接在内存中过滤，不访问数据库
+        if (useFacetIndex(criteria, pageable)) {
+            Page<Long> idPage = bookFacetIndex.search(criteria, pageable).getIds();
+            return new PageImpl<>(resolveBooks(idPage.getContent()), pageable, idPage.getTotalElements());
+        }
+
+        // 再查结果缓存，命中时只需按ID解析图书
+        BookIdPage cached = bookQueryCache.get(criteria, pageable);
+        if (cached != null) {
+            return new PageImpl<>(resolveBooks(cached.getIds()), pageable, cached.getTotal());
+        }
+
+        // 先读代数再查库，查询期间有图书变更时不写入结果缓存；结果要写入缓存，不读可能滞后的副本
+        long generation = bookQueryCache.generation();
+        Page<Book> page = ReplicaRoutingDataSource.readPrimary(
+                () -> findPage(criteria, criteriaSpecification(criteria), pageable, approximateCount));
+        if (!CountedPage.isApproximateTotal(page)) {
+            // 近似总数不写入结果缓存，避免被当作精确总数返回
+            List<Long> ids = new ArrayList<>(page.getNumberOfElements());
+            for (Book book : page.getContent()) {
+                ids.add(book.getId());
+            }
+            bookQueryCache.put(criteria, pageable, new BookIdPage(ids, page.getTotalElements()), generation);
+            bookCache.putAll(page.getContent());
+        }
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findBooksByCriteria(BookCriteria criteria, Pageable pageable,
+                                                         boolean approximateCount, BookProjection projection) {
+        // 分面索引或结果缓存命中时图书多半已在缓存中，从实体取字段比再查一次数据库便宜
+        if (useFacetIndex(criteria, pageable)) {
+            Page<Long> idPage = bookFacetIndex.search(criteria, pageable).getIds();
+            return new PageImpl<>(resolveBooks(idPage.getContent()), pageable, idPage.getTotalElements())
+                    .map(projection::toMap);
+        }
+        BookIdPage cached = bookQueryCache.get(criteria, pageable);
+        if (cached != null) {
+            return new PageImpl<>(resolveBooks(cached.getIds()), pageable, cached.getTotal())
+                    .map(projection::toMap);
+        }
+
+        long generation = bookQueryCache.generation();
+        Page<Map<String, Object>> page = ReplicaRoutingDataSource.readPrimary(() -> findFieldsPage(
+                criteria, criteriaSpecification(criteria), projection, pageable, approximateCount));
+        if (!CountedPage.isApproximateTotal(page)) {
+            // 投影总是包含ID，可以写入结果缓存；没有完整实体，不回填图书缓存
+            List<Long> ids = new ArrayList<>(page.getNumberOfElements());
+            for (Map<String, Object> row : page.getContent()) {
+                ids.add((Long) row.get(BookProjection.Field.ID.getProperty()));
+            }
+            bookQueryCache.put(criteria, pageable, new BookIdPage(ids, page.getTotalElements()), generation);
+        }
+        return page;
+    }
+
+    @Override
+    public BookFacetPage findBooksWithFacets(BookCriteria criteria, Pageable pageable) {
+        if (!useFacetIndex(criteria, pageable)) {
+            // 索引未就绪时只返回查询结果
+            return new BookFacetPage(findBooksByCriteria(criteria, pageable, false), null);
+        }
+        BookFacetIndex.Result result = bookFacetIndex.search(criteria, pageable);
+        Page<Long> idPage = result.getIds();
+        Page<Book> books = new PageImpl<>(resolveBooks(idPage.getContent()), pageable, idPage.getTotalElements());
+        return new BookFacetPage(books, result.getFacets());
+    }
+
+    /**
+     * 判断能否由分面索引完成查询：索引已就绪、没有关键词条件、排序字段在索引中
+     * @param criteria 查询条件
+     * @param pageable 分页参数
+     * @return 是否使用分面索引
+     */
+    private boolean useFacetIndex(BookCriteria criteria, Pageable pageable) {
+        return criteria.getKeyword() == null
+                && bookFacetIndex.isReady()
+                && bookFacetIndex.supports(pageable.getSort());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<Book> findAllBooks(BookCursorRequest request) {
+        return findSlice(null, request);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<Book> searchBooks(String keyword, String searchType, BookCursorRequest request) {
+        SearchStrategy strategy = searchStrategyFactory.getStrategy(searchType);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            // 与偏移分页使用同一份规范化后的关键词
+            String normalized = keywordOf(BookCriteria.ofKeyword(keyword, searchType));
+            return findSlice(strategy.toSpecification(normalized), request);
+        } finally {
+            sample.stop(searchTimer(searchType, "cursor"));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<Book> findBooksByCriteria(
+            String category,
+            BookStatus status,
+            Double minPrice,
+            Double maxPrice,
+            LocalDate startDate,
+            LocalDate endDate,
+            BookCursorRequest request
+    ) {
+        BookCriteria criteria = new BookCriteria(
+                category, status, minPrice, maxPrice, startDate, endDate, null, null);
+        return findSlice(criteriaSpecification(criteria), request);
+    }
+
+    /**
+     * 分页查询，当前页数据直接查询，总数走总数缓存
+     * 当前页不满且可推算出总数时不再获取总数
+     * @param criteria 查询条件，用于生成总数缓存键
+     * @param spec 与查询条件对应的过滤条件
+     * @param pageable 分页参数
+     * @param approximateCount 是否接受近似总数
+     * @return 分页结果
+     */
+    private Page<Book> findPage(
+            BookCriteria criteria, Specification<Book> spec, Pageable pageable, boolean approximateCount) {
+        List<Book> content = bookDAO.findContent(spec, pageable);
+        return countedPage(content, pageable, criteria, spec, approximateCount);
+    }
+
+    /**
+     * 分页查询部分字段，总数与实体查询共用同一份计数缓存
+     * @param criteria 查询条件，用于计数缓存的键
+     * @param spec 过滤条件
+     * @param projection 字段投影
+     * @param pageable 分页参数
+     * @param approximateCount 是否接受近似总数
+     * @return 分页后的字段映射列表
+     */
+    private Page<Map<String, Object>> findFieldsPage(BookCriteria criteria, Specification<Book> spec,
+                                                     BookProjection projection, Pageable pageable,
+                                                     boolean approximateCount) {
+        List<Map<String, Object>> content = bookDAO.findFields(spec, projection, pageable);
+        return countedPage(content, pageable, criteria, spec, approximateCount);
+    }
+
+    /**
+     * 组装分页结果，当前页不满且可推算出总数时不再获取总数
+     * 总数取自近似总数缓存时返回{@link CountedPage}，由控制器告知调用方
+     * @param content 当前页数据
+     * @param pageable 分页参数
+     * @param criteria 查询条件，用于计数缓存
+     * @param spec 过滤条件
+     * @param approximateCount 是否接受近似总数
+     * @return 分页结果
+     */
+    private <T> Page<T> countedPage(List<T> content, Pageable pageable, BookCriteria criteria,
+                                    Specification<Book> spec, boolean approximateCount) {
+        BookCount[] count = new BookCount[1];
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            count[0] = bookCountCache.count(criteria, approximateCount, () -> bookDAO.count(spec));
+            return count[0].getTotal();
+        });
+        if (count[0] != null && count[0].isApproximate()) {
+            return new CountedPage<>(content, pageable, count[0].getTotal(), true);
+        }
+        return page;
+    }
+
+    /**
+     * 游标分页查询，多查一条判断是否有下一页，不执行COUNT
+     * @param spec 过滤条件，可为null
+     * @param request 游标分页请求
+     * @return 游标分页结果
+     */
+    private CursorSlice<Book> findSlice(Specification<Book> spec, BookCursorRequest request) {
+        Specification<Book> where = Specification.where(spec).and(request.afterCursor());
+        return request.toSlice(bookDAO.findAll(where, request.getSort(), request.getSize() + 1));
+    }
+
+    /**
+     * 搜索耗时，搜索类型已由策略工厂校验，标签取值有限
+     * @param searchType 搜索类型
+     * @param pagination 分页方式（offset/cursor）
+     * @return 计时器
+     */
+    private Timer searchTimer(String searchType, String pagination) {
+        return Timer.builder("book.search")
+                .description("Book search latency per search strategy")
+                .tag("type", searchType)
+                .tag("pagination", pagination)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 取规范化后的关键词，全为空白的关键词按空串匹配全部图书
+     * @param criteria 关键词搜索条件
+     * @return 关键词
+     */
+    private static String keywordOf(BookCriteria criteria) {
+        return criteria.getKeyword() == null ? "" : criteria.getKeyword();
+    }
+
+    /**
+     * 构建多条件查询的过滤条件
+     * @param criteria 查询条件
+     * @return 过滤条件
+     */
+    private Specification<Book> criteriaSpecification(BookCriteria criteria) {
+        String category = criteria.getCategory();
+        BookStatus status = criteria.getStatus();
+        Double minPrice = criteria.getMinPrice();
+        Double maxPrice = criteria.getMaxPrice();
+        LocalDate startDate = criteria.getStartDate();
+        LocalDate endDate = criteria.getEndDate();
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             if (category != null) {
@@ -145,11 +550,99 @@ public class BookServiceImpl implements BookService {
             }
 
             return cb.and(predicates.toArray(new Predicate[0]));
-        }, pageable);
+        };
+    }
+
+    /**
+     * 按ID列表获取图书，先查图书缓存，未命中的一次性从数据库加载并回填缓存
+     * @param ids 图书ID列表
+     * @return 图书列表，顺序与ID列表一致，已不存在的图书会被跳过
+     */
+    private List<Book> resolveBooks(List<Long> ids) {
+        // 两级缓存批量查询，Redis部分只需一次MGET
+        Map<Long, Book> found = bookCache.getAll(ids);
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            if (!found.containsKey(id)) {
+                missingIds.add(id);
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            // 加载结果回填图书缓存，在主库上查询；同一页的并发未命中合并为一次查询
+            List<Book> loadedBooks = cacheLoader.singleFlight(BOOK_LOAD_PREFIX + missingIds, () -> {
+                List<Book> loaded = ReplicaRoutingDataSource.readPrimary(() -> bookDAO.findAllById(missingIds));
+                bookCache.putAll(loaded);
+                return loaded;
+            });
+            for (Book book : loadedBooks) {
+                found.put(book.getId(), book);
+            }
+        }
+
+        List<Book> books = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = found.get(id);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    /**
+     * 发布图书变更事件，事务提交后由监听方同步内存索引
+     * @param type 变更类型
+     * @param id 图书ID
+     * @param book 变更后的图书，删除时为null
+     */
+    private void publishChange(BookChangeEvent.Type type, Long id, Book book) {
+        publishChange(type, id, book, null);
+    }
+
+    /**
+     * 发布图书变更事件，附带变更前的图书，用于判断哪些查询缓存受影响
+     * @param type 变更类型
+     * @param id 图书ID
+     * @param book 变更后的图书，删除时为null
+     * @param previous 变更前的图书
+     */
+    private void publishChange(BookChangeEvent.Type type, Long id, Book book, Book previous) {
+        eventPublisher.publishEvent(new BookChangeEvent(type, id, book, previous));
+    }
+
+    /**
+     * 复制图书当前状态，避免后续修改同一个实体时影响变更前快照
+     * @param book 图书实体
+     * @return 图书快照
+     */
+    private Book snapshot(Book book) {
+        Book copy = new Book();
+        BeanUtils.copyProperties(book, copy);
+        return copy;
     }
 
     /**
-     * 从DTO更新图书信息
+     * 总副本数变化时按差值调整可借副本数
+     * 可借副本数由Redis库存维护，不按请求中的值覆盖；用增量UPDATE与库存写回叠加，
+     * 提交后库存监听到总数变化会按数据库重新加载
+     * @param previous 变更前的图书
+     * @param book 已保存的图书，可借副本数会同步更新
+     */
+    private void adjustAvailableCopies(Book previous, Book book) {
+        int before = previous.getTotalCopies() == null ? 0 : previous.getTotalCopies();
+        int after = book.getTotalCopies() == null ? 0 : book.getTotalCopies();
+        if (before == after) {
+            return;
+        }
+        bookDAO.adjustAvailableCopies(book.getId(), after - before);
+        if (book.getAvailableCopies() != null) {
+            book.setAvailableCopies(book.getAvailableCopies() + after - before);
+        }
+    }
+
+    /**
+     * 从DTO更新图书信息，不包括可借副本数
      * @param book 图书实体
      * @param bookDTO 图书DTO
      */
@@ -164,79 +657,82 @@ public class BookServiceImpl implements BookService {
         book.setPrice(bookDTO.getPrice());
         book.setLocation(bookDTO.getLocation());
         book.setTotalCopies(bookDTO.getTotalCopies());
-        book.setAvailableCopies(bookDTO.getAvailableCopies());
     }
 
     @Override
     @Transactional
     public Book addBook(Book book) {
         Book savedBook = bookDAO.save(book);
-        // 清除列表缓存
-        redisUtils.delete(BOOK_LIST_CACHE_KEY);
+        // 列表索引在事务提交后更新
+        publishChange(BookChangeEvent.Type.CREATED, savedBook.getId(), savedBook);
         return savedBook;
     }
 
     @Override
     @Transactional
     public Book updateBook(Long id, Book book) {
-        if (!bookDAO.existsById(id)) {
-            throw new RuntimeException("Book not found with id: " + id);
-        }
+        Book previous = bookDAO.findById(id)
+                .map(this::snapshot)
+                .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
         book.setId(id);
+        // 调用方传入的实体不带版本号，以当前版本为准
+        book.setVersion(previous.getVersion());
+        book.setAvailableCopies(previous.getAvailableCopies());
         Book updatedBook = bookDAO.save(book);
-        // 清除相关缓存
-        redisUtils.delete(BOOK_CACHE_PREFIX + id);
-        redisUtils.delete(BOOK_LIST_CACHE_KEY);
+        adjustAvailableCopies(previous, updatedBook);
+        // 图书缓存在事务提交后由BookCache根据变更事件清除，列表索引只保存ID，无需变更
+        publishChange(BookChangeEvent.Type.UPDATED, id, updatedBook, previous);
         return updatedBook;
     }
 
-    @Override
-    @Transactional
-    public void deleteBook(Long id) {
-        if (!bookDAO.existsById(id)) {
-            throw new RuntimeException("Book not found with id: " + id);
-        }
-        bookDAO.deleteById(id);
-        // 清除相关缓存
-        redisUtils.delete(BOOK_CACHE_PREFIX + id);
-        redisUtils.delete(BOOK_LIST_CACHE_KEY);
-    }
-
     @Override
     public Book getBookById(Long id) {
-        // 先从缓存中获取
-        String cacheKey = BOOK_CACHE_PREFIX + id;
-        Object cachedBook = redisUtils.get(cacheKey);
+        // 先从两级缓存中获取
+        Book cachedBook = bookCache.get(id);
         if (cachedBook != null) {
-            return (Book) cachedBook;
+            return cachedBook;
         }
 
-        // 缓存中没有，从数据库获取
-        Book book = bookDAO.findById(id)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
-        
-        // 放入缓存
-        redisUtils.set(cacheKey, book, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-        return book;
+        // 缓存中没有，从数据库获取并放入缓存，同一本书的并发未命中只有一个调用方回源
+        return cacheLoader.singleFlight(BOOK_LOAD_PREFIX + id, () -> {
+            Book book = bookDAO.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
+            bookCache.put(book);
+            return book;
+        });
     }
 
     @Override
     public List<Book> getAllBooks() {
-        // 先从缓存中获取
-        Object cachedBooks = redisUtils.get(BOOK_LIST_CACHE_KEY);
-        if (cachedBooks != null) {
-            return (List<Book>) cachedBooks;
-        }
+        return getBooksPage(0, -1);
+    }
 
-        // 缓存中没有，从数据库获取
-        List<Book> books = bookDAO.findAll();
-        
-        // 放入缓存
-        redisUtils.set(BOOK_LIST_CACHE_KEY, books, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-        return books;
+    @Override
+    public List<Book> getBooksPage(int page, int size) {
+        long start = size < 0 ? 0 : (long) page * size;
+        long end = size < 0 ? -1 : start + size - 1;
+
+        // 先从ID索引中获取
+        List<Long> ids = bookListCache.getIds(start, end);
+        if (ids == null) {
+            // 索引不存在，只从数据库加载ID重建索引，图书内容按需加载
+            // 并发请求合并为一次重建
+            List<Long> allIds = cacheLoader.singleFlight(BookListCache.BOOK_LIST_IDS_KEY, () -> {
+                // 先读代数再查库，查库期间有增删提交时放弃写入索引
+                long generation = bookListCache.generation();
+                List<Long> loadedIds = bookDAO.findAllIds();
+                bookListCache.rebuild(loadedIds, generation);
+                return loadedIds;
+            });
+            ids = end < 0
+                    ? allIds
+                    : allIds.subList((int) Math.min(start, allIds.size()), (int) Math.min(end + 1, allIds.size()));
+        }
+        return resolveBooks(ids);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Book> searchBooks(String keyword, Pageable pageable) {
         // 搜索功能不使用缓存，因为搜索结果经常变化
         return bookDAO.findByTitleContainingOrAuthorContaining(keyword, keyword, pageable);
@@ -245,34 +741,43 @@ public class BookServiceImpl implements BookService {
     @Override
     public List<Book> getBooksByCategory(String category) {
         String cacheKey = BOOK_CACHE_PREFIX + "category:" + category;
-        // 先从缓存中获取
-        Object cachedBooks = redisUtils.get(cacheKey);
-        if (cachedBooks != null) {
-            return (List<Book>) cachedBooks;
-        }
-
-        // 缓存中没有，从数据库获取
-        List<Book> books = bookDAO.findByCategory(category);
-        
-        // 放入缓存
-        redisUtils.set(cacheKey, books, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-        return books;
+        // 先从缓存中获取，未命中时同一个key只有一个调用方回源
+        return cacheLoader.load(cacheKey, CACHE_EXPIRE_TIME, TimeUnit.MINUTES,
+                () -> bookDAO.findByCategory(category));
     }
 
     @Override
     public List<Book> getBooksByStatus(String status) {
         String cacheKey = BOOK_CACHE_PREFIX + "status:" + status;
-        // 先从缓存中获取
-        Object cachedBooks = redisUtils.get(cacheKey);
-        if (cachedBooks != null) {
-            return (List<Book>) cachedBooks;
-        }
+        BookStatus bookStatus = BookStatus.valueOf(status);
+        // 先从缓存中获取，未命中时同一个key只有一个调用方回源
+        return cacheLoader.load(cacheKey, CACHE_EXPIRE_TIME, TimeUnit.MINUTES,
+                () -> bookDAO.findByStatus(bookStatus));
+    }
 
-        // 缓存中没有，从数据库获取
-        List<Book> books = bookDAO.findByStatus(status);
-        
-        // 放入缓存
-        redisUtils.set(cacheKey, books, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-        return books;
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookImportResult importBooks(InputStream in, BookImportFormat format) {
+        // 每批在导入器内独立提交，外层不开启事务
+        return bookImporter.importBooks(in, format);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(OutputStream out, BookImportFormat format, boolean gzip) {
+        // 流式结果集需要在整个导出期间保持连接，只读事务覆盖整个写出过程
+        return bookExporter.export(out, format, gzip);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookAvailability getAvailability(Long id) {
+        return new BookAvailability(id, bookInventory.available(id));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, ConflictStats> getConflictStats() {
+        return optimisticLockRetry.stats();
     }
 }
@@ -0,0 +1,279 @@
+package com.example.demo.Service.impl;
+
+import com.example.demo.Service.BorrowService;
+import com.example.demo.borrow.BorrowRecordBatcher;
+import com.example.demo.cache.UserSummaryCache;
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.exception.BorrowLimitExceededException;
+import com.example.demo.exception.BorrowRecordNotFoundException;
+import com.example.demo.inventory.BookInventory;
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.BorrowStatus;
+import com.example.demo.model.UserSummary;
+import com.example.demo.reservation.ReservationQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 借阅服务实现类
+ * 借书时优先使用预约保留的副本，否则库存扣减走Redis，借阅记录组提交批量写入；还书和续借都是一条带条件的UPDATE，不加载实体、不持有行锁
+ */
+@Service
+@Transactional
+public class BorrowServiceImpl implements BorrowService {
+
+    /**
+     * 允许归还的借阅状态
+     */
+    private static final List<BorrowStatus> RETURNABLE_STATUSES = Arrays.asList(BorrowStatus.BORROWED, BorrowStatus.OVERDUE);
+
+    private final BorrowRecordDAO borrowRecordDAO;
+    private final BorrowRecordBatcher borrowRecordBatcher;
+    private final BookInventory bookInventory;
+    private final ReservationQueue reservationQueue;
+    private final UserSummaryCache userSummaryCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long loanDays;
+    private final long maxLoanDays;
+    private final long writeTimeoutMillis;
+    private final long maxLoans;
+    private final double maxOutstandingFine;
+
+    /**
+     * 构造函数
+     * @param borrowRecordDAO 借阅记录数据访问对象
+     * @param borrowRecordBatcher 借阅记录批量写入
+     * @param bookInventory 图书副本库存
+     * @param reservationQueue 预约排队，提供预约保留的副本
+     * @param userSummaryCache 借阅人汇总缓存，用于借书资格检查
+     * @param eventPublisher 事件发布器，用于发布借阅事件
+     * @param loanDays 借期（天），续借时每次顺延的天数
+     * @param maxLoanDays 从借出起算的最长借阅天数
+     * @param writeTimeoutMillis 等待借阅记录写入的最长时间（毫秒）
+     * @param maxLoans 每人最多同时借阅的图书数
+     * @param maxOutstandingFine 允许借书的最大未结罚款
+     */
+    public BorrowServiceImpl(
+            BorrowRecordDAO borrowRecordDAO,
+            BorrowRecordBatcher borrowRecordBatcher,
+            BookInventory bookInventory,
+            ReservationQueue reservationQueue,
+            UserSummaryCache userSummaryCache,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.borrow.loan-days:30}") long loanDays,
+            @Value("${app.borrow.max-loan-days:90}") long maxLoanDays,
+            @Value("${app.borrow.write-timeout:5000}") long writeTimeoutMillis,
+            @Value("${app.borrow.max-loans:10}") long maxLoans,
+            @Value("${app.borrow.max-outstanding-fine:10}") double maxOutstandingFine
+    ) {
+        this.borrowRecordDAO = borrowRecordDAO;
+        this.borrowRecordBatcher = borrowRecordBatcher;
+        this.bookInventory = bookInventory;
+        this.reservationQueue = reservationQueue;
+        this.userSummaryCache = userSummaryCache;
+        this.eventPublisher = eventPublisher;
+        this.loanDays = loanDays;
+        this.maxLoanDays = maxLoanDays;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        this.maxLoans = maxLoans;
+        this.maxOutstandingFine = maxOutstandingFine;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BorrowRecordDTO checkout(Long userId, Long bookId) {
+        reserveLoanSlot(userId);
+        // 名额在借出事件计入借阅数后释放；记录写入结果未知时，等写入完成后再释放
+        boolean releaseLater = false;
+        try {
+            // 预约保留的副本已从库存中扣除；没有时从库存借出，库存不足直接失败，不访问数据库
+            boolean held = reservationQueue.claimHold(userId, bookId);
+            if (!held) {
+                bookInventory.reserve(bookId);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            BorrowRecordDTO record = new BorrowRecordDTO(null, bookId, null, userId,
+                    now, now.plusDays(loanDays), null, BorrowStatus.BORROWED, 0.0);
+            CompletableFuture<BorrowRecordDTO> written = borrowRecordBatcher.submit(record);
+            try {
+                written.get(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                // 记录确定未写入，归还副本
+                returnCopy(userId, bookId, held);
+                Throwable cause = e.getCause();
+                if (cause instanceof DataIntegrityViolationException) {
+                    throw new IllegalArgumentException("User " + userId + " or book " + bookId + " does not exist");
+                }
+                throw cause instanceof RuntimeException
+                        ? (RuntimeException) cause
+                        : new IllegalStateException("Failed to save borrow record", cause);
+            } catch (InterruptedException e) {
+                // 记录可能仍会写入，不归还副本
+                Thread.currentThread().interrupt();
+                releaseLater = true;
+                publishWhenWritten(written, record, held);
+                throw new IllegalStateException("Interrupted while saving borrow record", e);
+            } catch (TimeoutException e) {
+                releaseLater = true;
+                publishWhenWritten(written, record, held);
+                throw new IllegalStateException("Timed out saving borrow record", e);
+            }
+
+            if (held) {
+                reservationQueue.complete(userId, bookId);
+            }
+            eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.CHECKED_OUT, record));
+            return record;
+        } finally {
+            if (!releaseLater) {
+                userSummaryCache.releaseLoan(userId);
+            }
+        }
+    }
+
+    @Override
+    public BorrowRecordDTO returnBook(Long recordId) {
+        BorrowRecordDTO record = findRecord(recordId);
+        BorrowStatus previousStatus = record.getStatus();
+        LocalDateTime now = LocalDateTime.now();
+        if (borrowRecordDAO.markReturned(recordId, now, BorrowStatus.RETURNED, RETURNABLE_STATUSES) == 0) {
+            throw new IllegalArgumentException("Borrow record " + recordId + " is already returned");
+        }
+        record.setStatus(BorrowStatus.RETURNED);
+        record.setReturnDate(now);
+        // 副本在事务提交后由库存监听归还
+        eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.RETURNED, record, previousStatus));
+        return record;
+    }
+
+    @Override
+    public BorrowRecordDTO renew(Long recordId) {
+        BorrowRecordDTO record = findRecord(recordId);
+        LocalDateTime now = LocalDateTime.now();
+        if (record.getStatus() != BorrowStatus.BORROWED || record.getDueDate().isBefore(now)) {
+            throw new IllegalArgumentException("Only borrowed records that are not overdue can be renewed");
+        }
+        LocalDateTime latestDueDate = record.getBorrowDate().plusDays(maxLoanDays);
+        if (!record.getDueDate().isBefore(latestDueDate)) {
+            throw new IllegalArgumentException("Borrow record " + recordId + " has reached the maximum loan period");
+        }
+        LocalDateTime newDueDate = record.getDueDate().plusDays(loanDays);
+        if (newDueDate.isAfter(latestDueDate)) {
+            newDueDate = latestDueDate;
+        }
+        if (borrowRecordDAO.extendDueDate(recordId, record.getDueDate(), newDueDate, BorrowStatus.BORROWED, now) == 0) {
+            throw new OptimisticLockingFailureException("Borrow record " + recordId + " was modified concurrently");
+        }
+        record.setDueDate(newDueDate);
+        eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.RENEWED, record));
+        return record;
+    }
+
+    @Override
+    public BorrowRecordDTO payFine(Long recordId) {
+        BorrowRecordDTO record = findRecord(recordId);
+        if (borrowRecordDAO.markFinePaid(recordId, RETURNABLE_STATUSES, LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException("Borrow record " + recordId + " has no unpaid fine or is not returned yet");
+        }
+        eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.FINE_PAID, record));
+        return record;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BorrowRecordDTO> findByUser(Long userId, Pageable pageable) {
+        // 排序固定为借阅时间倒序
+        Pageable unsorted = pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+                : Pageable.unpaged();
+        return borrowRecordDAO.findViewsByUserId(userId, unsorted);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserSummary getSummary(Long userId) {
+        return userSummaryCache.get(userId);
+    }
+
+    /**
+     * 借书资格检查并占用名额：借阅数（含正在借出的）未达上限、没有逾期、未结罚款不超过上限
+     * 检查和占用在Redis中一步完成，并发借书不会超过上限
+     */
+    private void reserveLoanSlot(Long userId) {
+        UserSummaryCache.LoanSlot slot = userSummaryCache.reserveLoan(userId, maxLoans, maxOutstandingFine);
+        switch (slot) {
+            case RESERVED:
+                return;
+            case OVERDUE:
+                throw new BorrowLimitExceededException("User " + userId + " has overdue loans");
+            case FINES_OUTSTANDING:
+                throw new BorrowLimitExceededException("User " + userId + " has outstanding fines of "
+                        + userSummaryCache.get(userId).getOutstandingFines());
+            default:
+                throw new BorrowLimitExceededException("User " + userId + " already has " + maxLoans
+                        + " books on loan");
+        }
+    }
+
+    /**
+     * 等待超时的记录写入完成后补发借出事件或归还副本，并释放借书名额
+     * @param written 记录写入结果
+     * @param record 借阅记录
+     * @param held 副本是否来自预约保留
+     */
+    private void publishWhenWritten(CompletableFuture<BorrowRecordDTO> written, BorrowRecordDTO record,
+                                    boolean held) {
+        written.whenComplete((saved, error) -> {
+            try {
+                if (error == null) {
+                    if (held) {
+                        reservationQueue.complete(record.getUserId(), record.getBookId());
+                    }
+                    eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.CHECKED_OUT, record));
+                } else {
+                    // 记录最终未写入，与等待期间失败一样归还副本
+                    returnCopy(record.getUserId(), record.getBookId(), held);
+                }
+            } finally {
+                userSummaryCache.releaseLoan(record.getUserId());
+            }
+        });
+    }
+
+    /**
+     * 借阅记录未写入时归还副本：来自预约保留的还给该用户，否则还回库存
+     * @param userId 借阅人ID
+     * @param bookId 图书ID
+     * @param held 副本是否来自预约保留
+     */
+    private void returnCopy(Long userId, Long bookId, boolean held) {
+        if (held) {
+            reservationQueue.restoreHold(userId, bookId);
+        } else {
+            bookInventory.release(bookId);
+        }
+    }
+
+    private BorrowRecordDTO findRecord(Long recordId) {
+        return borrowRecordDAO.findViewById(recordId)
+                .orElseThrow(() -> new BorrowRecordNotFoundException("Borrow record not found with id: " + recordId));
+    }
+}
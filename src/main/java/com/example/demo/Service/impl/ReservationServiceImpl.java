@@ -0,0 +1,138 @@
+package com.example.demo.Service.impl;
+
+import com.example.demo.Service.ReservationService;
+import com.example.demo.cache.UserSummaryCache;
+import com.example.demo.event.ReservationEvent;
+import com.example.demo.exception.BorrowLimitExceededException;
+import com.example.demo.exception.ReservationNotFoundException;
+import com.example.demo.inventory.BookInventory;
+import com.example.demo.mapper.ReservationDAO;
+import com.example.demo.model.Book;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.ReservationDTO;
+import com.example.demo.model.ReservationStatus;
+import com.example.demo.model.User;
+import com.example.demo.reservation.ReservationQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 预约服务实现类
+ * 排队顺序和副本保留由ReservationQueue维护，这里负责校验和持久化
+ */
+@Service
+@Transactional
+public class ReservationServiceImpl implements ReservationService {
+
+    private static final List<ReservationStatus> ACTIVE_STATUSES =
+            Arrays.asList(ReservationStatus.PENDING, ReservationStatus.APPROVED);
+
+    private final ReservationDAO reservationDAO;
+    private final ReservationQueue reservationQueue;
+    private final BookInventory bookInventory;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserSummaryCache userSummaryCache;
+    private final long maxWaitDays;
+    private final long maxReservations;
+
+    /**
+     * 构造函数
+     * @param reservationDAO 预约记录数据访问对象
+     * @param reservationQueue 预约排队
+     * @param bookInventory 图书副本库存
+     * @param entityManager 实体管理器，用于引用图书和用户而不加载
+     * @param eventPublisher 事件发布器，用于发布预约事件
+     * @param userSummaryCache 借阅人汇总缓存，用于预约数检查
+     * @param maxWaitDays 排队的最长等待天数
+     * @param maxReservations 每人最多同时有效的预约数
+     */
+    public ReservationServiceImpl(
+            ReservationDAO reservationDAO,
+            ReservationQueue reservationQueue,
+            BookInventory bookInventory,
+            EntityManager entityManager,
+            ApplicationEventPublisher eventPublisher,
+            UserSummaryCache userSummaryCache,
+            @Value("${app.reservation.max-wait-days:30}") long maxWaitDays,
+            @Value("${app.reservation.max-reservations:5}") long maxReservations
+    ) {
+        this.reservationDAO = reservationDAO;
+        this.reservationQueue = reservationQueue;
+        this.bookInventory = bookInventory;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.userSummaryCache = userSummaryCache;
+        this.maxWaitDays = maxWaitDays;
+        this.maxReservations = maxReservations;
+    }
+
+    @Override
+    public ReservationDTO reserve(Long userId, Long bookId) {
+        if (bookInventory.available(bookId) > 0) {
+            throw new IllegalArgumentException("Book " + bookId + " has available copies, borrow it directly");
+        }
+        if (userSummaryCache.get(userId).getActiveReservations() >= maxReservations) {
+            throw new BorrowLimitExceededException("User " + userId + " already has " + maxReservations
+                    + " active reservations");
+        }
+        if (reservationDAO.existsByStatus(bookId, userId, ACTIVE_STATUSES)) {
+            throw new IllegalArgumentException("User " + userId + " already reserved book " + bookId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Reservation reservation = new Reservation();
+        reservation.setBook(entityManager.getReference(Book.class, bookId));
+        reservation.setUser(entityManager.getReference(User.class, userId));
+        reservation.setReservationDate(now);
+        reservation.setExpiryDate(now.plusDays(maxWaitDays));
+        reservation.setStatus(ReservationStatus.PENDING);
+        try {
+            reservationDAO.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("User " + userId + " does not exist");
+        }
+
+        ReservationDTO dto = new ReservationDTO(reservation.getId(), bookId, userId,
+                reservation.getReservationDate(), reservation.getExpiryDate(), reservation.getStatus());
+        // 提交失败时队列中留下的ID会在批准时被跳过
+        reservationQueue.enqueue(dto);
+        eventPublisher.publishEvent(new ReservationEvent(ReservationEvent.Type.CREATED, dto));
+        return dto;
+    }
+
+    @Override
+    public ReservationDTO cancel(Long id) {
+        ReservationDTO reservation = findById(id);
+        ReservationStatus status = reservation.getStatus();
+        if (!ACTIVE_STATUSES.contains(status)
+                || reservationDAO.updateStatus(Collections.singletonList(id), ReservationStatus.CANCELLED,
+                        Collections.singletonList(status), LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException("Reservation " + id + " is no longer active");
+        }
+        reservation.setStatus(ReservationStatus.CANCELLED);
+        if (status == ReservationStatus.PENDING) {
+            reservationQueue.dequeue(reservation);
+        } else {
+            reservationQueue.releaseHold(reservation);
+        }
+        eventPublisher.publishEvent(new ReservationEvent(ReservationEvent.Type.CANCELLED, reservation));
+        return reservation;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReservationDTO findById(Long id) {
+        return reservationDAO.findViewById(id)
+                .orElseThrow(() -> new ReservationNotFoundException("Reservation not found with id: " + id));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.demo.borrow;
+
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.model.BorrowRecordDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 借阅记录批量写入（组提交）
+ * 并发的借书请求把待插入记录放入队列后等待结果，写入线程每次取走队列中已有的全部记录（最多batchSize条），
+ * 用一次JDBC批处理、一个事务写入；负载越高每批越大，低负载时单条也会立即写入，不额外等待
+ */
+@Component
+public class BorrowRecordBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowRecordBatcher.class);
+
+    private final BorrowRecordDAO borrowRecordDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final BlockingQueue<Pending> queue;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "borrow-record-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running = true;
+
+    /**
+     * 构造函数
+     * @param borrowRecordDAO 借阅记录数据访问对象
+     * @param transactionManager 事务管理器
+     * @param batchSize 每批最多写入的记录数
+     * @param queueCapacity 等待写入的最大记录数，队列满时提交方阻塞
+     */
+    public BorrowRecordBatcher(
+            BorrowRecordDAO borrowRecordDAO,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.borrow.batch-size:500}") int batchSize,
+            @Value("${app.borrow.queue-capacity:10000}") int queueCapacity
+    ) {
+        this.borrowRecordDAO = borrowRecordDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.execute(this::writeLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.shutdownNow();
+        // 未写入的记录直接失败，由调用方回滚库存
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (Pending pending : remaining) {
+            pending.future.completeExceptionally(new RejectedExecutionException("Borrow record writer stopped"));
+        }
+    }
+
+    /**
+     * 提交一条待插入的借阅记录
+     * @param record 借阅记录，写入成功后回填ID
+     * @return 写入结果，失败时以异常完成
+     */
+    public CompletableFuture<BorrowRecordDTO> submit(BorrowRecordDTO record) {
+        Pending pending = new Pending(record);
+        if (!running) {
+            pending.future.completeExceptionally(new RejectedExecutionException("Borrow record writer stopped"));
+            return pending.future;
+        }
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 写入一批记录，整批失败时逐条重试，只让出错的记录失败
+     */
+    private void write(List<Pending> batch) {
+        try {
+            insert(batch);
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.debug("Borrow record batch insert failed, retrying one by one: {}", e.getMessage());
+        }
+        for (Pending pending : batch) {
+            pending.record.setId(null);
+            try {
+                insert(Collections.singletonList(pending));
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void insert(List<Pending> batch) {
+        List<BorrowRecordDTO> records = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            records.add(pending.record);
+        }
+        transactionTemplate.executeWithoutResult(status -> borrowRecordDAO.batchInsert(records));
+        for (Pending pending : batch) {
+            pending.future.complete(pending.record);
+        }
+    }
+
+    /**
+     * 队列中的待写入记录
+     */
+    private static final class Pending {
+        private final BorrowRecordDTO record;
+        private final CompletableFuture<BorrowRecordDTO> future = new CompletableFuture<>();
+
+        Pending(BorrowRecordDTO record) {
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.demo.borrow;
+
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.event.LoansOverdueEvent;
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.model.BorrowDueDate;
+import com.example.demo.model.BorrowStatus;
+import com.example.demo.utils.RedisUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逾期检测与罚款累计
+ * 未归还的借阅记录按下次触发时间（应还时间，逾期后为下一个整逾期日）放在Redis有序集合中，
+ * 后台任务每个周期用Lua脚本原子地取出已到期的记录，同一罚款金额的记录合并为一条UPDATE；
+ * 多实例部署时每条记录只会被一个实例取出。罚款只由应还日期和当前时间决定，重复触发结果不变，
+ * 启动时按status索引把所有未归还记录重新放入集合即可恢复；每批处理后按借阅人发布逾期数和罚款增量
+ */
+@Component
+public class OverdueScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueScheduler.class);
+
+    public static final String DUE_KEY = "borrow:due";
+
+    private static final int RECOVER_BATCH_SIZE = 1000;
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * 未归还的借阅状态
+     */
+    private static final List<BorrowStatus> ACTIVE_STATUSES = Arrays.asList(BorrowStatus.BORROWED, BorrowStatus.OVERDUE);
+
+    private final RedisUtils redisUtils;
+    private final BorrowRecordDAO borrowRecordDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final BigDecimal dailyFine;
+    private final BigDecimal maxFine;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "borrow-overdue-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 构造函数
+     * @param redisUtils Redis工具类
+     * @param borrowRecordDAO 借阅记录数据访问对象
+     * @param transactionManager 事务管理器
+     * @param eventPublisher 事件发布器，用于发布逾期事件
+     * @param pollIntervalMillis 检查到期记录的间隔（毫秒）
+     * @param batchSize 每批处理的最大记录数
+     * @param dailyFine 每逾期一天的罚款
+     * @param maxFine 单条借阅记录的罚款上限
+     */
+    public OverdueScheduler(
+            RedisUtils redisUtils,
+            BorrowRecordDAO borrowRecordDAO,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.borrow.overdue.poll-interval:1000}") long pollIntervalMillis,
+            @Value("${app.borrow.overdue.batch-size:500}") int batchSize,
+            @Value("${app.borrow.overdue.daily-fine:0.5}") BigDecimal dailyFine,
+            @Value("${app.borrow.overdue.max-fine:50}") BigDecimal maxFine
+    ) {
+        this.redisUtils = redisUtils;
+        this.borrowRecordDAO = borrowRecordDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.batchSize = batchSize;
+        this.dailyFine = dailyFine;
+        this.maxFine = maxFine;
+    }
+
+    /**
+     * 启动后从数据库恢复待触发的记录，再开始定期检查
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(() -> {
+            try {
+                int recovered = recover();
+                log.info("Overdue scheduler recovered {} active borrow records", recovered);
+            } catch (RuntimeException e) {
+                log.warn("Overdue scheduler recovery failed: {}", e.getMessage());
+            }
+        });
+        executor.scheduleWithFixedDelay(this::tickQuietly, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 借出、续借后按新的应还日期加入，归还后移除
+     * @param event 借阅事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowEvent(BorrowEvent event) {
+        Long id = event.getRecord().getId();
+        if (event.getType() == BorrowEvent.Type.RETURNED) {
+            redisUtils.zRemove(DUE_KEY, id);
+        } else if (event.getType() != BorrowEvent.Type.FINE_PAID) {
+            redisUtils.zAdd(DUE_KEY, id, toMillis(event.getRecord().getDueDate()));
+        }
+    }
+
+    /**
+     * 按status索引分批读取所有未归还的记录，以应还时间放入集合；已逾期的记录会在下个周期重新计算罚款
+     * @return 恢复的记录数
+     */
+    public int recover() {
+        int recovered = 0;
+        Long lastId = 0L;
+        List<BorrowDueDate> batch;
+        do {
+            batch = borrowRecordDAO.findDueDatesAfter(ACTIVE_STATUSES, lastId, PageRequest.of(0, RECOVER_BATCH_SIZE));
+            if (!batch.isEmpty()) {
+                Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>(batch.size() * 2);
+                for (BorrowDueDate due : batch) {
+                    tuples.add(new DefaultTypedTuple<>(due.getId(), (double) toMillis(due.getDueDate())));
+                }
+                redisUtils.zAdd(DUE_KEY, tuples);
+                recovered += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == RECOVER_BATCH_SIZE);
+        return recovered;
+    }
+
+    /**
+     * 处理所有已到期的记录
+     * @return 标记为逾期或更新罚款的记录数
+     */
+    public int tick() {
+        int updated = 0;
+        List<Long> ids;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            ids = popDue(now);
+            if (!ids.isEmpty()) {
+                updated += process(ids, now);
+            }
+        } while (ids.size() == batchSize);
+        return updated;
+    }
+
+    /**
+     * 逾期天数对应的罚款，到期当天即算第一天
+     * @param overdueDays 逾期天数
+     * @return 罚款金额，不超过上限
+     */
+    public double fineFor(long overdueDays) {
+        return dailyFine.multiply(BigDecimal.valueOf(overdueDays)).min(maxFine).doubleValue();
+    }
+
+    private void tickQuietly() {
+        try {
+            int updated = tick();
+            if (updated > 0) {
+                log.debug("Updated {} overdue borrow records", updated);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Overdue check failed: {}", e.getMessage());
+        }
+    }
+
+    private List<Long> popDue(LocalDateTime now) {
+        List<Object> popped = redisUtils.zPopByScore(DUE_KEY, toMillis(now), batchSize);
+        List<Long> ids = new ArrayList<>(popped.size());
+        for (Object id : popped) {
+            ids.add(((Number) id).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * 按罚款金额分组更新一批到期记录，并把未达罚款上限的记录按下一个逾期日重新放入集合；
+     * 写入失败时整批放回，下个周期重试
+     */
+    private int process(List<Long> ids, LocalDateTime now) {
+        long nowMillis = toMillis(now);
+        Set<ZSetOperations.TypedTuple<Object>> next = new HashSet<>(ids.size() * 2);
+        Map<Long, Integer> newlyOverdue = new HashMap<>();
+        Map<Long, Double> fineIncrease = new HashMap<>();
+        int updated;
+        try {
+            updated = transactionTemplate.execute(status -> {
+                Map<Double, List<Long>> byFine = new LinkedHashMap<>();
+                // 已归还的记录不会被查出，直接丢弃
+                for (BorrowDueDate due : borrowRecordDAO.findDueDates(ids, ACTIVE_STATUSES)) {
+                    long dueMillis = toMillis(due.getDueDate());
+                    if (dueMillis > nowMillis) {
+                        // 取出后被续借，按新的应还时间放回
+                        next.add(new DefaultTypedTuple<>(due.getId(), (double) dueMillis));
+                        continue;
+                    }
+                    long overdueDays = (nowMillis - dueMillis) / DAY_MILLIS + 1;
+                    double fine = fineFor(overdueDays);
+                    byFine.computeIfAbsent(fine, k -> new ArrayList<>()).add(due.getId());
+                    if (due.getStatus() == BorrowStatus.BORROWED) {
+                        newlyOverdue.merge(due.getUserId(), 1, Integer::sum);
+                    }
+                    double previousFine = due.getFineAmount() == null ? 0.0 : due.getFineAmount();
+                    if (fine > previousFine) {
+                        fineIncrease.merge(due.getUserId(), fine - previousFine, Double::sum);
+                    }
+                    if (fine < maxFine.doubleValue()) {
+                        next.add(new DefaultTypedTuple<>(due.getId(), (double) (dueMillis + overdueDays * DAY_MILLIS)));
+                    }
+                }
+                int rows = 0;
+                for (Map.Entry<Double, List<Long>> entry : byFine.entrySet()) {
+                    rows += borrowRecordDAO.markOverdue(entry.getValue(), entry.getKey(),
+                            BorrowStatus.OVERDUE, ACTIVE_STATUSES, now);
+                }
+                return rows;
+            });
+        } catch (RuntimeException e) {
+            Set<ZSetOperations.TypedTuple<Object>> retry = new HashSet<>(ids.size() * 2);
+            for (Long id : ids) {
+                retry.add(new DefaultTypedTuple<>(id, (double) nowMillis));
+            }
+            redisUtils.zAdd(DUE_KEY, retry);
+            throw e;
+        }
+        if (!next.isEmpty()) {
+            redisUtils.zAdd(DUE_KEY, next);
+        }
+        if (!newlyOverdue.isEmpty() || !fineIncrease.isEmpty()) {
+            eventPublisher.publishEvent(new LoansOverdueEvent(newlyOverdue, fineIncrease));
+        }
+        return updated;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.model.Book;
+import com.example.demo.utils.RedisUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 图书两级缓存
+ * 一级缓存为进程内本地缓存，二级缓存为Redis
+ * 图书变更的事务提交后删除两级缓存，并通过Redis发布/订阅通知其他节点删除各自的本地缓存；
+ * 提交前删除的话，并发读取可能在删除与提交之间读到旧数据并重新写入缓存
+ */
+@Component
+public class BookCache {
+
+    public static final String BOOK_CACHE_PREFIX = "book:";
+    public static final String INVALIDATION_CHANNEL = "book:cache:invalidate";
+
+    private final RedisUtils redisUtils;
+    private final LocalCache<Long, Book> localCache;
+    private final long expireMinutes;
+
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong redisMisses = new AtomicLong();
+    private final AtomicLong redisEvictions = new AtomicLong();
+
+    /**
+     * 构造函数
+     * @param redisUtils Redis工具类
+     * @param localMaxSize 本地缓存最大条目数
+     * @param localExpireSeconds 本地缓存过期时间（秒）
+     * @param expireMinutes Redis缓存过期时间（分钟）
+     */
+    public BookCache(
+            RedisUtils redisUtils,
+            @Value("${app.book.cache.local.max-size:10000}") int localMaxSize,
+            @Value("${app.book.cache.local.expire-time:60}") long localExpireSeconds,
+            @Value("${app.book.cache.expire-time:30}") long expireMinutes
+    ) {
+        this.redisUtils = redisUtils;
+        this.localCache = new LocalCache<>(localMaxSize, localExpireSeconds, TimeUnit.SECONDS);
+        this.expireMinutes = expireMinutes;
+    }
+
+    /**
+     * 获取图书缓存，先查本地缓存，再查Redis
+     * @param id 图书ID
+     * @return 图书信息，两级缓存都未命中时返回null
+     */
+    public Book get(Long id) {
+        Book book = localCache.get(id);
+        if (book != null) {
+            return book;
+        }
+
+        Object cached = redisUtils.get(BOOK_CACHE_PREFIX + id);
+        if (cached instanceof Book) {
+            redisHits.incrementAndGet();
+            book = (Book) cached;
+            localCache.put(id, book);
+            return book;
+        }
+        redisMisses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 批量获取图书缓存，本地缓存未命中的部分通过一次MGET从Redis获取
+     * @param ids 图书ID集合
+     * @return key为图书ID，value为图书信息，只包含命中的图书
+     */
+    public Map<Long, Book> getAll(Collection<Long> ids) {
+        Map<Long, Book> found = new HashMap<>(ids.size() * 2);
+        List<Long> remoteIds = new ArrayList<>();
+        for (Long id : ids) {
+            Book book = localCache.get(id);
+            if (book != null) {
+                found.put(id, book);
+            } else {
+                remoteIds.add(id);
+            }
+        }
+        if (remoteIds.isEmpty()) {
+            return found;
+        }
+
+        List<String> keys = new ArrayList<>(remoteIds.size());
+        for (Long id : remoteIds) {
+            keys.add(BOOK_CACHE_PREFIX + id);
+        }
+        List<Object> values = redisUtils.multiGet(keys);
+        for (int i = 0; i < remoteIds.size(); i++) {
+            Object cached = values == null ? null : values.get(i);
+            if (cached instanceof Book) {
+                redisHits.incrementAndGet();
+                localCache.put(remoteIds.get(i), (Book) cached);
+                found.put(remoteIds.get(i), (Book) cached);
+            } else {
+                redisMisses.incrementAndGet();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 写入两级缓存
+     * @param book 图书信息
+     */
+    public void put(Book book) {
+        redisUtils.set(BOOK_CACHE_PREFIX + book.getId(), book, expireMinutes, TimeUnit.MINUTES);
+        localCache.put(book.getId(), book);
+    }
+
+    /**
+     * 批量写入两级缓存，Redis写入通过管道一次完成
+     * @param books 图书集合
+     */
+    public void putAll(Collection<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        Map<String, Book> entries = new HashMap<>(books.size() * 2);
+        for (Book book : books) {
+            entries.put(BOOK_CACHE_PREFIX + book.getId(), book);
+        }
+        redisUtils.multiSet(entries, expireMinutes, TimeUnit.MINUTES);
+        for (Book book : books) {
+            localCache.put(book.getId(), book);
+        }
+    }
+
+    /**
+     * 删除两级缓存，并通知其他节点删除本地缓存
+     * @param id 图书ID
+     */
+    public void evict(Long id) {
+        localCache.invalidate(id);
+        if (Boolean.TRUE.equals(redisUtils.delete(BOOK_CACHE_PREFIX + id))) {
+            redisEvictions.incrementAndGet();
+        }
+        redisUtils.publish(INVALIDATION_CHANNEL, String.valueOf(id));
+    }
+
+    /**
+     * 图书修改、删除的事务提交后删除缓存
+     * @param event 图书变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangeEvent event) {
+        if (event.getType() != BookChangeEvent.Type.CREATED) {
+            evict(event.getBookId());
+        }
+    }
+
+    /**
+     * 仅删除本节点的本地缓存
+     * 由失效消息监听器调用
+     * @param id 图书ID
+     */
+    public void evictLocal(Long id) {
+        localCache.invalidate(id);
+    }
+
+    /**
+     * 获取各层缓存的统计信息
+     * @return key为缓存层名称，value为统计信息
+     */
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("local", localCache.stats());
+        stats.put("redis", new CacheStats(redisHits.get(), redisMisses.get(), redisEvictions.get(), -1));
+        return stats;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.cache;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 图书缓存失效消息监听器
+ * 收到其他节点发布的失效消息后，删除本节点对应的本地缓存
+ */
+@Component
+public class BookCacheInvalidationListener implements MessageListener {
+
+    private final BookCache bookCache;
+
+    public BookCacheInvalidationListener(BookCache bookCache) {
+        this.bookCache = bookCache;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            bookCache.evictLocal(Long.valueOf(body.trim()));
+        } catch (NumberFormatException ignored) {
+            // 非法消息直接忽略
+        }
+    }
+}
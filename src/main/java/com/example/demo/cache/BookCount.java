@@ -0,0 +1,25 @@
+package com.example.demo.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 查询总数及其来源
+ * 调用方据此告知客户端总数是否为近似值
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCount {
+
+    /**
+     * 满足条件的图书总数
+     */
+    private long total;
+
+    /**
+     * 是否为精确总数失效后返回的近似值
+     */
+    private boolean approximate;
+}
@@ -0,0 +1,111 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.model.BookCriteria;
+import com.example.demo.utils.RedisUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 查询总数缓存
+ * 精确总数保存在每个查询条件各自的Redis Hash中，条件的登记、代数和失效由{@link BookCriteriaRegistry}完成；
+ * 图书变更只改变变更前后恰好一侧满足条件的查询的总数，只失效这些条件的精确总数。
+ * 同时另存一份不随写操作失效、只按时间过期的近似总数，供只需要"大约N条"的调用方使用
+ */
+@Component
+public class BookCountCache {
+
+    public static final String COUNT_PREFIX = "book:count:";
+    public static final String APPROXIMATE_COUNT_PREFIX = "book:count:approx:";
+
+    /**
+     * 精确总数在查询条件Hash中的字段
+     */
+    static final String EXACT_FIELD = "exact";
+
+    private final RedisUtils redisUtils;
+    private final SingleFlightCacheLoader cacheLoader;
+    private final BookCriteriaRegistry registry;
+    private final long approximateMaxAgeMinutes;
+
+    /**
+     * 构造函数
+     * @param redisUtils Redis工具类
+     * @param cacheLoader 防击穿缓存加载器，合并同一条件的并发COUNT
+     * @param expireMinutes 精确总数过期时间（分钟）
+     * @param approximateMaxAgeMinutes 近似总数最长保留时间（分钟），即近似总数允许的最大陈旧时间
+     */
+    @Autowired
+    public BookCountCache(
+            RedisUtils redisUtils,
+            SingleFlightCacheLoader cacheLoader,
+            @Value("${app.book.cache.count.expire-time:10}") long expireMinutes,
+            @Value("${app.book.cache.count.approximate-max-age:60}") long approximateMaxAgeMinutes
+    ) {
+        this(redisUtils, cacheLoader, expireMinutes, approximateMaxAgeMinutes, System::currentTimeMillis);
+    }
+
+    BookCountCache(RedisUtils redisUtils, SingleFlightCacheLoader cacheLoader, long expireMinutes,
+                   long approximateMaxAgeMinutes, LongSupplier currentTimeMillis) {
+        this.redisUtils = redisUtils;
+        this.cacheLoader = cacheLoader;
+        this.registry = new BookCriteriaRegistry(redisUtils, COUNT_PREFIX, expireMinutes, currentTimeMillis);
+        this.approximateMaxAgeMinutes = approximateMaxAgeMinutes;
+    }
+
+    /**
+     * 获取查询总数
+     * @param criteria 查询条件
+     * @param approximate 是否接受近似值，为true时精确值失效后返回最近一次统计的结果
+     * @param counter 执行COUNT查询的函数
+     * @return 总数，以及是否为近似值
+     */
+    public BookCount count(BookCriteria criteria, boolean approximate, LongSupplier counter) {
+        Object cached = registry.get(criteria, EXACT_FIELD);
+        if (cached instanceof Number) {
+            return new BookCount(((Number) cached).longValue(), false);
+        }
+        String key = criteria.cacheKey();
+        if (approximate) {
+            cached = redisUtils.get(APPROXIMATE_COUNT_PREFIX + key);
+            if (cached instanceof Number) {
+                return new BookCount(((Number) cached).longValue(), true);
+            }
+        }
+
+        return cacheLoader.singleFlight(COUNT_PREFIX + key, () -> {
+            // 先读代数再统计，统计期间有图书变更时不写回精确总数
+            long generation = registry.generation();
+            long count = counter.getAsLong();
+            registry.put(criteria, EXACT_FIELD, count, generation);
+            redisUtils.set(APPROXIMATE_COUNT_PREFIX + key, count, approximateMaxAgeMinutes, TimeUnit.MINUTES);
+            return new BookCount(count, false);
+        });
+    }
+
+    /**
+     * 图书变更后失效总数发生变化的查询条件
+     * 变更前后都满足或都不满足条件时总数不变，只有恰好一侧满足时才失效；近似总数保留到自然过期
+     * @param event 图书变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangeEvent event) {
+        registry.invalidate(event,
+                criteria -> criteria.matches(event.getPrevious()) != criteria.matches(event.getBook()));
+    }
+
+    /**
+     * 批量导入后失效新图书满足的查询条件
+     * @param event 图书批量导入事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        registry.invalidate(event);
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookCriteria;
+import com.example.demo.utils.RedisUtils;
+import com.example.demo.utils.ScriptArgs;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * 按查询条件缓存的结果及其条件登记表
+ * 每个规范化的查询条件对应一个结果Hash（前缀+条件键）；出现过的条件按分类分片登记，
+ * 每个分片最多登记{@value #MAX_CRITERIA_PER_SHARD}个条件，过期的登记在写入时清理。
+ * 图书变更时只读取变更前后分类所在的分片和不限分类的分片，由调用方判断哪些条件受影响。
+ * 每次变更递增代数，写入结果时代数已变化则放弃，查询期间发生的变更不会被旧结果覆盖
+ */
+class BookCriteriaRegistry {
+
+    /**
+     * 不限分类的查询条件所在的分片
+     */
+    static final String ANY_CATEGORY_SHARD = "all";
+
+    /**
+     * 每个分片最多登记的查询条件数，已满时新条件的结果不再缓存，直到旧条件过期
+     */
+    static final int MAX_CRITERIA_PER_SHARD = 1000;
+
+    private static final int INVALIDATE_BATCH_SIZE = 1000;
+
+    /**
+     * 登记查询条件并写入结果
+     * KEYS[1]为分片登记表，KEYS[2]为分片内条件的过期时间ZSet，KEYS[3]为结果Hash，KEYS[4]为代数，KEYS[5]为分片集合；
+     * ARGV[1]为查询前读取的代数，ARGV[2]为过期毫秒数，ARGV[3]为当前毫秒时间，ARGV[4]为分片容量，ARGV[5]为分片，
+     * ARGV[6]、ARGV[7]为条件键和条件，ARGV[8]、ARGV[9]为结果字段和结果。
+     * 代数已变化返回-1，分片已满返回0，写入返回1
+     */
+    private static final RedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[4]) or '0') ~= ARGV[1] then return -1 end " +
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[3], 'LIMIT', 0, tonumber(ARGV[4])) " +
+            "if #expired > 0 then " +
+            "redis.call('HDEL', KEYS[1], unpack(expired)) " +
+            "redis.call('ZREM', KEYS[2], unpack(expired)) " +
+            "end " +
+            "if not redis.call('ZSCORE', KEYS[2], ARGV[6]) " +
+            "and redis.call('ZCARD', KEYS[2]) >= tonumber(ARGV[4]) then return 0 end " +
+            "redis.call('HSET', KEYS[1], ARGV[6], ARGV[7]) " +
+            "redis.call('ZADD', KEYS[2], tonumber(ARGV[3]) + tonumber(ARGV[2]), ARGV[6]) " +
+            "redis.call('HSET', KEYS[3], ARGV[8], ARGV[9]) " +
+            "redis.call('SADD', KEYS[5], ARGV[5]) " +
+            "for i = 1, 5 do if i ~= 4 then redis.call('PEXPIRE', KEYS[i], ARGV[2]) end end " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 删除结果Hash KEYS[3..]，同时从分片登记表KEYS[1]和过期时间ZSet KEYS[2]中删除条件键ARGV
+     */
+    private static final RedisScript<Long> INVALIDATE_SCRIPT = new DefaultRedisScript<>(
+            "if #KEYS > 2 then redis.call('DEL', unpack(KEYS, 3)) end " +
+            "if #ARGV > 0 then " +
+            "redis.call('HDEL', KEYS[1], unpack(ARGV)) " +
+            "redis.call('ZREM', KEYS[2], unpack(ARGV)) " +
+            "end " +
+            "return 1",
+            Long.class);
+
+    private final RedisUtils redisUtils;
+    private final String prefix;
+    private final long expireMinutes;
+    private final LongSupplier currentTimeMillis;
+
+    /**
+     * 构造函数
+     * @param redisUtils Redis工具类
+     * @param prefix 键前缀，结果键为前缀+条件键，登记表等键为前缀+criteria:、expiry:、shards、generation
+     * @param expireMinutes 结果和登记的过期时间（分钟）
+     * @param currentTimeMillis 当前毫秒时间
+     */
+    BookCriteriaRegistry(RedisUtils redisUtils, String prefix, long expireMinutes, LongSupplier currentTimeMillis) {
+        this.redisUtils = redisUtils;
+        this.prefix = prefix;
+        this.expireMinutes = expireMinutes;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * 读取代数，查询数据库之前调用，写入结果时传回{@link #put}
+     * @return 代数，不存在时为0
+     */
+    long generation() {
+        Object generation = redisUtils.get(generationKey());
+        return generation == null ? 0 : Long.parseLong(generation.toString());
+    }
+
+    /**
+     * 读取结果
+     * @param criteria 查询条件
+     * @param field 结果字段
+     * @return 结果，不存在时返回null
+     */
+    Object get(BookCriteria criteria, String field) {
+        return redisUtils.hGet(prefix + criteria.cacheKey(), field);
+    }
+
+    /**
+     * 登记查询条件并写入结果，两者在同一个脚本中完成，失效时也一起删除，不会留下没有登记、无法被失效的结果；
+     * 查询期间有图书变更时代数已变化，结果可能已过时，不写入
+     * @param criteria 查询条件
+     * @param field 结果字段
+     * @param value 结果
+     * @param generation 查询数据库之前读取的代数
+     * @return 是否已写入
+     */
+    boolean put(BookCriteria criteria, String field, Object value, long generation) {
+        String criteriaKey = criteria.cacheKey();
+        String shard = shard(criteria.getCategory());
+        Long result = redisUtils.executeWithArgs(PUT_SCRIPT,
+                Arrays.asList(registryKey(shard), expiryKey(shard), prefix + criteriaKey,
+                        generationKey(), shardsKey()),
+                new ScriptArgs().string(generation).millis(expireMinutes, TimeUnit.MINUTES)
+                        .string(currentTimeMillis.getAsLong()).string(MAX_CRITERIA_PER_SHARD).value(shard)
+                        .string(criteriaKey).value(criteria)
+                        .string(field).value(value));
+        return result != null && result == 1;
+    }
+
+    /**
+     * 图书变更后失效受影响的条件
+     * 缺少变更前状态时无法判断图书原先是否满足条件，所有分片中的条件都按受影响处理
+     * @param event 图书变更事件
+     * @param affected 根据变更前后的图书判断条件是否受影响
+     */
+    void invalidate(BookChangeEvent event, Predicate<BookCriteria> affected) {
+        Book previous = event.getPrevious();
+        if (previous == null && event.getType() != BookChangeEvent.Type.CREATED) {
+            invalidate(allShards(), criteria -> true);
+            return;
+        }
+        Set<String> shards = new LinkedHashSet<>();
+        shards.add(ANY_CATEGORY_SHARD);
+        addShard(shards, previous);
+        addShard(shards, event.getBook());
+        invalidate(shards, affected);
+    }
+
+    /**
+     * 批量导入后失效新图书满足的条件，每个涉及的分片只读取一次
+     * @param event 图书批量导入事件
+     */
+    void invalidate(BooksImportedEvent event) {
+        Set<String> shards = new LinkedHashSet<>();
+        shards.add(ANY_CATEGORY_SHARD);
+        for (Book book : event.getBooks()) {
+            addShard(shards, book);
+        }
+        invalidate(shards, criteria -> {
+            for (Book book : event.getBooks()) {
+                if (criteria.matches(book)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 递增代数，再失效指定分片中受影响的条件及其结果
+     * 先递增代数：此后才开始的写入会被拒绝，此前已写入的结果会在下面的扫描中被找到
+     */
+    private void invalidate(Collection<String> shards, Predicate<BookCriteria> affected) {
+        redisUtils.increment(generationKey(), 1);
+        for (String shard : shards) {
+            Map<Object, Object> registry = redisUtils.hGetAll(registryKey(shard));
+            if (registry == null || registry.isEmpty()) {
+                continue;
+            }
+
+            List<String> affectedKeys = new ArrayList<>();
+            for (Map.Entry<Object, Object> entry : registry.entrySet()) {
+                if (!(entry.getValue() instanceof BookCriteria)
+                        || affected.test((BookCriteria) entry.getValue())) {
+                    affectedKeys.add(String.valueOf(entry.getKey()));
+                }
+            }
+
+            // 结果和登记在同一个脚本中删除，分批避免单个脚本参数过多
+            for (int from = 0; from < affectedKeys.size(); from += INVALIDATE_BATCH_SIZE) {
+                List<String> batch = affectedKeys.subList(from, Math.min(from + INVALIDATE_BATCH_SIZE, affectedKeys.size()));
+                List<String> keys = new ArrayList<>(batch.size() + 2);
+                keys.add(registryKey(shard));
+                keys.add(expiryKey(shard));
+                for (String key : batch) {
+                    keys.add(prefix + key);
+                }
+                redisUtils.executeWithStringArgs(INVALIDATE_SCRIPT, keys, batch.toArray(new String[0]));
+            }
+        }
+    }
+
+    private Set<String> allShards() {
+        Set<String> shards = new LinkedHashSet<>();
+        shards.add(ANY_CATEGORY_SHARD);
+        Set<Object> registered = redisUtils.sMembers(shardsKey());
+        if (registered != null) {
+            for (Object shard : registered) {
+                shards.add(String.valueOf(shard));
+            }
+        }
+        return shards;
+    }
+
+    String registryKey(String shard) {
+        return prefix + "criteria:" + shard;
+    }
+
+    String expiryKey(String shard) {
+        return prefix + "expiry:" + shard;
+    }
+
+    String shardsKey() {
+        return prefix + "shards";
+    }
+
+    String generationKey() {
+        return prefix + "generation";
+    }
+
+    private static void addShard(Set<String> shards, Book book) {
+        if (book != null && book.getCategory() != null) {
+            shards.add(shard(book.getCategory()));
+        }
+    }
+
+    /**
+     * 查询条件所在的分片：指定了分类的条件只可能被同一分类（按数据库排序规则比较）的图书影响
+     */
+    static String shard(String category) {
+        return category == null ? ANY_CATEGORY_SHARD : "c:" + BookCriteria.categoryKey(category);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 缓存的一页查询结果
+ * 只保存图书ID和总数，图书内容通过{@link BookCache}解析
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookIdPage {
+
+    /**
+     * 当前页图书ID，按查询顺序排列
+     */
+    private List<Long> ids;
+
+    /**
+     * 满足条件的图书总数
+     */
+    private long total;
+}
@@ -0,0 +1,235 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.utils.RedisUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图书列表缓存
+ * 以ZSet保存图书ID（分数为ID，保证顺序稳定），图书内容通过{@link BookCache}按ID单独缓存
+ * 写操作只增删单个成员，不再整体重建列表；每次增删都递增代数，
+ * 重建时若代数已变化说明加载ID期间有写入提交，放弃写入，避免用旧快照覆盖新成员；
+ * 重建在临时键上分批完成后一次性替换索引
+ */
+@Component
+public class BookListCache {
+
+    public static final String BOOK_LIST_IDS_KEY = "book:list:ids";
+    public static final String GENERATION_KEY = "book:list:generation";
+
+    /**
+     * 递增代数，仅在索引已存在时添加成员，避免索引过期后被写操作重建成不完整的列表
+     */
+    private static final RedisScript<Long> ADD_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) " +
+            "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "return redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2]) " +
+            "end " +
+            "return -1",
+            Long.class);
+
+    /**
+     * 递增代数，仅在索引已存在时批量添加成员，每个参数既是成员也是分数
+     */
+    private static final RedisScript<Long> ADD_ALL_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) " +
+            "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "local added = 0 " +
+            "for i = 1, #ARGV do " +
+            "added = added + redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i]) " +
+            "end " +
+            "return added " +
+            "end " +
+            "return -1",
+            Long.class);
+
+    /**
+     * 递增代数并移除成员
+     */
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) " +
+            "return redis.call('ZREM', KEYS[1], ARGV[1])",
+            Long.class);
+
+    /**
+     * 代数未变化时把一批ID写入临时键并刷新其过期时间；代数已变化时删除临时键，返回-1。
+     * KEYS[1]为临时键，KEYS[2]为代数；ARGV[1]为加载前读取的代数，ARGV[2]为过期毫秒数，之后每个参数既是成员也是分数
+     */
+    private static final RedisScript<Long> REBUILD_CHUNK_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return -1 " +
+            "end " +
+            "for i = 3, #ARGV do " +
+            "redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i]) " +
+            "end " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 代数未变化时用临时键替换索引并设置过期时间，没有ID时删除索引；代数已变化时删除临时键，返回-1。
+     * KEYS[1]为临时键，KEYS[2]为索引，KEYS[3]为代数；ARGV[1]为加载前读取的代数，ARGV[2]为过期毫秒数
+     */
+    private static final RedisScript<Long> REBUILD_SWAP_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[3]) or '0') ~= ARGV[1] then " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return -1 " +
+            "end " +
+            "if redis.call('EXISTS', KEYS[1]) == 0 then " +
+            "redis.call('DEL', KEYS[2]) " +
+            "return 1 " +
+            "end " +
+            "redis.call('RENAME', KEYS[1], KEYS[2]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 重建时每次脚本调用写入的ID数，避免单个脚本长时间阻塞Redis
+     */
+    static final int REBUILD_CHUNK_SIZE = 1000;
+
+    static final String REBUILD_KEY_PREFIX = "book:list:rebuild:";
+
+    private static final List<String> KEYS = Arrays.asList(BOOK_LIST_IDS_KEY, GENERATION_KEY);
+
+    private final RedisUtils redisUtils;
+    private final long expireMinutes;
+
+    public BookListCache(
+            RedisUtils redisUtils,
+            @Value("${app.book.cache.expire-time:30}") long expireMinutes
+    ) {
+        this.redisUtils = redisUtils;
+        this.expireMinutes = expireMinutes;
+    }
+
+    /**
+     * 判断ID索引是否存在
+     * @return 是否存在
+     */
+    public boolean exists() {
+        return Boolean.TRUE.equals(redisUtils.hasKey(BOOK_LIST_IDS_KEY));
+    }
+
+    /**
+     * 获取指定索引范围内的图书ID
+     * @param start 开始索引
+     * @param end 结束索引（包含，-1表示到末尾）
+     * @return 图书ID列表，索引不存在时返回null
+     */
+    public List<Long> getIds(long start, long end) {
+        Set<Object> members = redisUtils.zRange(BOOK_LIST_IDS_KEY, start, end);
+        if (members == null || members.isEmpty()) {
+            return exists() ? Collections.emptyList() : null;
+        }
+        List<Long> ids = new ArrayList<>(members.size());
+        for (Object member : members) {
+            ids.add(((Number) member).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * 获取图书总数
+     * @return 图书总数
+     */
+    public long size() {
+        Long size = redisUtils.zSize(BOOK_LIST_IDS_KEY);
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * 获取当前代数，须在从数据库加载ID之前读取
+     * @return 代数
+     */
+    public long generation() {
+        Object generation = redisUtils.get(GENERATION_KEY);
+        return generation == null ? 0 : Long.parseLong(generation.toString());
+    }
+
+    /**
+     * 用完整的ID列表重建索引
+     * ID分批写入本次重建独有的临时键，最后一步校验代数后改名替换索引：读者不会看到写了一半的索引，
+     * 已删除的图书随旧索引一起移除；加载或写入期间有增删提交时代数已变化，放弃本次重建
+     * @param ids 所有图书ID
+     * @param generation 加载ID之前读取的代数
+     * @return 是否已写入，代数已变化时返回false
+     */
+    public boolean rebuild(List<Long> ids, long generation) {
+        String tempKey = REBUILD_KEY_PREFIX + UUID.randomUUID();
+        long expireMillis = TimeUnit.MINUTES.toMillis(expireMinutes);
+        List<String> chunkKeys = Arrays.asList(tempKey, GENERATION_KEY);
+        for (int from = 0; from < ids.size(); from += REBUILD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + REBUILD_CHUNK_SIZE, ids.size()));
+            Object[] args = new Object[chunk.size() + 2];
+            args[0] = generation;
+            args[1] = expireMillis;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 2] = chunk.get(i);
+            }
+            Long result = redisUtils.execute(REBUILD_CHUNK_SCRIPT, chunkKeys, args);
+            if (result == null || result < 0) {
+                return false;
+            }
+        }
+        Long result = redisUtils.execute(REBUILD_SWAP_SCRIPT,
+                Arrays.asList(tempKey, BOOK_LIST_IDS_KEY, GENERATION_KEY), generation, expireMillis);
+        return result != null && result > 0;
+    }
+
+    /**
+     * 新增或删除图书的事务提交后更新索引
+     * 提交前更新会让并发重建在读到新代数的同时读不到未提交的行
+     * @param event 图书变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangeEvent event) {
+        if (event.getType() == BookChangeEvent.Type.CREATED) {
+            add(event.getBookId());
+        } else if (event.getType() == BookChangeEvent.Type.DELETED) {
+            remove(event.getBookId());
+        }
+    }
+
+    /**
+     * 新增图书后加入索引
+     * @param id 图书ID
+     */
+    public void add(Long id) {
+        redisUtils.execute(ADD_IF_EXISTS_SCRIPT, KEYS, id, id);
+    }
+
+    /**
+     * 批量新增图书后加入索引，一次脚本调用完成
+     * @param ids 图书ID
+     */
+    public void addAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        redisUtils.execute(ADD_ALL_IF_EXISTS_SCRIPT, KEYS, ids.toArray());
+    }
+
+    /**
+     * 删除图书后移出索引
+     * @param id 图书ID
+     */
+    public void remove(Long id) {
+        redisUtils.execute(REMOVE_SCRIPT, KEYS, id);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.model.BookCriteria;
+import com.example.demo.utils.RedisUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * 多条件查询结果缓存
+ * 每个规范化的查询条件对应一个Redis Hash，字段为分页参数，值为该页的图书ID和总数；
+ * 查询条件的分片登记、代数和失效由{@link BookCriteriaRegistry}完成，
+ * 图书变更时只失效变更前或变更后满足条件的查询
+ */
+@Component
+public class BookQueryCache {
+
+    public static final String REGISTRY_PREFIX = "book:query:criteria:";
+    public static final String EXPIRY_PREFIX = "book:query:expiry:";
+    public static final String SHARDS_KEY = "book:query:shards";
+    public static final String GENERATION_KEY = "book:query:generation";
+    public static final String RESULT_PREFIX = "book:query:";
+
+    private final BookCriteriaRegistry registry;
+
+    /**
+     * 构造函数
+     * @param redisUtils Redis工具类
+     * @param expireMinutes 查询结果过期时间（分钟）
+     */
+    @Autowired
+    public BookQueryCache(
+            RedisUtils redisUtils,
+            @Value("${app.book.cache.query.expire-time:10}") long expireMinutes
+    ) {
+        this(redisUtils, expireMinutes, System::currentTimeMillis);
+    }
+
+    BookQueryCache(RedisUtils redisUtils, long expireMinutes, LongSupplier currentTimeMillis) {
+        this.registry = new BookCriteriaRegistry(redisUtils, RESULT_PREFIX, expireMinutes, currentTimeMillis);
+    }
+
+    /**
+     * 获取缓存的一页查询结果
+     * @param criteria 查询条件
+     * @param pageable 分页参数
+     * @return 查询结果，未缓存时返回null
+     */
+    public BookIdPage get(BookCriteria criteria, Pageable pageable) {
+        Object cached = registry.get(criteria, pageKey(pageable));
+        if (!(cached instanceof BookIdPage)) {
+            return null;
+        }
+        // JSON反序列化时较小的ID会还原为Integer，统一转换为Long
+        BookIdPage page = (BookIdPage) cached;
+        List<Long> ids = new ArrayList<>(page.getIds().size());
+        for (Object id : (List<?>) page.getIds()) {
+            ids.add(((Number) id).longValue());
+        }
+        page.setIds(ids);
+        return page;
+    }
+
+    /**
+     * 读取代数，查询数据库之前调用，写入结果时传回{@link #put}
+     * @return 代数，不存在时为0
+     */
+    public long generation() {
+        return registry.generation();
+    }
+
+    /**
+     * 缓存一页查询结果，查询期间有图书变更时不写入
+     * @param criteria 查询条件
+     * @param pageable 分页参数
+     * @param page 查询结果
+     * @param generation 查询数据库之前读取的代数
+     * @return 是否已写入
+     */
+    public boolean put(BookCriteria criteria, Pageable pageable, BookIdPage page, long generation) {
+        return registry.put(criteria, pageKey(pageable), page, generation);
+    }
+
+    /**
+     * 图书变更后失效受影响的查询
+     * 变更前或变更后满足条件的查询，其结果集、排序或总数都可能变化；两者都不满足的查询不受影响
+     * @param event 图书变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangeEvent event) {
+        registry.invalidate(event,
+                criteria -> criteria.matches(event.getPrevious()) || criteria.matches(event.getBook()));
+    }
+
+    /**
+     * 批量导入后失效新图书满足条件的查询
+     * @param event 图书批量导入事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        registry.invalidate(event);
+    }
+
+    private static String pageKey(Pageable pageable) {
+        String page = pageable.isPaged() ? pageable.getOffset() + ":" + pageable.getPageSize() : "all";
+        return page + ":" + pageable.getSort();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 缓存统计信息
+ * 记录某一层缓存的命中、未命中、淘汰次数和当前条目数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStats {
+
+    /**
+     * 命中次数
+     */
+    private long hits;
+
+    /**
+     * 未命中次数
+     */
+    private long misses;
+
+    /**
+     * 淘汰次数（容量淘汰、过期淘汰或主动失效）
+     */
+    private long evictions;
+
+    /**
+     * 当前条目数，无法统计时为-1
+     */
+    private long size;
+
+    /**
+     * 计算命中率
+     * @return 命中率，没有请求时返回0
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 带元数据的缓存值
+ * 记录加载耗时和过期时间点，用于在过期前按概率提前刷新
+ * @param <T> 值类型
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedValue<T> {
+
+    /**
+     * 缓存的值
+     */
+    private T value;
+
+    /**
+     * 加载耗时（毫秒）
+     */
+    private long loadMillis;
+
+    /**
+     * 过期时间点（毫秒时间戳）
+     */
+    private long expireAt;
+}
@@ -0,0 +1,199 @@
+package com.example.demo.cache;
+
+import com.example.demo.utils.RedisUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 防击穿的读穿透缓存加载器
+ * 同一个key在本节点同时只有一个调用方回源加载，其余调用方等待同一个结果；
+ * 可选通过Redis分布式锁保证集群内只有一个节点回源；
+ * 缓存临近过期时按概率提前刷新（XFetch），刷新期间其他调用方继续读取旧值
+ */
+@Component
+public class SingleFlightCacheLoader {
+
+    private static final String LOCK_PREFIX = "lock:";
+
+    /**
+     * 仅当锁仍由自己持有时才删除
+     */
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private final RedisUtils redisUtils;
+    private final boolean distributedLock;
+    private final long lockTimeoutMillis;
+    private final long lockWaitMillis;
+    private final double beta;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     * @param redisUtils Redis工具类
+     * @param distributedLock 是否启用集群级分布式锁
+     * @param lockTimeoutMillis 分布式锁超时时间（毫秒）
+     * @param lockWaitMillis 未抢到分布式锁时等待其他节点加载的最长时间（毫秒）
+     * @param beta 提前刷新系数，越大越倾向于提前刷新，0表示关闭
+     */
+    public SingleFlightCacheLoader(
+            RedisUtils redisUtils,
+            @Value("${app.book.cache.single-flight.distributed-lock:true}") boolean distributedLock,
+            @Value("${app.book.cache.single-flight.lock-timeout:10000}") long lockTimeoutMillis,
+            @Value("${app.book.cache.single-flight.lock-wait:2000}") long lockWaitMillis,
+            @Value("${app.book.cache.single-flight.early-refresh-beta:1.0}") double beta
+    ) {
+        this.redisUtils = redisUtils;
+        this.distributedLock = distributedLock;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.lockWaitMillis = lockWaitMillis;
+        this.beta = beta;
+    }
+
+    /**
+     * 读穿透加载缓存
+     * @param key 缓存键
+     * @param timeout 过期时间
+     * @param unit 时间单位
+     * @param loader 回源加载函数
+     * @return 缓存值或加载结果
+     */
+    public <T> T load(String key, long timeout, TimeUnit unit, Supplier<T> loader) {
+        CachedValue<T> cached = read(key);
+        if (cached != null) {
+            if (shouldRefreshEarly(cached) && !inFlight.containsKey(key)) {
+                // 本调用方负责提前刷新，其他调用方继续使用旧值
+                return singleFlight(key, () -> loadAndStore(key, timeout, unit, loader));
+            }
+            return cached.getValue();
+        }
+        return singleFlight(key, () -> {
+            if (!distributedLock) {
+                return loadAndStore(key, timeout, unit, loader);
+            }
+            return loadWithLock(key, timeout, unit, loader);
+        });
+    }
+
+    /**
+     * 本节点内合并同一个key的并发调用，只执行一次加载函数
+     * @param key 合并键
+     * @param loader 加载函数
+     * @return 加载结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T singleFlight(String key, Supplier<T> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (T) join(existing);
+        }
+        try {
+            T value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 在分布式锁保护下加载，抢不到锁时等待持锁节点写入缓存
+     */
+    private <T> T loadWithLock(String key, long timeout, TimeUnit unit, Supplier<T> loader) {
+        String lockKey = LOCK_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        if (Boolean.TRUE.equals(redisUtils.setIfAbsent(lockKey, token, lockTimeoutMillis, TimeUnit.MILLISECONDS))) {
+            try {
+                // 拿到锁后再查一次，其他节点可能刚刚写入
+                CachedValue<T> cached = read(key);
+                if (cached != null) {
+                    return cached.getValue();
+                }
+                return loadAndStore(key, timeout, unit, loader);
+            } finally {
+                redisUtils.execute(UNLOCK_SCRIPT, Collections.singletonList(lockKey), token);
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + lockWaitMillis;
+        while (System.currentTimeMillis() < deadline) {
+            sleep(50);
+            CachedValue<T> cached = read(key);
+            if (cached != null) {
+                return cached.getValue();
+            }
+        }
+        // 等待超时，持锁节点可能已失败，自行加载
+        return loadAndStore(key, timeout, unit, loader);
+    }
+
+    private <T> T loadAndStore(String key, long timeout, TimeUnit unit, Supplier<T> loader) {
+        long start = System.currentTimeMillis();
+        T value = loader.get();
+        long now = System.currentTimeMillis();
+        if (value != null) {
+            CachedValue<T> cached = new CachedValue<>(value, now - start, now + unit.toMillis(timeout));
+            redisUtils.set(key, cached, timeout, unit);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CachedValue<T> read(String key) {
+        Object cached = redisUtils.get(key);
+        return cached instanceof CachedValue ? (CachedValue<T>) cached : null;
+    }
+
+    /**
+     * XFetch：剩余时间越少、加载越慢，提前刷新的概率越大
+     */
+    private boolean shouldRefreshEarly(CachedValue<?> cached) {
+        if (beta <= 0) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        double gap = -cached.getLoadMillis() * beta * Math.log(random);
+        return System.currentTimeMillis() + gap >= cached.getExpireAt();
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cache load", e);
+        }
+    }
+}
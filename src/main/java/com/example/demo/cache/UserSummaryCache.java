@@ -0,0 +1,333 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.event.LoansOverdueEvent;
+import com.example.demo.event.ReservationEvent;
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.mapper.ReservationDAO;
+import com.example.demo.model.BorrowStatus;
+import com.example.demo.model.LoanTotals;
+import com.example.demo.model.ReservationStatus;
+import com.example.demo.model.UserSummary;
+import com.example.demo.utils.RedisUtils;
+import com.example.demo.utils.ScriptArgs;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 借阅人汇总缓存
+ * 每个借阅人一个Redis Hash，保存未归还借阅数、逾期数、罚款（分）和有效预约数；
+ * 借还、预约、逾期事件发生后只递增对应字段，Hash不存在时不递增，下次读取时用两条聚合查询重建。
+ * 每次递增同时递增该借阅人的代数，加载前读取代数、写入时代数已变化则重新加载，加载期间的递增不会丢失。
+ * 借书名额通过{@link #reserveLoan}在Redis中原子地检查并占用，借出事件计入借阅数后再释放
+ */
+@Component
+public class UserSummaryCache {
+
+    public static final String KEY_PREFIX = "user:summary:";
+    public static final String GENERATION_PREFIX = "user:summary:generation:";
+    public static final String PENDING_LOANS_PREFIX = "user:summary:pending:";
+
+    static final String ACTIVE_LOANS = "activeLoans";
+    static final String OVERDUE_LOANS = "overdueLoans";
+    static final String FINE_CENTS = "fineCents";
+    static final String ACTIVE_RESERVATIONS = "activeReservations";
+
+    /**
+     * 汇总Hash的字段，递增时按此顺序传给脚本
+     */
+    private static final List<String> FIELDS =
+            Arrays.asList(ACTIVE_LOANS, OVERDUE_LOANS, FINE_CENTS, ACTIVE_RESERVATIONS);
+
+    private static final List<BorrowStatus> ACTIVE_LOAN_STATUSES =
+            Arrays.asList(BorrowStatus.BORROWED, BorrowStatus.OVERDUE);
+    private static final List<ReservationStatus> ACTIVE_RESERVATION_STATUSES =
+            Arrays.asList(ReservationStatus.PENDING, ReservationStatus.APPROVED);
+
+    /**
+     * 加载结果因并发递增而放弃写入时的最多尝试次数
+     */
+    private static final int LOAD_ATTEMPTS = 3;
+
+    /**
+     * 占用中的名额的过期时间，仅在进程异常退出、名额未释放时生效
+     */
+    private static final long PENDING_LOAN_TTL_MINUTES = 10;
+
+    private static final long SUMMARY_MISSING = -1;
+
+    /**
+     * 代数KEYS[2]等于ARGV[1]时写入汇总Hash KEYS[1]并设置过期时间，ARGV[2]为过期毫秒数，之后为字段和值
+     */
+    private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end " +
+            "for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 递增代数KEYS[2]并设置过期时间ARGV[1]，汇总Hash KEYS[1]存在时再按之后的字段和递增因子递增
+     */
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[1]) " +
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "for i = 2, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 检查借阅资格并占用一个借书名额
+     * KEYS[1]为汇总Hash，KEYS[2]为占用中的名额数；ARGV[1]为借阅数上限，ARGV[2]为罚款上限（分），ARGV[3]为名额过期毫秒数。
+     * 汇总不存在返回-1，逾期返回-2，罚款超限返回-3，借阅数（含占用中的名额）已达上限返回-4，占用成功返回1
+     */
+    private static final RedisScript<Long> RESERVE_LOAN_SCRIPT = new DefaultRedisScript<>(
+            "local summary = redis.call('HMGET', KEYS[1], '" + ACTIVE_LOANS + "', '" + OVERDUE_LOANS + "', '"
+                    + FINE_CENTS + "') " +
+            "if not summary[1] or not summary[2] or not summary[3] then return -1 end " +
+            "if tonumber(summary[2]) > 0 then return -2 end " +
+            "if tonumber(summary[3]) > tonumber(ARGV[2]) then return -3 end " +
+            "local pending = tonumber(redis.call('GET', KEYS[2]) or '0') " +
+            "if tonumber(summary[1]) + pending >= tonumber(ARGV[1]) then return -4 end " +
+            "redis.call('INCR', KEYS[2]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[3]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 释放一个占用中的名额，不会减到0以下
+     */
+    private static final RedisScript<Long> RELEASE_LOAN_SCRIPT = new DefaultRedisScript<>(
+            "if tonumber(redis.call('GET', KEYS[1]) or '0') > 0 then return redis.call('DECR', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    /**
+     * 借书名额的检查结果
+     */
+    public enum LoanSlot {
+        RESERVED,
+        OVERDUE,
+        FINES_OUTSTANDING,
+        LIMIT_REACHED
+    }
+
+    private final RedisUtils redisUtils;
+    private final SingleFlightCacheLoader cacheLoader;
+    private final BorrowRecordDAO borrowRecordDAO;
+    private final ReservationDAO reservationDAO;
+    private final long expireMinutes;
+
+    /**
+     * 构造函数
+     * @param redisUtils Redis工具类
+     * @param cacheLoader 防击穿缓存加载器，合并同一借阅人的并发加载
+     * @param borrowRecordDAO 借阅记录数据访问对象
+     * @param reservationDAO 预约记录数据访问对象
+     * @param expireMinutes 汇总过期时间（分钟）
+     */
+    public UserSummaryCache(
+            RedisUtils redisUtils,
+            SingleFlightCacheLoader cacheLoader,
+            BorrowRecordDAO borrowRecordDAO,
+            ReservationDAO reservationDAO,
+            @Value("${app.user.summary.expire-time:60}") long expireMinutes
+    ) {
+        this.redisUtils = redisUtils;
+        this.cacheLoader = cacheLoader;
+        this.borrowRecordDAO = borrowRecordDAO;
+        this.reservationDAO = reservationDAO;
+        this.expireMinutes = expireMinutes;
+    }
+
+    /**
+     * 获取借阅人汇总，命中时只有一次HGETALL
+     * @param userId 借阅人ID
+     * @return 借阅人汇总
+     */
+    public UserSummary get(Long userId) {
+        UserSummary cached = fromHash(userId, redisUtils.hGetAll(key(userId)));
+        if (cached != null) {
+            return cached;
+        }
+        return cacheLoader.singleFlight(key(userId), () -> {
+            UserSummary summary = null;
+            for (int attempt = 0; attempt < LOAD_ATTEMPTS; attempt++) {
+                // 先读代数再查库，查库期间有事件递增过汇总时放弃写入并重新加载
+                long generation = generation(userId);
+                summary = load(userId);
+                ScriptArgs args = new ScriptArgs().string(generation).millis(expireMinutes, TimeUnit.MINUTES)
+                        .string(ACTIVE_LOANS).value(summary.getActiveLoans())
+                        .string(OVERDUE_LOANS).value(summary.getOverdueLoans())
+                        .string(FINE_CENTS).value(toCents(summary.getOutstandingFines()))
+                        .string(ACTIVE_RESERVATIONS).value(summary.getActiveReservations());
+                Long stored = redisUtils.executeWithArgs(STORE_SCRIPT, keys(userId), args);
+                if (stored != null && stored == 1) {
+                    break;
+                }
+            }
+            return summary;
+        });
+    }
+
+    /**
+     * 检查借阅资格并原子地占用一个借书名额，占用中的名额计入借阅数上限
+     * 占用成功后调用方须在借出事件发布后或借书失败时调用{@link #releaseLoan}
+     * @param userId 借阅人ID
+     * @param maxLoans 借阅数上限
+     * @param maxOutstandingFine 允许借书的最大未结罚款
+     * @return 检查结果，只有{@link LoanSlot#RESERVED}表示已占用名额
+     */
+    public LoanSlot reserveLoan(Long userId, long maxLoans, double maxOutstandingFine) {
+        for (int attempt = 0; attempt < LOAD_ATTEMPTS; attempt++) {
+            Long result = redisUtils.execute(RESERVE_LOAN_SCRIPT, Arrays.asList(key(userId), pendingKey(userId)),
+                    maxLoans, toCents(maxOutstandingFine), TimeUnit.MINUTES.toMillis(PENDING_LOAN_TTL_MINUTES));
+            if (result == null || result == SUMMARY_MISSING) {
+                // 汇总不存在，加载后重试
+                get(userId);
+                continue;
+            }
+            if (result == -2) {
+                return LoanSlot.OVERDUE;
+            }
+            if (result == -3) {
+                return LoanSlot.FINES_OUTSTANDING;
+            }
+            return result == -4 ? LoanSlot.LIMIT_REACHED : LoanSlot.RESERVED;
+        }
+        throw new IllegalStateException("Summary of user " + userId + " is being updated concurrently");
+    }
+
+    /**
+     * 释放一个占用中的借书名额
+     * @param userId 借阅人ID
+     */
+    public void releaseLoan(Long userId) {
+        redisUtils.execute(RELEASE_LOAN_SCRIPT, Collections.singletonList(pendingKey(userId)));
+    }
+
+    /**
+     * 借出、归还后更新借阅数，归还时减去该笔借阅的逾期数；罚款与归还无关，缴清后才减去
+     * @param event 借阅事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowEvent(BorrowEvent event) {
+        Map<String, Long> deltas = new HashMap<>();
+        if (event.getType() == BorrowEvent.Type.CHECKED_OUT) {
+            deltas.put(ACTIVE_LOANS, 1L);
+        } else if (event.getType() == BorrowEvent.Type.RETURNED) {
+            deltas.put(ACTIVE_LOANS, -1L);
+            if (event.getPreviousStatus() == BorrowStatus.OVERDUE) {
+                deltas.put(OVERDUE_LOANS, -1L);
+            }
+        } else if (event.getType() == BorrowEvent.Type.FINE_PAID) {
+            deltas.put(FINE_CENTS, -toCents(event.getRecord().getFineAmount()));
+        } else {
+            return;
+        }
+        increment(event.getRecord().getUserId(), deltas);
+    }
+
+    /**
+     * 预约创建后加一，取消、过期、完成后减一
+     * @param event 预约事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationEvent(ReservationEvent event) {
+        long delta = event.getType() == ReservationEvent.Type.CREATED ? 1 : -1;
+        increment(event.getReservation().getUserId(), Collections.singletonMap(ACTIVE_RESERVATIONS, delta));
+    }
+
+    /**
+     * 逾期检测后累加逾期数和罚款
+     * @param event 借阅逾期事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoansOverdue(LoansOverdueEvent event) {
+        Map<Long, Map<String, Long>> byUser = new HashMap<>();
+        event.getNewlyOverdue().forEach((userId, count) ->
+                byUser.computeIfAbsent(userId, k -> new HashMap<>()).put(OVERDUE_LOANS, (long) count));
+        event.getFineIncrease().forEach((userId, fine) ->
+                byUser.computeIfAbsent(userId, k -> new HashMap<>()).put(FINE_CENTS, toCents(fine)));
+        byUser.forEach(this::increment);
+    }
+
+    /**
+     * 递增代数，汇总存在时再递增字段
+     */
+    private void increment(Long userId, Map<String, Long> deltas) {
+        ScriptArgs args = new ScriptArgs().millis(expireMinutes, TimeUnit.MINUTES);
+        for (String field : FIELDS) {
+            Long delta = deltas.get(field);
+            if (delta != null) {
+                args.string(field).string(delta);
+            }
+        }
+        redisUtils.executeWithArgs(INCREMENT_SCRIPT, keys(userId), args);
+    }
+
+    private long generation(Long userId) {
+        Object generation = redisUtils.get(generationKey(userId));
+        return generation == null ? 0 : Long.parseLong(generation.toString());
+    }
+
+    private UserSummary load(Long userId) {
+        LoanTotals loans = borrowRecordDAO.sumActiveLoans(userId, BorrowStatus.OVERDUE, ACTIVE_LOAN_STATUSES);
+        long reservations = reservationDAO.countByUserAndStatus(userId, ACTIVE_RESERVATION_STATUSES);
+        return new UserSummary(userId,
+                loans.getActiveLoans().longValue(),
+                loans.getOverdueLoans().longValue(),
+                loans.getOutstandingFines().doubleValue(),
+                reservations);
+    }
+
+    private static UserSummary fromHash(Long userId, Map<Object, Object> hash) {
+        if (hash == null) {
+            return null;
+        }
+        Object activeLoans = hash.get(ACTIVE_LOANS);
+        Object overdueLoans = hash.get(OVERDUE_LOANS);
+        Object fineCents = hash.get(FINE_CENTS);
+        Object activeReservations = hash.get(ACTIVE_RESERVATIONS);
+        if (!(activeLoans instanceof Number) || !(overdueLoans instanceof Number)
+                || !(fineCents instanceof Number) || !(activeReservations instanceof Number)) {
+            return null;
+        }
+        return new UserSummary(userId,
+                ((Number) activeLoans).longValue(),
+                ((Number) overdueLoans).longValue(),
+                ((Number) fineCents).longValue() / 100.0,
+                ((Number) activeReservations).longValue());
+    }
+
+    private static long toCents(Double amount) {
+        return amount == null ? 0 : Math.round(amount * 100);
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static String generationKey(Long userId) {
+        return GENERATION_PREFIX + userId;
+    }
+
+    private static List<String> keys(Long userId) {
+        return Arrays.asList(key(userId), generationKey(userId));
+    }
+
+    private static String pendingKey(Long userId) {
+        return PENDING_LOANS_PREFIX + userId;
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.demo.common;
 
 import com.example.demo.exception.BookNotFoundException;
+import com.example.demo.exception.BorrowLimitExceededException;
+import com.example.demo.exception.BorrowRecordNotFoundException;
 import com.example.demo.exception.ErrorResponse;
+import com.example.demo.exception.NoCopyAvailableException;
+import com.example.demo.exception.ReservationNotFoundException;
+import com.example.demo.exception.SqlBudgetExceededException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -21,6 +27,22 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(BorrowRecordNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleBorrowRecordNotFound(BorrowRecordNotFoundException ex) {
+        ErrorResponse response = ErrorResponse.getInstance();
+        response.setMessage(ex.getMessage());
+        response.setTimestamp(LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleReservationNotFound(ReservationNotFoundException ex) {
+        ErrorResponse response = ErrorResponse.getInstance();
+        response.setMessage(ex.getMessage());
+        response.setTimestamp(LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
         ErrorResponse response = ErrorResponse.getInstance();
@@ -28,4 +50,36 @@ public class GlobalExceptionHandler {
         response.setTimestamp(LocalDateTime.now());
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        ErrorResponse response = ErrorResponse.getInstance();
+        response.setMessage(ex.getMessage());
+        response.setTimestamp(LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(BorrowLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleBorrowLimitExceeded(BorrowLimitExceededException ex) {
+        ErrorResponse response = ErrorResponse.getInstance();
+        response.setMessage(ex.getMessage());
+        response.setTimestamp(LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(NoCopyAvailableException.class)
+    public ResponseEntity<ErrorResponse> handleNoCopyAvailable(NoCopyAvailableException ex) {
+        ErrorResponse response = ErrorResponse.getInstance();
+        response.setMessage(ex.getMessage());
+        response.setTimestamp(LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(SqlBudgetExceededException.class)
+    public ResponseEntity<ErrorResponse> handleSqlBudgetExceeded(SqlBudgetExceededException ex) {
+        ErrorResponse response = ErrorResponse.getInstance();
+        response.setMessage(ex.getMessage());
+        response.setTimestamp(LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
 }
@@ -0,0 +1,91 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.BookCache;
+import com.example.demo.cache.CacheStats;
+import com.example.demo.metrics.SqlStatementCounter;
+import com.example.demo.metrics.SqlStatementMetricsInterceptor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 指标配置类
+ * 接口耗时、Redis命令耗时和Hibernate统计由Spring Boot自动配置，这里补充每个请求的SQL语句数
+ * 和图书本地缓存的统计信息
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final String LOCAL_BOOK_CACHE = "local:book";
+
+    /**
+     * 每个请求的SQL语句计数器，超过预算或同一语句重复过多时告警，可配置为直接让请求失败
+     */
+    @Bean
+    public SqlStatementCounter sqlStatementCounter(
+            @Value("${app.sql.budget.max-statements:50}") int maxStatements,
+            @Value("${app.sql.budget.repeat-threshold:10}") int repeatThreshold,
+            @Value("${app.sql.budget.fail-on-exceed:false}") boolean failOnExceed) {
+        return new SqlStatementCounter(maxStatements, repeatThreshold, failOnExceed);
+    }
+
+    /**
+     * 把SQL语句计数器注册为Hibernate的StatementInspector
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    /**
+     * 为所有接口记录每个请求的SQL语句数
+     */
+    @Bean
+    public WebMvcConfigurer sqlStatementMetricsConfigurer(SqlStatementCounter statementCounter,
+                                                          MeterRegistry meterRegistry) {
+        SqlStatementMetricsInterceptor interceptor = new SqlStatementMetricsInterceptor(statementCounter, meterRegistry);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor);
+            }
+        };
+    }
+
+    /**
+     * 图书本地缓存的命中、未命中、淘汰次数和条目数，Redis层的命中率由RedisUtils按键前缀记录
+     */
+    @Bean
+    public MeterBinder bookCacheMetrics(BookCache bookCache) {
+        return registry -> {
+            registerCacheCounter(registry, "cache.gets", bookCache, CacheStats::getHits, "result", "hit");
+            registerCacheCounter(registry, "cache.gets", bookCache, CacheStats::getMisses, "result", "miss");
+            registerCacheCounter(registry, "cache.evictions", bookCache, CacheStats::getEvictions);
+            Gauge.builder("cache.size", bookCache, cache -> localStats(cache).getSize())
+                    .tag("cache", LOCAL_BOOK_CACHE)
+                    .register(registry);
+        };
+    }
+
+    private static void registerCacheCounter(MeterRegistry registry, String name, BookCache bookCache,
+                                             ToDoubleFunction<CacheStats> value, String... tags) {
+        FunctionCounter.builder(name, bookCache, cache -> value.applyAsDouble(localStats(cache)))
+                .tag("cache", LOCAL_BOOK_CACHE)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static CacheStats localStats(BookCache bookCache) {
+        return bookCache.stats().get("local");
+    }
+}
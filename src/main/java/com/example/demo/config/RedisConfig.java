@@ -1,10 +1,17 @@
 package com.example.demo.config;
 
+import com.example.demo.cache.BookCache;
+import com.example.demo.cache.BookCacheInvalidationListener;
+import com.example.demo.search.BookIndexSynchronizer;
+import com.example.demo.serializer.RedisSerializers;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
@@ -13,22 +20,49 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 public class RedisConfig {
 
+    /**
+     * RedisTemplate配置
+     * @param connectionFactory 连接工厂
+     * @param valueSerializer value序列化方式（binary/json）
+     * @param compressThreshold 二进制序列化的压缩阈值（字节）
+     */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(
+            RedisConnectionFactory connectionFactory,
+            @Value("${app.redis.value-serializer:binary}") String valueSerializer,
+            @Value("${app.redis.compress-threshold:1024}") int compressThreshold) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         
-        // 使用Jackson2JsonRedisSerializer来序列化和反序列化redis的value值
-        template.setValueSerializer(new Jackson2JsonRedisSerializer<>(Object.class));
+        // 图书相关的值使用紧凑二进制格式，其他值使用带类型信息的JSON
+        RedisSerializer<Object> serializer = RedisSerializers.create(valueSerializer, compressThreshold);
+        template.setValueSerializer(serializer);
         // 使用StringRedisSerializer来序列化和反序列化redis的key值
         template.setKeySerializer(new StringRedisSerializer());
         
         // Hash的key也采用StringRedisSerializer的序列化方式
         template.setHashKeySerializer(new StringRedisSerializer());
-        // Hash的value也采用Jackson2JsonRedisSerializer的序列化方式
-        template.setHashValueSerializer(new Jackson2JsonRedisSerializer<>(Object.class));
+        // Hash的value与value采用相同的序列化方式
+        template.setHashValueSerializer(serializer);
         
         template.afterPropertiesSet();
         return template;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Redis消息监听容器
+     * 订阅图书缓存失效频道，用于多节点间同步删除本地缓存；
+     * 订阅图书变更频道，用于多节点间同步内存索引
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            BookCacheInvalidationListener invalidationListener,
+            BookIndexSynchronizer indexSynchronizer) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationListener, new ChannelTopic(BookCache.INVALIDATION_CHANNEL));
+        container.addMessageListener(indexSynchronizer, new ChannelTopic(BookIndexSynchronizer.CHANGE_CHANNEL));
+        return container;
+    }
+}
@@ -1,18 +1,36 @@
 package com.example.demo.controller;
 
 import com.example.demo.Service.BookService;
+import com.example.demo.importer.BookImportFormat;
 import com.example.demo.model.Book;
+import com.example.demo.model.BookAvailability;
+import com.example.demo.model.BookCriteria;
 import com.example.demo.model.BookDTO;
+import com.example.demo.model.BookFacetPage;
+import com.example.demo.model.BookImportResult;
 import com.example.demo.model.BookStatus;
+import com.example.demo.model.BookSuggestion;
+import com.example.demo.pagination.BookCursorRequest;
+import com.example.demo.pagination.CountedPage;
+import com.example.demo.pagination.CursorSlice;
+import com.example.demo.projection.BookProjection;
+import com.example.demo.retry.ConflictStats;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 图书管理控制器
@@ -22,6 +40,21 @@ import java.time.LocalDate;
 @RequestMapping("/api/books")
 public class BookController {
 
+    /**
+     * 联想建议的最大条数
+     */
+    private static final int MAX_SUGGESTIONS = 50;
+
+    /**
+     * 批量获取图书时单次请求的最大ID数
+     */
+    private static final int MAX_BATCH_IDS = 500;
+
+    /**
+     * 总数为近似值时返回的响应头
+     */
+    private static final String APPROXIMATE_COUNT_HEADER = "X-Approximate-Count";
+
     private final BookService bookService;
 
     /**
@@ -34,14 +67,40 @@ public class BookController {
 
     /**
      * 分页获取图书列表
+     * @param fields 只返回的字段，逗号分隔，如"title,price"，"summary"表示摘要字段（可选，默认返回完整图书）
      * @param pageable 分页参数
      * @return 分页后的图书列表
      */
     @GetMapping
-    public ResponseEntity<Page<Book>> getAllBooks(Pageable pageable) {
+    public ResponseEntity<Page<?>> getAllBooks(
+            @RequestParam(required = false) String fields,
+            Pageable pageable) {
+        if (fields != null) {
+            return ResponseEntity.ok(bookService.findAllBooks(pageable, BookProjection.of(fields)));
+        }
         return ResponseEntity.ok(bookService.findAllBooks(pageable));
     }
 
+    /**
+     * 根据ID批量获取图书
+     * @param ids 图书ID列表，逗号分隔，最多500个
+     * @return 图书列表，顺序与请求一致，不存在的ID会被跳过
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<Book>> getBooksByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(findBooksByIds(ids));
+    }
+
+    /**
+     * 根据ID批量获取图书，ID较多、不便放在URL中时使用
+     * @param ids 图书ID列表，最多500个
+     * @return 图书列表，顺序与请求一致，不存在的ID会被跳过
+     */
+    @PostMapping("/batch-get")
+    public ResponseEntity<List<Book>> batchGetBooks(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(findBooksByIds(ids));
+    }
+
     /**
      * 根据ID获取图书详情
      * @param id 图书ID
@@ -62,6 +121,47 @@ public class BookController {
         return new ResponseEntity<>(bookService.createBook(bookDTO), HttpStatus.CREATED);
     }
 
+    /**
+     * 批量导入图书
+     * 请求体为CSV（首行为表头，列名与BookDTO属性一致）或JSON Lines，按流读取，不要求一次性放入内存
+     * @param format 导入格式：csv或jsonl
+     * @param body 请求体
+     * @return 导入结果
+     */
+    @PostMapping("/import")
+    public ResponseEntity<BookImportResult> importBooks(
+            @RequestParam(defaultValue = "csv") String format,
+            InputStream body) {
+        return ResponseEntity.ok(bookService.importBooks(body, BookImportFormat.of(format)));
+    }
+
+    /**
+     * 流式导出所有图书
+     * 边查边写，不把结果集放入内存；导出文件可直接用于批量导入
+     * @param format 导出格式：csv或jsonl
+     * @param gzip 是否gzip压缩，压缩时响应带Content-Encoding: gzip
+     * @return 导出文件
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        BookImportFormat exportFormat = BookImportFormat.of(format);
+        String extension = exportFormat == BookImportFormat.CSV ? "csv" : "jsonl";
+        MediaType contentType = exportFormat == BookImportFormat.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books." + extension + "\"");
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        StreamingResponseBody body = out -> bookService.exportBooks(out, exportFormat, gzip);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
     /**
      * 更新图书信息
      * @param id 图书ID
@@ -87,15 +187,55 @@ public class BookController {
      * 搜索图书
      * @param keyword 搜索关键词
      * @param searchType 搜索类型（title/author）
+     * @param approximateCount 是否接受近似总数（可选，默认false）
+     * @param fields 只返回的字段（可选，默认返回完整图书）
      * @param pageable 分页参数
      * @return 分页后的搜索结果
      */
     @GetMapping("/search")
-    public ResponseEntity<Page<Book>> searchBooks(
+    public ResponseEntity<Page<?>> searchBooks(
             @RequestParam String keyword,
             @RequestParam String searchType,
+            @RequestParam(defaultValue = "false") boolean approximateCount,
+            @RequestParam(required = false) String fields,
             Pageable pageable) {
-        return ResponseEntity.ok(bookService.searchBooks(keyword, searchType, pageable));
+        if (fields != null) {
+            return pageResponse(bookService.searchBooks(
+                    keyword, searchType, pageable, approximateCount, BookProjection.of(fields)));
+        }
+        return pageResponse(bookService.searchBooks(keyword, searchType, pageable, approximateCount));
+    }
+
+    /**
+     * 获取乐观锁冲突统计，用于观察并发修改的冲突率
+     * @return key为操作名，value为统计信息
+     */
+    @GetMapping("/conflict-stats")
+    public ResponseEntity<Map<String, ConflictStats>> getConflictStats() {
+        return ResponseEntity.ok(bookService.getConflictStats());
+    }
+
+    /**
+     * 获取实时可借副本数
+     * @param id 图书ID
+     * @return 当前库存
+     */
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<BookAvailability> getAvailability(@PathVariable Long id) {
+        return ResponseEntity.ok(bookService.getAvailability(id));
+    }
+
+    /**
+     * 搜索联想（前缀自动补全）
+     * @param prefix 输入前缀
+     * @param limit 最大条数，默认10，最多50
+     * @return 按热度排序的标题、作者、ISBN建议
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestion>> suggestBooks(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bookService.suggestBooks(prefix, Math.min(limit, MAX_SUGGESTIONS)));
     }
 
     /**
@@ -119,11 +259,44 @@ public class BookController {
      * @param maxPrice 最高价格（可选）
      * @param startDate 开始日期（可选）
      * @param endDate 结束日期（可选）
+     * @param approximateCount 是否接受近似总数（可选，默认false）
+     * @param fields 只返回的字段（可选，默认返回完整图书）
      * @param pageable 分页参数
      * @return 分页后的图书列表
      */
     @GetMapping("/search/criteria")
-    public ResponseEntity<Page<Book>> findBooksByCriteria(
+    public ResponseEntity<Page<?>> findBooksByCriteria(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BookStatus status,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean approximateCount,
+            @RequestParam(required = false) String fields,
+            Pageable pageable) {
+        BookCriteria criteria = new BookCriteria(
+                category, status, minPrice, maxPrice, startDate, endDate, null, null);
+        if (fields != null) {
+            return pageResponse(bookService.findBooksByCriteria(
+                    criteria, pageable, approximateCount, BookProjection.of(fields)));
+        }
+        return pageResponse(bookService.findBooksByCriteria(criteria, pageable, approximateCount));
+    }
+
+    /**
+     * 根据条件查询图书并返回分面统计
+     * @param category 分类（可选）
+     * @param status 状态（可选）
+     * @param minPrice 最低价格（可选）
+     * @param maxPrice 最高价格（可选）
+     * @param startDate 开始日期（可选）
+     * @param endDate 结束日期（可选）
+     * @param pageable 分页参数
+     * @return 分页后的图书列表和分面统计
+     */
+    @GetMapping("/search/facets")
+    public ResponseEntity<BookFacetPage> findBooksWithFacets(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) BookStatus status,
             @RequestParam(required = false) Double minPrice,
@@ -131,7 +304,95 @@ public class BookController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             Pageable pageable) {
+        BookCriteria criteria = new BookCriteria(
+                category, status, minPrice, maxPrice, startDate, endDate, null, null);
+        return ResponseEntity.ok(bookService.findBooksWithFacets(criteria, pageable));
+    }
+
+    /**
+     * 游标分页获取图书列表
+     * @param after 上一页返回的游标（可选，为空表示第一页）
+     * @param size 每页数量（可选，默认10，最多100）
+     * @param sort 排序，支持id、title、createdAt，如"title,desc"（可选，默认id升序）
+     * @return 游标分页后的图书列表
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorSlice<Book>> getBooksByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(bookService.findAllBooks(BookCursorRequest.of(sort, after, size)));
+    }
+
+    /**
+     * 游标分页搜索图书
+     * @param keyword 搜索关键词
+     * @param searchType 搜索类型（title/author）
+     * @param after 上一页返回的游标（可选）
+     * @param size 每页数量（可选）
+     * @param sort 排序（可选）
+     * @return 游标分页后的搜索结果
+     */
+    @GetMapping("/search/cursor")
+    public ResponseEntity<CursorSlice<Book>> searchBooksByCursor(
+            @RequestParam String keyword,
+            @RequestParam String searchType,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(bookService.searchBooks(
+                keyword, searchType, BookCursorRequest.of(sort, after, size)));
+    }
+
+    /**
+     * 游标分页按条件查询图书
+     * @param category 分类（可选）
+     * @param status 状态（可选）
+     * @param minPrice 最低价格（可选）
+     * @param maxPrice 最高价格（可选）
+     * @param startDate 开始日期（可选）
+     * @param endDate 结束日期（可选）
+     * @param after 上一页返回的游标（可选）
+     * @param size 每页数量（可选）
+     * @param sort 排序（可选）
+     * @return 游标分页后的图书列表
+     */
+    @GetMapping("/search/criteria/cursor")
+    public ResponseEntity<CursorSlice<Book>> findBooksByCriteriaCursor(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BookStatus status,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
         return ResponseEntity.ok(bookService.findBooksByCriteria(
-                category, status, minPrice, maxPrice, startDate, endDate, pageable));
+                category, status, minPrice, maxPrice, startDate, endDate, BookCursorRequest.of(sort, after, size)));
+    }
+
+    /**
+     * 校验批量获取的ID数量并查询
+     * @param ids 图书ID列表
+     * @return 图书列表
+     */
+    private List<Book> findBooksByIds(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids are allowed per request");
+        }
+        return bookService.findBooksByIds(ids);
+    }
+
+    /**
+     * 构建分页响应，总数实际取自近似总数缓存时通过响应头告知调用方
+     * @param page 分页结果
+     * @return 分页响应
+     */
+    private ResponseEntity<Page<?>> pageResponse(Page<?> page) {
+        if (CountedPage.isApproximateTotal(page)) {
+            return ResponseEntity.ok().header(APPROXIMATE_COUNT_HEADER, "true").body(page);
+        }
+        return ResponseEntity.ok(page);
     }
-}
\ No newline at end of file
+}
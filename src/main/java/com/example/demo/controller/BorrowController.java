@@ -0,0 +1,94 @@
+package com.example.demo.controller;
+
+import com.example.demo.Service.BorrowService;
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.CheckoutRequest;
+import com.example.demo.model.UserSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+/**
+ * 借阅管理控制器
+ * 提供借书、还书、续借和借阅记录查询接口
+ */
+@RestController
+@RequestMapping("/api/borrows")
+public class BorrowController {
+
+    private final BorrowService borrowService;
+
+    /**
+     * 构造函数注入BorrowService
+     * @param borrowService 借阅服务接口
+     */
+    public BorrowController(BorrowService borrowService) {
+        this.borrowService = borrowService;
+    }
+
+    /**
+     * 借书，无可借副本时返回409
+     * @param request 借书请求
+     * @return 新建的借阅记录
+     */
+    @PostMapping
+    public ResponseEntity<BorrowRecordDTO> checkout(@Valid @RequestBody CheckoutRequest request) {
+        return new ResponseEntity<>(borrowService.checkout(request.getUserId(), request.getBookId()),
+                HttpStatus.CREATED);
+    }
+
+    /**
+     * 还书
+     * @param id 借阅记录ID
+     * @return 归还后的借阅记录
+     */
+    @PostMapping("/{id}/return")
+    public ResponseEntity<BorrowRecordDTO> returnBook(@PathVariable Long id) {
+        return ResponseEntity.ok(borrowService.returnBook(id));
+    }
+
+    /**
+     * 续借
+     * @param id 借阅记录ID
+     * @return 续借后的借阅记录
+     */
+    @PostMapping("/{id}/renew")
+    public ResponseEntity<BorrowRecordDTO> renew(@PathVariable Long id) {
+        return ResponseEntity.ok(borrowService.renew(id));
+    }
+
+    /**
+     * 缴清已归还借阅的罚款
+     * @param id 借阅记录ID
+     * @return 借阅记录
+     */
+    @PostMapping("/{id}/pay-fine")
+    public ResponseEntity<BorrowRecordDTO> payFine(@PathVariable Long id) {
+        return ResponseEntity.ok(borrowService.payFine(id));
+    }
+
+    /**
+     * 获取借阅人汇总
+     * @param userId 借阅人ID
+     * @return 借阅数、逾期数、未结罚款和有效预约数
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<UserSummary> getSummary(@RequestParam Long userId) {
+        return ResponseEntity.ok(borrowService.getSummary(userId));
+    }
+
+    /**
+     * 分页查询用户的借阅记录
+     * @param userId 借阅人ID
+     * @param pageable 分页参数
+     * @return 按借阅时间倒序的借阅记录
+     */
+    @GetMapping
+    public ResponseEntity<Page<BorrowRecordDTO>> findByUser(@RequestParam Long userId, Pageable pageable) {
+        return ResponseEntity.ok(borrowService.findByUser(userId, pageable));
+    }
+}
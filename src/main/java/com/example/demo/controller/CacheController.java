@@ -0,0 +1,34 @@
+package com.example.demo.controller;
+
+import com.example.demo.cache.BookCache;
+import com.example.demo.cache.CacheStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 缓存监控控制器
+ * 提供缓存统计信息查询接口，用于评估缓存容量
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final BookCache bookCache;
+
+    public CacheController(BookCache bookCache) {
+        this.bookCache = bookCache;
+    }
+
+    /**
+     * 获取图书缓存各层的统计信息
+     * @return key为缓存层名称，value为命中、未命中、淘汰次数等统计信息
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, CacheStats>> getBookCacheStats() {
+        return ResponseEntity.ok(bookCache.stats());
+    }
+}
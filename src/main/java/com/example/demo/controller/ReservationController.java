@@ -0,0 +1,60 @@
+package com.example.demo.controller;
+
+import com.example.demo.Service.ReservationService;
+import com.example.demo.model.ReservationDTO;
+import com.example.demo.model.ReservationRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+/**
+ * 预约管理控制器
+ * 提供预约、取消预约和查询预约接口
+ */
+@RestController
+@RequestMapping("/api/reservations")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    /**
+     * 构造函数注入ReservationService
+     * @param reservationService 预约服务接口
+     */
+    public ReservationController(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    /**
+     * 预约图书，有可借副本或重复预约时返回400
+     * @param request 预约请求
+     * @return 排队中的预约
+     */
+    @PostMapping
+    public ResponseEntity<ReservationDTO> reserve(@Valid @RequestBody ReservationRequest request) {
+        return new ResponseEntity<>(reservationService.reserve(request.getUserId(), request.getBookId()),
+                HttpStatus.CREATED);
+    }
+
+    /**
+     * 根据ID查询预约
+     * @param id 预约记录ID
+     * @return 预约
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ReservationDTO> getReservation(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.findById(id));
+    }
+
+    /**
+     * 取消预约
+     * @param id 预约记录ID
+     * @return 取消后的预约
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<ReservationDTO> cancel(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.cancel(id));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.datasource;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 写后读一致性
+ * 写事务提交后，同一客户端在一段时间内的只读事务仍走主库，避免刚写入的数据因副本延迟读不到。
+ * 截止时间放在Cookie中随后续请求带回，服务端不保存会话；
+ * 同一请求内写入之后的读取也立即走主库
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    public static final String COOKIE_NAME = "read-primary-until";
+
+    private final long stickinessMillis;
+
+    private final ThreadLocal<Long> primaryUntil = new ThreadLocal<>();
+
+    /**
+     * 构造函数
+     * @param stickinessMillis 写入后读主库的时长（毫秒），应不小于副本允许的最大延迟
+     */
+    public ReadYourWritesInterceptor(long stickinessMillis) {
+        this.stickinessMillis = stickinessMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName())) {
+                    primaryUntil.set(parse(cookie.getValue()));
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        primaryUntil.remove();
+    }
+
+    /**
+     * 当前线程的只读事务是否必须走主库
+     * @return 最近写入过且未超过时长时为true
+     */
+    public boolean primaryRequired() {
+        Long until = primaryUntil.get();
+        if (until == null) {
+            return false;
+        }
+        // 客户端带回的截止时间超过配置时长的部分不认
+        long remaining = until - System.currentTimeMillis();
+        return remaining > 0 && remaining <= stickinessMillis;
+    }
+
+    /**
+     * 写事务提交后调用，在当前请求中记录截止时间并通过Cookie交给客户端；不在请求中时（如后台任务）不记录
+     */
+    public void markWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            long until = System.currentTimeMillis() + stickinessMillis;
+            primaryUntil.set(until);
+            HttpServletResponse response = ((ServletRequestAttributes) attributes).getResponse();
+            if (response != null && !response.isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(until));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, stickinessMillis / 1000));
+                response.addCookie(cookie);
+            }
+        }
+    }
+
+    private static Long parse(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
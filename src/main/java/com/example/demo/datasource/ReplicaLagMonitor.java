@@ -0,0 +1,157 @@
+package com.example.demo.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 只读副本延迟监控
+ * 后台定期检查每个副本：连接不可用、延迟查询返回null（复制已停止）或延迟超过上限的副本暂停使用，
+ * 恢复后自动重新加入；只读事务在可用副本间轮询，没有可用副本时回到主库。
+ * 启动后第一次检查完成前所有副本都视为不可用
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final long checkIntervalMillis;
+
+    /**
+     * 当前可用的副本名，检查线程整体替换，读取方无需加锁
+     */
+    private volatile List<String> available = Collections.emptyList();
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 构造函数
+     * @param replicas 副本名到数据源的映射，按配置顺序
+     * @param lagQuery 在副本上执行的延迟查询，第一行第一列为落后主库的秒数；为空时只检查连接是否可用
+     * @param maxLagSeconds 允许的最大延迟（秒）
+     * @param checkIntervalMillis 检查间隔（毫秒）
+     */
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, String lagQuery, long maxLagSeconds,
+                             long checkIntervalMillis) {
+        this.replicas = replicas;
+        this.lagQuery = lagQuery == null || lagQuery.trim().isEmpty() ? null : lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::check, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止检查并关闭副本连接池
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof Closeable) {
+                try {
+                    ((Closeable) dataSource).close();
+                } catch (IOException e) {
+                    log.warn("Failed to close replica data source: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 副本数据源，用于注册到路由数据源
+     * @return 副本名到数据源的映射
+     */
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 轮询选择一个可用副本
+     * @return 副本名，没有可用副本时为null
+     */
+    public String nextReplica() {
+        List<String> current = available;
+        if (current.isEmpty()) {
+            return null;
+        }
+        return current.get(Math.floorMod(next.getAndIncrement(), current.size()));
+    }
+
+    /**
+     * 检查所有副本并更新可用列表
+     */
+    void check() {
+        List<String> healthy = new ArrayList<>(replicas.size());
+        for (Map.Entry<String, DataSource> entry : replicas.entrySet()) {
+            String name = entry.getKey();
+            boolean wasAvailable = available.contains(name);
+            String problem = probe(entry.getValue());
+            if (problem == null) {
+                healthy.add(name);
+                if (!wasAvailable) {
+                    log.info("Replica {} is available for reads", name);
+                }
+            } else if (wasAvailable) {
+                log.warn("Replica {} removed from reads: {}", name, problem);
+            }
+        }
+        available = Collections.unmodifiableList(healthy);
+    }
+
+    /**
+     * 检查单个副本
+     * @param dataSource 副本数据源
+     * @return 不可用的原因，可用时为null
+     */
+    private String probe(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (lagQuery == null) {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS) ? null : "connection is not valid";
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                if (!rs.next()) {
+                    return "lag query returned no rows";
+                }
+                long lag = rs.getLong(1);
+                if (rs.wasNull()) {
+                    return "replication is not running";
+                }
+                return lag > maxLagSeconds ? "lag " + lag + "s exceeds " + maxLagSeconds + "s" : null;
+            }
+        } catch (SQLException e) {
+            return e.getMessage();
+        }
+    }
+}
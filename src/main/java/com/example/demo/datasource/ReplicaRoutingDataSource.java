@@ -0,0 +1,89 @@
+package com.example.demo.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 读写分离路由数据源
+ * 只读事务发往可用的只读副本，其他连接（写事务、无事务的访问）都走主库；
+ * 最近写入过的客户端、没有可用副本时只读事务也走主库；结果要写入共享缓存的读取通过{@link #readPrimary}走主库，
+ * 避免把延迟副本上的旧数据写入缓存，在下次失效前一直返回给所有客户端。
+ * 按连接获取时的事务状态路由，需包在LazyConnectionDataSourceProxy中，
+ * 使连接推迟到事务已标记只读、真正执行语句时才获取
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    /**
+     * 当前线程是否要求只读事务走主库
+     */
+    private static final ThreadLocal<Boolean> PRIMARY_READ = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesInterceptor readYourWrites;
+
+    /**
+     * 构造函数
+     * @param primary 主库数据源
+     * @param lagMonitor 副本延迟监控，同时提供副本数据源
+     * @param readYourWrites 写后读一致性
+     */
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor lagMonitor,
+                                    ReadYourWritesInterceptor readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new HashMap<>(lagMonitor.getReplicas());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (PRIMARY_READ.get() == null && !readYourWrites.primaryRequired()) {
+                String replica = lagMonitor.nextReplica();
+                if (replica != null) {
+                    return replica;
+                }
+            }
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 写事务提交后开始读主库
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWrites.markWrite();
+                }
+            });
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * 在主库上执行读取，用于结果要回填缓存的查询
+     * 连接在事务中第一次执行语句时按路由获取并保持到事务结束，应在事务的第一条语句之前调用
+     * @param reader 读取操作
+     * @param <T> 结果类型
+     * @return 读取结果
+     */
+    public static <T> T readPrimary(Supplier<T> reader) {
+        if (PRIMARY_READ.get() != null) {
+            return reader.get();
+        }
+        PRIMARY_READ.set(Boolean.TRUE);
+        try {
+            return reader.get();
+        } finally {
+            PRIMARY_READ.remove();
+        }
+    }
+}
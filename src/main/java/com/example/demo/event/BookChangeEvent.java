@@ -0,0 +1,46 @@
+package com.example.demo.event;
+
+import com.example.demo.model.Book;
+import lombok.Getter;
+
+/**
+ * 图书变更事件
+ * 图书新增、修改、删除后由BookService发布，供搜索索引、缓存等内存结构同步更新
+ */
+@Getter
+public class BookChangeEvent {
+
+    /**
+     * 变更类型
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+
+    private final Long bookId;
+
+    /**
+     * 变更后的图书，删除时为null
+     */
+    private final Book book;
+
+    /**
+     * 变更前的图书快照，新增时为null
+     */
+    private final Book previous;
+
+    public BookChangeEvent(Type type, Long bookId, Book book) {
+        this(type, bookId, book, null);
+    }
+
+    public BookChangeEvent(Type type, Long bookId, Book book, Book previous) {
+        this.type = type;
+        this.bookId = bookId;
+        this.book = book;
+        this.previous = previous;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.event;
+
+import com.example.demo.model.Book;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 图书批量导入事件
+ * 每批导入提交后发布一次，监听方一次性处理整批新增图书，避免逐条发布BookChangeEvent
+ */
+@Getter
+public class BooksImportedEvent {
+
+    /**
+     * 本批新增的图书，均已带有数据库生成的ID
+     */
+    private final List<Book> books;
+
+    public BooksImportedEvent(List<Book> books) {
+        this.books = books;
+    }
+}
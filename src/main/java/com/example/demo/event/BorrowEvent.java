@@ -0,0 +1,45 @@
+package com.example.demo.event;
+
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.BorrowStatus;
+import lombok.Getter;
+
+/**
+ * 借阅事件
+ * 借出、归还、续借、缴清罚款后由BorrowService发布，供逾期检测、预约排队等模块同步处理
+ */
+@Getter
+public class BorrowEvent {
+
+    /**
+     * 事件类型
+     */
+    public enum Type {
+        CHECKED_OUT,
+        RETURNED,
+        RENEWED,
+        FINE_PAID
+    }
+
+    private final Type type;
+
+    /**
+     * 变更后的借阅记录
+     */
+    private final BorrowRecordDTO record;
+
+    /**
+     * 变更前的借阅状态
+     */
+    private final BorrowStatus previousStatus;
+
+    public BorrowEvent(Type type, BorrowRecordDTO record) {
+        this(type, record, record.getStatus());
+    }
+
+    public BorrowEvent(Type type, BorrowRecordDTO record, BorrowStatus previousStatus) {
+        this.type = type;
+        this.record = record;
+        this.previousStatus = previousStatus;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.event;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 借阅逾期事件
+ * 逾期检测每处理完一批到期记录发布一次，按借阅人汇总新增的逾期数和罚款增量
+ */
+@Getter
+public class LoansOverdueEvent {
+
+    /**
+     * 借阅人ID -> 本批新变为逾期的借阅数
+     */
+    private final Map<Long, Integer> newlyOverdue;
+
+    /**
+     * 借阅人ID -> 本批增加的罚款
+     */
+    private final Map<Long, Double> fineIncrease;
+
+    public LoansOverdueEvent(Map<Long, Integer> newlyOverdue, Map<Long, Double> fineIncrease) {
+        this.newlyOverdue = newlyOverdue;
+        this.fineIncrease = fineIncrease;
+    }
+}
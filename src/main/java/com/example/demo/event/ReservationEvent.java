@@ -0,0 +1,34 @@
+package com.example.demo.event;
+
+import com.example.demo.model.ReservationDTO;
+import lombok.Getter;
+
+/**
+ * 预约事件
+ * 预约创建、取消、过期、完成后发布；批准不改变预约是否有效，不发布
+ */
+@Getter
+public class ReservationEvent {
+
+    /**
+     * 事件类型
+     */
+    public enum Type {
+        CREATED,
+        CANCELLED,
+        EXPIRED,
+        COMPLETED
+    }
+
+    private final Type type;
+
+    /**
+     * 变更后的预约，至少包含图书ID和预约人ID
+     */
+    private final ReservationDTO reservation;
+
+    public ReservationEvent(Type type, ReservationDTO reservation) {
+        this.type = type;
+        this.reservation = reservation;
+    }
+}
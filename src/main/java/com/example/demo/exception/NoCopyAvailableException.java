@@ -0,0 +1,7 @@
+package com.example.demo.exception;
+
+public class NoCopyAvailableException extends RuntimeException {
+    public NoCopyAvailableException(String message) {
+        super(message);
+    }
+}
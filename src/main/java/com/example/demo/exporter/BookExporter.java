@@ -0,0 +1,173 @@
+package com.example.demo.exporter;
+
+import com.example.demo.importer.BookImportFormat;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 图书流式导出
+ * 通过数据库游标逐行读取，边读边写入输出流，每行写完即从持久化上下文中移除，内存占用与表大小无关；
+ * 输出格式与批量导入一致，导出的文件可以直接重新导入
+ */
+@Component
+public class BookExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(BookExporter.class);
+
+    /**
+     * 每写出多少行刷新一次输出流，让客户端尽早收到数据
+     */
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private static final String[] CSV_HEADER = {
+            "id", "title", "author", "isbn", "publishDate", "status", "category",
+            "description", "price", "location", "totalCopies", "availableCopies"
+    };
+
+    private final BookDAO bookDAO;
+    private final EntityManager entityManager;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public BookExporter(BookDAO bookDAO, EntityManager entityManager) {
+        this.bookDAO = bookDAO;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * 导出所有图书，需在只读事务内调用
+     * @param out 输出流，导出完成后不会关闭
+     * @param format 导出格式
+     * @param gzip 是否gzip压缩
+     * @return 导出的行数
+     */
+    public long export(OutputStream out, BookImportFormat format, boolean gzip) {
+        long start = System.currentTimeMillis();
+        long rows = 0;
+        try {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    compressed != null ? compressed : out, StandardCharsets.UTF_8), 64 * 1024);
+            try (Stream<Book> books = bookDAO.streamAll()) {
+                rows = format == BookImportFormat.CSV ? writeCsv(books, writer) : writeJsonLines(books, writer);
+            }
+            writer.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write book export", e);
+        }
+        log.info("Book export finished: {} rows as {} in {} ms", rows, format, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private long writeCsv(Stream<Book> books, Writer writer) throws IOException {
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write('\n');
+        long rows = 0;
+        for (Iterator<Book> it = books.iterator(); it.hasNext(); ) {
+            Book book = it.next();
+            writer.write(String.valueOf(book.getId()));
+            writeCsvField(writer, book.getTitle());
+            writeCsvField(writer, book.getAuthor());
+            writeCsvField(writer, book.getIsbn());
+            writeCsvField(writer, book.getPublishDate());
+            writeCsvField(writer, book.getStatus());
+            writeCsvField(writer, book.getCategory());
+            writeCsvField(writer, book.getDescription());
+            writeCsvField(writer, book.getPrice());
+            writeCsvField(writer, book.getLocation());
+            writeCsvField(writer, book.getTotalCopies());
+            writeCsvField(writer, book.getAvailableCopies());
+            writer.write('\n');
+            rows = written(book, writer, rows);
+        }
+        return rows;
+    }
+
+    private long writeJsonLines(Stream<Book> books, Writer writer) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(writer);
+        // 根级对象之间用换行分隔，即每行一个对象
+        generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        long rows = 0;
+        for (Iterator<Book> it = books.iterator(); it.hasNext(); ) {
+            Book book = it.next();
+            generator.writeStartObject();
+            generator.writeNumberField("id", book.getId());
+            writeJsonField(generator, "title", book.getTitle());
+            writeJsonField(generator, "author", book.getAuthor());
+            writeJsonField(generator, "isbn", book.getIsbn());
+            writeJsonField(generator, "publishDate", book.getPublishDate());
+            writeJsonField(generator, "status", book.getStatus());
+            writeJsonField(generator, "category", book.getCategory());
+            writeJsonField(generator, "description", book.getDescription());
+            if (book.getPrice() != null) {
+                generator.writeNumberField("price", book.getPrice());
+            }
+            writeJsonField(generator, "location", book.getLocation());
+            if (book.getTotalCopies() != null) {
+                generator.writeNumberField("totalCopies", book.getTotalCopies());
+            }
+            if (book.getAvailableCopies() != null) {
+                generator.writeNumberField("availableCopies", book.getAvailableCopies());
+            }
+            generator.writeEndObject();
+            rows = written(book, generator, rows);
+        }
+        generator.writeRaw('\n');
+        generator.flush();
+        return rows;
+    }
+
+    /**
+     * 一行写完后移出持久化上下文，并定期刷新输出
+     */
+    private long written(Book book, Flushable output, long rows) throws IOException {
+        entityManager.detach(book);
+        rows++;
+        if (rows % FLUSH_INTERVAL == 0) {
+            output.flush();
+        }
+        return rows;
+    }
+
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static void writeJsonField(JsonGenerator generator, String name, Object value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value.toString());
+        }
+    }
+}
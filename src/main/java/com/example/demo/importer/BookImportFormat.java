@@ -0,0 +1,35 @@
+package com.example.demo.importer;
+
+import java.util.Locale;
+
+/**
+ * 图书导入文件格式
+ */
+public enum BookImportFormat {
+    /**
+     * 首行为表头的CSV，列名与BookDTO属性名一致
+     */
+    CSV,
+
+    /**
+     * 每行一个BookDTO的JSON对象
+     */
+    JSON_LINES;
+
+    /**
+     * 按名称解析格式
+     * @param name 格式名称：csv、jsonl或ndjson
+     * @return 导入格式
+     */
+    public static BookImportFormat of(String name) {
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return CSV;
+            case "jsonl":
+            case "ndjson":
+                return JSON_LINES;
+            default:
+                throw new IllegalArgumentException("Unsupported import format: " + name);
+        }
+    }
+}
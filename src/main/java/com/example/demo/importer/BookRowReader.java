@@ -0,0 +1,220 @@
+package com.example.demo.importer;
+
+import com.example.demo.model.BookDTO;
+import com.example.demo.model.BookStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 导入数据读取器
+ * 流式逐行读取，内存中只保留当前行；单行解析失败只记录到该行，不影响后续行
+ */
+abstract class BookRowReader implements Closeable {
+
+    protected final BufferedReader reader;
+    protected long row;
+
+    protected BookRowReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 按格式创建读取器
+     * @param in 输入流
+     * @param format 导入格式
+     * @param objectMapper JSON解析器
+     * @return 读取器
+     */
+    static BookRowReader open(InputStream in, BookImportFormat format, ObjectMapper objectMapper) throws IOException {
+        return format == BookImportFormat.CSV ? new Csv(in) : new JsonLines(in, objectMapper);
+    }
+
+    /**
+     * 读取下一行
+     * @return 数据行，读到末尾时返回null
+     */
+    abstract BookRow next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 读取到的一行数据
+     */
+    static final class BookRow {
+        final long row;
+        final BookDTO book;
+        final String error;
+
+        private BookRow(long row, BookDTO book, String error) {
+            this.row = row;
+            this.book = book;
+            this.error = error;
+        }
+
+        static BookRow ok(long row, BookDTO book) {
+            return new BookRow(row, book, null);
+        }
+
+        static BookRow failed(long row, String error) {
+            return new BookRow(row, null, error);
+        }
+    }
+
+    /**
+     * CSV读取器，首行为表头，支持双引号包裹的字段（字段内可含逗号、换行和转义的双引号）
+     */
+    private static final class Csv extends BookRowReader {
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        private Csv(InputStream in) throws IOException {
+            super(in);
+            List<String> header = readRecord();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                // 兼容带BOM的UTF-8文件
+                String name = i == 0 ? header.get(i).replace("\uFEFF", "") : header.get(i);
+                columns.put(name.trim(), i);
+            }
+        }
+
+        @Override
+        BookRow next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).trim().isEmpty());
+
+            long current = ++row;
+            try {
+                BookDTO book = new BookDTO();
+                book.setTitle(field(record, "title"));
+                book.setAuthor(field(record, "author"));
+                book.setIsbn(field(record, "isbn"));
+                String publishDate = field(record, "publishDate");
+                book.setPublishDate(publishDate == null ? null : LocalDate.parse(publishDate));
+                String status = field(record, "status");
+                book.setStatus(status == null ? null : BookStatus.valueOf(status.toUpperCase(Locale.ROOT)));
+                book.setCategory(field(record, "category"));
+                book.setDescription(field(record, "description"));
+                String price = field(record, "price");
+                book.setPrice(price == null ? null : Double.valueOf(price));
+                book.setLocation(field(record, "location"));
+                String totalCopies = field(record, "totalCopies");
+                if (totalCopies != null) {
+                    book.setTotalCopies(Integer.valueOf(totalCopies));
+                }
+                String availableCopies = field(record, "availableCopies");
+                if (availableCopies != null) {
+                    book.setAvailableCopies(Integer.valueOf(availableCopies));
+                }
+                return BookRow.ok(current, book);
+            } catch (RuntimeException e) {
+                return BookRow.failed(current, "Invalid value: " + e.getMessage());
+            }
+        }
+
+        private String field(List<String> record, String name) {
+            Integer index = columns.get(name);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        // 引号未闭合，按已读内容结束
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    if (c == '"') {
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == -1 || c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+    }
+
+    /**
+     * JSON Lines读取器，每行一个JSON对象
+     */
+    private static final class JsonLines extends BookRowReader {
+
+        private final ObjectMapper objectMapper;
+
+        private JsonLines(InputStream in, ObjectMapper objectMapper) {
+            super(in);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        BookRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.trim().isEmpty());
+
+            long current = ++row;
+            try {
+                return BookRow.ok(current, objectMapper.readValue(line, BookDTO.class));
+            } catch (JsonProcessingException e) {
+                return BookRow.failed(current, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+}
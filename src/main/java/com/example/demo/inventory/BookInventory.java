@@ -0,0 +1,361 @@
+package com.example.demo.inventory;
+
+import com.example.demo.cache.BookCache;
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.exception.BookNotFoundException;
+import com.example.demo.exception.NoCopyAvailableException;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.utils.RedisUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图书副本库存
+ * 借还时在Redis中用Lua脚本原子地增减可借副本数，不访问数据库、不加行锁；
+ * 每次变化同时累加到待同步增量中，由后台任务按固定间隔合并写回books.available_copies，
+ * 热门图书无论借还多少次，每个同步周期只产生一条UPDATE。
+ * 写回期间增量既不在待同步增量中、也可能尚未提交到数据库，此时不能按"数据库+待同步增量"加载库存：
+ * 写回开始时设置写回中标记，提交后清除标记并递增该图书的写回代数；加载时遇到标记或代数变化就等待后重试
+ */
+@Component
+public class BookInventory {
+
+    private static final Logger log = LoggerFactory.getLogger(BookInventory.class);
+
+    public static final String STOCK_PREFIX = "book:stock:";
+    public static final String PENDING_DELTA_KEY = "book:stock:delta";
+    public static final String SYNC_GENERATION_KEY = "book:stock:generation";
+    public static final String RECONCILING_PREFIX = "book:stock:reconciling:";
+
+    /**
+     * 库存尚未加载到Redis
+     */
+    private static final long NOT_LOADED = -2;
+
+    /**
+     * 库存已达边界：借阅时无可借副本，归还时已全部在馆
+     */
+    private static final long OUT_OF_RANGE = -1;
+
+    /**
+     * 正在写回数据库，或读取数据库之后写回过，需要重新加载
+     */
+    private static final long RECONCILING = -3;
+
+    private static final int LOAD_ATTEMPTS = 20;
+    private static final long LOAD_RETRY_MILLIS = 50;
+
+    /**
+     * 写回中标记的过期时间，进程在写回中途退出时标记过期后才能重新加载
+     */
+    private static final long RECONCILING_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * 借出一本，KEYS[1]为库存Hash，KEYS[2]为待同步增量Hash，ARGV[1]为图书ID
+     */
+    private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -2 end " +
+            "if tonumber(redis.call('HGET', KEYS[1], 'available')) <= 0 then return -1 end " +
+            "redis.call('HINCRBY', KEYS[2], ARGV[1], -1) " +
+            "return redis.call('HINCRBY', KEYS[1], 'available', -1)",
+            Long.class);
+
+    /**
+     * 归还一本，参数同借出，可借数不会超过总副本数
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -2 end " +
+            "local available = tonumber(redis.call('HGET', KEYS[1], 'available')) " +
+            "if available >= tonumber(redis.call('HGET', KEYS[1], 'total')) then return -1 end " +
+            "redis.call('HINCRBY', KEYS[2], ARGV[1], 1) " +
+            "return redis.call('HINCRBY', KEYS[1], 'available', 1)",
+            Long.class);
+
+    /**
+     * 读取库存，未加载时返回-2
+     */
+    private static final RedisScript<Long> AVAILABLE_SCRIPT = new DefaultRedisScript<>(
+            "local available = redis.call('HGET', KEYS[1], 'available') " +
+            "if not available then return -2 end " +
+            "return tonumber(available)",
+            Long.class);
+
+    /**
+     * 从数据库加载库存，KEYS[1]为库存Hash，KEYS[2]为待同步增量Hash，KEYS[3]为写回代数Hash，KEYS[4]为写回中标记；
+     * ARGV[2]为数据库中的可借数，ARGV[3]为总副本数，ARGV[4]为读取数据库前的写回代数。
+     * 尚未写回数据库的增量要叠加上去，已存在时不覆盖；正在写回或读取数据库后写回过时返回-3
+     */
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 1 end " +
+            "if redis.call('EXISTS', KEYS[4]) == 1 " +
+            "or tonumber(redis.call('HGET', KEYS[3], ARGV[1]) or '0') ~= tonumber(ARGV[4]) then return -3 end " +
+            "local pending = tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0') " +
+            "redis.call('HSET', KEYS[1], 'available', tonumber(ARGV[2]) + pending, 'total', ARGV[3]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 取走待同步增量并设置写回中标记，KEYS[1]为待同步增量Hash，KEYS[2]为写回中标记，
+     * ARGV[1]为图书ID，ARGV[2]为本次取走的量，ARGV[3]为标记的过期时间（毫秒）；
+     * 只减去读到的值，读取之后新产生的增量留到下个周期
+     */
+    private static final RedisScript<Long> TAKE_DELTA_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3]) " +
+            "local left = redis.call('HINCRBY', KEYS[1], ARGV[1], -tonumber(ARGV[2])) " +
+            "if left == 0 then redis.call('HDEL', KEYS[1], ARGV[1]) end " +
+            "return left",
+            Long.class);
+
+    /**
+     * 写回提交后清除写回中标记并递增写回代数，KEYS[1]为写回代数Hash，KEYS[2]为写回中标记，ARGV[1]为图书ID
+     */
+    private static final RedisScript<Long> FINISH_DELTA_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[2]) " +
+            "return redis.call('HINCRBY', KEYS[1], ARGV[1], 1)",
+            Long.class);
+
+    /**
+     * 写回失败时把增量放回并清除写回中标记，KEYS[1]为待同步增量Hash，KEYS[2]为写回中标记，
+     * ARGV[1]为图书ID，ARGV[2]为放回的量
+     */
+    private static final RedisScript<Long> RESTORE_DELTA_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[2]) " +
+            "return redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2])",
+            Long.class);
+
+    private final RedisUtils redisUtils;
+    private final BookDAO bookDAO;
+    private final BookCache bookCache;
+    private final TransactionTemplate transactionTemplate;
+    private final long reconcileIntervalMillis;
+
+    private final ScheduledExecutorService reconcileExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "book-inventory-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 构造函数
+     * @param redisUtils Redis工具类
+     * @param bookDAO 图书数据访问对象
+     * @param bookCache 图书两级缓存，写回数据库后失效
+     * @param transactionManager 事务管理器
+     * @param reconcileIntervalMillis 写回数据库的间隔（毫秒）
+     */
+    public BookInventory(
+            RedisUtils redisUtils,
+            BookDAO bookDAO,
+            BookCache bookCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.book.inventory.reconcile-interval:1000}") long reconcileIntervalMillis
+    ) {
+        this.redisUtils = redisUtils;
+        this.bookDAO = bookDAO;
+        this.bookCache = bookCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+    }
+
+    /**
+     * 启动后开始定期写回数据库
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconcileExecutor.scheduleWithFixedDelay(this::reconcileQuietly,
+                reconcileIntervalMillis, reconcileIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconcileExecutor.shutdownNow();
+        // 停机前把已累积的增量写回
+        reconcileQuietly();
+    }
+
+    /**
+     * 借出一本
+     * @param bookId 图书ID
+     * @return 借出后的可借副本数
+     * @throws NoCopyAvailableException 没有可借副本时抛出
+     */
+    public int reserve(Long bookId) {
+        long result = run(RESERVE_SCRIPT, bookId);
+        if (result == OUT_OF_RANGE) {
+            throw new NoCopyAvailableException("No copy available for book: " + bookId);
+        }
+        return (int) result;
+    }
+
+    /**
+     * 归还一本
+     * @param bookId 图书ID
+     * @return 归还后的可借副本数
+     * @throws IllegalArgumentException 所有副本都已在馆时抛出
+     */
+    public int release(Long bookId) {
+        long result = run(RELEASE_SCRIPT, bookId);
+        if (result == OUT_OF_RANGE) {
+            throw new IllegalArgumentException("All copies of book " + bookId + " are already returned");
+        }
+        return (int) result;
+    }
+
+    /**
+     * 获取实时可借副本数，比数据库中的值更新
+     * @param bookId 图书ID
+     * @return 可借副本数
+     */
+    public int available(Long bookId) {
+        return (int) run(AVAILABLE_SCRIPT, bookId);
+    }
+
+    /**
+     * 图书变更后删除Redis中的库存，下次借还时按数据库和未写回的增量重新加载
+     * @param event 图书变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangeEvent event) {
+        if (event.getType() == BookChangeEvent.Type.CREATED) {
+            return;
+        }
+        Book book = event.getBook();
+        Book previous = event.getPrevious();
+        if (book != null && previous != null
+                && Objects.equals(book.getTotalCopies(), previous.getTotalCopies())
+                && Objects.equals(book.getAvailableCopies(), previous.getAvailableCopies())) {
+            return;
+        }
+        redisUtils.delete(STOCK_PREFIX + event.getBookId());
+    }
+
+    /**
+     * 还书事务提交后归还副本，先于预约排队执行，排队的预约才能拿到这本副本
+     * @param event 借阅事件
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowEvent(BorrowEvent event) {
+        if (event.getType() != BorrowEvent.Type.RETURNED) {
+            return;
+        }
+        try {
+            release(event.getRecord().getBookId());
+        } catch (IllegalArgumentException e) {
+            // 总副本数被下调等情况，库存已满时无需归还
+            log.warn("Skip releasing copy on return: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把待同步增量写回数据库，每本图书一条UPDATE、一个事务；写入失败的增量放回，下个周期重试
+     * @return 写回的图书数
+     */
+    public int reconcile() {
+        Map<Object, Object> pending = redisUtils.hGetAll(PENDING_DELTA_KEY);
+        if (pending == null || pending.isEmpty()) {
+            return 0;
+        }
+        int reconciled = 0;
+        for (Map.Entry<Object, Object> entry : pending.entrySet()) {
+            Long bookId = Long.valueOf(entry.getKey().toString());
+            int delta = ((Number) entry.getValue()).intValue();
+            if (delta == 0) {
+                continue;
+            }
+            List<String> keys = Arrays.asList(PENDING_DELTA_KEY, RECONCILING_PREFIX + bookId);
+            redisUtils.execute(TAKE_DELTA_SCRIPT, keys, bookId, (long) delta, RECONCILING_TIMEOUT_MILLIS);
+            try {
+                transactionTemplate.executeWithoutResult(status -> bookDAO.adjustAvailableCopies(bookId, delta));
+            } catch (DataAccessException e) {
+                redisUtils.execute(RESTORE_DELTA_SCRIPT, keys, bookId, (long) delta);
+                log.warn("Failed to reconcile copies of book {}, will retry: {}", bookId, e.getMessage());
+                continue;
+            }
+            redisUtils.execute(FINISH_DELTA_SCRIPT,
+                    Arrays.asList(SYNC_GENERATION_KEY, RECONCILING_PREFIX + bookId), bookId);
+            bookCache.evict(bookId);
+            reconciled++;
+        }
+        return reconciled;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            int reconciled = reconcile();
+            if (reconciled > 0) {
+                log.debug("Reconciled available copies of {} books", reconciled);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Book inventory reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 执行库存脚本，库存未加载时从数据库加载后重试一次
+     */
+    private long run(RedisScript<Long> script, Long bookId) {
+        List<String> keys = Arrays.asList(STOCK_PREFIX + bookId, PENDING_DELTA_KEY);
+        Long result = redisUtils.execute(script, keys, bookId);
+        if (result != null && result == NOT_LOADED) {
+            load(bookId);
+            result = redisUtils.execute(script, keys, bookId);
+        }
+        if (result == null || result == NOT_LOADED) {
+            throw new IllegalStateException("Failed to load inventory of book: " + bookId);
+        }
+        return result;
+    }
+
+    /**
+     * 按"数据库+待同步增量"加载库存，正在写回时等待写回完成
+     */
+    private void load(Long bookId) {
+        List<String> keys = Arrays.asList(STOCK_PREFIX + bookId, PENDING_DELTA_KEY,
+                SYNC_GENERATION_KEY, RECONCILING_PREFIX + bookId);
+        for (int attempt = 1; attempt <= LOAD_ATTEMPTS; attempt++) {
+            // 先读写回代数再读数据库，读数据库之后写回过的话代数不一致，重新读取；
+            // 读写事务走主库，不读到落后的只读副本
+            Object generation = redisUtils.hGet(SYNC_GENERATION_KEY, bookId.toString());
+            Book book = transactionTemplate.execute(status -> bookDAO.findById(bookId))
+                    .orElseThrow(() -> new BookNotFoundException("Book not found with id: " + bookId));
+            long total = book.getTotalCopies() == null ? 0 : book.getTotalCopies();
+            long available = book.getAvailableCopies() == null ? total : book.getAvailableCopies();
+            long expected = generation == null ? 0 : ((Number) generation).longValue();
+            Long result = redisUtils.execute(LOAD_SCRIPT, keys, bookId, available, total, expected);
+            if (result == null || result != RECONCILING) {
+                return;
+            }
+            try {
+                Thread.sleep(LOAD_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new IllegalStateException("Inventory of book " + bookId + " is being reconciled, try again later");
+    }
+}
@@ -6,18 +6,24 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 图书数据访问接口
  * 提供图书相关的数据库操作
  */
 @Repository
-public interface BookDAO extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+public interface BookDAO extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookDAOCustom {
     /**
      * 获取所有图书
      * @return 图书列表
@@ -140,4 +146,49 @@ public interface BookDAO extends JpaRepository<Book, Long>, JpaSpecificationExec
      * @return 分页后的图书列表
      */
     Page<Book> findByStatus(BookStatus status, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * 根据标题或作者模糊查询图书（分页）
+     * @param title 标题关键词
+     * @param author 作者关键词
+     * @param pageable 分页参数
+     * @return 分页后的图书列表
+     */
+    Page<Book> findByTitleContainingOrAuthorContaining(String title, String author, Pageable pageable);
+
+    /**
+     * 按ID升序获取所有图书ID
+     * @return 图书ID列表
+     */
+    @Query("select b.id from Book b order by b.id")
+    List<Long> findAllIds();
+
+    /**
+     * 按ID升序获取指定ID之后的1000本图书，用于分批遍历全表
+     * @param id 上一批最后一本图书的ID
+     * @return 图书列表
+     */
+    List<Book> findTop1000ByIdGreaterThanOrderByIdAsc(Long id);
+
+    /**
+     * 按ID升序流式读取所有图书，只读且逐行从数据库拉取，需在事务内消费并及时关闭
+     * fetchSize为Integer.MIN_VALUE时MySQL驱动按行流式返回结果，不会把整张表读入内存
+     * @return 图书流
+     */
+    @Query("select b from Book b order by b.id")
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true")
+    })
+    Stream<Book> streamAll();
+
+    /**
+     * 按增量调整可借副本数，不读取实体，用于把Redis库存的变化同步回数据库
+     * @param id 图书ID
+     * @param delta 可借副本数增量
+     * @return 更新的行数，图书已删除时为0
+     */
+    @Modifying
+    @Query("update Book b set b.availableCopies = b.availableCopies + :delta where b.id = :id")
+    int adjustAvailableCopies(@Param("id") Long id, @Param("delta") int delta);
+}
@@ -0,0 +1,49 @@
+package com.example.demo.mapper;
+
+import com.example.demo.model.Book;
+import com.example.demo.projection.BookProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图书数据访问扩展接口
+ * 提供Spring Data无法直接派生的查询
+ */
+public interface BookDAOCustom {
+    /**
+     * 按条件查询前N条图书，不执行COUNT查询
+     * @param spec 查询条件，可为null
+     * @param sort 排序
+     * @param limit 最大条数
+     * @return 图书列表
+     */
+    List<Book> findAll(Specification<Book> spec, Sort sort, int limit);
+
+    /**
+     * 按条件查询一页图书，不执行COUNT查询，总数由调用方另行获取
+     * @param spec 查询条件，可为null
+     * @param pageable 分页参数
+     * @return 当前页图书列表
+     */
+    List<Book> findContent(Specification<Book> spec, Pageable pageable);
+
+    /**
+     * 按条件查询一页图书的部分字段，只选择投影中的列，不加载实体，不执行COUNT查询
+     * @param spec 查询条件，可为null
+     * @param projection 字段投影
+     * @param pageable 分页参数
+     * @return 当前页每本图书的字段名到值的映射
+     */
+    List<Map<String, Object>> findFields(Specification<Book> spec, BookProjection projection, Pageable pageable);
+
+    /**
+     * 批量插入图书，使用JDBC批处理一次发送整批INSERT
+     * 主键为自增列时Hibernate无法批量插入，因此绕过JPA直接写表；插入后回填数据库生成的ID
+     * @param books 待插入的图书，ID必须为空
+     */
+    void batchInsert(List<Book> books);
+}
@@ -0,0 +1,169 @@
+package com.example.demo.mapper;
+
+import com.example.demo.model.Book;
+import com.example.demo.projection.BookProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Selection;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图书数据访问扩展实现
+ */
+public class BookDAOCustomImpl implements BookDAOCustom {
+
+    private static final String INSERT_SQL = "insert into books (title, author, isbn, publish_date, status, "
+            + "category, description, price, location, total_copies, available_copies, created_at, updated_at, "
+            + "version) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookDAOCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Book> findAll(Specification<Book> spec, Sort sort, int limit) {
+        return createQuery(spec, sort)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Book> findContent(Specification<Book> spec, Pageable pageable) {
+        TypedQuery<Book> query = createQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(Specification<Book> spec, BookProjection projection,
+                                                Pageable pageable) {
+        List<BookProjection.Field> fields = projection.getFields();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (BookProjection.Field field : fields) {
+            selections.add(root.get(field.getProperty()));
+        }
+        query.multiselect(selections);
+        applyWhere(query, root, cb, spec);
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Tuple> tuples = typedQuery.getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(fields.get(i).getProperty(), tuple.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public void batchInsert(List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        // 在当前事务的连接上执行，MySQL需开启rewriteBatchedStatements才会合并为多值INSERT
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                LocalDate today = LocalDate.now();
+                for (Book book : books) {
+                    book.setCreatedAt(today);
+                    book.setUpdatedAt(today);
+                    ps.setString(1, book.getTitle());
+                    ps.setString(2, book.getAuthor());
+                    setNullable(ps, 3, book.getIsbn(), Types.VARCHAR);
+                    setNullable(ps, 4, book.getPublishDate(), Types.DATE);
+                    ps.setString(5, book.getStatus().name());
+                    setNullable(ps, 6, book.getCategory(), Types.VARCHAR);
+                    setNullable(ps, 7, book.getDescription(), Types.VARCHAR);
+                    setNullable(ps, 8, book.getPrice(), Types.DOUBLE);
+                    setNullable(ps, 9, book.getLocation(), Types.VARCHAR);
+                    setNullable(ps, 10, book.getTotalCopies(), Types.INTEGER);
+                    setNullable(ps, 11, book.getAvailableCopies(), Types.INTEGER);
+                    ps.setObject(12, today);
+                    ps.setObject(13, today);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < books.size()) {
+                        books.get(i++).setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType)
+            throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType);
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+
+    private TypedQuery<Book> createQuery(Specification<Book> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        applyWhere(query, root, cb, spec);
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private static void applyWhere(CriteriaQuery<?> query, Root<Book> root, CriteriaBuilder cb,
+                                   Specification<Book> spec) {
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+    }
+}
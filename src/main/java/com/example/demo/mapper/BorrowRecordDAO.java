@@ -0,0 +1,166 @@
+package com.example.demo.mapper;
+
+import com.example.demo.model.BookBorrowCount;
+import com.example.demo.model.BorrowDueDate;
+import com.example.demo.model.BorrowRecord;
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.BorrowStatus;
+import com.example.demo.model.LoanTotals;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 借阅记录数据访问接口
+ * 查询直接投影为BorrowRecordDTO，避免逐条加载延迟关联的图书和用户；
+ * 状态变更使用带条件的UPDATE，由数据库保证同一条记录不会被重复归还或续借
+ */
+@Repository
+public interface BorrowRecordDAO extends JpaRepository<BorrowRecord, Long>, BorrowRecordDAOCustom {
+
+    /**
+     * 根据ID查询借阅记录视图
+     * @param id 借阅记录ID
+     * @return 借阅记录视图
+     */
+    @Query("select new com.example.demo.model.BorrowRecordDTO(r.id, b.id, b.title, r.user.id, "
+            + "r.borrowDate, r.dueDate, r.returnDate, r.status, r.fineAmount) "
+            + "from BorrowRecord r join r.book b where r.id = :id")
+    Optional<BorrowRecordDTO> findViewById(@Param("id") Long id);
+
+    /**
+     * 分页查询用户的借阅记录，按借阅时间倒序，书名随记录一次查出
+     * @param userId 借阅人ID
+     * @param pageable 分页参数，排序参数被忽略
+     * @return 分页后的借阅记录视图
+     */
+    @Query(value = "select new com.example.demo.model.BorrowRecordDTO(r.id, b.id, b.title, r.user.id, "
+            + "r.borrowDate, r.dueDate, r.returnDate, r.status, r.fineAmount) "
+            + "from BorrowRecord r join r.book b where r.user.id = :userId "
+            + "order by r.borrowDate desc, r.id desc",
+            countQuery = "select count(r) from BorrowRecord r where r.user.id = :userId")
+    Page<BorrowRecordDTO> findViewsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * 标记为已归还，只有处于指定状态的记录会被更新
+     * @param id 借阅记录ID
+     * @param returnDate 归还时间
+     * @param returned 已归还状态
+     * @param active 允许归还的状态
+     * @return 更新的行数，0表示记录不存在或已归还
+     */
+    @Modifying
+    @Query("update BorrowRecord r set r.status = :returned, r.returnDate = :returnDate, r.updatedAt = :returnDate "
+            + "where r.id = :id and r.status in :active")
+    int markReturned(@Param("id") Long id,
+                     @Param("returnDate") LocalDateTime returnDate,
+                     @Param("returned") BorrowStatus returned,
+                     @Param("active") Collection<BorrowStatus> active);
+
+    /**
+     * 标记罚款已缴清，只更新已归还且有未缴罚款的记录；未归还的记录罚款仍在累加，不能缴清
+     * @param id 借阅记录ID
+     * @param active 未归还的状态
+     * @param now 当前时间
+     * @return 更新的行数，0表示记录不存在、未归还或没有未缴罚款
+     */
+    @Modifying
+    @Query("update BorrowRecord r set r.finePaid = true, r.updatedAt = :now "
+            + "where r.id = :id and r.finePaid = false and r.fineAmount > 0 and r.status not in :active")
+    int markFinePaid(@Param("id") Long id,
+                     @Param("active") Collection<BorrowStatus> active,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * 延长应还日期，应还日期和状态与读取时一致才更新
+     * @param id 借阅记录ID
+     * @param dueDate 读取时的应还日期
+     * @param newDueDate 新的应还日期
+     * @param status 允许续借的状态
+     * @param now 当前时间
+     * @return 更新的行数，0表示记录已被并发修改
+     */
+    @Modifying
+    @Query("update BorrowRecord r set r.dueDate = :newDueDate, r.updatedAt = :now "
+            + "where r.id = :id and r.dueDate = :dueDate and r.status = :status")
+    int extendDueDate(@Param("id") Long id,
+                      @Param("dueDate") LocalDateTime dueDate,
+                      @Param("newDueDate") LocalDateTime newDueDate,
+                      @Param("status") BorrowStatus status,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * 查询处于指定状态的借阅记录的应还日期
+     * @param ids 借阅记录ID
+     * @param statuses 借阅状态
+     * @return 应还日期，不处于指定状态的记录不返回
+     */
+    @Query("select new com.example.demo.model.BorrowDueDate(r.id, r.user.id, r.dueDate, r.status, r.fineAmount) "
+            + "from BorrowRecord r where r.id in :ids and r.status in :statuses")
+    List<BorrowDueDate> findDueDates(@Param("ids") Collection<Long> ids,
+                                     @Param("statuses") Collection<BorrowStatus> statuses);
+
+    /**
+     * 按ID分批查询处于指定状态的借阅记录的应还日期，走status索引
+     * @param statuses 借阅状态
+     * @param lastId 上一批最后一条记录的ID
+     * @param pageable 每批条数
+     * @return 按ID升序的应还日期
+     */
+    @Query("select new com.example.demo.model.BorrowDueDate(r.id, r.user.id, r.dueDate, r.status, r.fineAmount) "
+            + "from BorrowRecord r where r.status in :statuses and r.id > :lastId order by r.id")
+    List<BorrowDueDate> findDueDatesAfter(@Param("statuses") Collection<BorrowStatus> statuses,
+                                          @Param("lastId") Long lastId,
+                                          Pageable pageable);
+
+    /**
+     * 标记为逾期并更新罚款，只更新仍未归还且已到期的记录
+     * @param ids 借阅记录ID
+     * @param fineAmount 罚款金额
+     * @param overdue 逾期状态
+     * @param active 未归还的状态
+     * @param now 当前时间
+     * @return 更新的行数
+     */
+    @Modifying
+    @Query("update BorrowRecord r set r.status = :overdue, r.fineAmount = :fineAmount, r.updatedAt = :now "
+            + "where r.id in :ids and r.status in :active and r.dueDate <= :now")
+    int markOverdue(@Param("ids") Collection<Long> ids,
+                    @Param("fineAmount") Double fineAmount,
+                    @Param("overdue") BorrowStatus overdue,
+                    @Param("active") Collection<BorrowStatus> active,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * 汇总借阅人未归还的借阅和未缴的罚款，走(user_id, borrow_date)索引
+     * 已归还但罚款未缴的记录只计入罚款合计
+     * @param userId 借阅人ID
+     * @param overdue 逾期状态
+     * @param active 未归还的状态
+     * @return 未归还的借阅数、逾期数和未缴罚款合计
+     */
+    @Query("select coalesce(sum(case when r.status in :active then 1 else 0 end), 0) as activeLoans, "
+            + "coalesce(sum(case when r.status = :overdue then 1 else 0 end), 0) as overdueLoans, "
+            + "coalesce(sum(case when r.finePaid = false then r.fineAmount else 0 end), 0) as outstandingFines "
+            + "from BorrowRecord r where r.user.id = :userId "
+            + "and (r.status in :active or (r.finePaid = false and r.fineAmount > 0))")
+    LoanTotals sumActiveLoans(@Param("userId") Long userId,
+                              @Param("overdue") BorrowStatus overdue,
+                              @Param("active") Collection<BorrowStatus> active);
+
+    /**
+     * 按图书统计累计借阅次数，走book_id索引，只返回借阅过的图书
+     * @return 每本图书的借阅次数
+     */
+    @Query("select r.book.id as bookId, count(r) as borrows from BorrowRecord r group by r.book.id")
+    List<BookBorrowCount> countBorrowsByBook();
+}
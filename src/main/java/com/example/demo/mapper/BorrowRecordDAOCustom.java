@@ -0,0 +1,16 @@
+package com.example.demo.mapper;
+
+import com.example.demo.model.BorrowRecordDTO;
+
+import java.util.List;
+
+/**
+ * 借阅记录数据访问扩展接口
+ */
+public interface BorrowRecordDAOCustom {
+    /**
+     * 批量插入借阅记录，使用JDBC批处理一次发送整批INSERT，插入后回填数据库生成的ID
+     * @param records 待插入的借阅记录，只使用图书ID、借阅人ID、日期、状态和罚款金额
+     */
+    void batchInsert(List<BorrowRecordDTO> records);
+}
@@ -0,0 +1,59 @@
+package com.example.demo.mapper;
+
+import com.example.demo.model.BorrowRecordDTO;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 借阅记录数据访问扩展实现
+ */
+public class BorrowRecordDAOCustomImpl implements BorrowRecordDAOCustom {
+
+    private static final String INSERT_SQL = "insert into borrow_records (book_id, user_id, borrow_date, due_date, "
+            + "status, fine_amount, fine_paid, created_at, updated_at) values (?, ?, ?, ?, ?, ?, false, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BorrowRecordDAOCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void batchInsert(List<BorrowRecordDTO> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        // 在当前事务的连接上执行，MySQL需开启rewriteBatchedStatements才会合并为多值INSERT
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (BorrowRecordDTO record : records) {
+                    ps.setLong(1, record.getBookId());
+                    ps.setLong(2, record.getUserId());
+                    ps.setTimestamp(3, Timestamp.valueOf(record.getBorrowDate()));
+                    ps.setTimestamp(4, Timestamp.valueOf(record.getDueDate()));
+                    ps.setString(5, record.getStatus().name());
+                    ps.setDouble(6, record.getFineAmount() == null ? 0.0 : record.getFineAmount());
+                    ps.setTimestamp(7, now);
+                    ps.setTimestamp(8, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < records.size()) {
+                        records.get(i++).setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
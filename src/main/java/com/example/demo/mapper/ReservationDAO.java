@@ -0,0 +1,150 @@
+package com.example.demo.mapper;
+
+import com.example.demo.model.Reservation;
+import com.example.demo.model.ReservationDTO;
+import com.example.demo.model.ReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 预约记录数据访问接口
+ * 排队顺序保存在Redis中，这里只负责持久化和带条件的状态变更
+ */
+@Repository
+public interface ReservationDAO extends JpaRepository<Reservation, Long> {
+
+    /**
+     * 根据ID查询预约记录视图
+     * @param id 预约记录ID
+     * @return 预约记录视图
+     */
+    @Query("select new com.example.demo.model.ReservationDTO(r.id, r.book.id, r.user.id, "
+            + "r.reservationDate, r.expiryDate, r.status) from Reservation r where r.id = :id")
+    Optional<ReservationDTO> findViewById(@Param("id") Long id);
+
+    /**
+     * 查询处于指定状态的预约记录
+     * @param ids 预约记录ID
+     * @param statuses 预约状态
+     * @return 预约记录视图，不处于指定状态的记录不返回
+     */
+    @Query("select new com.example.demo.model.ReservationDTO(r.id, r.book.id, r.user.id, "
+            + "r.reservationDate, r.expiryDate, r.status) from Reservation r "
+            + "where r.id in :ids and r.status in :statuses")
+    List<ReservationDTO> findViews(@Param("ids") Collection<Long> ids,
+                                   @Param("statuses") Collection<ReservationStatus> statuses);
+
+    /**
+     * 按ID分批查询处于指定状态的预约记录，走status索引
+     * @param statuses 预约状态
+     * @param lastId 上一批最后一条记录的ID
+     * @param pageable 每批条数
+     * @return 按ID升序的预约记录视图
+     */
+    @Query("select new com.example.demo.model.ReservationDTO(r.id, r.book.id, r.user.id, "
+            + "r.reservationDate, r.expiryDate, r.status) from Reservation r "
+            + "where r.status in :statuses and r.id > :lastId order by r.id")
+    List<ReservationDTO> findViewsAfter(@Param("statuses") Collection<ReservationStatus> statuses,
+                                        @Param("lastId") Long lastId,
+                                        Pageable pageable);
+
+    /**
+     * 用户是否已有该图书处于指定状态的预约
+     * @param bookId 图书ID
+     * @param userId 预约人ID
+     * @param statuses 预约状态
+     * @return 是否存在
+     */
+    @Query("select count(r) > 0 from Reservation r "
+            + "where r.book.id = :bookId and r.user.id = :userId and r.status in :statuses")
+    boolean existsByStatus(@Param("bookId") Long bookId,
+                           @Param("userId") Long userId,
+                           @Param("statuses") Collection<ReservationStatus> statuses);
+
+    /**
+     * 批准排队中且未过期的预约，并把过期日期改为取书期限
+     * @param id 预约记录ID
+     * @param expiryDate 取书期限
+     * @param approved 已批准状态
+     * @param pending 排队中状态
+     * @param now 当前时间
+     * @return 更新的行数，0表示预约已取消或已过期
+     */
+    @Modifying
+    @Query("update Reservation r set r.status = :approved, r.expiryDate = :expiryDate, r.updatedAt = :now "
+            + "where r.id = :id and r.status = :pending and r.expiryDate > :now")
+    int approve(@Param("id") Long id,
+                @Param("expiryDate") LocalDateTime expiryDate,
+                @Param("approved") ReservationStatus approved,
+                @Param("pending") ReservationStatus pending,
+                @Param("now") LocalDateTime now);
+
+    /**
+     * 变更预约状态，只有处于指定状态的记录会被更新
+     * @param ids 预约记录ID
+     * @param status 新状态
+     * @param from 允许变更的状态
+     * @param now 当前时间
+     * @return 更新的行数
+     */
+    @Modifying
+    @Query("update Reservation r set r.status = :status, r.updatedAt = :now "
+            + "where r.id in :ids and r.status in :from")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") ReservationStatus status,
+                     @Param("from") Collection<ReservationStatus> from,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * 使已到期的预约过期，只更新处于指定状态且过期日期已到的记录
+     * @param ids 预约记录ID
+     * @param expired 过期后的状态
+     * @param from 允许过期的状态
+     * @param now 当前时间
+     * @return 更新的行数
+     */
+    @Modifying
+    @Query("update Reservation r set r.status = :expired, r.updatedAt = :now "
+            + "where r.id in :ids and r.status in :from and r.expiryDate <= :now")
+    int expire(@Param("ids") Collection<Long> ids,
+               @Param("expired") ReservationStatus expired,
+               @Param("from") Collection<ReservationStatus> from,
+               @Param("now") LocalDateTime now);
+
+    /**
+     * 借书后完成该用户对该图书已批准的预约
+     * @param bookId 图书ID
+     * @param userId 预约人ID
+     * @param completed 已完成状态
+     * @param approved 已批准状态
+     * @param now 当前时间
+     * @return 更新的行数
+     */
+    @Modifying
+    @Query("update Reservation r set r.status = :completed, r.updatedAt = :now "
+            + "where r.book.id = :bookId and r.user.id = :userId and r.status = :approved")
+    int completeApproved(@Param("bookId") Long bookId,
+                         @Param("userId") Long userId,
+                         @Param("completed") ReservationStatus completed,
+                         @Param("approved") ReservationStatus approved,
+                         @Param("now") LocalDateTime now);
+
+    /**
+     * 统计借阅人处于指定状态的预约数
+     * @param userId 预约人ID
+     * @param statuses 预约状态
+     * @return 预约数
+     */
+    @Query("select count(r) from Reservation r where r.user.id = :userId and r.status in :statuses")
+    long countByUserAndStatus(@Param("userId") Long userId,
+                              @Param("statuses") Collection<ReservationStatus> statuses);
+}
@@ -0,0 +1,105 @@
+package com.example.demo.metrics;
+
+import com.example.demo.exception.SqlBudgetExceededException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL语句计数器
+ * 作为Hibernate的StatementInspector统计当前线程在开始、结束之间准备执行的语句数，语句本身不做修改；
+ * 只统计经过Hibernate的语句，JdbcTemplate批量写入不在其中。
+ * 同时按语句文本统计重复次数用于发现N+1查询；超过语句数预算且配置为失败时，
+ * 超出的语句在执行前抛出SqlBudgetExceededException
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private final int maxStatements;
+    private final int repeatThreshold;
+    private final boolean failOnExceed;
+
+    private final ThreadLocal<Counts> counts = new ThreadLocal<>();
+
+    /**
+     * 构造函数，不限制语句数，不检测重复语句
+     */
+    public SqlStatementCounter() {
+        this(0, 0, false);
+    }
+
+    /**
+     * 构造函数
+     * @param maxStatements 每次统计允许的最大语句数，0表示不限制
+     * @param repeatThreshold 同一条语句执行多少次视为N+1查询，0表示不检测
+     * @param failOnExceed 超过语句数预算时是否让超出的语句失败，否则只在结束时标记
+     */
+    public SqlStatementCounter(int maxStatements, int repeatThreshold, boolean failOnExceed) {
+        this.maxStatements = maxStatements;
+        this.repeatThreshold = repeatThreshold;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counts current = counts.get();
+        if (current == null) {
+            return sql;
+        }
+        current.statements++;
+        if (repeatThreshold > 0) {
+            current.bySql.merge(sql, 1, Integer::sum);
+        }
+        if (failOnExceed && maxStatements > 0 && current.statements > maxStatements) {
+            throw new SqlBudgetExceededException("SQL statement budget of " + maxStatements + " exceeded");
+        }
+        return sql;
+    }
+
+    /**
+     * 开始统计当前线程的语句数
+     */
+    public void start() {
+        counts.set(new Counts());
+    }
+
+    /**
+     * 当前线程已统计的语句数
+     * @return 语句数，未开始统计时为0
+     */
+    public int current() {
+        Counts current = counts.get();
+        return current == null ? 0 : current.statements;
+    }
+
+    /**
+     * 结束统计
+     * @return 开始以来的语句情况，未开始统计时语句数为0
+     */
+    public SqlStatementStats stop() {
+        Counts current = counts.get();
+        counts.remove();
+        if (current == null) {
+            return new SqlStatementStats();
+        }
+
+        String repeatedSql = null;
+        int repeatedCount = 0;
+        for (Map.Entry<String, Integer> entry : current.bySql.entrySet()) {
+            if (entry.getValue() >= repeatThreshold && entry.getValue() > repeatedCount) {
+                repeatedSql = entry.getKey();
+                repeatedCount = entry.getValue();
+            }
+        }
+        boolean overBudget = maxStatements > 0 && current.statements > maxStatements;
+        return new SqlStatementStats(current.statements, overBudget, repeatedSql, repeatedCount);
+    }
+
+    /**
+     * 单线程内的计数，不需要同步
+     */
+    private static class Counts {
+        private int statements;
+        private final Map<String, Integer> bySql = new HashMap<>();
+    }
+}
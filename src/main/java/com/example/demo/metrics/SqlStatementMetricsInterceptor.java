@@ -0,0 +1,74 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 按接口记录每个请求执行的SQL语句数（http.server.requests.sql.statements）
+ * 标签与http.server.requests一致，使用路由模板而不是实际路径；
+ * 超过语句数预算或疑似N+1查询的请求记录告警日志；
+ * 异步请求的后续处理在其他线程执行，不记录
+ */
+public class SqlStatementMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String METRIC_NAME = "http.server.requests.sql.statements";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementMetricsInterceptor.class);
+
+    private final SqlStatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 构造函数
+     * @param statementCounter SQL语句计数器
+     * @param meterRegistry 指标注册表
+     */
+    public SqlStatementMetricsInterceptor(SqlStatementCounter statementCounter, MeterRegistry meterRegistry) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        statementCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        statementCounter.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SqlStatementStats stats = statementCounter.stop();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder(METRIC_NAME)
+                .description("SQL statements executed per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .tag("status", String.valueOf(response.getStatus()))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getStatements());
+
+        if (stats.isOverBudget()) {
+            log.warn("{} {} executed {} SQL statements, over budget", request.getMethod(), uri,
+                    stats.getStatements());
+        }
+        if (stats.getRepeatedSql() != null) {
+            log.warn("{} {} executed the same SQL statement {} times, possible N+1 query: {}",
+                    request.getMethod(), uri, stats.getRepeatedCount(), stats.getRepeatedSql());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一次统计期间的SQL语句情况
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlStatementStats {
+
+    /**
+     * 执行的语句总数
+     */
+    private int statements;
+
+    /**
+     * 是否超过语句数预算
+     */
+    private boolean overBudget;
+
+    /**
+     * 重复次数达到阈值的语句中重复最多的一条，没有时为null；
+     * 同一条语句反复执行通常是逐条加载关联对象导致的N+1查询
+     */
+    private String repeatedSql;
+
+    /**
+     * repeatedSql的执行次数
+     */
+    private int repeatedCount;
+}
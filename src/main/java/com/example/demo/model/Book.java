@@ -4,9 +4,12 @@ import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -105,23 +108,37 @@ public class Book {
 
     /**
      * 可借阅副本数
-     * 默认为1
+     * 默认为1；借还时由Redis库存维护并按增量写回，实体更新时不写入该列，避免覆盖写回的增量
      */
-    @Column(name = "available_copies")
+    @Column(name = "available_copies", updatable = false)
     private Integer availableCopies = 1;
 
+    /**
+     * 乐观锁版本号
+     * 每次更新自动加一，并发修改同一本图书时后提交的一方失败
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     /**
      * 借阅记录列表
-     * 一对多关系
+     * 一对多关系，延迟加载；不参与toString、equals/hashCode和JSON序列化，避免打印或返回图书时逐本查询
      */
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JsonIgnore
     private List<BorrowRecord> borrowRecords;
 
     /**
      * 预约记录列表
-     * 一对多关系
+     * 一对多关系，延迟加载；不参与toString、equals/hashCode和JSON序列化，避免打印或返回图书时逐本查询
      */
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JsonIgnore
     private List<Reservation> reservations;
 
     /**
@@ -0,0 +1,23 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 图书实时库存
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookAvailability {
+    /**
+     * 图书ID
+     */
+    private Long bookId;
+
+    /**
+     * 当前可借副本数
+     */
+    private Integer availableCopies;
+}
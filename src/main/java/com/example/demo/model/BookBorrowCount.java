@@ -0,0 +1,16 @@
+package com.example.demo.model;
+
+/**
+ * 单本图书的累计借阅次数
+ */
+public interface BookBorrowCount {
+    /**
+     * @return 图书ID
+     */
+    Long getBookId();
+
+    /**
+     * @return 借阅次数，含已归还的借阅
+     */
+    Number getBorrows();
+}
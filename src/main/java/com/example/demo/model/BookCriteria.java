@@ -0,0 +1,207 @@
+package com.example.demo.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 图书查询条件
+ * 汇总多条件查询和关键词搜索的过滤参数，并提供规范化的缓存键；
+ * 字符串条件在构造和设置时去除首尾空白、空串视为未指定，查询、缓存键和失效判断使用同一份规范化后的值
+ */
+@Data
+@NoArgsConstructor
+public class BookCriteria {
+
+    /**
+     * 按标题搜索的类型，即标题搜索策略的Bean名称
+     */
+    public static final String TITLE_SEARCH_TYPE = "titleSearchStrategy";
+
+    /**
+     * 按作者搜索的类型，即作者搜索策略的Bean名称
+     */
+    public static final String AUTHOR_SEARCH_TYPE = "authorSearchStrategy";
+
+    /**
+     * 分解后的重音符号
+     */
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+    /**
+     * 分类
+     */
+    private String category;
+
+    /**
+     * 状态
+     */
+    private BookStatus status;
+
+    /**
+     * 最低价格
+     */
+    private Double minPrice;
+
+    /**
+     * 最高价格
+     */
+    private Double maxPrice;
+
+    /**
+     * 出版开始日期
+     */
+    private LocalDate startDate;
+
+    /**
+     * 出版结束日期
+     */
+    private LocalDate endDate;
+
+    /**
+     * 搜索关键词
+     */
+    private String keyword;
+
+    /**
+     * 搜索类型，即搜索策略的Bean名称
+     */
+    private String searchType;
+
+    public BookCriteria(String category, BookStatus status, Double minPrice, Double maxPrice,
+                        LocalDate startDate, LocalDate endDate, String keyword, String searchType) {
+        this.category = trim(category);
+        this.status = status;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.keyword = trim(keyword);
+        this.searchType = trim(searchType);
+    }
+
+    public void setCategory(String category) {
+        this.category = trim(category);
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = trim(keyword);
+    }
+
+    public void setSearchType(String searchType) {
+        this.searchType = trim(searchType);
+    }
+
+    /**
+     * 创建关键词搜索条件
+     * @param keyword 搜索关键词
+     * @param searchType 搜索类型
+     * @return 查询条件
+     */
+    public static BookCriteria ofKeyword(String keyword, String searchType) {
+        BookCriteria criteria = new BookCriteria();
+        criteria.setKeyword(keyword);
+        criteria.setSearchType(searchType);
+        return criteria;
+    }
+
+    /**
+     * 生成规范化的缓存键
+     * 语义相同的条件生成相同的键（如价格10与10.0），字符串字段带长度前缀，避免不同条件拼接后相同
+     * @return 缓存键
+     */
+    public String cacheKey() {
+        StringBuilder key = new StringBuilder(64);
+        appendString(key, "c", category);
+        key.append("s=").append(status == null ? "" : status.name()).append('|');
+        key.append("p=").append(normalize(minPrice)).append('~').append(normalize(maxPrice)).append('|');
+        key.append("d=").append(startDate == null ? "" : startDate).append('~')
+                .append(endDate == null ? "" : endDate).append('|');
+        appendString(key, "t", searchType);
+        appendString(key, "k", keyword);
+        return key.toString();
+    }
+
+    /**
+     * 判断图书是否满足查询条件，与数据库查询的过滤逻辑保持一致
+     * 分类按数据库排序规则比较，关键词按不区分大小写的包含判断；无法判断的搜索类型一律视为满足，宁可多失效也不漏失效
+     * @param book 图书，为null时返回false
+     * @return 是否满足
+     */
+    public boolean matches(Book book) {
+        if (book == null) {
+            return false;
+        }
+        if (category != null && (book.getCategory() == null
+                || !categoryKey(category).equals(categoryKey(book.getCategory())))) {
+            return false;
+        }
+        if (status != null && status != book.getStatus()) {
+            return false;
+        }
+        if (minPrice != null && (book.getPrice() == null || book.getPrice() < minPrice)) {
+            return false;
+        }
+        if (maxPrice != null && (book.getPrice() == null || book.getPrice() > maxPrice)) {
+            return false;
+        }
+        if (startDate != null && (book.getPublishDate() == null || book.getPublishDate().isBefore(startDate))) {
+            return false;
+        }
+        if (endDate != null && (book.getPublishDate() == null || book.getPublishDate().isAfter(endDate))) {
+            return false;
+        }
+        if (keyword == null) {
+            return true;
+        }
+        if (TITLE_SEARCH_TYPE.equals(searchType)) {
+            return containsIgnoreCase(book.getTitle(), keyword);
+        }
+        if (AUTHOR_SEARCH_TYPE.equals(searchType)) {
+            return containsIgnoreCase(book.getAuthor(), keyword);
+        }
+        return true;
+    }
+
+    /**
+     * 分类的比较键，与数据库默认的utf8mb4_0900_ai_ci排序规则一致，忽略大小写和重音
+     * @param category 分类
+     * @return 比较键
+     */
+    public static String categoryKey(String category) {
+        return ACCENTS.matcher(Normalizer.normalize(category.trim(), Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean containsIgnoreCase(String value, String keyword) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(keyword.toLowerCase(Locale.ROOT));
+    }
+
+    private static void appendString(StringBuilder key, String name, String value) {
+        key.append(name).append('=');
+        if (value != null) {
+            key.append(value.length()).append(':').append(value);
+        }
+        key.append('|');
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String normalize(Double value) {
+        if (value == null) {
+            return "";
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+}
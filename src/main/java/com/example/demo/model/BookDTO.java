@@ -37,7 +37,7 @@ public class BookDTO {
     private Integer totalCopies = 1;
 
     /**
-     * 可借阅副本数
+     * 可借阅副本数，只在新增时使用；更新时由库存维护，修改总副本数时按差值调整
      */
     private Integer availableCopies = 1;
 }
@@ -0,0 +1,25 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+/**
+ * 带分面统计的图书分页结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacetPage {
+
+    /**
+     * 分页后的图书列表
+     */
+    private Page<Book> books;
+
+    /**
+     * 分面统计，分面索引尚未构建完成时为null
+     */
+    private BookFacets facets;
+}
@@ -0,0 +1,33 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 图书分面统计
+ * 每个维度的计数忽略该维度自身的过滤条件、但应用其余所有条件，
+ * 便于浏览页在已选中某个分类时仍能展示其他分类的数量
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacets {
+
+    /**
+     * 分类 -> 图书数量
+     */
+    private Map<String, Long> categories;
+
+    /**
+     * 状态 -> 图书数量
+     */
+    private Map<String, Long> statuses;
+
+    /**
+     * 价格区间 -> 图书数量
+     */
+    private Map<String, Long> priceBands;
+}
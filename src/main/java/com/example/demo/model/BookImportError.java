@@ -0,0 +1,24 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 导入失败的行
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportError {
+
+    /**
+     * 数据行号，从1开始，不含CSV表头
+     */
+    private long row;
+
+    /**
+     * 失败原因
+     */
+    private String message;
+}
@@ -0,0 +1,46 @@
+package com.example.demo.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 图书批量导入结果
+ */
+@Data
+public class BookImportResult {
+
+    /**
+     * 读取的数据行数
+     */
+    private long totalRows;
+
+    /**
+     * 成功导入的行数
+     */
+    private long imported;
+
+    /**
+     * 失败的行数
+     */
+    private long failed;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long elapsedMillis;
+
+    /**
+     * 失败行明细，最多保留前若干条
+     */
+    private List<BookImportError> errors = new ArrayList<>();
+
+    /**
+     * 计算导入吞吐量
+     * @return 每秒导入行数
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索联想建议
+ * 用于输入框的前缀自动补全
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSuggestion {
+
+    /**
+     * 建议类型
+     */
+    public enum Type {
+        TITLE,
+        AUTHOR,
+        ISBN
+    }
+
+    /**
+     * 建议文本
+     */
+    private String text;
+
+    /**
+     * 建议类型
+     */
+    private Type type;
+
+    /**
+     * 对应的图书ID，作者建议为null
+     */
+    private Long bookId;
+}
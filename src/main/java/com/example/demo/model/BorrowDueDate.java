@@ -0,0 +1,40 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 借阅记录的应还日期及逾期检测需要的其他几列
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowDueDate {
+    /**
+     * 借阅记录ID
+     */
+    private Long id;
+
+    /**
+     * 借阅人ID
+     */
+    private Long userId;
+
+    /**
+     * 应还日期
+     */
+    private LocalDateTime dueDate;
+
+    /**
+     * 借阅状态
+     */
+    private BorrowStatus status;
+
+    /**
+     * 当前罚款金额
+     */
+    private Double fineAmount;
+}
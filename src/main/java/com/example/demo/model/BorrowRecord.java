@@ -2,7 +2,9 @@ package com.example.demo.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
@@ -28,6 +30,8 @@ public class BorrowRecord {
      * 多对一关系
      */
     @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
@@ -36,6 +40,8 @@ public class BorrowRecord {
      * 多对一关系
      */
     @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -76,6 +82,13 @@ public class BorrowRecord {
     @Column(name = "fine_amount")
     private Double fineAmount = 0.0;
 
+    /**
+     * 罚款是否已缴清
+     * 与借阅状态无关，归还后未缴的罚款仍计入借阅人的未结罚款
+     */
+    @Column(name = "fine_paid", nullable = false)
+    private Boolean finePaid = false;
+
     /**
      * 创建时间
      */
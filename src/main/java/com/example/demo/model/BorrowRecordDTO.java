@@ -0,0 +1,61 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 借阅记录视图
+ * 只包含图书和借阅人的ID及书名，由查询直接投影得到，不加载延迟关联的图书和用户实体
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowRecordDTO {
+    /**
+     * 借阅记录ID
+     */
+    private Long id;
+
+    /**
+     * 图书ID
+     */
+    private Long bookId;
+
+    /**
+     * 书名
+     */
+    private String bookTitle;
+
+    /**
+     * 借阅人ID
+     */
+    private Long userId;
+
+    /**
+     * 借阅日期
+     */
+    private LocalDateTime borrowDate;
+
+    /**
+     * 应还日期
+     */
+    private LocalDateTime dueDate;
+
+    /**
+     * 实际归还日期，未归还时为null
+     */
+    private LocalDateTime returnDate;
+
+    /**
+     * 借阅状态
+     */
+    private BorrowStatus status;
+
+    /**
+     * 罚款金额
+     */
+    private Double fineAmount;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.model;
+
+/**
+ * 借阅人未归还借阅和未缴罚款的聚合结果
+ */
+public interface LoanTotals {
+    /**
+     * @return 未归还的借阅数
+     */
+    Number getActiveLoans();
+
+    /**
+     * @return 已逾期的借阅数
+     */
+    Number getOverdueLoans();
+
+    /**
+     * @return 未缴罚款合计，含已归还记录的罚款
+     */
+    Number getOutstandingFines();
+}
@@ -0,0 +1,46 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 预约记录视图
+ * 由查询直接投影得到，不加载延迟关联的图书和用户实体
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDTO {
+    /**
+     * 预约记录ID
+     */
+    private Long id;
+
+    /**
+     * 图书ID
+     */
+    private Long bookId;
+
+    /**
+     * 预约人ID
+     */
+    private Long userId;
+
+    /**
+     * 预约日期
+     */
+    private LocalDateTime reservationDate;
+
+    /**
+     * 过期日期：排队中为最长等待期限，已批准为取书期限
+     */
+    private LocalDateTime expiryDate;
+
+    /**
+     * 预约状态
+     */
+    private ReservationStatus status;
+}
@@ -0,0 +1,27 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * 预约请求
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+    /**
+     * 预约人ID
+     */
+    @NotNull(message = "预约人不能为空")
+    private Long userId;
+
+    /**
+     * 图书ID
+     */
+    @NotNull(message = "图书不能为空")
+    private Long bookId;
+}
@@ -0,0 +1,39 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 借阅人汇总
+ * 借书、预约前的资格检查只需读取这一份汇总
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    /**
+     * 借阅人ID
+     */
+    private Long userId;
+
+    /**
+     * 未归还的借阅数
+     */
+    private Long activeLoans;
+
+    /**
+     * 已逾期的借阅数
+     */
+    private Long overdueLoans;
+
+    /**
+     * 未归还借阅的罚款合计，归还时结清
+     */
+    private Double outstandingFines;
+
+    /**
+     * 排队中和已批准的预约数
+     */
+    private Long activeReservations;
+}
@@ -0,0 +1,179 @@
+package com.example.demo.pagination;
+
+import com.example.demo.model.Book;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 图书游标分页请求
+ * 按(排序字段, id)做键集分页，翻到任意深度都只需一次走索引的范围查询，且不执行COUNT；
+ * 游标是对上一页最后一条记录的排序键和ID的不透明编码。
+ * 仅支持非空字段排序：id、title、createdAt
+ */
+public class BookCursorRequest {
+
+    public static final int DEFAULT_SIZE = 10;
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * 可用于游标分页的排序字段
+     */
+    public enum SortKey {
+        ID("id"),
+        TITLE("title"),
+        CREATED_AT("createdAt");
+
+        private final String property;
+
+        SortKey(String property) {
+            this.property = property;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        static SortKey fromProperty(String property) {
+            for (SortKey key : values()) {
+                if (key.property.equals(property)) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported cursor sort property: " + property);
+        }
+    }
+
+    private final SortKey sortKey;
+    private final Sort.Direction direction;
+    private final int size;
+    private final Long afterId;
+    private final String afterValue;
+    private final LocalDate afterDate;
+
+    private BookCursorRequest(SortKey sortKey, Sort.Direction direction, int size, Long afterId, String afterValue,
+                              LocalDate afterDate) {
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.size = size;
+        this.afterId = afterId;
+        this.afterValue = afterValue;
+        this.afterDate = afterDate;
+    }
+
+    /**
+     * 创建游标分页请求
+     * @param sort 排序，格式为"字段"或"字段,asc|desc"，为空时按id升序
+     * @param after 上一页返回的游标，为空表示第一页
+     * @param size 每页数量，最大100
+     * @return 游标分页请求
+     */
+    public static BookCursorRequest of(String sort, String after, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_SIZE : Math.min(size, MAX_SIZE);
+        SortKey sortKey = SortKey.ID;
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (sort != null && !sort.trim().isEmpty()) {
+            String[] parts = sort.split(",");
+            sortKey = SortKey.fromProperty(parts[0].trim());
+            if (parts.length > 1) {
+                direction = Sort.Direction.fromString(parts[1].trim());
+            }
+        }
+        if (after == null || after.isEmpty()) {
+            return new BookCursorRequest(sortKey, direction, pageSize, null, null, null);
+        }
+
+        // 游标格式：排序字段,方向,id,排序值
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split(",", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + after);
+        }
+        if (parts.length != 4 || !parts[0].equals(sortKey.name()) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor does not match sort: " + after);
+        }
+        // 排序值在解码时就校验，被篡改的游标返回400而不是在查询时失败
+        try {
+            LocalDate afterDate = sortKey == SortKey.CREATED_AT ? LocalDate.parse(parts[3]) : null;
+            return new BookCursorRequest(sortKey, direction, pageSize, Long.valueOf(parts[2]), parts[3], afterDate);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + after);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * 排序条件，排序字段相同时按id排序保证顺序唯一
+     * @return 排序条件
+     */
+    public Sort getSort() {
+        if (sortKey == SortKey.ID) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, sortKey.getProperty()).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * 定位到游标之后的查询条件
+     * @return 查询条件，第一页时为null
+     */
+    public Specification<Book> afterCursor() {
+        if (afterId == null) {
+            return null;
+        }
+        boolean asc = direction.isAscending();
+        return (root, query, cb) -> {
+            if (sortKey == SortKey.ID) {
+                return asc ? cb.greaterThan(root.get("id"), afterId) : cb.lessThan(root.get("id"), afterId);
+            }
+            if (sortKey == SortKey.TITLE) {
+                return cb.or(
+                        asc ? cb.greaterThan(root.get("title"), afterValue) : cb.lessThan(root.get("title"), afterValue),
+                        cb.and(cb.equal(root.get("title"), afterValue),
+                                asc ? cb.greaterThan(root.get("id"), afterId) : cb.lessThan(root.get("id"), afterId)));
+            }
+            return cb.or(
+                    asc ? cb.greaterThan(root.get("createdAt"), afterDate) : cb.lessThan(root.get("createdAt"), afterDate),
+                    cb.and(cb.equal(root.get("createdAt"), afterDate),
+                            asc ? cb.greaterThan(root.get("id"), afterId) : cb.lessThan(root.get("id"), afterId)));
+        };
+    }
+
+    /**
+     * 将多查询一条的结果转换为游标分页结果
+     * @param rows 按getSort()排序、最多getSize()+1条的查询结果
+     * @return 游标分页结果
+     */
+    public CursorSlice<Book> toSlice(List<Book> rows) {
+        boolean hasNext = rows.size() > size;
+        List<Book> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = hasNext ? encode(content.get(content.size() - 1)) : null;
+        return new CursorSlice<>(content, nextCursor, hasNext);
+    }
+
+    private String encode(Book last) {
+        String value;
+        switch (sortKey) {
+            case TITLE:
+                value = last.getTitle();
+                break;
+            case CREATED_AT:
+                value = String.valueOf(last.getCreatedAt());
+                break;
+            default:
+                value = "";
+        }
+        String raw = sortKey.name() + "," + direction.name() + "," + last.getId() + "," + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
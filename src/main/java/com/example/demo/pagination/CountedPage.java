@@ -0,0 +1,54 @@
+package com.example.demo.pagination;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 带总数来源的分页结果
+ * 记录总数是否取自近似总数缓存，由控制器通过响应头告知调用方，不出现在响应体中
+ * @param <T> 数据类型
+ */
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final boolean approximateTotal;
+
+    /**
+     * 构造函数
+     * @param content 当前页数据
+     * @param pageable 分页参数
+     * @param total 总数
+     * @param approximateTotal 总数是否为近似值
+     */
+    public CountedPage(List<T> content, Pageable pageable, long total, boolean approximateTotal) {
+        super(content, pageable, total);
+        this.approximateTotal = approximateTotal;
+    }
+
+    /**
+     * 总数是否为近似值
+     * @return 是否为近似值
+     */
+    @JsonIgnore
+    public boolean isApproximateTotal() {
+        return approximateTotal;
+    }
+
+    /**
+     * 判断分页结果的总数是否为近似值
+     * @param page 分页结果
+     * @return 是否为近似值，非本类型的分页结果总数均为精确值
+     */
+    public static boolean isApproximateTotal(Page<?> page) {
+        return page instanceof CountedPage && ((CountedPage<?>) page).isApproximateTotal();
+    }
+
+    @Override
+    public <U> Page<U> map(Function<? super T, ? extends U> converter) {
+        return new CountedPage<>(getConvertedContent(converter), getPageable(), getTotalElements(), approximateTotal);
+    }
+}
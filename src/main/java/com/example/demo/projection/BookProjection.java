@@ -0,0 +1,119 @@
+package com.example.demo.projection;
+
+import com.example.demo.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 图书字段投影
+ * 列表和搜索接口按fields参数只查询、只返回所需的列，结果为字段名到值的有序映射；
+ * 投影查询不加载实体，不占用持久化上下文，也不参与脏检查。
+ * ID总是包含在结果中，便于客户端再按ID获取详情
+ */
+public class BookProjection {
+
+    /**
+     * 列表常用的摘要字段，不含较长的description
+     */
+    public static final BookProjection SUMMARY = new BookProjection(Collections.unmodifiableList(new ArrayList<>(
+            EnumSet.of(Field.ID, Field.TITLE, Field.AUTHOR, Field.ISBN, Field.STATUS, Field.AVAILABLE_COPIES,
+                    Field.PRICE))));
+
+    private static final String SUMMARY_ALIAS = "summary";
+
+    /**
+     * 可投影的图书字段
+     */
+    public enum Field {
+        ID("id", Book::getId),
+        TITLE("title", Book::getTitle),
+        AUTHOR("author", Book::getAuthor),
+        ISBN("isbn", Book::getIsbn),
+        PUBLISH_DATE("publishDate", Book::getPublishDate),
+        STATUS("status", Book::getStatus),
+        CATEGORY("category", Book::getCategory),
+        DESCRIPTION("description", Book::getDescription),
+        PRICE("price", Book::getPrice),
+        LOCATION("location", Book::getLocation),
+        TOTAL_COPIES("totalCopies", Book::getTotalCopies),
+        AVAILABLE_COPIES("availableCopies", Book::getAvailableCopies),
+        CREATED_AT("createdAt", Book::getCreatedAt),
+        UPDATED_AT("updatedAt", Book::getUpdatedAt);
+
+        private final String property;
+        private final Function<Book, Object> getter;
+
+        Field(String property, Function<Book, Object> getter) {
+            this.property = property;
+            this.getter = getter;
+        }
+
+        /**
+         * 实体属性名，同时也是结果中的字段名
+         * @return 属性名
+         */
+        public String getProperty() {
+            return property;
+        }
+
+        static Field fromProperty(String property) {
+            for (Field field : values()) {
+                if (field.property.equals(property)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported book field: " + property);
+        }
+    }
+
+    private final List<Field> fields;
+
+    private BookProjection(List<Field> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * 解析字段列表
+     * @param fields 逗号分隔的属性名，如"title,price"；"summary"表示摘要字段
+     * @return 字段投影，字段按声明顺序排列并去重，总是包含id
+     */
+    public static BookProjection of(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            throw new IllegalArgumentException("fields must not be empty");
+        }
+        if (SUMMARY_ALIAS.equals(fields.trim())) {
+            return SUMMARY;
+        }
+        Set<Field> selected = EnumSet.of(Field.ID);
+        for (String property : fields.split(",")) {
+            if (!property.trim().isEmpty()) {
+                selected.add(Field.fromProperty(property.trim()));
+            }
+        }
+        return new BookProjection(Collections.unmodifiableList(new ArrayList<>(selected)));
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * 从已加载的图书中取出投影字段，用于结果来自缓存或内存索引的情况
+     * @param book 图书
+     * @return 字段名到值的有序映射
+     */
+    public Map<String, Object> toMap(Book book) {
+        Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+        for (Field field : fields) {
+            row.put(field.property, field.getter.apply(book));
+        }
+        return row;
+    }
+}
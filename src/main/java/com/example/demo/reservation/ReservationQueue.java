@@ -0,0 +1,435 @@
+package com.example.demo.reservation;
+
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.event.ReservationEvent;
+import com.example.demo.exception.NoCopyAvailableException;
+import com.example.demo.inventory.BookInventory;
+import com.example.demo.mapper.ReservationDAO;
+import com.example.demo.model.ReservationDTO;
+import com.example.demo.model.ReservationStatus;
+import com.example.demo.utils.RedisUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预约排队
+ * 每本图书的排队预约按ID（即预约先后）放在Redis有序集合中，还书时只需查看队列长度，
+ * 有人排队就把归还的副本直接留给队首并批准其预约，不扫描预约表；
+ * 被批准的预约在取书期限内持有一本副本，借书时优先使用。
+ * 排队和取书期限按过期时间放在另一个有序集合中，由后台任务分批过期；过期的已批准预约把副本交给下一位。
+ * 队列中的ID只是提示，批准和过期都是带条件的UPDATE，已取消或已过期的预约会被跳过。
+ * 取走的副本在同一个脚本中记入已取走集合，启动恢复时不会为已取走但预约尚未完成的副本重建保留
+ */
+@Component
+public class ReservationQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationQueue.class);
+
+    public static final String QUEUE_PREFIX = "reservation:queue:";
+    public static final String EXPIRY_KEY = "reservation:expiry";
+
+    /**
+     * 已批准预约持有的副本，field为“图书ID:预约人ID”
+     */
+    public static final String HOLD_KEY = "reservation:hold";
+
+    /**
+     * 已被借书取走的保留副本，成员为“图书ID:预约人ID”，分数为取走时间；超过保留天数的成员在取走时顺带清理
+     */
+    public static final String CLAIMED_KEY = "reservation:hold:claimed";
+
+    /**
+     * 删除保留副本并记入已取走集合，保留不存在时返回0
+     * ARGV[1]为字段，ARGV[2]为当前毫秒数，ARGV[3]为清理早于该毫秒数的已取走记录
+     */
+    private static final RedisScript<Long> CLAIM_HOLD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HDEL', KEYS[1], ARGV[1]) == 0 then return 0 end " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', ARGV[3]) " +
+            "redis.call('ZADD', KEYS[2], ARGV[2], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 保留副本并清除已取走记录，用于新批准的预约和借书失败后的归还
+     */
+    private static final RedisScript<Long> GRANT_HOLD_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREM', KEYS[2], ARGV[1]) " +
+            "redis.call('HSET', KEYS[1], ARGV[1], '1') " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 仅在保留不存在、且没有被取走过时重建保留，并发的借书和多个节点同时恢复都不会重复交出副本
+     */
+    private static final RedisScript<Long> RECOVER_HOLD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('ZSCORE', KEYS[2], ARGV[1]) then return 0 end " +
+            "return redis.call('HSETNX', KEYS[1], ARGV[1], '1')",
+            Long.class);
+
+    private static final List<String> HOLD_KEYS = Arrays.asList(HOLD_KEY, CLAIMED_KEY);
+
+    private static final int RECOVER_BATCH_SIZE = 1000;
+
+    private static final List<ReservationStatus> ACTIVE_STATUSES =
+            Arrays.asList(ReservationStatus.PENDING, ReservationStatus.APPROVED);
+
+    private final RedisUtils redisUtils;
+    private final ReservationDAO reservationDAO;
+    private final BookInventory bookInventory;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long holdDays;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "reservation-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 构造函数
+     * @param redisUtils Redis工具类
+     * @param reservationDAO 预约记录数据访问对象
+     * @param bookInventory 图书副本库存
+     * @param transactionManager 事务管理器
+     * @param eventPublisher 事件发布器，用于发布预约过期、完成事件
+     * @param holdDays 批准后保留副本的天数
+     * @param pollIntervalMillis 检查过期预约的间隔（毫秒）
+     * @param batchSize 每批过期的最大预约数
+     */
+    public ReservationQueue(
+            RedisUtils redisUtils,
+            ReservationDAO reservationDAO,
+            BookInventory bookInventory,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.reservation.hold-days:3}") long holdDays,
+            @Value("${app.reservation.poll-interval:1000}") long pollIntervalMillis,
+            @Value("${app.reservation.batch-size:500}") int batchSize
+    ) {
+        this.redisUtils = redisUtils;
+        this.reservationDAO = reservationDAO;
+        this.bookInventory = bookInventory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 在事务提交后的监听中执行时不能加入已提交的事务，否则批准不会提交
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.holdDays = holdDays;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 启动后从数据库恢复队列，再开始定期过期
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(() -> {
+            try {
+                int recovered = recover();
+                log.info("Reservation queue recovered {} active reservations", recovered);
+            } catch (RuntimeException e) {
+                log.warn("Reservation queue recovery failed: {}", e.getMessage());
+            }
+        });
+        executor.scheduleWithFixedDelay(this::expireQuietly, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 新预约加入图书的队尾
+     * @param reservation 排队中的预约
+     */
+    public void enqueue(ReservationDTO reservation) {
+        redisUtils.zAdd(queueKey(reservation.getBookId()), reservation.getId(), reservation.getId());
+        redisUtils.zAdd(EXPIRY_KEY, reservation.getId(), toMillis(reservation.getExpiryDate()));
+    }
+
+    /**
+     * 取消排队中的预约
+     * @param reservation 预约
+     */
+    public void dequeue(ReservationDTO reservation) {
+        redisUtils.zRemove(queueKey(reservation.getBookId()), reservation.getId());
+        redisUtils.zRemove(EXPIRY_KEY, reservation.getId());
+    }
+
+    /**
+     * 借书时取走为该用户保留的副本
+     * @param userId 借阅人ID
+     * @param bookId 图书ID
+     * @return 是否有保留的副本，有则该副本已从库存中扣除，不需要再借出
+     */
+    public boolean claimHold(Long userId, Long bookId) {
+        long now = System.currentTimeMillis();
+        Long claimed = redisUtils.executeWithStringArgs(CLAIM_HOLD_SCRIPT, HOLD_KEYS, holdField(bookId, userId),
+                String.valueOf(now), String.valueOf(now - TimeUnit.DAYS.toMillis(holdDays)));
+        return claimed != null && claimed > 0;
+    }
+
+    /**
+     * 借书失败时把取走的副本还给该用户
+     * @param userId 借阅人ID
+     * @param bookId 图书ID
+     */
+    public void restoreHold(Long userId, Long bookId) {
+        grantHold(bookId, userId);
+    }
+
+    /**
+     * 借书成功后完成已批准的预约
+     * @param userId 借阅人ID
+     * @param bookId 图书ID
+     */
+    public void complete(Long userId, Long bookId) {
+        int rows = transactionTemplate.execute(status -> reservationDAO.completeApproved(bookId, userId,
+                ReservationStatus.COMPLETED, ReservationStatus.APPROVED, LocalDateTime.now()));
+        if (rows > 0) {
+            eventPublisher.publishEvent(new ReservationEvent(ReservationEvent.Type.COMPLETED,
+                    new ReservationDTO(null, bookId, userId, null, null, ReservationStatus.COMPLETED)));
+        }
+    }
+
+    /**
+     * 取消已批准的预约后，把保留的副本交给下一位
+     * @param reservation 已取消的预约
+     */
+    public void releaseHold(ReservationDTO reservation) {
+        redisUtils.zRemove(EXPIRY_KEY, reservation.getId());
+        // 预约人已在取消前借走副本时删除失败，不能重复交出
+        if (claimHold(reservation.getUserId(), reservation.getBookId())) {
+            handOver(reservation.getBookId());
+        }
+    }
+
+    /**
+     * 预约提交后如有可借副本，交给队首
+     * 预约前检查库存与入队之间归还的副本，归还时队列中还没有这条预约，只能在此补交
+     * @param event 预约事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationEvent(ReservationEvent event) {
+        if (event.getType() == ReservationEvent.Type.CREATED) {
+            promote(event.getReservation().getBookId());
+        }
+    }
+
+    /**
+     * 还书后如有人排队，把副本留给队首；在库存归还副本之后执行
+     * @param event 借阅事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowEvent(BorrowEvent event) {
+        if (event.getType() == BorrowEvent.Type.RETURNED) {
+            promote(event.getRecord().getBookId());
+        }
+    }
+
+    /**
+     * 有人排队且有可借副本时，取出一本交给队首
+     * @param bookId 图书ID
+     */
+    public void promote(Long bookId) {
+        Long waiting = redisUtils.zSize(queueKey(bookId));
+        if (waiting == null || waiting == 0) {
+            return;
+        }
+        try {
+            bookInventory.reserve(bookId);
+        } catch (NoCopyAvailableException e) {
+            return;
+        }
+        handOver(bookId);
+    }
+
+    /**
+     * 把一本已从库存中扣除的副本交给队首，跳过已取消或已过期的预约；队列为空时副本放回库存
+     * @param bookId 图书ID
+     */
+    public void handOver(Long bookId) {
+        while (true) {
+            Object head = redisUtils.zPopMin(queueKey(bookId));
+            if (head == null) {
+                bookInventory.release(bookId);
+                return;
+            }
+            Long id = ((Number) head).longValue();
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expiryDate = now.plusDays(holdDays);
+            ReservationDTO approved;
+            try {
+                approved = transactionTemplate.execute(status -> {
+                    if (reservationDAO.approve(id, expiryDate, ReservationStatus.APPROVED,
+                            ReservationStatus.PENDING, now) == 0) {
+                        return null;
+                    }
+                    return reservationDAO.findViewById(id).orElse(null);
+                });
+            } catch (RuntimeException e) {
+                // 放回队首，副本还给库存，下次还书时重试
+                redisUtils.zAdd(queueKey(bookId), id, id);
+                bookInventory.release(bookId);
+                throw e;
+            }
+            if (approved != null) {
+                grantHold(bookId, approved.getUserId());
+                redisUtils.zAdd(EXPIRY_KEY, id, toMillis(expiryDate));
+                log.debug("Reservation {} approved, copy of book {} held until {}", id, bookId, expiryDate);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 过期所有已到期的预约
+     * @return 过期的预约数
+     */
+    public int expire() {
+        int expired = 0;
+        List<Object> popped;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            popped = redisUtils.zPopByScore(EXPIRY_KEY, toMillis(now), batchSize);
+            if (!popped.isEmpty()) {
+                List<Long> ids = new ArrayList<>(popped.size());
+                for (Object id : popped) {
+                    ids.add(((Number) id).longValue());
+                }
+                expired += expire(ids, now);
+            }
+        } while (popped.size() == batchSize);
+        return expired;
+    }
+
+    /**
+     * 按status索引分批读取未完成的预约，重建排队队列、过期集合和保留副本
+     * 已存在或已被取走的保留不会重建，可以在其他节点正常服务时重复执行
+     * @return 恢复的预约数
+     */
+    public int recover() {
+        int recovered = 0;
+        Long lastId = 0L;
+        List<ReservationDTO> batch;
+        do {
+            batch = reservationDAO.findViewsAfter(ACTIVE_STATUSES, lastId, PageRequest.of(0, RECOVER_BATCH_SIZE));
+            for (ReservationDTO reservation : batch) {
+                if (reservation.getStatus() == ReservationStatus.PENDING) {
+                    enqueue(reservation);
+                } else {
+                    redisUtils.executeWithStringArgs(RECOVER_HOLD_SCRIPT, HOLD_KEYS,
+                            holdField(reservation.getBookId(), reservation.getUserId()));
+                    redisUtils.zAdd(EXPIRY_KEY, reservation.getId(), toMillis(reservation.getExpiryDate()));
+                }
+                lastId = reservation.getId();
+            }
+            recovered += batch.size();
+        } while (batch.size() == RECOVER_BATCH_SIZE);
+        return recovered;
+    }
+
+    /**
+     * 排队中的预约一条UPDATE批量过期；已批准的预约逐条过期，成功后把保留的副本交给下一位
+     */
+    private int expire(List<Long> ids, LocalDateTime now) {
+        List<ReservationDTO> pending = new ArrayList<>();
+        List<ReservationDTO> approved = new ArrayList<>();
+        int expired;
+        try {
+            // 已取消或已完成的预约不会被查出，直接丢弃
+            for (ReservationDTO reservation : reservationDAO.findViews(ids, ACTIVE_STATUSES)) {
+                if (reservation.getExpiryDate().isAfter(now)) {
+                    // 取出后被批准，按新的取书期限放回
+                    redisUtils.zAdd(EXPIRY_KEY, reservation.getId(), toMillis(reservation.getExpiryDate()));
+                } else if (reservation.getStatus() == ReservationStatus.PENDING) {
+                    pending.add(reservation);
+                } else {
+                    approved.add(reservation);
+                }
+            }
+            List<Long> pendingIds = new ArrayList<>(pending.size());
+            for (ReservationDTO reservation : pending) {
+                pendingIds.add(reservation.getId());
+            }
+            expired = pendingIds.isEmpty() ? 0 : transactionTemplate.execute(status -> reservationDAO.expire(
+                    pendingIds, ReservationStatus.REJECTED, Collections.singletonList(ReservationStatus.PENDING), now));
+        } catch (RuntimeException e) {
+            for (Long id : ids) {
+                redisUtils.zAdd(EXPIRY_KEY, id, toMillis(now));
+            }
+            throw e;
+        }
+        for (ReservationDTO reservation : pending) {
+            redisUtils.zRemove(queueKey(reservation.getBookId()), reservation.getId());
+            reservation.setStatus(ReservationStatus.REJECTED);
+            eventPublisher.publishEvent(new ReservationEvent(ReservationEvent.Type.EXPIRED, reservation));
+        }
+        for (ReservationDTO reservation : approved) {
+            int rows = transactionTemplate.execute(status -> reservationDAO.expire(
+                    Collections.singletonList(reservation.getId()), ReservationStatus.REJECTED,
+                    Collections.singletonList(ReservationStatus.APPROVED), now));
+            if (rows > 0) {
+                expired++;
+                releaseHold(reservation);
+                reservation.setStatus(ReservationStatus.REJECTED);
+                eventPublisher.publishEvent(new ReservationEvent(ReservationEvent.Type.EXPIRED, reservation));
+            }
+        }
+        return expired;
+    }
+
+    private void expireQuietly() {
+        try {
+            int expired = expire();
+            if (expired > 0) {
+                log.debug("Expired {} reservations", expired);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Reservation expiry failed: {}", e.getMessage());
+        }
+    }
+
+    private void grantHold(Long bookId, Long userId) {
+        redisUtils.executeWithStringArgs(GRANT_HOLD_SCRIPT, HOLD_KEYS, holdField(bookId, userId));
+    }
+
+    private static String queueKey(Long bookId) {
+        return QUEUE_PREFIX + bookId;
+    }
+
+    private static String holdField(Long bookId, Long userId) {
+        return bookId + ":" + userId;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.retry;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 乐观锁冲突统计信息
+ * 记录某一类操作的调用、尝试、冲突和重试耗尽次数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConflictStats {
+
+    /**
+     * 调用次数
+     */
+    private long calls;
+
+    /**
+     * 尝试次数，包括首次执行和重试
+     */
+    private long attempts;
+
+    /**
+     * 版本冲突次数
+     */
+    private long conflicts;
+
+    /**
+     * 重试次数用尽仍冲突、最终失败的次数
+     */
+    private long exhausted;
+
+    /**
+     * 计算冲突率
+     * @return 每次尝试发生冲突的比例，没有尝试时返回0
+     */
+    public double getConflictRate() {
+        return attempts == 0 ? 0.0 : (double) conflicts / attempts;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.retry;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 乐观锁冲突重试
+ * 每次尝试在独立事务中执行，提交时版本冲突则回滚、退避后整体重做（重新读取最新数据并重新校验），
+ * 退避时间按指数增长并取随机值，避免冲突方同时重试再次冲突；超过最大尝试次数后抛出原异常。
+ * 各操作的尝试、冲突和重试耗尽次数同时以optimistic.lock.*指标导出
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    /**
+     * 操作名 -> 统计计数
+     */
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     * @param transactionManager 事务管理器
+     * @param meterRegistry 指标注册表
+     * @param maxAttempts 最大尝试次数，包括首次执行
+     * @param initialBackoffMillis 首次重试前的最大退避时间（毫秒）
+     * @param maxBackoffMillis 退避时间上限（毫秒）
+     */
+    public OptimisticLockRetry(
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.book.retry.max-attempts:3}") int maxAttempts,
+            @Value("${app.book.retry.initial-backoff:10}") long initialBackoffMillis,
+            @Value("${app.book.retry.max-backoff:200}") long maxBackoffMillis
+    ) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * 在事务中执行操作，版本冲突时重试；调用方不能处于事务中，否则冲突后无法重新读取
+     * @param operation 操作名，用于统计
+     * @param action 操作
+     * @return 操作结果
+     * @throws OptimisticLockingFailureException 重试次数用尽时抛出
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        Counters stats = counters.computeIfAbsent(operation, this::register);
+        stats.calls.increment();
+        long backoff = initialBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            stats.attempts.increment();
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                stats.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    stats.exhausted.increment();
+                    log.warn("{} still conflicting after {} attempts: {}", operation, attempt, e.getMessage());
+                    throw e;
+                }
+                log.debug("{} conflicted on attempt {}, retrying", operation, attempt);
+                if (!sleep(ThreadLocalRandom.current().nextLong(backoff + 1))) {
+                    throw e;
+                }
+                backoff = Math.min(backoff * 2, maxBackoffMillis);
+            }
+        }
+    }
+
+    /**
+     * 获取各操作的冲突统计
+     * @return key为操作名，value为统计信息
+     */
+    public Map<String, ConflictStats> stats() {
+        Map<String, ConflictStats> stats = new TreeMap<>();
+        counters.forEach((operation, c) -> stats.put(operation, new ConflictStats(
+                c.calls.sum(), c.attempts.sum(), c.conflicts.sum(), c.exhausted.sum())));
+        return stats;
+    }
+
+    /**
+     * 创建操作的统计计数，并注册为指标
+     */
+    private Counters register(String operation) {
+        Counters stats = new Counters();
+        FunctionCounter.builder("optimistic.lock.attempts", stats.attempts, LongAdder::doubleValue)
+                .tag("operation", operation).register(meterRegistry);
+        FunctionCounter.builder("optimistic.lock.conflicts", stats.conflicts, LongAdder::doubleValue)
+                .tag("operation", operation).register(meterRegistry);
+        FunctionCounter.builder("optimistic.lock.exhausted", stats.exhausted, LongAdder::doubleValue)
+                .tag("operation", operation).register(meterRegistry);
+        return stats;
+    }
+
+    private static boolean sleep(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+}
@@ -0,0 +1,556 @@
+package com.example.demo.search;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookCriteria;
+import com.example.demo.model.BookFacets;
+import com.example.demo.model.BookStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 图书分面索引
+ * 将图书表按列保存在内存中：价格、出版日期（epoch day）为基本类型数组，分类和状态字典编码，
+ * 并为每个分类、状态维护一个行号位图；一次扫描即可得到多条件查询结果和各维度的分面计数。
+ * 启动时从数据库分批加载，运行时根据本节点的图书变更事件和其他节点广播的变更增量更新
+ */
+@Component
+public class BookFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookFacetIndex.class);
+
+    /**
+     * 空值在日期列中的占位
+     */
+    private static final int NULL_DAY = Integer.MIN_VALUE;
+
+    /**
+     * 空值在字典编码列中的占位
+     */
+    private static final int NULL_CODE = -1;
+
+    private static final int CATEGORY_FAILED = 1;
+    private static final int STATUS_FAILED = 1 << 1;
+    private static final int PRICE_FAILED = 1 << 2;
+    private static final int DATE_FAILED = 1 << 3;
+
+    private final BookDAO bookDAO;
+    private final double[] priceBounds;
+    private final String[] priceBandLabels;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Columns columns = new Columns();
+
+    private volatile boolean ready;
+    private boolean building;
+    private final List<BookChangeEvent> pendingEvents = new ArrayList<>();
+
+    /**
+     * 构造函数
+     * @param bookDAO 图书数据访问对象
+     * @param priceBounds 价格区间分界点，升序
+     */
+    public BookFacetIndex(
+            BookDAO bookDAO,
+            @Value("${app.book.facet.price-bands:20,50,100,200}") double[] priceBounds
+    ) {
+        this.bookDAO = bookDAO;
+        this.priceBounds = priceBounds.clone();
+        Arrays.sort(this.priceBounds);
+        this.priceBandLabels = new String[this.priceBounds.length + 1];
+        double lower = 0;
+        for (int i = 0; i < this.priceBounds.length; i++) {
+            priceBandLabels[i] = format(lower) + "-" + format(this.priceBounds[i]);
+            lower = this.priceBounds[i];
+        }
+        priceBandLabels[this.priceBounds.length] = format(lower) + "+";
+    }
+
+    /**
+     * 索引是否已完成首次构建
+     * @return 是否可用
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 判断排序条件是否可以由索引完成
+     * @param sort 排序条件
+     * @return 只按id、price、publishDate排序时返回true
+     */
+    public boolean supports(Sort sort) {
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            if (!"id".equals(property) && !"price".equals(property) && !"publishDate".equals(property)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 启动后从数据库构建索引，之后由BookIndexSynchronizer定期重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        synchronized (pendingEvents) {
+            building = true;
+        }
+        long start = System.currentTimeMillis();
+        Columns newColumns = new Columns();
+
+        // 按ID分批加载，避免一次性读出整张表
+        Long lastId = 0L;
+        List<Book> batch;
+        do {
+            batch = bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(lastId);
+            for (Book book : batch) {
+                newColumns.append(book);
+                lastId = book.getId();
+            }
+        } while (!batch.isEmpty());
+
+        lock.writeLock().lock();
+        try {
+            columns = newColumns;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // 重放构建期间收到的变更
+        synchronized (pendingEvents) {
+            for (BookChangeEvent event : pendingEvents) {
+                apply(event);
+            }
+            pendingEvents.clear();
+            building = false;
+        }
+        ready = true;
+        log.info("Book facet index built: {} books, {} categories in {} ms",
+                newColumns.rowById.size(), newColumns.categoryNames.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 图书变更后同步更新索引
+     * @param event 图书变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangeEvent event) {
+        synchronized (pendingEvents) {
+            if (building) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    /**
+     * 批量导入后逐本加入
+     * @param event 图书批量导入事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        for (Book book : event.getBooks()) {
+            onBookChanged(new BookChangeEvent(BookChangeEvent.Type.CREATED, book.getId(), book));
+        }
+    }
+
+    private void apply(BookChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            // 更新按删除旧行、追加新行处理，删除的行过多时整体压缩
+            columns.remove(event.getBookId());
+            if (event.getType() != BookChangeEvent.Type.DELETED && event.getBook() != null) {
+                columns.append(event.getBook());
+            }
+            if (columns.deadRows > 1024 && columns.deadRows > columns.rowById.size()) {
+                columns = columns.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按条件查询图书ID，同时统计分面
+     * 不支持关键词条件，调用方需保证criteria中没有keyword
+     * @param criteria 查询条件
+     * @param pageable 分页参数，排序只支持id、price、publishDate，默认按id升序
+     * @return 查询结果
+     */
+    public Result search(BookCriteria criteria, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            return scan(columns, criteria, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Result scan(Columns c, BookCriteria criteria, Pageable pageable) {
+        boolean filterCategory = criteria.getCategory() != null;
+        boolean filterStatus = criteria.getStatus() != null;
+        Integer categoryCode = filterCategory ? c.categoryCodes.get(BookCriteria.categoryKey(criteria.getCategory())) : null;
+        int statusCode = filterStatus ? criteria.getStatus().ordinal() : NULL_CODE;
+        double minPrice = criteria.getMinPrice() == null ? Double.NaN : criteria.getMinPrice();
+        double maxPrice = criteria.getMaxPrice() == null ? Double.NaN : criteria.getMaxPrice();
+        int startDay = criteria.getStartDate() == null ? NULL_DAY : (int) criteria.getStartDate().toEpochDay();
+        int endDay = criteria.getEndDate() == null ? NULL_DAY : (int) criteria.getEndDate().toEpochDay();
+
+        // 同时不满足分类和状态的行不参与任何计数，先用位图排除；其他情况直接遍历存活行，不复制位图
+        BitSet candidates = c.live;
+        if (filterCategory && filterStatus) {
+            BitSet either = categoryCode == null ? new BitSet() : (BitSet) c.categoryBits.get(categoryCode).clone();
+            either.or(c.statusBits[statusCode]);
+            either.and(c.live);
+            candidates = either;
+        }
+
+        long[] categoryCounts = new long[c.categoryNames.size()];
+        long[] statusCounts = new long[BookStatus.values().length];
+        long[] bandCounts = new long[priceBandLabels.length];
+        // 只保留排在前offset+size位的行，不对全部命中行排序
+        long limit = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() : Integer.MAX_VALUE;
+        TopRows top = new TopRows(rowComparator(c, pageable.getSort()),
+                (int) Math.min(limit, candidates.cardinality()));
+        int matchCount = 0;
+
+        for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+            int failed = 0;
+            if (filterCategory && (categoryCode == null || c.categories[row] != categoryCode)) {
+                failed |= CATEGORY_FAILED;
+            }
+            if (filterStatus && c.statuses[row] != statusCode) {
+                failed |= STATUS_FAILED;
+            }
+            double price = c.prices[row];
+            if ((!Double.isNaN(minPrice) && !(price >= minPrice)) || (!Double.isNaN(maxPrice) && !(price <= maxPrice))) {
+                failed |= PRICE_FAILED;
+            }
+            int day = c.publishDays[row];
+            if ((startDay != NULL_DAY && (day == NULL_DAY || day < startDay))
+                    || (endDay != NULL_DAY && (day == NULL_DAY || day > endDay))) {
+                failed |= DATE_FAILED;
+            }
+
+            // 每个维度的计数只忽略该维度自身的条件
+            if (failed == 0) {
+                matchCount++;
+                top.offer(row);
+            }
+            if ((failed & ~CATEGORY_FAILED) == 0 && c.categories[row] != NULL_CODE) {
+                categoryCounts[c.categories[row]]++;
+            }
+            if ((failed & ~STATUS_FAILED) == 0 && c.statuses[row] != NULL_CODE) {
+                statusCounts[c.statuses[row]]++;
+            }
+            if ((failed & ~PRICE_FAILED) == 0 && !Double.isNaN(price)) {
+                bandCounts[priceBand(price)]++;
+            }
+        }
+
+        int[] sorted = top.drainSorted();
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), sorted.length) : 0;
+        List<Long> ids = new ArrayList<>(sorted.length - from);
+        for (int i = from; i < sorted.length; i++) {
+            ids.add(c.ids[sorted[i]]);
+        }
+
+        Map<String, Long> categories = new LinkedHashMap<>();
+        for (int i = 0; i < categoryCounts.length; i++) {
+            if (categoryCounts[i] > 0) {
+                categories.put(c.categoryNames.get(i), categoryCounts[i]);
+            }
+        }
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        for (BookStatus status : BookStatus.values()) {
+            if (statusCounts[status.ordinal()] > 0) {
+                statuses.put(status.name(), statusCounts[status.ordinal()]);
+            }
+        }
+        Map<String, Long> priceBands = new LinkedHashMap<>();
+        for (int i = 0; i < bandCounts.length; i++) {
+            priceBands.put(priceBandLabels[i], bandCounts[i]);
+        }
+
+        return new Result(new PageImpl<>(ids, pageable, matchCount), new BookFacets(categories, statuses, priceBands));
+    }
+
+    private static RowComparator rowComparator(Columns c, Sort sort) {
+        RowComparator comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            RowComparator next;
+            switch (order.getProperty()) {
+                case "price":
+                    // 与数据库一致，空值排在最前
+                    next = (a, b) -> Double.compare(
+                            Double.isNaN(c.prices[a]) ? Double.NEGATIVE_INFINITY : c.prices[a],
+                            Double.isNaN(c.prices[b]) ? Double.NEGATIVE_INFINITY : c.prices[b]);
+                    break;
+                case "publishDate":
+                    next = (a, b) -> Integer.compare(c.publishDays[a], c.publishDays[b]);
+                    break;
+                default:
+                    next = (a, b) -> Long.compare(c.ids[a], c.ids[b]);
+            }
+            comparator = comparator.then(order.isDescending() ? (a, b) -> next.compare(b, a) : next);
+        }
+        return comparator.then((a, b) -> Long.compare(c.ids[a], c.ids[b]));
+    }
+
+    private int priceBand(double price) {
+        for (int i = 0; i < priceBounds.length; i++) {
+            if (price < priceBounds[i]) {
+                return i;
+            }
+        }
+        return priceBounds.length;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    /**
+     * 分面索引查询结果
+     */
+    public static class Result {
+        private final Page<Long> ids;
+        private final BookFacets facets;
+
+        Result(Page<Long> ids, BookFacets facets) {
+            this.ids = ids;
+            this.facets = facets;
+        }
+
+        /**
+         * 满足条件的图书ID（分页后）及总数
+         * @return 分页后的图书ID
+         */
+        public Page<Long> getIds() {
+            return ids;
+        }
+
+        /**
+         * 分面统计
+         * @return 分面统计
+         */
+        public BookFacets getFacets() {
+            return facets;
+        }
+    }
+
+    /**
+     * 按行号比较两行，避免装箱
+     */
+    @FunctionalInterface
+    private interface RowComparator {
+        int compare(int a, int b);
+
+        default RowComparator then(RowComparator next) {
+            return (a, b) -> {
+                int result = compare(a, b);
+                return result != 0 ? result : next.compare(a, b);
+            };
+        }
+    }
+
+    /**
+     * 保留排序最靠前的若干行
+     * 用容量固定的大顶堆，堆顶是已保留行中排序最靠后的一行，新行比堆顶靠前时替换堆顶
+     */
+    private static final class TopRows {
+        private final RowComparator comparator;
+        private final int[] heap;
+        private int size;
+
+        private TopRows(RowComparator comparator, int capacity) {
+            this.comparator = comparator;
+            this.heap = new int[capacity];
+        }
+
+        private void offer(int row) {
+            if (size < heap.length) {
+                heap[size] = row;
+                siftUp(size++);
+            } else if (size > 0 && comparator.compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(0, size);
+            }
+        }
+
+        /**
+         * 依次取出堆顶得到有序结果，取出后堆不再可用
+         * @return 按排序条件升序排列的行号
+         */
+        private int[] drainSorted() {
+            for (int end = size - 1; end > 0; end--) {
+                int top = heap[0];
+                heap[0] = heap[end];
+                heap[end] = top;
+                siftDown(0, end);
+            }
+            return size == heap.length ? heap : Arrays.copyOf(heap, size);
+        }
+
+        private void siftUp(int i) {
+            int row = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (comparator.compare(row, heap[parent]) <= 0) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = row;
+        }
+
+        private void siftDown(int i, int end) {
+            int row = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= end) {
+                    break;
+                }
+                if (child + 1 < end && comparator.compare(heap[child + 1], heap[child]) > 0) {
+                    child++;
+                }
+                if (comparator.compare(row, heap[child]) >= 0) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = row;
+        }
+    }
+
+    /**
+     * 列式存储
+     * 行号只增不减，删除只清除位图中的位，由压缩回收空间
+     */
+    private static final class Columns {
+        private int size;
+        private long[] ids = new long[1024];
+        private double[] prices = new double[1024];
+        private int[] publishDays = new int[1024];
+        private int[] categories = new int[1024];
+        private int[] statuses = new int[1024];
+
+        private final BitSet live = new BitSet();
+        private final List<BitSet> categoryBits = new ArrayList<>();
+        private final BitSet[] statusBits = new BitSet[BookStatus.values().length];
+        /**
+         * 分类比较键 -> 编码，大小写、重音不同的分类共用一个编码，分面中显示最先出现的写法
+         */
+        private final Map<String, Integer> categoryCodes = new HashMap<>();
+        private final List<String> categoryNames = new ArrayList<>();
+        private final Map<Long, Integer> rowById = new HashMap<>();
+        private int deadRows;
+
+        private Columns() {
+            for (int i = 0; i < statusBits.length; i++) {
+                statusBits[i] = new BitSet();
+            }
+        }
+
+        private void append(Book book) {
+            int category = book.getCategory() == null ? NULL_CODE : categoryCode(book.getCategory());
+            int status = book.getStatus() == null ? NULL_CODE : book.getStatus().ordinal();
+            double price = book.getPrice() == null ? Double.NaN : book.getPrice();
+            int day = book.getPublishDate() == null ? NULL_DAY : (int) book.getPublishDate().toEpochDay();
+            appendRow(book.getId(), price, day, category, status);
+        }
+
+        private void appendRow(long id, double price, int day, int category, int status) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                publishDays = Arrays.copyOf(publishDays, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+            }
+            int row = size++;
+            ids[row] = id;
+            prices[row] = price;
+            publishDays[row] = day;
+            categories[row] = category;
+            statuses[row] = status;
+            live.set(row);
+            if (category != NULL_CODE) {
+                categoryBits.get(category).set(row);
+            }
+            if (status != NULL_CODE) {
+                statusBits[status].set(row);
+            }
+            rowById.put(id, row);
+        }
+
+        private void remove(Long id) {
+            Integer row = rowById.remove(id);
+            if (row == null) {
+                return;
+            }
+            live.clear(row);
+            if (categories[row] != NULL_CODE) {
+                categoryBits.get(categories[row]).clear(row);
+            }
+            if (statuses[row] != NULL_CODE) {
+                statusBits[statuses[row]].clear(row);
+            }
+            deadRows++;
+        }
+
+        private int categoryCode(String category) {
+            String key = BookCriteria.categoryKey(category);
+            Integer code = categoryCodes.get(key);
+            if (code == null) {
+                code = categoryNames.size();
+                categoryCodes.put(key, code);
+                categoryNames.add(category);
+                categoryBits.add(new BitSet());
+            }
+            return code;
+        }
+
+        /**
+         * 只保留存活的行重新编排，字典编码保持不变
+         * @return 压缩后的列式存储
+         */
+        private Columns compact() {
+            Columns compacted = new Columns();
+            for (String name : categoryNames) {
+                compacted.categoryCode(name);
+            }
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                compacted.appendRow(ids[row], prices[row], publishDays[row], categories[row], statuses[row]);
+            }
+            return compacted;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.demo.search;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.utils.RedisUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存索引的跨节点同步
+ * 内存索引只由本节点的图书变更事件更新，其他节点的写入不会产生本地事件；
+ * 本节点的变更提交后通过Redis发布/订阅广播图书ID，其他节点收到后从主库重新读取这些图书并更新各自的索引。
+ * 订阅断开期间的消息会丢失，因此再按固定间隔从数据库全量重建，限定最长不一致时间
+ */
+@Component
+public class BookIndexSynchronizer implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BookIndexSynchronizer.class);
+
+    public static final String CHANGE_CHANNEL = "book:index:changed";
+
+    /**
+     * 单条消息携带的最大图书ID数，批量导入时分多条发布
+     */
+    private static final int IDS_PER_MESSAGE = 1000;
+
+    private final RedisUtils redisUtils;
+    private final BookDAO bookDAO;
+    private final BookFacetIndex bookFacetIndex;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookSuggester bookSuggester;
+    private final TransactionTemplate transactionTemplate;
+    private final long resyncIntervalMinutes;
+
+    /**
+     * 本节点标识，收到自己发布的消息时跳过
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ScheduledExecutorService resyncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "book-index-resync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 构造函数
+     * @param redisUtils Redis工具类
+     * @param bookDAO 图书数据访问对象
+     * @param bookFacetIndex 分面索引
+     * @param bookSearchIndex 全文倒排索引
+     * @param bookSuggester 前缀联想
+     * @param transactionManager 事务管理器，重新读取图书时使用读写事务，保证读到主库
+     * @param resyncIntervalMinutes 全量重建的间隔（分钟），0表示不定期重建
+     */
+    public BookIndexSynchronizer(
+            RedisUtils redisUtils,
+            BookDAO bookDAO,
+            BookFacetIndex bookFacetIndex,
+            BookSearchIndex bookSearchIndex,
+            BookSuggester bookSuggester,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.book.index.resync-interval:10}") long resyncIntervalMinutes
+    ) {
+        this.redisUtils = redisUtils;
+        this.bookDAO = bookDAO;
+        this.bookFacetIndex = bookFacetIndex;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookSuggester = bookSuggester;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.resyncIntervalMinutes = resyncIntervalMinutes;
+    }
+
+    /**
+     * 启动后开始定期全量重建，首次构建由各索引自己完成
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (resyncIntervalMinutes > 0) {
+            resyncExecutor.scheduleWithFixedDelay(this::resyncQuietly,
+                    resyncIntervalMinutes, resyncIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resyncExecutor.shutdownNow();
+    }
+
+    /**
+     * 图书变更提交后通知其他节点
+     * @param event 图书变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangeEvent event) {
+        broadcast(Collections.singletonList(event.getBookId()));
+    }
+
+    /**
+     * 批量导入提交后通知其他节点
+     * @param event 图书批量导入事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        List<Long> ids = new ArrayList<>(event.getBooks().size());
+        for (Book book : event.getBooks()) {
+            ids.add(book.getId());
+        }
+        broadcast(ids);
+    }
+
+    /**
+     * 收到其他节点的变更通知，重新读取图书并更新本节点的索引
+     * 消息格式为"节点标识|图书ID,图书ID,..."
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (String id : body.substring(separator + 1).split(",")) {
+                ids.add(Long.valueOf(id.trim()));
+            }
+        } catch (NumberFormatException e) {
+            // 非法消息直接忽略
+            return;
+        }
+        refresh(ids);
+    }
+
+    /**
+     * 从主库重新读取图书，存在的按更新处理，不存在的按删除处理
+     * @param ids 图书ID列表
+     */
+    void refresh(List<Long> ids) {
+        List<Book> books = transactionTemplate.execute(status -> bookDAO.findAllById(ids));
+        Map<Long, Book> found = new HashMap<>();
+        if (books != null) {
+            for (Book book : books) {
+                found.put(book.getId(), book);
+            }
+        }
+        for (Long id : ids) {
+            Book book = found.get(id);
+            BookChangeEvent event = book == null
+                    ? new BookChangeEvent(BookChangeEvent.Type.DELETED, id, null)
+                    : new BookChangeEvent(BookChangeEvent.Type.UPDATED, id, book);
+            bookFacetIndex.onBookChanged(event);
+            bookSearchIndex.onBookChanged(event);
+            bookSuggester.onBookChanged(event);
+        }
+    }
+
+    private void broadcast(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += IDS_PER_MESSAGE) {
+            StringBuilder message = new StringBuilder(nodeId).append('|');
+            List<Long> chunk = ids.subList(from, Math.min(from + IDS_PER_MESSAGE, ids.size()));
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) {
+                    message.append(',');
+                }
+                message.append(chunk.get(i));
+            }
+            try {
+                redisUtils.publish(CHANGE_CHANNEL, message.toString());
+            } catch (RuntimeException e) {
+                // 通知失败时由定期重建兜底
+                log.warn("Failed to broadcast book index change: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void resyncQuietly() {
+        try {
+            bookFacetIndex.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Book facet index resync failed: {}", e.getMessage());
+        }
+        try {
+            bookSearchIndex.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Book search index resync failed: {}", e.getMessage());
+        }
+        try {
+            bookSuggester.load();
+        } catch (RuntimeException e) {
+            log.warn("Book suggester resync failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.demo.search;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 图书全文倒排索引
+ * 对标题、作者、描述分词后建立倒排表，标题和作者的权重高于描述；
+ * 启动时从数据库分批加载，运行时根据图书变更事件增量更新；
+ * 其他节点的变更由{@link BookIndexSynchronizer}转发，并由其定期调用{@link #rebuild()}全量重建
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float AUTHOR_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private final BookDAO bookDAO;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 词 -> (图书ID -> 加权词频)
+     */
+    private Map<String, Map<Long, Float>> postings = new HashMap<>();
+
+    /**
+     * 图书ID -> 该图书的所有词，用于删除和更新
+     */
+    private Map<Long, String[]> docTerms = new HashMap<>();
+
+    private volatile boolean ready;
+    private boolean building;
+    private final List<BookChangeEvent> pendingEvents = new ArrayList<>();
+
+    public BookSearchIndex(BookDAO bookDAO) {
+        this.bookDAO = bookDAO;
+    }
+
+    /**
+     * 索引是否已完成首次构建
+     * @return 是否可用
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 启动后从数据库构建索引，之后定期全量重建；重建互斥，避免并发重建时构建期间的变更被较早完成的一次清空
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        synchronized (pendingEvents) {
+            building = true;
+        }
+        long start = System.currentTimeMillis();
+        Map<String, Map<Long, Float>> newPostings = new HashMap<>();
+        Map<Long, String[]> newDocTerms = new HashMap<>();
+
+        // 按ID分批加载，避免一次性读出整张表
+        Long lastId = 0L;
+        List<Book> batch;
+        do {
+            batch = bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(lastId);
+            for (Book book : batch) {
+                addDocument(newPostings, newDocTerms, book);
+                lastId = book.getId();
+            }
+        } while (!batch.isEmpty());
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            docTerms = newDocTerms;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // 重放构建期间收到的变更
+        synchronized (pendingEvents) {
+            for (BookChangeEvent event : pendingEvents) {
+                apply(event);
+            }
+            pendingEvents.clear();
+            building = false;
+        }
+        ready = true;
+        log.info("Book search index built: {} books, {} terms in {} ms",
+                newDocTerms.size(), newPostings.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 图书变更后同步更新索引
+     * @param event 图书变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangeEvent event) {
+        synchronized (pendingEvents) {
+            if (building) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    /**
+     * 批量导入后逐本加入
+     * @param event 图书批量导入事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        for (Book book : event.getBooks()) {
+            onBookChanged(new BookChangeEvent(BookChangeEvent.Type.CREATED, book.getId(), book));
+        }
+    }
+
+    private void apply(BookChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(event.getBookId());
+            if (event.getType() != BookChangeEvent.Type.DELETED && event.getBook() != null) {
+                addDocument(postings, docTerms, event.getBook());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索图书ID，所有查询词都必须命中，按相关度降序、ID升序排列
+     * @param keyword 搜索关键词
+     * @param pageable 分页参数（排序参数被忽略）
+     * @return 分页后的图书ID
+     */
+    public Page<Long> search(String keyword, Pageable pageable) {
+        Set<String> terms = new LinkedHashSet<>(BookTokenizer.tokenize(keyword));
+        if (terms.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+
+        List<Map.Entry<Long, Float>> scored;
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Float>> lists = new ArrayList<>(terms.size());
+            List<Float> idfs = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Float> docs = postings.get(term);
+                if (docs == null) {
+                    return new PageImpl<>(Collections.emptyList(), pageable, 0);
+                }
+                lists.add(docs);
+                idfs.add((float) Math.log(1.0 + (double) docTerms.size() / docs.size()));
+            }
+
+            // 从最短的倒排表开始求交集
+            int shortest = 0;
+            for (int i = 1; i < lists.size(); i++) {
+                if (lists.get(i).size() < lists.get(shortest).size()) {
+                    shortest = i;
+                }
+            }
+            Map<Long, Float> scores = new HashMap<>();
+            candidates:
+            for (Long docId : lists.get(shortest).keySet()) {
+                float score = 0;
+                for (int i = 0; i < lists.size(); i++) {
+                    Float weight = lists.get(i).get(docId);
+                    if (weight == null) {
+                        continue candidates;
+                    }
+                    score += weight * idfs.get(i);
+                }
+                scores.put(docId, score);
+            }
+            scored = new ArrayList<>(scores.entrySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        scored.sort((a, b) -> {
+            int byScore = Float.compare(b.getValue(), a.getValue());
+            return byScore != 0 ? byScore : Long.compare(a.getKey(), b.getKey());
+        });
+
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), scored.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), scored.size()) : scored.size();
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Map.Entry<Long, Float> entry : scored.subList(from, to)) {
+            ids.add(entry.getKey());
+        }
+        return new PageImpl<>(ids, pageable, scored.size());
+    }
+
+    private static void addDocument(Map<String, Map<Long, Float>> postings, Map<Long, String[]> docTerms, Book book) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, book.getTitle(), TITLE_WEIGHT);
+        addField(weights, book.getAuthor(), AUTHOR_WEIGHT);
+        addField(weights, book.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(book.getId(), entry.getValue());
+        }
+        docTerms.put(book.getId(), weights.keySet().toArray(new String[0]));
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String token : BookTokenizer.tokenizeForIndex(text)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    private void removeDocument(Long bookId) {
+        String[] terms = docTerms.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(bookId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
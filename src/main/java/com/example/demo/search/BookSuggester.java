@@ -0,0 +1,412 @@
+package com.example.demo.search;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookBorrowCount;
+import com.example.demo.model.BookSuggestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 图书前缀联想
+ * 将标题、作者、ISBN规范化后按字典序存放在不可变的有序数组中，二分查找确定前缀区间，
+ * 再通过区间最大值线段树按热度取前N条，查询耗时与区间大小无关；
+ * 热度为图书的累计借阅次数加一（从未借出的图书也能按字典序出现），作者的热度为其所有图书之和。
+ * 图书变更和本节点的借出合并一段时间内的变更再后台重建快照；
+ * 其他节点的图书变更由{@link BookIndexSynchronizer}转发，其他节点的借出不转发，
+ * 由其定期调用{@link #load()}从数据库全量重新加载图书和借阅次数时补上
+ */
+@Component
+public class BookSuggester {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSuggester.class);
+
+    private static final long REBUILD_DELAY_MILLIS = 500;
+
+    private final BookDAO bookDAO;
+    private final BorrowRecordDAO borrowRecordDAO;
+
+    /**
+     * 图书ID -> 图书联想数据，是重建快照的数据源
+     */
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 图书ID -> 累计借阅次数，全量加载时整体替换，本节点借出时递增
+     */
+    private volatile Map<Long, Long> borrowCounts = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService rebuildExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "book-suggester-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    /**
+     * 全量加载期间收到变更的图书ID，加载结果不覆盖这些图书，为null表示不在加载中
+     */
+    private Set<Long> changedDuringLoad;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public BookSuggester(BookDAO bookDAO, BorrowRecordDAO borrowRecordDAO) {
+        this.bookDAO = bookDAO;
+        this.borrowRecordDAO = borrowRecordDAO;
+    }
+
+    /**
+     * 启动后从数据库加载联想数据，之后定期全量重新加载
+     * 数据库中已不存在的图书从数据源中移除；加载期间收到变更的图书以变更为准。
+     * 借阅次数在读取图书之后统计并整体替换，统计之后、替换之前本节点的借出会少计，下次加载时补上
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        synchronized (entries) {
+            changedDuringLoad = new HashSet<>();
+        }
+        Map<Long, Entry> loaded = new HashMap<>();
+        Map<Long, Long> loadedBorrowCounts = new ConcurrentHashMap<>();
+        try {
+            Long lastId = 0L;
+            List<Book> batch;
+            do {
+                batch = bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(lastId);
+                for (Book book : batch) {
+                    loaded.put(book.getId(), Entry.of(book));
+                    lastId = book.getId();
+                }
+            } while (!batch.isEmpty());
+            for (BookBorrowCount count : borrowRecordDAO.countBorrowsByBook()) {
+                loadedBorrowCounts.put(count.getBookId(), count.getBorrows().longValue());
+            }
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                changedDuringLoad = null;
+            }
+            throw e;
+        }
+
+        synchronized (entries) {
+            Set<Long> changed = changedDuringLoad;
+            changedDuringLoad = null;
+            entries.keySet().removeIf(id -> !loaded.containsKey(id) && !changed.contains(id));
+            loaded.forEach((id, entry) -> {
+                if (!changed.contains(id)) {
+                    entries.put(id, entry);
+                }
+            });
+            borrowCounts = loadedBorrowCounts;
+        }
+        rebuild();
+    }
+
+    /**
+     * 图书变更后更新数据源，并延迟重建快照
+     * @param event 图书变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangeEvent event) {
+        synchronized (entries) {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event.getBookId());
+            }
+            if (event.getType() == BookChangeEvent.Type.DELETED || event.getBook() == null) {
+                entries.remove(event.getBookId());
+            } else {
+                entries.put(event.getBookId(), Entry.of(event.getBook()));
+            }
+        }
+        scheduleRebuild();
+    }
+
+    /**
+     * 借出后增加该图书的借阅次数，并延迟重建快照
+     * @param event 借阅事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowEvent(BorrowEvent event) {
+        if (event.getType() != BorrowEvent.Type.CHECKED_OUT) {
+            return;
+        }
+        borrowCounts.merge(event.getRecord().getBookId(), 1L, Long::sum);
+        scheduleRebuild();
+    }
+
+    /**
+     * 批量导入后逐本加入
+     * @param event 图书批量导入事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        for (Book book : event.getBooks()) {
+            onBookChanged(new BookChangeEvent(BookChangeEvent.Type.CREATED, book.getId(), book));
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            }, REBUILD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 按前缀获取联想建议
+     * @param prefix 输入前缀
+     * @param limit 最大条数
+     * @return 按热度降序排列的建议，相同文本只返回一次
+     */
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Snapshot current = snapshot;
+        int lo = current.lowerBound(key);
+        int hi = current.lowerBound(key + Character.MAX_VALUE);
+        if (lo >= hi) {
+            return Collections.emptyList();
+        }
+
+        // 每次取出区间内热度最高的一项，再把区间从该项处拆成两半放回队列
+        PriorityQueue<int[]> queue = new PriorityQueue<>(
+                (a, b) -> current.compare(a[0], b[0]));
+        queue.add(new int[]{current.argMax(lo, hi), lo, hi});
+        List<BookSuggestion> suggestions = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        while (!queue.isEmpty() && suggestions.size() < limit) {
+            int[] range = queue.poll();
+            int best = range[0];
+            if (seen.add(current.types[best] + current.texts[best])) {
+                suggestions.add(current.toSuggestion(best));
+            }
+            if (range[1] < best) {
+                queue.add(new int[]{current.argMax(range[1], best), range[1], best});
+            }
+            if (best + 1 < range[2]) {
+                queue.add(new int[]{current.argMax(best + 1, range[2]), best + 1, range[2]});
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * 根据数据源重建快照
+     */
+    void rebuild() {
+        long start = System.currentTimeMillis();
+        List<Item> items = new ArrayList<>(entries.size() * 2);
+        Map<String, Item> authors = new HashMap<>();
+        Map<Long, Long> borrows = borrowCounts;
+        for (Map.Entry<Long, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            long weight = borrows.getOrDefault(e.getKey(), 0L) + 1;
+            addItem(items, entry.title, BookSuggestion.Type.TITLE, e.getKey(), weight);
+            addItem(items, entry.isbn, BookSuggestion.Type.ISBN, e.getKey(), weight);
+            String authorKey = normalize(entry.author);
+            if (!authorKey.isEmpty()) {
+                Item author = authors.get(authorKey);
+                if (author == null) {
+                    authors.put(authorKey, new Item(authorKey, entry.author, BookSuggestion.Type.AUTHOR, null, weight));
+                } else {
+                    author.weight += weight;
+                }
+            }
+        }
+        items.addAll(authors.values());
+        snapshot = Snapshot.of(items);
+        log.debug("Book suggester rebuilt: {} items in {} ms", items.size(), System.currentTimeMillis() - start);
+    }
+
+    private static void addItem(List<Item> items, String text, BookSuggestion.Type type, Long bookId, long weight) {
+        String key = normalize(text);
+        if (!key.isEmpty()) {
+            items.add(new Item(key, text, type, bookId, weight));
+        }
+    }
+
+    /**
+     * 规范化：转小写并去掉空白和连字符，ISBN可以不带分隔符输入
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c) && c != '-') {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 单本图书的联想数据
+     */
+    private static final class Entry {
+        private final String title;
+        private final String author;
+        private final String isbn;
+
+        private Entry(String title, String author, String isbn) {
+            this.title = title;
+            this.author = author;
+            this.isbn = isbn;
+        }
+
+        private static Entry of(Book book) {
+            return new Entry(book.getTitle(), book.getAuthor(), book.getIsbn());
+        }
+    }
+
+    /**
+     * 构建快照用的临时条目
+     */
+    private static final class Item {
+        private final String key;
+        private final String text;
+        private final BookSuggestion.Type type;
+        private final Long bookId;
+        private long weight;
+
+        private Item(String key, String text, BookSuggestion.Type type, Long bookId, long weight) {
+            this.key = key;
+            this.text = text;
+            this.type = type;
+            this.bookId = bookId;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 不可变快照，使用并行数组存储以减少对象开销
+     */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = of(Collections.emptyList());
+
+        private final String[] keys;
+        private final String[] texts;
+        private final BookSuggestion.Type[] types;
+        private final long[] bookIds;
+        private final long[] weights;
+
+        /**
+         * 区间最大值线段树，叶子节点从下标n开始，节点保存区间内热度最高的条目下标
+         */
+        private final int[] tree;
+        private final int n;
+
+        private Snapshot(int n) {
+            this.n = n;
+            this.keys = new String[n];
+            this.texts = new String[n];
+            this.types = new BookSuggestion.Type[n];
+            this.bookIds = new long[n];
+            this.weights = new long[n];
+            this.tree = new int[2 * n];
+        }
+
+        private static Snapshot of(List<Item> items) {
+            Item[] sorted = items.toArray(new Item[0]);
+            Arrays.sort(sorted, (a, b) -> a.key.compareTo(b.key));
+            Snapshot snapshot = new Snapshot(sorted.length);
+            for (int i = 0; i < sorted.length; i++) {
+                Item item = sorted[i];
+                snapshot.keys[i] = item.key;
+                snapshot.texts[i] = item.text;
+                snapshot.types[i] = item.type;
+                snapshot.bookIds[i] = item.bookId == null ? -1 : item.bookId;
+                snapshot.weights[i] = item.weight;
+                snapshot.tree[snapshot.n + i] = i;
+            }
+            for (int i = snapshot.n - 1; i > 0; i--) {
+                snapshot.tree[i] = snapshot.better(snapshot.tree[2 * i], snapshot.tree[2 * i + 1]);
+            }
+            return snapshot;
+        }
+
+        private int lowerBound(String key) {
+            int lo = 0;
+            int hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * 查询[from, to)区间内热度最高的条目下标
+         */
+        private int argMax(int from, int to) {
+            int best = from;
+            for (int l = from + n, r = to + n; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    best = better(best, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    best = better(best, tree[--r]);
+                }
+            }
+            return best;
+        }
+
+        private int better(int a, int b) {
+            return compare(a, b) <= 0 ? a : b;
+        }
+
+        /**
+         * 热度高的排前面，热度相同时字典序小的排前面
+         */
+        private int compare(int a, int b) {
+            if (weights[a] != weights[b]) {
+                return Long.compare(weights[b], weights[a]);
+            }
+            return Integer.compare(a, b);
+        }
+
+        private BookSuggestion toSuggestion(int i) {
+            return new BookSuggestion(texts[i], types[i], bookIds[i] < 0 ? null : bookIds[i]);
+        }
+    }
+}
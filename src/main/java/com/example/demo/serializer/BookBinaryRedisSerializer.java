@@ -0,0 +1,392 @@
+package com.example.demo.serializer;
+
+import com.example.demo.cache.CachedValue;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 图书二进制Redis序列化器
+ * 对Book、List&lt;Book&gt;、Page&lt;Book&gt;以及包装它们的CachedValue使用紧凑的二进制格式，
+ * 超过阈值的数据使用Deflate压缩；其他类型交给兜底序列化器（JSON）处理，
+ * 因此数字仍以十进制文本存储，Lua脚本和HINCRBY等命令不受影响
+ *
+ * 格式：魔数(1) + 版本(1) + 类型(1，最高位为压缩标记) + 数据
+ */
+public class BookBinaryRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION = 2;
+
+    /**
+     * 仍可读取的最低版本，升级后旧版本缓存无需清空
+     */
+    static final byte MIN_VERSION = 1;
+
+    static final byte TYPE_BOOK = 1;
+    static final byte TYPE_BOOK_LIST = 2;
+    static final byte TYPE_BOOK_PAGE = 3;
+    static final byte TYPE_CACHED_VALUE = 4;
+    static final byte FLAG_COMPRESSED = (byte) 0x80;
+
+    private static final int HEADER_LENGTH = 3;
+    private static final BookStatus[] STATUSES = BookStatus.values();
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressThreshold;
+
+    /**
+     * 构造函数
+     * @param fallback 不支持的类型使用的兜底序列化器
+     * @param compressThreshold 压缩阈值（字节），小于等于0表示不压缩
+     */
+    public BookBinaryRedisSerializer(RedisSerializer<Object> fallback, int compressThreshold) {
+        this.fallback = fallback;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte type = typeOf(value);
+        if (type == 0) {
+            return fallback.serialize(value);
+        }
+
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(buffer);
+            writeValue(out, type, value);
+            out.flush();
+            byte[] body = buffer.toByteArray();
+
+            if (compressThreshold > 0 && body.length > compressThreshold) {
+                byte[] compressed = deflate(body);
+                if (compressed.length < body.length) {
+                    return withHeader((byte) (type | FLAG_COMPRESSED), compressed);
+                }
+            }
+            return withHeader(type, body);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write binary value: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[1] < MIN_VERSION || bytes[1] > VERSION) {
+            throw new SerializationException("Unsupported binary value version");
+        }
+
+        byte type = (byte) (bytes[2] & ~FLAG_COMPRESSED);
+        boolean compressed = (bytes[2] & FLAG_COMPRESSED) != 0;
+        try {
+            InputStream source = compressed
+                    ? new ByteArrayInputStream(inflate(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH))
+                    : new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            return readValue(new DataInputStream(source), type, bytes[1]);
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Could not read binary value: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 判断值的二进制类型
+     * @param value 值
+     * @return 类型标记，不支持时返回0
+     */
+    private static byte typeOf(Object value) {
+        if (value instanceof Book) {
+            return TYPE_BOOK;
+        }
+        if (value instanceof List && allBooks((List<?>) value)) {
+            return TYPE_BOOK_LIST;
+        }
+        if (value instanceof Page && allBooks(((Page<?>) value).getContent())) {
+            return TYPE_BOOK_PAGE;
+        }
+        if (value instanceof CachedValue && typeOf(((CachedValue<?>) value).getValue()) != 0) {
+            return TYPE_CACHED_VALUE;
+        }
+        return 0;
+    }
+
+    private static boolean allBooks(Collection<?> values) {
+        for (Object value : values) {
+            if (!(value instanceof Book)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeValue(DataOutputStream out, byte type, Object value) throws IOException {
+        switch (type) {
+            case TYPE_BOOK:
+                writeBook(out, (Book) value);
+                break;
+            case TYPE_BOOK_LIST:
+                writeBooks(out, (List<Book>) value);
+                break;
+            case TYPE_BOOK_PAGE:
+                Page<Book> page = (Page<Book>) value;
+                writeBooks(out, page.getContent());
+                if (page.getPageable().isPaged()) {
+                    writeVarLong(out, page.getNumber());
+                    writeVarLong(out, page.getSize());
+                } else {
+                    writeVarLong(out, 0);
+                    writeVarLong(out, 0);
+                }
+                writeVarLong(out, page.getTotalElements());
+                break;
+            case TYPE_CACHED_VALUE:
+                CachedValue<?> cached = (CachedValue<?>) value;
+                writeVarLong(out, cached.getLoadMillis());
+                out.writeLong(cached.getExpireAt());
+                byte nestedType = typeOf(cached.getValue());
+                out.writeByte(nestedType);
+                writeValue(out, nestedType, cached.getValue());
+                break;
+            default:
+                throw new IOException("Unknown type: " + type);
+        }
+    }
+
+    private static Object readValue(DataInputStream in, byte type, byte version) throws IOException {
+        switch (type) {
+            case TYPE_BOOK:
+                return readBook(in, version);
+            case TYPE_BOOK_LIST:
+                return readBooks(in, version);
+            case TYPE_BOOK_PAGE:
+                List<Book> content = readBooks(in, version);
+                int number = (int) readVarLong(in);
+                int size = (int) readVarLong(in);
+                long total = readVarLong(in);
+                Pageable pageable = size > 0 ? PageRequest.of(number, size) : Pageable.unpaged();
+                return new PageImpl<>(content, pageable, total);
+            case TYPE_CACHED_VALUE:
+                long loadMillis = readVarLong(in);
+                long expireAt = in.readLong();
+                Object nested = readValue(in, in.readByte(), version);
+                return new CachedValue<>(nested, loadMillis, expireAt);
+            default:
+                throw new IOException("Unknown type: " + type);
+        }
+    }
+
+    private static void writeBooks(DataOutputStream out, List<Book> books) throws IOException {
+        writeVarLong(out, books.size());
+        for (Book book : books) {
+            writeBook(out, book);
+        }
+    }
+
+    private static List<Book> readBooks(DataInputStream in, byte version) throws IOException {
+        int size = (int) readVarLong(in);
+        List<Book> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            books.add(readBook(in, version));
+        }
+        return books;
+    }
+
+    /**
+     * 写入图书字段，借阅记录和预约记录等关联集合不写入
+     * 字段顺序即格式定义，新增字段只能追加到末尾并提升版本号
+     */
+    private static void writeBook(DataOutputStream out, Book book) throws IOException {
+        writeNullableLong(out, book.getId());
+        writeString(out, book.getTitle());
+        writeString(out, book.getAuthor());
+        writeString(out, book.getIsbn());
+        writeDate(out, book.getPublishDate());
+        out.writeByte(book.getStatus() == null ? -1 : book.getStatus().ordinal());
+        writeString(out, book.getCategory());
+        writeString(out, book.getDescription());
+        if (book.getPrice() == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            out.writeDouble(book.getPrice());
+        }
+        writeString(out, book.getLocation());
+        writeNullableLong(out, book.getTotalCopies() == null ? null : book.getTotalCopies().longValue());
+        writeNullableLong(out, book.getAvailableCopies() == null ? null : book.getAvailableCopies().longValue());
+        writeDate(out, book.getCreatedAt());
+        writeDate(out, book.getUpdatedAt());
+        // 版本2
+        writeVarLong(out, book.getVersion());
+    }
+
+    private static Book readBook(DataInputStream in, byte version) throws IOException {
+        Book book = new Book();
+        book.setId(readNullableLong(in));
+        book.setTitle(readString(in));
+        book.setAuthor(readString(in));
+        book.setIsbn(readString(in));
+        book.setPublishDate(readDate(in));
+        byte status = in.readByte();
+        book.setStatus(status < 0 ? null : STATUSES[status]);
+        book.setCategory(readString(in));
+        book.setDescription(readString(in));
+        book.setPrice(in.readBoolean() ? in.readDouble() : null);
+        book.setLocation(readString(in));
+        Long totalCopies = readNullableLong(in);
+        book.setTotalCopies(totalCopies == null ? null : totalCopies.intValue());
+        Long availableCopies = readNullableLong(in);
+        book.setAvailableCopies(availableCopies == null ? null : availableCopies.intValue());
+        book.setCreatedAt(readDate(in));
+        book.setUpdatedAt(readDate(in));
+        if (version >= 2) {
+            book.setVersion(readVarLong(in));
+        }
+        return book;
+    }
+
+    /**
+     * 字符串：长度+1（0表示null）后接UTF-8字节
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 日期：epochDay的zigzag编码+1（0表示null）
+     */
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        writeNullableLong(out, date == null ? null : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        Long epochDay = readNullableLong(in);
+        return epochDay == null ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * 可空整数：zigzag编码+1（0表示null）
+     */
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        writeVarLong(out, value == null ? 0 : ((value << 1) ^ (value >> 63)) + 1);
+    }
+
+    private static Long readNullableLong(DataInputStream in) throws IOException {
+        long encoded = readVarLong(in);
+        if (encoded == 0) {
+            return null;
+        }
+        long zigzag = encoded - 1;
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static byte[] withHeader(byte type, byte[] body) {
+        byte[] bytes = new byte[HEADER_LENGTH + body.length];
+        bytes[0] = MAGIC;
+        bytes[1] = VERSION;
+        bytes[2] = type;
+        System.arraycopy(body, 0, bytes, HEADER_LENGTH, body.length);
+        return bytes;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 3);
+            byte[] chunk = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compressed value");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.serializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Redis值序列化器工厂
+ * 通过配置项app.redis.value-serializer选择序列化方式
+ */
+public final class RedisSerializers {
+
+    public static final String JSON = "json";
+    public static final String BINARY = "binary";
+
+    private RedisSerializers() {
+    }
+
+    /**
+     * 根据名称创建值序列化器
+     * @param name 序列化方式（json/binary）
+     * @param compressThreshold 二进制序列化的压缩阈值（字节）
+     * @return 值序列化器
+     */
+    public static RedisSerializer<Object> create(String name, int compressThreshold) {
+        if (JSON.equalsIgnoreCase(name)) {
+            return json();
+        }
+        if (BINARY.equalsIgnoreCase(name)) {
+            return binary(compressThreshold);
+        }
+        throw new IllegalArgumentException("Unsupported redis value serializer: " + name);
+    }
+
+    /**
+     * 带类型信息的JSON序列化器，支持java.time类型，反序列化后能还原为原始类型
+     * @return JSON序列化器
+     */
+    public static RedisSerializer<Object> json() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return new GenericJackson2JsonRedisSerializer(mapper);
+    }
+
+    /**
+     * 图书二进制序列化器，不支持的类型使用JSON序列化
+     * @param compressThreshold 压缩阈值（字节），小于等于0表示不压缩
+     * @return 二进制序列化器
+     */
+    public static RedisSerializer<Object> binary(int compressThreshold) {
+        return new BookBinaryRedisSerializer(json(), compressThreshold);
+    }
+}
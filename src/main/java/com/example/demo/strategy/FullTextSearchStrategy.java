@@ -0,0 +1,55 @@
+package com.example.demo.strategy;
+
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.search.BookSearchIndex;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 全文搜索策略
+ * 基于内存倒排索引同时搜索标题、作者和描述，按相关度排序；
+ * 索引尚未构建完成时退化为按标题或作者模糊查询
+ */
+@Component
+public class FullTextSearchStrategy implements SearchStrategy {
+
+    private final BookSearchIndex searchIndex;
+
+    public FullTextSearchStrategy(BookSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public Page<Book> search(BookDAO bookDAO, String keyword, Pageable pageable) {
+        if (!searchIndex.isReady()) {
+            return bookDAO.findByTitleContainingOrAuthorContaining(keyword, keyword, pageable);
+        }
+
+        Page<Long> idPage = searchIndex.search(keyword, pageable);
+        if (idPage.getContent().isEmpty()) {
+            return new PageImpl<>(new ArrayList<>(), pageable, idPage.getTotalElements());
+        }
+
+        // 按主键一次性加载当前页，并保持相关度顺序
+        Map<Long, Book> booksById = new HashMap<>();
+        for (Book book : bookDAO.findAllById(idPage.getContent())) {
+            booksById.put(book.getId(), book);
+        }
+        List<Book> books = new ArrayList<>(idPage.getContent().size());
+        for (Long id : idPage.getContent()) {
+            Book book = booksById.get(id);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return new PageImpl<>(books, pageable, idPage.getTotalElements());
+    }
+}
@@ -4,6 +4,7 @@ import com.example.demo.mapper.BookDAO;
 import com.example.demo.model.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 /**
  * 搜索策略接口
@@ -11,6 +12,11 @@ import org.springframework.data.domain.Pageable;
  * 每个具体的搜索策略类都需要实现这个接口
  */
 public interface SearchStrategy {
+    /**
+     * LIKE模式中的转义字符
+     */
+    char LIKE_ESCAPE = '\\';
+
     /**
      * 分页搜索图书
      * @param bookDAO 图书数据访问对象
@@ -19,4 +25,39 @@ public interface SearchStrategy {
      * @return 分页后的搜索结果
      */
     Page<Book> search(BookDAO bookDAO, String keyword, Pageable pageable);
+
+    /**
+     * 是否支持将关键词转换为查询条件
+     * @return 支持时返回true，此时可调用{@link #toSpecification(String)}
+     */
+    default boolean supportsSpecification() {
+        return false;
+    }
+
+    /**
+     * 将关键词转换为查询条件，用于游标分页等需要自行组合条件的场景
+     * @param keyword 搜索关键词
+     * @return 查询条件
+     * @throws IllegalArgumentException 当策略不支持转换为查询条件时抛出此异常
+     */
+    default Specification<Book> toSpecification(String keyword) {
+        throw new IllegalArgumentException("Cursor pagination is not supported by this search type");
+    }
+
+    /**
+     * 生成包含关键词的LIKE模式，关键词中的通配符按字面匹配，与Spring Data的Containing查询一致
+     * @param keyword 搜索关键词
+     * @return LIKE模式，需配合{@link #LIKE_ESCAPE}使用
+     */
+    static String containsPattern(String keyword) {
+        StringBuilder pattern = new StringBuilder(keyword.length() + 2).append('%');
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
 }
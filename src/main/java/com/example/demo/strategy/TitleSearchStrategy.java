@@ -2,21 +2,31 @@ package com.example.demo.strategy;
 
 import com.example.demo.mapper.BookDAO;
 import com.example.demo.model.Book;
+import com.example.demo.model.BookCriteria;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 /**
  * 标题搜索策略
  * 实现按图书标题进行搜索的策略
  */
-@Component
+@Component(BookCriteria.TITLE_SEARCH_TYPE)
 public class TitleSearchStrategy implements SearchStrategy {
     
     @Override
     public Page<Book> search(BookDAO bookDAO, String keyword, Pageable pageable) {
         return bookDAO.findByTitleContaining(keyword, pageable);
     }
-}
 
+    @Override
+    public boolean supportsSpecification() {
+        return true;
+    }
 
+    @Override
+    public Specification<Book> toSpecification(String keyword) {
+        return (root, query, cb) -> cb.like(root.get("title"), SearchStrategy.containsPattern(keyword), LIKE_ESCAPE);
+    }
+}
@@ -1,25 +1,107 @@
 package com.example.demo.utils;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Redis工具类
- * 提供常用的Redis操作方法
+ * 提供常用的Redis操作方法；读取操作按键前缀记录命中、未命中次数（cache.gets），
+ * 各命令的耗时由Lettuce的命令延迟指标记录
  */
 @Component
 public class RedisUtils {
 
+    /**
+     * 写入Hash并设置过期时间，ARGV[1]为过期毫秒数，之后依次为field和value
+     */
+    private static final RedisScript<Long> HSET_EXPIRE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 向Set添加值并设置过期时间，ARGV[1]为过期毫秒数，之后为值
+     */
+    private static final RedisScript<Long> SADD_EXPIRE_SCRIPT = new DefaultRedisScript<>(
+            "local n = redis.call('SADD', KEYS[1], unpack(ARGV, 2)) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+            "return n",
+            Long.class);
+
+    /**
+     * 向List尾部添加值并设置过期时间，ARGV[1]为过期毫秒数，之后为值
+     */
+    private static final RedisScript<Long> RPUSH_EXPIRE_SCRIPT = new DefaultRedisScript<>(
+            "local n = redis.call('RPUSH', KEYS[1], unpack(ARGV, 2)) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+            "return n",
+            Long.class);
+
+    /**
+     * Hash存在时按ARGV依次递增各field，不存在时不创建；ARGV为field和增量交替排列
+     */
+    private static final RedisScript<Long> HINCRBY_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "for i = 1, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 取出并删除ZSet中分数不超过ARGV[1]的值，按分数升序最多取ARGV[2]个
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ZPOP_BY_SCORE_SCRIPT = new DefaultRedisScript<>(
+            "local values = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+            "if #values > 0 then redis.call('ZREM', KEYS[1], unpack(values)) end " +
+            "return values",
+            List.class);
+
+    /**
+     * 键前缀最多取的段数，如book:category:计算机取book:category:
+     */
+    private static final int MAX_PREFIX_SEGMENTS = 2;
+
     private final RedisTemplate<String, Object> redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * key为键前缀，value依次为命中、未命中计数器
+     */
+    private final ConcurrentMap<String, Counter[]> cacheCounters = new ConcurrentHashMap<>();
 
-    public RedisUtils(RedisTemplate<String, Object> redisTemplate) {
+    /**
+     * 构造函数
+     * @param redisTemplate RedisTemplate
+     * @param meterRegistry 指标注册表，记录按键前缀统计的命中率
+     */
+    public RedisUtils(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -42,13 +124,86 @@ public class RedisUtils {
         redisTemplate.opsForValue().set(key, value, timeout, unit);
     }
 
+    /**
+     * 键不存在时设置缓存并设置过期时间
+     * @param key 键
+     * @param value 值
+     * @param timeout 过期时间
+     * @param unit 时间单位
+     * @return 是否设置成功
+     */
+    public Boolean setIfAbsent(String key, Object value, long timeout, TimeUnit unit) {
+        return redisTemplate.opsForValue().setIfAbsent(key, value, timeout, unit);
+    }
+
     /**
      * 获取缓存
      * @param key 键
      * @return 值
      */
     public Object get(String key) {
-        return redisTemplate.opsForValue().get(key);
+        Object value = redisTemplate.opsForValue().get(key);
+        recordGet(key, value != null);
+        return value;
+    }
+
+    /**
+     * 批量获取缓存，一次网络往返
+     * @param keys 键集合
+     * @return 值列表，顺序与键一致，不存在的键对应null
+     */
+    public List<Object> multiGet(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+        int i = 0;
+        for (String key : keys) {
+            recordGet(key, values != null && values.get(i++) != null);
+        }
+        return values;
+    }
+
+    /**
+     * 批量设置缓存并设置过期时间
+     * 通过管道在一次网络往返中发送所有SET PX命令
+     * @param map 键值对
+     * @param timeout 过期时间
+     * @param unit 时间单位
+     */
+    public void multiSet(Map<String, ?> map, long timeout, TimeUnit unit) {
+        if (map.isEmpty()) {
+            return;
+        }
+        Expiration expiration = Expiration.milliseconds(unit.toMillis(timeout));
+        List<byte[][]> entries = new ArrayList<>(map.size());
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            entries.add(new byte[][]{rawKey(entry.getKey()), rawValue(entry.getValue())});
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[][] entry : entries) {
+                connection.stringCommands().set(entry[0], entry[1], expiration,
+                        RedisStringCommands.SetOption.upsert());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 以管道方式批量执行命令，所有命令在一次网络往返中发送
+     * 回调中的命令返回值均为null，真实结果按执行顺序在返回列表中
+     * @param commands 要执行的命令
+     * @return 各命令的执行结果
+     */
+    public List<Object> pipeline(Consumer<RedisOperations<String, Object>> commands) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                commands.accept((RedisOperations<String, Object>) operations);
+                return null;
+            }
+        });
     }
 
     /**
@@ -125,7 +280,9 @@ public class RedisUtils {
      * @return Hash值
      */
     public Object hGet(String key, String hashKey) {
-        return redisTemplate.opsForHash().get(key, hashKey);
+        Object value = redisTemplate.opsForHash().get(key, hashKey);
+        recordGet(key, value != null);
+        return value;
     }
 
     /**
@@ -147,8 +304,7 @@ public class RedisUtils {
      * @param unit 时间单位
      */
     public void hSet(String key, String hashKey, Object value, long timeout, TimeUnit unit) {
-        redisTemplate.opsForHash().put(key, hashKey, value);
-        redisTemplate.expire(key, timeout, unit);
+        executeRaw(HSET_EXPIRE_SCRIPT, key, rawTimeout(timeout, unit), rawHashKey(hashKey), rawHashValue(value));
     }
 
     /**
@@ -157,7 +313,9 @@ public class RedisUtils {
      * @return Hash中的所有值
      */
     public Map<Object, Object> hGetAll(String key) {
-        return redisTemplate.opsForHash().entries(key);
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(key);
+        recordGet(key, entries != null && !entries.isEmpty());
+        return entries;
     }
 
     /**
@@ -177,8 +335,17 @@ public class RedisUtils {
      * @param unit 时间单位
      */
     public void hSetAll(String key, Map<String, Object> map, long timeout, TimeUnit unit) {
-        redisTemplate.opsForHash().putAll(key, map);
-        redisTemplate.expire(key, timeout, unit);
+        if (map.isEmpty()) {
+            return;
+        }
+        byte[][] args = new byte[map.size() * 2 + 1][];
+        args[0] = rawTimeout(timeout, unit);
+        int i = 1;
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            args[i++] = rawHashKey(entry.getKey());
+            args[i++] = rawHashValue(entry.getValue());
+        }
+        executeRaw(HSET_EXPIRE_SCRIPT, key, args);
     }
 
     /**
@@ -212,6 +379,26 @@ public class RedisUtils {
         return redisTemplate.opsForHash().increment(key, hashKey, delta);
     }
 
+    /**
+     * Hash存在时原子地递增多个field，不存在时什么也不做，避免只写入部分字段
+     * @param key 键
+     * @param deltas Hash键和递增因子
+     * @return Hash是否存在
+     */
+    public boolean hIncrementIfExists(String key, Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return Boolean.TRUE.equals(hasKey(key));
+        }
+        byte[][] args = new byte[deltas.size() * 2][];
+        int i = 0;
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            args[i++] = rawHashKey(entry.getKey());
+            args[i++] = StringRedisSerializer.UTF_8.serialize(String.valueOf(entry.getValue()));
+        }
+        Long result = executeRaw(HINCRBY_IF_EXISTS_SCRIPT, key, args);
+        return result != null && result == 1;
+    }
+
     /**
      * Hash递减
      * @param key 键
@@ -261,9 +448,7 @@ public class RedisUtils {
      * @return 成功添加的数量
      */
     public Long sAdd(String key, long timeout, TimeUnit unit, Object... values) {
-        Long count = redisTemplate.opsForSet().add(key, values);
-        redisTemplate.expire(key, timeout, unit);
-        return count;
+        return executeRaw(SADD_EXPIRE_SCRIPT, key, rawValues(timeout, unit, values));
     }
 
     /**
@@ -334,9 +519,7 @@ public class RedisUtils {
      * @return List的长度
      */
     public Long lRightPush(String key, Object value, long timeout, TimeUnit unit) {
-        Long size = redisTemplate.opsForList().rightPush(key, value);
-        redisTemplate.expire(key, timeout, unit);
-        return size;
+        return executeRaw(RPUSH_EXPIRE_SCRIPT, key, rawValues(timeout, unit, value));
     }
 
     /**
@@ -358,9 +541,7 @@ public class RedisUtils {
      * @return List的长度
      */
     public Long lRightPushAll(String key, long timeout, TimeUnit unit, Object... values) {
-        Long size = redisTemplate.opsForList().rightPushAll(key, values);
-        redisTemplate.expire(key, timeout, unit);
-        return size;
+        return executeRaw(RPUSH_EXPIRE_SCRIPT, key, rawValues(timeout, unit, values));
     }
 
     /**
@@ -373,4 +554,222 @@ public class RedisUtils {
     public Long lRemove(String key, long count, Object value) {
         return redisTemplate.opsForList().remove(key, count, value);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 向ZSet中添加值
+     * @param key 键
+     * @param value 值
+     * @param score 分数
+     * @return 是否为新增成员
+     */
+    public Boolean zAdd(String key, Object value, double score) {
+        return redisTemplate.opsForZSet().add(key, value, score);
+    }
+
+    /**
+     * 向ZSet中批量添加值
+     * @param key 键
+     * @param tuples 值和分数
+     * @return 新增成员的数量
+     */
+    public Long zAdd(String key, Set<ZSetOperations.TypedTuple<Object>> tuples) {
+        return redisTemplate.opsForZSet().add(key, tuples);
+    }
+
+    /**
+     * 按分数升序获取ZSet中指定索引范围的值
+     * @param key 键
+     * @param start 开始索引
+     * @param end 结束索引
+     * @return ZSet中的值
+     */
+    public Set<Object> zRange(String key, long start, long end) {
+        return redisTemplate.opsForZSet().range(key, start, end);
+    }
+
+    /**
+     * 从ZSet中删除值
+     * @param key 键
+     * @param values 值
+     * @return 成功删除的数量
+     */
+    public Long zRemove(String key, Object... values) {
+        return redisTemplate.opsForZSet().remove(key, values);
+    }
+
+    /**
+     * 取出并删除ZSet中分数最小的值
+     * @param key 键
+     * @return 分数最小的值，ZSet为空时返回null
+     */
+    public Object zPopMin(String key) {
+        ZSetOperations.TypedTuple<Object> tuple = redisTemplate.opsForZSet().popMin(key);
+        return tuple == null ? null : tuple.getValue();
+    }
+
+    /**
+     * 原子地取出并删除ZSet中分数不超过指定值的值，多个客户端同时调用时每个值只会被取出一次
+     * @param key 键
+     * @param maxScore 最大分数（含）
+     * @param count 最多取出的数量
+     * @return 按分数升序的值
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> zPopByScore(String key, double maxScore, long count) {
+        List<Object> values = executeRaw(ZPOP_BY_SCORE_SCRIPT, key,
+                StringRedisSerializer.UTF_8.serialize(BigDecimal.valueOf(maxScore).toPlainString()),
+                StringRedisSerializer.UTF_8.serialize(String.valueOf(count)));
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    /**
+     * 获取ZSet的长度
+     * @param key 键
+     * @return ZSet的长度
+     */
+    public Long zSize(String key) {
+        return redisTemplate.opsForZSet().zCard(key);
+    }
+
+    /**
+     * 执行Lua脚本
+     * @param script 脚本
+     * @param keys 键列表
+     * @param args 参数
+     * @return 脚本返回值
+     */
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        return redisTemplate.execute(script, keys, args);
+    }
+
+    /**
+     * 执行Lua脚本，字符串参数按UTF-8序列化，值参数按value序列化器序列化
+     * @param script 脚本
+     * @param keys 键列表
+     * @param args 参数
+     * @return 脚本返回值
+     */
+    public <T> T executeWithArgs(RedisScript<T> script, List<String> keys, ScriptArgs args) {
+        byte[][] raw = new byte[args.size()][];
+        for (int i = 0; i < raw.length; i++) {
+            raw[i] = args.isValue(i) ? rawValue(args.get(i)) : StringRedisSerializer.UTF_8.serialize((String) args.get(i));
+        }
+        return executeRaw(script, keys, raw);
+    }
+
+    /**
+     * 执行Lua脚本，参数按UTF-8字符串序列化，不经过value序列化器
+     * 用于参数是Hash字段、ZSet字符串成员等需要与字符串序列化的键保持一致的场景
+     * @param script 脚本
+     * @param keys 键列表
+     * @param args 参数
+     * @return 脚本返回值
+     */
+    public <T> T executeWithStringArgs(RedisScript<T> script, List<String> keys, String... args) {
+        byte[][] raw = new byte[args.length][];
+        for (int i = 0; i < args.length; i++) {
+            raw[i] = StringRedisSerializer.UTF_8.serialize(args[i]);
+        }
+        return executeRaw(script, keys, raw);
+    }
+
+    /**
+     * 发布消息
+     * 频道和消息内容都按UTF-8字符串序列化，不经过value序列化器
+     * @param channel 频道
+     * @param message 消息内容
+     * @return 收到消息的订阅者数量
+     */
+    public Long publish(String channel, String message) {
+        StringRedisSerializer serializer = StringRedisSerializer.UTF_8;
+        return redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.publish(serializer.serialize(channel), serializer.serialize(message)));
+    }
+
+    /**
+     * 提取键前缀，最多取两段，遇到数字段为止，如book:42取book:，book:status:AVAILABLE取book:status:，
+     * book:count取book:count；键中的数字ID和查询条件不会进入前缀，指标的标签数量有限
+     * @param key 键
+     * @return 键前缀
+     */
+    static String keyPrefix(String key) {
+        int end = 0;
+        for (int segments = 0; segments < MAX_PREFIX_SEGMENTS && end < key.length(); segments++) {
+            int colon = key.indexOf(':', end);
+            int segmentEnd = colon < 0 ? key.length() : colon;
+            if (isNumber(key, end, segmentEnd)) {
+                break;
+            }
+            end = colon < 0 ? key.length() : colon + 1;
+        }
+        return key.substring(0, end);
+    }
+
+    private static boolean isNumber(String key, int start, int end) {
+        if (start == end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void recordGet(String key, boolean hit) {
+        Counter[] counters = cacheCounters.computeIfAbsent(keyPrefix(key), prefix -> new Counter[]{
+                Counter.builder("cache.gets").tag("cache", prefix).tag("result", "hit")
+                        .description("Redis reads by key prefix").register(meterRegistry),
+                Counter.builder("cache.gets").tag("cache", prefix).tag("result", "miss")
+                        .description("Redis reads by key prefix").register(meterRegistry)});
+        counters[hit ? 0 : 1].increment();
+    }
+
+    /**
+     * 执行参数已序列化为字节数组的Lua脚本
+     * 用于参数中混合了Hash键、值等不同序列化方式的场景
+     */
+    private <T> T executeRaw(RedisScript<T> script, String key, byte[]... args) {
+        return executeRaw(script, Collections.singletonList(key), args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T executeRaw(RedisScript<T> script, List<String> keys, byte[]... args) {
+        return redisTemplate.execute(script, RedisSerializer.byteArray(),
+                (RedisSerializer<T>) redisTemplate.getValueSerializer(), keys, (Object[]) args);
+    }
+
+    private byte[][] rawValues(long timeout, TimeUnit unit, Object... values) {
+        byte[][] args = new byte[values.length + 1][];
+        args[0] = rawTimeout(timeout, unit);
+        for (int i = 0; i < values.length; i++) {
+            args[i + 1] = rawValue(values[i]);
+        }
+        return args;
+    }
+
+    private static byte[] rawTimeout(long timeout, TimeUnit unit) {
+        return StringRedisSerializer.UTF_8.serialize(String.valueOf(unit.toMillis(timeout)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawHashKey(Object hashKey) {
+        return ((RedisSerializer<Object>) redisTemplate.getHashKeySerializer()).serialize(hashKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawHashValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getHashValueSerializer()).serialize(value);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.utils;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lua脚本参数
+ * 字符串参数按UTF-8写入，与字符串序列化的键、Hash字段可以直接比较，数字也按字符串写入；
+ * 值参数按value序列化器写入，与{@link RedisUtils}读出的值一致。
+ * 用于同一个脚本中既有Hash字段又有值的场景，交给{@link RedisUtils#executeWithArgs}执行
+ */
+@EqualsAndHashCode
+@ToString
+public final class ScriptArgs {
+
+    private final List<Object> args = new ArrayList<>();
+    private final List<Boolean> values = new ArrayList<>();
+
+    /**
+     * 追加一个字符串参数
+     * @param arg 参数，按String.valueOf转换
+     * @return 当前对象
+     */
+    public ScriptArgs string(Object arg) {
+        args.add(String.valueOf(arg));
+        values.add(false);
+        return this;
+    }
+
+    /**
+     * 追加一个毫秒数参数，用于PEXPIRE等命令
+     * @param timeout 时长
+     * @param unit 时间单位
+     * @return 当前对象
+     */
+    public ScriptArgs millis(long timeout, TimeUnit unit) {
+        return string(unit.toMillis(timeout));
+    }
+
+    /**
+     * 追加一个按value序列化器写入的值
+     * @param arg 值
+     * @return 当前对象
+     */
+    public ScriptArgs value(Object arg) {
+        args.add(arg);
+        values.add(true);
+        return this;
+    }
+
+    /**
+     * 参数个数
+     * @return 参数个数
+     */
+    public int size() {
+        return args.size();
+    }
+
+    /**
+     * 获取参数
+     * @param index 下标
+     * @return 字符串参数或值参数
+     */
+    public Object get(int index) {
+        return args.get(index);
+    }
+
+    /**
+     * 是否为按value序列化器写入的值参数
+     * @param index 下标
+     * @return 是否为值参数
+     */
+    public boolean isValue(int index) {
+        return values.get(index);
+    }
+}
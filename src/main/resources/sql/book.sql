@@ -25,6 +25,7 @@ CREATE TABLE books (
                        location VARCHAR(100) COMMENT '存放位置',
                        total_copies INT NOT NULL DEFAULT 1 COMMENT '总副本数',
                        available_copies INT NOT NULL DEFAULT 1 COMMENT '可借阅副本数',
+                       version BIGINT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号',
                        created_at DATE NOT NULL COMMENT '创建时间',
                        updated_at DATE NOT NULL COMMENT '更新时间'
 ) COMMENT '图书信息表';
@@ -39,6 +40,7 @@ CREATE TABLE borrow_records (
                                 return_date DATETIME COMMENT '实际归还日期',
                                 status VARCHAR(20) NOT NULL COMMENT '借阅状态：BORROWED-已借出，RETURNED-已归还，OVERDUE-已逾期，LOST-丢失',
                                 fine_amount DECIMAL(10,2) DEFAULT 0.0 COMMENT '罚款金额',
+                                fine_paid BOOLEAN NOT NULL DEFAULT FALSE COMMENT '罚款是否已缴清',
                                 created_at DATETIME NOT NULL COMMENT '创建时间',
                                 updated_at DATETIME NOT NULL COMMENT '更新时间',
                                 FOREIGN KEY (book_id) REFERENCES books(id) COMMENT '关联图书表',
@@ -65,7 +67,7 @@ CREATE INDEX idx_books_author ON books(author);
 CREATE INDEX idx_books_category ON books(category);
 CREATE INDEX idx_books_status ON books(status);
 CREATE INDEX idx_borrow_records_book_id ON borrow_records(book_id);
-CREATE INDEX idx_borrow_records_user_id ON borrow_records(user_id);
+CREATE INDEX idx_borrow_records_user_borrow_date ON borrow_records(user_id, borrow_date);
 CREATE INDEX idx_borrow_records_status ON borrow_records(status);
 CREATE INDEX idx_reservations_book_id ON reservations(book_id);
 CREATE INDEX idx_reservations_user_id ON reservations(user_id);
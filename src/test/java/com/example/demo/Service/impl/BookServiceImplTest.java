@@ -1,32 +1,68 @@
 package com.example.demo.Service.impl;
 
+import com.example.demo.cache.BookCache;
+import com.example.demo.cache.BookCount;
+import com.example.demo.cache.BookCountCache;
+import com.example.demo.cache.BookIdPage;
+import com.example.demo.cache.BookListCache;
+import com.example.demo.cache.BookQueryCache;
+import com.example.demo.cache.SingleFlightCacheLoader;
 import com.example.demo.chain.BookStatusValidator;
+import com.example.demo.event.BookChangeEvent;
 import com.example.demo.exception.BookNotFoundException;
+import com.example.demo.exporter.BookExporter;
 import com.example.demo.factory.SearchStrategyFactory;
+import com.example.demo.importer.BookImporter;
+import com.example.demo.inventory.BookInventory;
 import com.example.demo.mapper.BookDAO;
+import com.example.demo.metrics.SqlStatementCounter;
+import com.example.demo.projection.BookProjection;
 import com.example.demo.model.Book;
+import com.example.demo.model.BookCriteria;
 import com.example.demo.model.BookDTO;
 import com.example.demo.model.BookStatus;
+import com.example.demo.pagination.BookCursorRequest;
+import com.example.demo.pagination.CountedPage;
+import com.example.demo.pagination.CursorSlice;
+import com.example.demo.retry.OptimisticLockRetry;
+import com.example.demo.search.BookFacetIndex;
+import com.example.demo.search.BookSuggester;
 import com.example.demo.strategy.SearchStrategy;
+import com.example.demo.utils.RedisUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+import static com.example.demo.metrics.SqlStatementAssertions.assertMaxStatements;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.argThat;
@@ -47,6 +83,48 @@ class BookServiceImplTest {
     @Mock
     private BookStatusValidator statusValidator;
 
+    @Mock
+    private RedisUtils redisUtils;
+
+    @Mock
+    private BookCache bookCache;
+
+    @Mock
+    private BookListCache bookListCache;
+
+    @Mock
+    private SingleFlightCacheLoader cacheLoader;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BookSuggester bookSuggester;
+
+    @Mock
+    private BookCountCache bookCountCache;
+
+    @Mock
+    private BookQueryCache bookQueryCache;
+
+    @Mock
+    private BookFacetIndex bookFacetIndex;
+
+    @Mock
+    private BookImporter bookImporter;
+
+    @Mock
+    private BookExporter bookExporter;
+
+    @Mock
+    private BookInventory bookInventory;
+
+    @Mock
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -85,6 +163,10 @@ class BookServiceImplTest {
         testBookDTO.setAvailableCopies(5);
 
         pageable = PageRequest.of(0, 10);
+
+        // 合并并发加载的逻辑由SingleFlightCacheLoaderTest覆盖，这里直接执行加载函数
+        lenient().when(cacheLoader.singleFlight(anyString(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
     }
 
     @Test
@@ -103,6 +185,24 @@ class BookServiceImplTest {
         assertEquals(testBook, result.getContent().get(0));
     }
 
+    @Test
+    void findAllBooks_WithProjection_ShouldTakeTotalFromCountCache() {
+        // Arrange
+        Pageable firstPage = PageRequest.of(0, 1);
+        BookProjection projection = BookProjection.of("title");
+        Map<String, Object> row = Collections.singletonMap("id", 1L);
+        BookCriteria all = new BookCriteria(null, null, null, null, null, null, null, null);
+        when(bookDAO.findFields(null, projection, firstPage)).thenReturn(Collections.singletonList(row));
+        when(bookCountCache.count(eq(all), eq(false), any())).thenReturn(new BookCount(42L, false));
+
+        // Act
+        Page<Map<String, Object>> result = bookService.findAllBooks(firstPage, projection);
+
+        // Assert
+        assertEquals(42, result.getTotalElements());
+        verify(bookDAO, never()).count();
+    }
+
     @Test
     void findBookById_WhenBookExists_ShouldReturnBook() {
         // Arrange
@@ -139,6 +239,8 @@ class BookServiceImplTest {
         assertEquals(testBook.getId(), result.getId());
         assertEquals(testBook.getTitle(), result.getTitle());
         verify(bookDAO).save(any(Book.class));
+        // 列表索引在事务提交后由BookListCache更新
+        verify(bookListCache, never()).add(any());
     }
 
     @Test
@@ -157,6 +259,23 @@ class BookServiceImplTest {
         verify(bookDAO).save(any(Book.class));
     }
 
+    @Test
+    void updateBook_ShouldNotOverwriteAvailableCopiesButApplyTotalChange() {
+        // Arrange
+        when(bookDAO.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookDAO.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        testBookDTO.setTotalCopies(12);
+        testBookDTO.setAvailableCopies(12);
+
+        // Act
+        Book result = bookService.updateBook(1L, testBookDTO);
+
+        // Assert
+        // 可借副本数由库存维护，只按总副本数的差值调整
+        assertEquals(Integer.valueOf(7), result.getAvailableCopies());
+        verify(bookDAO).adjustAvailableCopies(1L, 2);
+    }
+
     @Test
     void updateBook_WhenBookNotExists_ShouldThrowException() {
         // Arrange
@@ -169,19 +288,22 @@ class BookServiceImplTest {
     @Test
     void deleteBook_WhenBookExists_ShouldDeleteBook() {
         // Arrange
-        when(bookDAO.existsById(1L)).thenReturn(true);
+        when(bookDAO.findById(1L)).thenReturn(Optional.of(testBook));
 
         // Act
         bookService.deleteBook(1L);
 
         // Assert
         verify(bookDAO).deleteById(1L);
+        // 缓存在事务提交后由BookCache清除
+        verify(bookCache, never()).evict(any());
+        verify(bookListCache, never()).remove(any());
     }
 
     @Test
     void deleteBook_WhenBookNotExists_ShouldThrowException() {
         // Arrange
-        when(bookDAO.existsById(1L)).thenReturn(false);
+        when(bookDAO.findById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(BookNotFoundException.class, () -> bookService.deleteBook(1L));
@@ -202,13 +324,29 @@ class BookServiceImplTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(testBook, result.getContent().get(0));
+        assertEquals(1, meterRegistry.get("book.search").tag("type", "title").timer().count());
+    }
+
+    @Test
+    void searchBooks_WithCursor_ShouldTrimKeywordLikeOffsetSearch() {
+        // Arrange
+        when(searchStrategyFactory.getStrategy("title")).thenReturn(searchStrategy);
+        when(bookDAO.findAll(any(), any(Sort.class), anyInt())).thenReturn(Collections.singletonList(testBook));
+
+        // Act
+        CursorSlice<Book> result = bookService.searchBooks("  test  ", "title", BookCursorRequest.of(null, null, 10));
+
+        // Assert
+        assertEquals(Collections.singletonList(testBook), result.getContent());
+        verify(searchStrategy).toSpecification("test");
     }
 
     @Test
     void updateBookStatus_WhenValid_ShouldUpdateStatus() {
         // Arrange
+        runRetryInline();
         when(bookDAO.findById(1L)).thenReturn(Optional.of(testBook));
-        when(bookDAO.save(any(Book.class))).thenReturn(testBook);
+        when(bookDAO.saveAndFlush(any(Book.class))).thenReturn(testBook);
         doNothing().when(statusValidator).validate(any(Book.class), any(BookStatus.class));
 
         // Act
@@ -218,7 +356,299 @@ class BookServiceImplTest {
         assertNotNull(result);
         assertEquals(testBook.getId(), result.getId());
         verify(statusValidator).validate(any(Book.class), any(BookStatus.class));
-        verify(bookDAO).save(any(Book.class));
+        verify(bookDAO).saveAndFlush(any(Book.class));
+        verify(bookCache, never()).evict(any());
+        verify(optimisticLockRetry).execute(eq("updateBookStatus"), any());
+    }
+
+    @Test
+    void getBookById_WhenCached_ShouldNotQueryDatabase() {
+        // Arrange
+        when(bookCache.get(1L)).thenReturn(testBook);
+
+        // Act
+        Book result = bookService.getBookById(1L);
+
+        // Assert
+        assertEquals(testBook, result);
+        verify(bookDAO, never()).findById(anyLong());
+    }
+
+    @Test
+    void getBookById_WhenNotCached_ShouldLoadAndFillCache() {
+        // Arrange
+        when(bookCache.get(1L)).thenReturn(null);
+        when(bookDAO.findById(1L)).thenReturn(Optional.of(testBook));
+
+        // Act
+        Book result = bookService.getBookById(1L);
+
+        // Assert
+        assertEquals(testBook, result);
+        verify(bookCache).put(testBook);
+        verify(cacheLoader).singleFlight(eq("book:load:1"), any());
+    }
+
+    @Test
+    void getBooksPage_WhenIndexCached_ShouldLoadOnlyMissingBooks() {
+        // Arrange
+        Book otherBook = new Book();
+        otherBook.setId(2L);
+        when(bookListCache.getIds(0, 1)).thenReturn(Arrays.asList(1L, 2L));
+        Map<Long, Book> cached = new HashMap<>();
+        cached.put(1L, testBook);
+        when(bookCache.getAll(Arrays.asList(1L, 2L))).thenReturn(cached);
+        when(bookDAO.findAllById(Arrays.asList(2L))).thenReturn(Arrays.asList(otherBook));
+
+        // Act
+        List<Book> result = bookService.getBooksPage(0, 2);
+
+        // Assert
+        assertEquals(Arrays.asList(testBook, otherBook), result);
+        verify(bookCache).putAll(Arrays.asList(otherBook));
+        verify(cacheLoader).singleFlight(eq("book:load:[2]"), any());
+        verify(bookDAO, never()).findAllIds();
+    }
+
+    @Test
+    void getBooksPage_WhenIndexMissing_ShouldRebuildFromIds() {
+        // Arrange
+        when(bookListCache.getIds(0, 9)).thenReturn(null);
+        when(bookListCache.generation()).thenReturn(3L);
+        when(bookDAO.findAllIds()).thenReturn(Arrays.asList(1L));
+        when(bookCache.getAll(Arrays.asList(1L))).thenReturn(new HashMap<>(Collections.singletonMap(1L, testBook)));
+
+        // Act
+        List<Book> result = bookService.getBooksPage(0, 10);
+
+        // Assert
+        assertEquals(Arrays.asList(testBook), result);
+        verify(bookListCache).rebuild(Arrays.asList(1L), 3L);
+        verify(bookDAO, never()).findAll();
+    }
+
+    @Test
+    void getBooksByCategory_ShouldLoadThroughSingleFlightLoader() {
+        // Arrange
+        List<Book> books = Arrays.asList(testBook);
+        when(cacheLoader.load(eq("book:category:Test Category"), anyLong(), any(TimeUnit.class), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(3)).get());
+        when(bookDAO.findByCategory("Test Category")).thenReturn(books);
+
+        // Act
+        List<Book> result = bookService.getBooksByCategory("Test Category");
+
+        // Assert
+        assertEquals(books, result);
+        verify(bookDAO).findByCategory("Test Category");
+    }
+
+    @Test
+    void findBooksByCriteria_WhenPageIsFull_ShouldTakeTotalFromCountCache() {
+        // Arrange
+        Pageable firstPage = PageRequest.of(0, 1);
+        BookCriteria criteria = new BookCriteria("Test Category", null, null, null, null, null, null, null);
+        when(bookDAO.findContent(any(), eq(firstPage))).thenReturn(Collections.singletonList(testBook));
+        when(bookCountCache.count(eq(criteria), eq(true), any())).thenReturn(new BookCount(42L, false));
+
+        // Act
+        Page<Book> result = bookService.findBooksByCriteria(criteria, firstPage, true);
+
+        // Assert
+        assertEquals(42, result.getTotalElements());
+        assertFalse(CountedPage.isApproximateTotal(result));
+        verify(bookDAO, never()).count(any(Specification.class));
+        verify(bookQueryCache).put(eq(criteria), eq(firstPage), any(BookIdPage.class), anyLong());
+    }
+
+    @Test
+    void findBooksByCriteria_WhenTotalIsApproximate_ShouldMarkPageAndSkipResultCache() {
+        // Arrange
+        Pageable firstPage = PageRequest.of(0, 1);
+        BookCriteria criteria = new BookCriteria("Test Category", null, null, null, null, null, null, null);
+        when(bookDAO.findContent(any(), eq(firstPage))).thenReturn(Collections.singletonList(testBook));
+        when(bookCountCache.count(eq(criteria), eq(true), any())).thenReturn(new BookCount(40L, true));
+
+        // Act
+        Page<Book> result = bookService.findBooksByCriteria(criteria, firstPage, true);
+
+        // Assert
+        assertEquals(40, result.getTotalElements());
+        assertTrue(CountedPage.isApproximateTotal(result));
+        verify(bookQueryCache, never()).put(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void findBooksByCriteria_WhenPageIsNotFull_ShouldSkipCount() {
+        // Arrange
+        when(bookDAO.findContent(any(), eq(pageable))).thenReturn(Collections.singletonList(testBook));
+
+        // Act
+        Page<Book> result = bookService.findBooksByCriteria(
+                "Test Category", null, null, null, null, null, pageable);
+
+        // Assert
+        assertEquals(1, result.getTotalElements());
+        verifyNoInteractions(bookCountCache);
+    }
+
+    @Test
+    void findBooksByCriteria_WhenResultCached_ShouldResolveIdsWithoutQuery() {
+        // Arrange
+        BookCriteria criteria = new BookCriteria("Test Category", null, null, null, null, null, null, null);
+        when(bookQueryCache.get(criteria, pageable))
+                .thenReturn(new BookIdPage(Collections.singletonList(1L), 25));
+        Map<Long, Book> cached = new HashMap<>();
+        cached.put(1L, testBook);
+        when(bookCache.getAll(Collections.singletonList(1L))).thenReturn(cached);
+
+        // Act
+        Page<Book> result = bookService.findBooksByCriteria(criteria, pageable, false);
+
+        // Assert
+        assertEquals(25, result.getTotalElements());
+        assertEquals(testBook, result.getContent().get(0));
+        verify(bookDAO, never()).findContent(any(), any(Pageable.class));
+    }
+
+    @Test
+    void findBooksByCriteria_WithProjection_ShouldQueryFieldsAndCacheIds() {
+        // Arrange
+        BookCriteria criteria = new BookCriteria("Test Category", null, null, null, null, null, null, null);
+        BookProjection projection = BookProjection.of("title");
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 1L);
+        row.put("title", "Test Book");
+        when(bookDAO.findFields(any(), eq(projection), eq(pageable))).thenReturn(Collections.singletonList(row));
+        when(bookQueryCache.generation()).thenReturn(6L);
+
+        // Act
+        Page<Map<String, Object>> result = bookService.findBooksByCriteria(criteria, pageable, false, projection);
+
+        // Assert
+        assertEquals(Collections.singletonList(row), result.getContent());
+        InOrder inOrder = inOrder(bookQueryCache, bookDAO);
+        inOrder.verify(bookQueryCache).generation();
+        inOrder.verify(bookDAO).findFields(any(), eq(projection), eq(pageable));
+        inOrder.verify(bookQueryCache).put(eq(criteria), eq(pageable),
+                argThat(page -> page.getIds().equals(Collections.singletonList(1L)) && page.getTotal() == 1), eq(6L));
+        verify(bookDAO, never()).findContent(any(), any(Pageable.class));
+        verify(bookCache, never()).putAll(any());
+    }
+
+    @Test
+    void findBooksByCriteria_WithProjectionWhenResultCached_ShouldTakeFieldsFromCachedBooks() {
+        // Arrange
+        BookCriteria criteria = new BookCriteria("Test Category", null, null, null, null, null, null, null);
+        when(bookQueryCache.get(criteria, pageable))
+                .thenReturn(new BookIdPage(Collections.singletonList(1L), 25));
+        Map<Long, Book> cached = new HashMap<>();
+        cached.put(1L, testBook);
+        when(bookCache.getAll(Collections.singletonList(1L))).thenReturn(cached);
+
+        // Act
+        Page<Map<String, Object>> result = bookService.findBooksByCriteria(
+                criteria, pageable, false, BookProjection.of("title,price"));
+
+        // Assert
+        assertEquals(25, result.getTotalElements());
+        Map<String, Object> row = result.getContent().get(0);
+        assertEquals(Arrays.asList("id", "title", "price"), new ArrayList<>(row.keySet()));
+        assertEquals(testBook.getTitle(), row.get("title"));
+        verify(bookDAO, never()).findFields(any(), any(), any());
+    }
+
+    @Test
+    void updateBookStatus_ShouldPublishPreviousState() {
+        // Arrange
+        runRetryInline();
+        when(bookDAO.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookDAO.saveAndFlush(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        bookService.updateBookStatus(1L, BookStatus.BORROWED);
+
+        // Assert
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof BookChangeEvent
+                && ((BookChangeEvent) event).getPrevious().getStatus() == BookStatus.AVAILABLE
+                && ((BookChangeEvent) event).getBook().getStatus() == BookStatus.BORROWED));
     }
 
-} 
\ No newline at end of file
+    @Test
+    void findBooksByCriteria_WhenFacetIndexReady_ShouldNotQueryDatabase() {
+        // Arrange
+        BookCriteria criteria = new BookCriteria("Test Category", null, null, null, null, null, null, null);
+        BookFacetIndex.Result result = mock(BookFacetIndex.Result.class);
+        when(result.getIds()).thenReturn(new PageImpl<>(Collections.singletonList(1L), pageable, 1));
+        when(bookFacetIndex.isReady()).thenReturn(true);
+        when(bookFacetIndex.supports(pageable.getSort())).thenReturn(true);
+        when(bookFacetIndex.search(criteria, pageable)).thenReturn(result);
+        Map<Long, Book> cached = new HashMap<>();
+        cached.put(1L, testBook);
+        when(bookCache.getAll(Collections.singletonList(1L))).thenReturn(cached);
+
+        // Act
+        Page<Book> page = bookService.findBooksByCriteria(criteria, pageable, false);
+
+        // Assert
+        assertEquals(Collections.singletonList(testBook), page.getContent());
+        verifyNoInteractions(bookQueryCache);
+        verify(bookDAO, never()).findContent(any(), any(Pageable.class));
+    }
+
+    @Test
+    void findBooksByIds_ShouldLoadOnlyMissesAndKeepRequestOrder() {
+        // Arrange
+        Book otherBook = new Book();
+        otherBook.setId(2L);
+        Map<Long, Book> cached = new HashMap<>();
+        cached.put(1L, testBook);
+        when(bookCache.getAll(Arrays.asList(2L, 1L, 3L))).thenReturn(cached);
+        when(bookDAO.findAllById(Arrays.asList(2L, 3L))).thenReturn(Collections.singletonList(otherBook));
+
+        // Act
+        List<Book> result = bookService.findBooksByIds(Arrays.asList(2L, 1L, 2L, 3L));
+
+        // Assert
+        assertEquals(Arrays.asList(otherBook, testBook), result);
+        verify(bookCache).putAll(Collections.singletonList(otherBook));
+    }
+
+    @Test
+    void findBooksByIds_WhenEmpty_ShouldNotTouchCacheOrDatabase() {
+        // Act
+        List<Book> result = bookService.findBooksByIds(Collections.emptyList());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(bookCache, bookDAO);
+    }
+
+    @Test
+    void findBooksByIds_WhenAllMiss_ShouldLoadInOneStatement() throws Exception {
+        // Arrange
+        SqlStatementCounter statementCounter = new SqlStatementCounter(0, 2, false);
+        List<Long> ids = Arrays.asList(1L, 2L, 3L);
+        when(bookCache.getAll(ids)).thenReturn(new HashMap<>());
+        when(bookDAO.findAllById(ids)).thenAnswer(invocation -> {
+            statementCounter.inspect("select * from books where id in (?, ?, ?)");
+            return Collections.singletonList(testBook);
+        });
+        // 退化为逐条查询时同样计数
+        lenient().when(bookDAO.findById(anyLong())).thenAnswer(invocation -> {
+            statementCounter.inspect("select * from books where id=?");
+            return Optional.of(testBook);
+        });
+
+        // Act & Assert
+        assertMaxStatements(statementCounter, 1, () -> bookService.findBooksByIds(ids));
+    }
+
+    /**
+     * 让乐观锁重试直接执行一次操作
+     */
+    private void runRetryInline() {
+        when(optimisticLockRetry.execute(anyString(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+    }
+}
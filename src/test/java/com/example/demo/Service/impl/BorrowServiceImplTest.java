@@ -0,0 +1,343 @@
+package com.example.demo.Service.impl;
+
+import com.example.demo.borrow.BorrowRecordBatcher;
+import com.example.demo.cache.UserSummaryCache;
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.exception.BorrowLimitExceededException;
+import com.example.demo.exception.BorrowRecordNotFoundException;
+import com.example.demo.exception.NoCopyAvailableException;
+import com.example.demo.inventory.BookInventory;
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.BorrowStatus;
+import com.example.demo.reservation.ReservationQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BorrowServiceImplTest {
+
+    @Mock
+    private BorrowRecordDAO borrowRecordDAO;
+
+    @Mock
+    private BorrowRecordBatcher borrowRecordBatcher;
+
+    @Mock
+    private BookInventory bookInventory;
+
+    @Mock
+    private ReservationQueue reservationQueue;
+
+    @Mock
+    private UserSummaryCache userSummaryCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BorrowServiceImpl borrowService;
+
+    @BeforeEach
+    void setUp() {
+        borrowService = new BorrowServiceImpl(borrowRecordDAO, borrowRecordBatcher, bookInventory, reservationQueue,
+                userSummaryCache, eventPublisher, 30, 90, 1000, 10, 10.0);
+    }
+
+    @Test
+    void checkout_ShouldReserveCopyAndSaveRecord() {
+        // Arrange
+        allowBorrow();
+        when(borrowRecordBatcher.submit(any())).thenAnswer(invocation -> {
+            BorrowRecordDTO record = invocation.getArgument(0);
+            record.setId(10L);
+            return CompletableFuture.completedFuture(record);
+        });
+
+        // Act
+        BorrowRecordDTO result = borrowService.checkout(7L, 1L);
+
+        // Assert
+        assertEquals(10L, result.getId());
+        assertEquals(BorrowStatus.BORROWED, result.getStatus());
+        assertEquals(result.getBorrowDate().plusDays(30), result.getDueDate());
+        verify(bookInventory).reserve(1L);
+        verify(bookInventory, never()).release(any());
+        // 借出事件计入借阅数后才释放名额
+        InOrder inOrder = inOrder(eventPublisher, userSummaryCache);
+        inOrder.verify(eventPublisher).publishEvent(ArgumentMatchers.<Object>argThat(event ->
+                event instanceof BorrowEvent && ((BorrowEvent) event).getType() == BorrowEvent.Type.CHECKED_OUT));
+        inOrder.verify(userSummaryCache).releaseLoan(7L);
+    }
+
+    @Test
+    void checkout_WithHeldCopy_ShouldUseItAndCompleteReservation() {
+        // Arrange
+        allowBorrow();
+        when(reservationQueue.claimHold(7L, 1L)).thenReturn(true);
+        when(borrowRecordBatcher.submit(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.getArgument(0)));
+
+        // Act
+        borrowService.checkout(7L, 1L);
+
+        // Assert
+        verify(bookInventory, never()).reserve(any());
+        verify(reservationQueue).complete(7L, 1L);
+    }
+
+    @Test
+    void checkout_WhenNoCopyAvailable_ShouldNotSaveRecord() {
+        // Arrange
+        allowBorrow();
+        when(bookInventory.reserve(1L)).thenThrow(new NoCopyAvailableException("No copy available for book: 1"));
+
+        // Act & Assert
+        assertThrows(NoCopyAvailableException.class, () -> borrowService.checkout(7L, 1L));
+        verifyNoInteractions(borrowRecordBatcher, eventPublisher);
+        verify(userSummaryCache).releaseLoan(7L);
+    }
+
+    @Test
+    void checkout_WhenInsertFails_ShouldReleaseCopy() {
+        // Arrange
+        allowBorrow();
+        CompletableFuture<BorrowRecordDTO> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new DataIntegrityViolationException("user 7 does not exist"));
+        when(borrowRecordBatcher.submit(any())).thenReturn(failed);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> borrowService.checkout(7L, 1L));
+        verify(bookInventory).release(1L);
+        verifyNoInteractions(eventPublisher);
+        verify(userSummaryCache).releaseLoan(7L);
+    }
+
+    @Test
+    void checkout_WhenWriteTimesOut_ShouldReleaseSlotAndPublishAfterWrite() {
+        // Arrange
+        allowBorrow();
+        CompletableFuture<BorrowRecordDTO> pending = new CompletableFuture<>();
+        when(borrowRecordBatcher.submit(any())).thenReturn(pending);
+        borrowService = new BorrowServiceImpl(borrowRecordDAO, borrowRecordBatcher, bookInventory, reservationQueue,
+                userSummaryCache, eventPublisher, 30, 90, 1, 10, 10.0);
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> borrowService.checkout(7L, 1L));
+
+        // Assert
+        verify(userSummaryCache, never()).releaseLoan(any());
+        verifyNoInteractions(eventPublisher);
+        pending.complete(record(LocalDateTime.now().plusDays(30)));
+        verify(eventPublisher).publishEvent(any(BorrowEvent.class));
+        verify(userSummaryCache).releaseLoan(7L);
+    }
+
+    @Test
+    void checkout_WhenWriteTimesOutAndThenFails_ShouldReleaseCopyAndSlot() {
+        // Arrange
+        allowBorrow();
+        CompletableFuture<BorrowRecordDTO> pending = new CompletableFuture<>();
+        when(borrowRecordBatcher.submit(any())).thenReturn(pending);
+        borrowService = new BorrowServiceImpl(borrowRecordDAO, borrowRecordBatcher, bookInventory, reservationQueue,
+                userSummaryCache, eventPublisher, 30, 90, 1, 10, 10.0);
+        assertThrows(IllegalStateException.class, () -> borrowService.checkout(7L, 1L));
+        verify(bookInventory, never()).release(any());
+
+        // Act
+        pending.completeExceptionally(new DataIntegrityViolationException("user 7 does not exist"));
+
+        // Assert
+        verify(bookInventory).release(1L);
+        verifyNoInteractions(eventPublisher);
+        verify(userSummaryCache).releaseLoan(7L);
+    }
+
+    @Test
+    void checkout_WithHeldCopyWhenWriteTimesOutAndThenFails_ShouldRestoreHold() {
+        // Arrange
+        allowBorrow();
+        when(reservationQueue.claimHold(7L, 1L)).thenReturn(true);
+        CompletableFuture<BorrowRecordDTO> pending = new CompletableFuture<>();
+        when(borrowRecordBatcher.submit(any())).thenReturn(pending);
+        borrowService = new BorrowServiceImpl(borrowRecordDAO, borrowRecordBatcher, bookInventory, reservationQueue,
+                userSummaryCache, eventPublisher, 30, 90, 1, 10, 10.0);
+        assertThrows(IllegalStateException.class, () -> borrowService.checkout(7L, 1L));
+
+        // Act
+        pending.completeExceptionally(new IllegalStateException("batch insert failed"));
+
+        // Assert
+        verify(reservationQueue).restoreHold(7L, 1L);
+        verify(reservationQueue, never()).complete(any(), any());
+        verify(bookInventory, never()).release(any());
+        verify(userSummaryCache).releaseLoan(7L);
+    }
+
+    @Test
+    void checkout_WhenUserHasOverdueLoans_ShouldRejectBeforeReservingCopy() {
+        // Arrange
+        when(userSummaryCache.reserveLoan(7L, 10, 10.0)).thenReturn(UserSummaryCache.LoanSlot.OVERDUE);
+
+        // Act & Assert
+        assertThrows(BorrowLimitExceededException.class, () -> borrowService.checkout(7L, 1L));
+        verifyNoInteractions(bookInventory, reservationQueue, borrowRecordBatcher);
+        verify(userSummaryCache, never()).releaseLoan(any());
+    }
+
+    @Test
+    void checkout_WhenLoanLimitReached_ShouldReject() {
+        // Arrange
+        when(userSummaryCache.reserveLoan(7L, 10, 10.0)).thenReturn(UserSummaryCache.LoanSlot.LIMIT_REACHED);
+
+        // Act & Assert
+        assertThrows(BorrowLimitExceededException.class, () -> borrowService.checkout(7L, 1L));
+        verifyNoInteractions(bookInventory);
+    }
+
+    @Test
+    void returnBook_ShouldMarkReturnedAndPublishEvent() {
+        // Arrange
+        when(borrowRecordDAO.findViewById(10L)).thenReturn(Optional.of(record(LocalDateTime.now().plusDays(5))));
+        when(borrowRecordDAO.markReturned(eq(10L), any(), eq(BorrowStatus.RETURNED), anyCollection())).thenReturn(1);
+
+        // Act
+        BorrowRecordDTO result = borrowService.returnBook(10L);
+
+        // Assert
+        assertEquals(BorrowStatus.RETURNED, result.getStatus());
+        assertNotNull(result.getReturnDate());
+        verify(eventPublisher).publishEvent(ArgumentMatchers.<Object>argThat(event ->
+                event instanceof BorrowEvent && ((BorrowEvent) event).getType() == BorrowEvent.Type.RETURNED));
+    }
+
+    @Test
+    void returnBook_WhenAlreadyReturned_ShouldThrow() {
+        // Arrange
+        when(borrowRecordDAO.findViewById(10L)).thenReturn(Optional.of(record(LocalDateTime.now().plusDays(5))));
+        when(borrowRecordDAO.markReturned(eq(10L), any(), eq(BorrowStatus.RETURNED), anyCollection())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> borrowService.returnBook(10L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void returnBook_WhenRecordMissing_ShouldThrow() {
+        // Arrange
+        when(borrowRecordDAO.findViewById(10L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(BorrowRecordNotFoundException.class, () -> borrowService.returnBook(10L));
+    }
+
+    @Test
+    void renew_ShouldCapDueDateAtMaxLoanPeriod() {
+        // Arrange
+        BorrowRecordDTO record = record(LocalDateTime.now().plusDays(5));
+        record.setBorrowDate(LocalDateTime.now().minusDays(80));
+        LocalDateTime latest = record.getBorrowDate().plusDays(90);
+        when(borrowRecordDAO.findViewById(10L)).thenReturn(Optional.of(record));
+        when(borrowRecordDAO.extendDueDate(eq(10L), eq(record.getDueDate()), eq(latest), eq(BorrowStatus.BORROWED), any()))
+                .thenReturn(1);
+
+        // Act
+        BorrowRecordDTO result = borrowService.renew(10L);
+
+        // Assert
+        assertEquals(latest, result.getDueDate());
+    }
+
+    @Test
+    void renew_WhenOverdue_ShouldThrow() {
+        // Arrange
+        when(borrowRecordDAO.findViewById(10L)).thenReturn(Optional.of(record(LocalDateTime.now().minusDays(1))));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> borrowService.renew(10L));
+        verify(borrowRecordDAO, never()).extendDueDate(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void renew_WhenChangedConcurrently_ShouldThrowConflict() {
+        // Arrange
+        when(borrowRecordDAO.findViewById(10L)).thenReturn(Optional.of(record(LocalDateTime.now().plusDays(5))));
+        when(borrowRecordDAO.extendDueDate(eq(10L), any(), any(), eq(BorrowStatus.BORROWED), any())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> borrowService.renew(10L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void payFine_ShouldMarkPaidAndPublishEvent() {
+        // Arrange
+        BorrowRecordDTO record = record(LocalDateTime.now().minusDays(10));
+        record.setStatus(BorrowStatus.RETURNED);
+        record.setFineAmount(5.0);
+        when(borrowRecordDAO.findViewById(10L)).thenReturn(Optional.of(record));
+        when(borrowRecordDAO.markFinePaid(eq(10L), anyCollection(), any())).thenReturn(1);
+
+        // Act
+        borrowService.payFine(10L);
+
+        // Assert
+        verify(eventPublisher).publishEvent(ArgumentMatchers.<Object>argThat(event ->
+                event instanceof BorrowEvent && ((BorrowEvent) event).getType() == BorrowEvent.Type.FINE_PAID));
+    }
+
+    @Test
+    void payFine_WhenNotReturnedOrNothingOwed_ShouldThrow() {
+        // Arrange
+        when(borrowRecordDAO.findViewById(10L)).thenReturn(Optional.of(record(LocalDateTime.now().plusDays(1))));
+        when(borrowRecordDAO.markFinePaid(eq(10L), anyCollection(), any())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> borrowService.payFine(10L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void findByUser_ShouldIgnoreRequestedSort() {
+        // Arrange
+        Page<BorrowRecordDTO> page = new PageImpl<>(Collections.emptyList());
+        when(borrowRecordDAO.findViewsByUserId(7L, PageRequest.of(1, 20))).thenReturn(page);
+
+        // Act
+        Page<BorrowRecordDTO> result = borrowService.findByUser(7L, PageRequest.of(1, 20, Sort.by("id")));
+
+        // Assert
+        assertSame(page, result);
+    }
+
+    private static BorrowRecordDTO record(LocalDateTime dueDate) {
+        return new BorrowRecordDTO(10L, 1L, "Clean Code", 7L, dueDate.minusDays(30), dueDate, null,
+                BorrowStatus.BORROWED, 0.0);
+    }
+
+    private void allowBorrow() {
+        when(userSummaryCache.reserveLoan(7L, 10, 10.0)).thenReturn(UserSummaryCache.LoanSlot.RESERVED);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.Service.impl;
+
+import com.example.demo.cache.UserSummaryCache;
+import com.example.demo.event.ReservationEvent;
+import com.example.demo.exception.BorrowLimitExceededException;
+import com.example.demo.exception.ReservationNotFoundException;
+import com.example.demo.inventory.BookInventory;
+import com.example.demo.mapper.ReservationDAO;
+import com.example.demo.model.Reservation;
+import com.example.demo.model.ReservationDTO;
+import com.example.demo.model.ReservationStatus;
+import com.example.demo.model.UserSummary;
+import com.example.demo.reservation.ReservationQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceImplTest {
+
+    @Mock
+    private ReservationDAO reservationDAO;
+
+    @Mock
+    private ReservationQueue reservationQueue;
+
+    @Mock
+    private BookInventory bookInventory;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserSummaryCache userSummaryCache;
+
+    private ReservationServiceImpl reservationService;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new ReservationServiceImpl(reservationDAO, reservationQueue, bookInventory,
+                entityManager, eventPublisher, userSummaryCache, 30, 5);
+    }
+
+    @Test
+    void reserve_ShouldSaveAndEnqueue() {
+        // Arrange
+        when(bookInventory.available(1L)).thenReturn(0);
+        when(userSummaryCache.get(7L)).thenReturn(new UserSummary(7L, 0L, 0L, 0.0, 1L));
+        when(reservationDAO.existsByStatus(eq(1L), eq(7L), anyCollection())).thenReturn(false);
+        when(reservationDAO.saveAndFlush(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            reservation.setId(5L);
+            return reservation;
+        });
+
+        // Act
+        ReservationDTO result = reservationService.reserve(7L, 1L);
+
+        // Assert
+        assertEquals(5L, result.getId());
+        assertEquals(ReservationStatus.PENDING, result.getStatus());
+        assertEquals(result.getReservationDate().plusDays(30), result.getExpiryDate());
+        verify(reservationQueue).enqueue(result);
+        verify(eventPublisher).publishEvent(any(ReservationEvent.class));
+    }
+
+    @Test
+    void reserve_WhenCopiesAvailable_ShouldThrow() {
+        // Arrange
+        when(bookInventory.available(1L)).thenReturn(2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> reservationService.reserve(7L, 1L));
+        verifyNoInteractions(reservationDAO, reservationQueue);
+    }
+
+    @Test
+    void reserve_WhenAlreadyReserved_ShouldThrow() {
+        // Arrange
+        when(bookInventory.available(1L)).thenReturn(0);
+        when(userSummaryCache.get(7L)).thenReturn(new UserSummary(7L, 0L, 0L, 0.0, 1L));
+        when(reservationDAO.existsByStatus(eq(1L), eq(7L), anyCollection())).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> reservationService.reserve(7L, 1L));
+        verify(reservationDAO, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void reserve_WhenReservationLimitReached_ShouldThrow() {
+        // Arrange
+        when(bookInventory.available(1L)).thenReturn(0);
+        when(userSummaryCache.get(7L)).thenReturn(new UserSummary(7L, 0L, 0L, 0.0, 5L));
+
+        // Act & Assert
+        assertThrows(BorrowLimitExceededException.class, () -> reservationService.reserve(7L, 1L));
+        verifyNoInteractions(reservationDAO, reservationQueue);
+    }
+
+    @Test
+    void cancel_WhenApproved_ShouldReleaseHold() {
+        // Arrange
+        ReservationDTO approved = reservation(ReservationStatus.APPROVED);
+        when(reservationDAO.findViewById(5L)).thenReturn(Optional.of(approved));
+        when(reservationDAO.updateStatus(eq(Collections.singletonList(5L)), eq(ReservationStatus.CANCELLED),
+                eq(Collections.singletonList(ReservationStatus.APPROVED)), any())).thenReturn(1);
+
+        // Act
+        ReservationDTO result = reservationService.cancel(5L);
+
+        // Assert
+        assertEquals(ReservationStatus.CANCELLED, result.getStatus());
+        verify(reservationQueue).releaseHold(approved);
+        verify(reservationQueue, never()).dequeue(any());
+    }
+
+    @Test
+    void cancel_WhenPending_ShouldDequeue() {
+        // Arrange
+        ReservationDTO pending = reservation(ReservationStatus.PENDING);
+        when(reservationDAO.findViewById(5L)).thenReturn(Optional.of(pending));
+        when(reservationDAO.updateStatus(eq(Collections.singletonList(5L)), eq(ReservationStatus.CANCELLED),
+                eq(Collections.singletonList(ReservationStatus.PENDING)), any())).thenReturn(1);
+
+        // Act
+        reservationService.cancel(5L);
+
+        // Assert
+        verify(reservationQueue).dequeue(pending);
+    }
+
+    @Test
+    void cancel_WhenCompleted_ShouldThrow() {
+        // Arrange
+        when(reservationDAO.findViewById(5L)).thenReturn(Optional.of(reservation(ReservationStatus.COMPLETED)));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> reservationService.cancel(5L));
+        verifyNoInteractions(reservationQueue);
+    }
+
+    @Test
+    void findById_WhenMissing_ShouldThrow() {
+        // Arrange
+        when(reservationDAO.findViewById(5L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.findById(5L));
+    }
+
+    private static ReservationDTO reservation(ReservationStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ReservationDTO(5L, 1L, 7L, now.minusDays(1), now.plusDays(2), status);
+    }
+}
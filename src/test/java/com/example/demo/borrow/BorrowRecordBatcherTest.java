@@ -0,0 +1,120 @@
+package com.example.demo.borrow;
+
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.BorrowStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BorrowRecordBatcherTest {
+
+    @Mock
+    private BorrowRecordDAO borrowRecordDAO;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BorrowRecordBatcher batcher;
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        batcher = new BorrowRecordBatcher(borrowRecordDAO, transactionManager, 500, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void submit_ShouldInsertAndFillId() throws Exception {
+        // Arrange
+        assignIds();
+        batcher.start();
+
+        // Act
+        BorrowRecordDTO saved = batcher.submit(record(2L)).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1L, saved.getId());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void submit_WhenBatchFails_ShouldOnlyFailBadRecord() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            List<BorrowRecordDTO> records = invocation.getArgument(0);
+            for (BorrowRecordDTO record : records) {
+                if (record.getBookId() == 99L) {
+                    throw new DataIntegrityViolationException("book 99 does not exist");
+                }
+            }
+            records.forEach(record -> record.setId(nextId.getAndIncrement()));
+            return null;
+        }).when(borrowRecordDAO).batchInsert(anyList());
+        // 先入队再启动写入线程，保证三条记录在同一批
+        CompletableFuture<BorrowRecordDTO> first = batcher.submit(record(1L));
+        CompletableFuture<BorrowRecordDTO> bad = batcher.submit(record(99L));
+        CompletableFuture<BorrowRecordDTO> last = batcher.submit(record(3L));
+
+        // Act
+        batcher.start();
+
+        // Assert
+        assertNotNull(first.get(5, TimeUnit.SECONDS).getId());
+        assertNotNull(last.get(5, TimeUnit.SECONDS).getId());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof DataIntegrityViolationException);
+        verify(borrowRecordDAO, times(4)).batchInsert(anyList());
+    }
+
+    @Test
+    void submit_AfterShutdown_ShouldFailImmediately() {
+        // Arrange
+        batcher.shutdown();
+
+        // Act
+        CompletableFuture<BorrowRecordDTO> future = batcher.submit(record(1L));
+
+        // Assert
+        assertTrue(future.isCompletedExceptionally());
+        verifyNoInteractions(borrowRecordDAO);
+    }
+
+    private void assignIds() {
+        doAnswer(invocation -> {
+            List<BorrowRecordDTO> records = invocation.getArgument(0);
+            records.forEach(record -> record.setId(nextId.getAndIncrement()));
+            return null;
+        }).when(borrowRecordDAO).batchInsert(anyList());
+    }
+
+    private static BorrowRecordDTO record(Long bookId) {
+        LocalDateTime now = LocalDateTime.now();
+        return new BorrowRecordDTO(null, bookId, null, 7L, now, now.plusDays(30), null, BorrowStatus.BORROWED, 0.0);
+    }
+}
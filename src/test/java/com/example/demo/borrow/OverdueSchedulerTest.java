@@ -0,0 +1,150 @@
+package com.example.demo.borrow;
+
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.event.LoansOverdueEvent;
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.model.BorrowDueDate;
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.BorrowStatus;
+import com.example.demo.utils.RedisUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueSchedulerTest {
+
+    @Mock
+    private RedisUtils redisUtils;
+
+    @Mock
+    private BorrowRecordDAO borrowRecordDAO;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private OverdueScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new OverdueScheduler(redisUtils, borrowRecordDAO, transactionManager, eventPublisher, 1000, 500,
+                new BigDecimal("0.5"), new BigDecimal("50"));
+    }
+
+    @Test
+    void fineFor_ShouldAccrueDailyUpToMax() {
+        // Act & Assert
+        assertEquals(0.5, scheduler.fineFor(1));
+        assertEquals(5.0, scheduler.fineFor(10));
+        assertEquals(50.0, scheduler.fineFor(365));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tick_ShouldGroupUpdatesByFineAndRescheduleNextDay() {
+        // Arrange
+        LocalDateTime twoDaysAgo = LocalDateTime.now().minusDays(2).minusHours(1);
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(400);
+        when(redisUtils.zPopByScore(eq(OverdueScheduler.DUE_KEY), anyDouble(), eq(500L)))
+                .thenReturn(Arrays.<Object>asList(1, 2L, 3, 4));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // 记录3已归还，不会被查出
+        when(borrowRecordDAO.findDueDates(eq(Arrays.asList(1L, 2L, 3L, 4L)), anyCollection())).thenReturn(Arrays.asList(
+                new BorrowDueDate(1L, 7L, twoDaysAgo, BorrowStatus.BORROWED, 0.0),
+                new BorrowDueDate(2L, 8L, twoDaysAgo, BorrowStatus.OVERDUE, 1.0),
+                new BorrowDueDate(4L, 8L, longAgo, BorrowStatus.OVERDUE, 49.5)));
+        when(borrowRecordDAO.markOverdue(eq(Arrays.asList(1L, 2L)), eq(1.5), eq(BorrowStatus.OVERDUE),
+                anyCollection(), any())).thenReturn(2);
+        when(borrowRecordDAO.markOverdue(eq(Collections.singletonList(4L)), eq(50.0), eq(BorrowStatus.OVERDUE),
+                anyCollection(), any())).thenReturn(1);
+
+        // Act
+        int updated = scheduler.tick();
+
+        // Assert
+        assertEquals(3, updated);
+        ArgumentCaptor<Set<ZSetOperations.TypedTuple<Object>>> captor = ArgumentCaptor.forClass(Set.class);
+        verify(redisUtils).zAdd(eq(OverdueScheduler.DUE_KEY), captor.capture());
+        Map<Object, Double> next = new HashMap<>();
+        captor.getValue().forEach(tuple -> next.put(tuple.getValue(), tuple.getScore()));
+        // 达到罚款上限的记录不再触发
+        assertEquals(2, next.size());
+        assertEquals(millis(twoDaysAgo.plusDays(3)), next.get(1L));
+        assertEquals(millis(twoDaysAgo.plusDays(3)), next.get(2L));
+        // 按借阅人汇总：用户7新逾期一条，罚款+1.5；用户8罚款+0.5+0.5
+        ArgumentCaptor<LoansOverdueEvent> event = ArgumentCaptor.forClass(LoansOverdueEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Collections.singletonMap(7L, 1), event.getValue().getNewlyOverdue());
+        assertEquals(1.5, event.getValue().getFineIncrease().get(7L));
+        assertEquals(1.0, event.getValue().getFineIncrease().get(8L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recover_ShouldScheduleActiveRecordsAtDueDate() {
+        // Arrange
+        LocalDateTime due = LocalDateTime.now().plusDays(3);
+        when(borrowRecordDAO.findDueDatesAfter(anyCollection(), eq(0L), any()))
+                .thenReturn(Arrays.asList(new BorrowDueDate(5L, 7L, due, BorrowStatus.BORROWED, 0.0),
+                        new BorrowDueDate(9L, 7L, due, BorrowStatus.BORROWED, 0.0)));
+
+        // Act
+        int recovered = scheduler.recover();
+
+        // Assert
+        assertEquals(2, recovered);
+        ArgumentCaptor<Set<ZSetOperations.TypedTuple<Object>>> captor = ArgumentCaptor.forClass(Set.class);
+        verify(redisUtils).zAdd(eq(OverdueScheduler.DUE_KEY), captor.capture());
+        assertEquals(2, captor.getValue().size());
+        captor.getValue().forEach(tuple -> assertEquals(millis(due), tuple.getScore()));
+    }
+
+    @Test
+    void onBorrowEvent_ShouldScheduleOnCheckoutAndRemoveOnReturn() {
+        // Arrange
+        LocalDateTime due = LocalDateTime.now().plusDays(30);
+        BorrowRecordDTO record = new BorrowRecordDTO(10L, 1L, null, 7L, LocalDateTime.now(), due, null,
+                BorrowStatus.BORROWED, 0.0);
+
+        // Act
+        scheduler.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.CHECKED_OUT, record));
+        scheduler.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.RETURNED, record));
+        scheduler.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.FINE_PAID, record));
+
+        // Assert
+        // 缴清罚款的记录已归还，不再加入
+        verify(redisUtils).zAdd(OverdueScheduler.DUE_KEY, 10L, millis(due));
+        verify(redisUtils).zRemove(OverdueScheduler.DUE_KEY, 10L);
+    }
+
+    private static double millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookCriteria;
+import com.example.demo.model.BookStatus;
+import com.example.demo.utils.RedisUtils;
+import com.example.demo.utils.ScriptArgs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookCountCacheTest {
+
+    private static final String GENERATION_KEY = BookCountCache.COUNT_PREFIX + "generation";
+    private static final String ANY_CATEGORY_REGISTRY =
+            BookCountCache.COUNT_PREFIX + "criteria:" + BookCriteriaRegistry.ANY_CATEGORY_SHARD;
+
+    @Mock
+    private RedisUtils redisUtils;
+
+    private BookCountCache countCache;
+
+    private final BookCriteria available =
+            new BookCriteria(null, BookStatus.AVAILABLE, null, null, null, null, null, null);
+    private final BookCriteria cheap =
+            new BookCriteria(null, null, null, 20.0, null, null, null, null);
+
+    @BeforeEach
+    void setUp() {
+        SingleFlightCacheLoader loader = new SingleFlightCacheLoader(redisUtils, false, 10000, 2000, 0);
+        countCache = new BookCountCache(redisUtils, loader, 10, 60, () -> 1000L);
+    }
+
+    @Test
+    void count_WhenExactCached_ShouldNotQueryDatabase() {
+        // Arrange
+        when(redisUtils.hGet(BookCountCache.COUNT_PREFIX + available.cacheKey(), BookCountCache.EXACT_FIELD))
+                .thenReturn(7);
+
+        // Act
+        BookCount count = countCache.count(available, true, () -> {
+            throw new AssertionError("should not count");
+        });
+
+        // Assert
+        assertEquals(new BookCount(7, false), count);
+    }
+
+    @Test
+    void count_WhenMissing_ShouldCountAndStoreBothValues() {
+        // Arrange
+        when(redisUtils.get(GENERATION_KEY)).thenReturn(3);
+
+        // Act
+        BookCount count = countCache.count(available, false, () -> 12L);
+
+        // Assert
+        assertEquals(new BookCount(12, false), count);
+        String shard = BookCriteriaRegistry.ANY_CATEGORY_SHARD;
+        List<String> keys = Arrays.asList(ANY_CATEGORY_REGISTRY, BookCountCache.COUNT_PREFIX + "expiry:" + shard,
+                BookCountCache.COUNT_PREFIX + available.cacheKey(), GENERATION_KEY,
+                BookCountCache.COUNT_PREFIX + "shards");
+        verify(redisUtils).executeWithArgs(any(), eq(keys), eq(new ScriptArgs().string(3L)
+                .millis(10, TimeUnit.MINUTES).string(1000L)
+                .string(BookCriteriaRegistry.MAX_CRITERIA_PER_SHARD).value(shard)
+                .string(available.cacheKey()).value(available)
+                .string(BookCountCache.EXACT_FIELD).value(12L)));
+        verify(redisUtils).set(BookCountCache.APPROXIMATE_COUNT_PREFIX + available.cacheKey(),
+                12L, 60, TimeUnit.MINUTES);
+        verify(redisUtils, never()).get(BookCountCache.APPROXIMATE_COUNT_PREFIX + available.cacheKey());
+    }
+
+    @Test
+    void count_WhenApproximateAndExactInvalidated_ShouldReturnLastKnownCountMarkedApproximate() {
+        // Arrange
+        when(redisUtils.get(BookCountCache.APPROXIMATE_COUNT_PREFIX + available.cacheKey())).thenReturn(100L);
+
+        // Act
+        BookCount count = countCache.count(available, true, () -> {
+            throw new AssertionError("should not count");
+        });
+
+        // Assert
+        assertEquals(new BookCount(100, true), count);
+    }
+
+    @Test
+    void count_ShouldReadGenerationBeforeCounting() {
+        // Arrange
+        when(redisUtils.get(GENERATION_KEY)).thenReturn(3);
+
+        // Act
+        countCache.count(available, false, () -> {
+            // 统计期间发生的失效由写入时的代数比较发现
+            verify(redisUtils).get(GENERATION_KEY);
+            return 12L;
+        });
+
+        // Assert
+        verify(redisUtils).executeWithArgs(any(), any(), any());
+    }
+
+    @Test
+    void onBookChanged_ShouldInvalidateOnlyCountsWhoseMembershipChanged() {
+        // Arrange
+        Map<Object, Object> registry = new HashMap<>();
+        registry.put(available.cacheKey(), available);
+        registry.put(cheap.cacheKey(), cheap);
+        when(redisUtils.hGetAll(ANY_CATEGORY_REGISTRY)).thenReturn(registry);
+        Book previous = book(BookStatus.AVAILABLE, 10.0);
+        Book updated = book(BookStatus.BORROWED, 10.0);
+
+        // Act
+        countCache.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.UPDATED, 1L, updated, previous));
+
+        // Assert
+        // 价格未变，低价条件的总数不变；状态变化使图书离开"可借"条件
+        verify(redisUtils).increment(GENERATION_KEY, 1);
+        verify(redisUtils).executeWithStringArgs(any(), eq(Arrays.asList(ANY_CATEGORY_REGISTRY,
+                        BookCountCache.COUNT_PREFIX + "expiry:" + BookCriteriaRegistry.ANY_CATEGORY_SHARD,
+                        BookCountCache.COUNT_PREFIX + available.cacheKey())),
+                eq(available.cacheKey()));
+        verify(redisUtils, never()).delete(anyString());
+    }
+
+    @Test
+    void onBookChanged_WhenBookDeleted_ShouldInvalidateCountsItWasIn() {
+        // Arrange
+        Map<Object, Object> registry = new HashMap<>();
+        registry.put(cheap.cacheKey(), cheap);
+        when(redisUtils.hGetAll(ANY_CATEGORY_REGISTRY)).thenReturn(registry);
+
+        // Act
+        countCache.onBookChanged(new BookChangeEvent(
+                BookChangeEvent.Type.DELETED, 1L, null, book(BookStatus.AVAILABLE, 10.0)));
+
+        // Assert
+        verify(redisUtils).executeWithStringArgs(any(), any(), eq(cheap.cacheKey()));
+    }
+
+    private static Book book(BookStatus status, Double price) {
+        Book book = new Book();
+        book.setId(1L);
+        book.setTitle("Title");
+        book.setAuthor("Author");
+        book.setStatus(status);
+        book.setPrice(price);
+        return book;
+    }
+}
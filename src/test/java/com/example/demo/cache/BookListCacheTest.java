@@ -0,0 +1,126 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.utils.RedisUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
+class BookListCacheTest {
+
+    private static final List<String> KEYS =
+            Arrays.asList(BookListCache.BOOK_LIST_IDS_KEY, BookListCache.GENERATION_KEY);
+
+    @Mock
+    private RedisUtils redisUtils;
+
+    private BookListCache listCache;
+
+    @BeforeEach
+    void setUp() {
+        listCache = new BookListCache(redisUtils, 30);
+    }
+
+    @Test
+    void rebuild_ShouldWriteChunksToTempKeyThenSwap() {
+        // Arrange
+        long ttl = TimeUnit.MINUTES.toMillis(30);
+        List<Long> ids = LongStream.rangeClosed(1, BookListCache.REBUILD_CHUNK_SIZE + 1)
+                .boxed().collect(Collectors.toList());
+        List<Object[]> calls = recordScripts(1L, 1L, 1L);
+
+        // Act
+        assertTrue(listCache.rebuild(ids, 4L));
+
+        // Assert: 两批写入同一个临时键，最后把临时键改名为索引
+        assertEquals(3, calls.size());
+        String tempKey = ((List<String>) calls.get(0)[1]).get(0);
+        assertTrue(tempKey.startsWith(BookListCache.REBUILD_KEY_PREFIX));
+        assertEquals(Arrays.asList(tempKey, BookListCache.GENERATION_KEY), calls.get(1)[1]);
+        assertEquals(BookListCache.REBUILD_CHUNK_SIZE + 4, calls.get(0).length);
+        assertArrayEquals(new Object[]{4L, ttl, (long) ids.size()}, Arrays.copyOfRange(calls.get(1), 2, 5));
+        assertEquals(Arrays.asList(tempKey, BookListCache.BOOK_LIST_IDS_KEY, BookListCache.GENERATION_KEY),
+                calls.get(2)[1]);
+        assertArrayEquals(new Object[]{4L, ttl}, Arrays.copyOfRange(calls.get(2), 2, 4));
+    }
+
+    @Test
+    void rebuild_WhenGenerationChangedDuringChunks_ShouldStopWithoutSwapping() {
+        // Arrange
+        List<Object[]> calls = recordScripts(-1L);
+
+        // Act & Assert
+        assertFalse(listCache.rebuild(Arrays.asList(1L), 4L));
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    void rebuild_WhenGenerationChangedBeforeSwap_ShouldReportNotWritten() {
+        // Arrange
+        List<Object[]> calls = recordScripts(1L, -1L);
+
+        // Act & Assert
+        assertFalse(listCache.rebuild(Arrays.asList(1L), 4L));
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    void rebuild_WhenNoBooks_ShouldOnlySwap() {
+        // Arrange
+        List<Object[]> calls = recordScripts(1L);
+
+        // Act & Assert
+        assertTrue(listCache.rebuild(Collections.emptyList(), 4L));
+        assertEquals(1, calls.size());
+        assertEquals(BookListCache.BOOK_LIST_IDS_KEY, ((List<String>) calls.get(0)[1]).get(1));
+    }
+
+    @Test
+    void onBookChanged_ShouldOnlyTouchIndexForCreateAndDelete() {
+        // Act
+        listCache.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.UPDATED, 1L, null));
+        listCache.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.DELETED, 2L, null));
+
+        // Assert
+        verify(redisUtils).execute(any(), eq(KEYS), eq(2L));
+        verifyNoMoreInteractions(redisUtils);
+    }
+
+    /**
+     * 记录每次脚本调用的参数（脚本、键列表、展开后的参数），并依次返回给定结果
+     */
+    private List<Object[]> recordScripts(Long... results) {
+        List<Object[]> calls = new ArrayList<>();
+        when(redisUtils.execute(any(), anyList(), any())).thenAnswer(invocation -> {
+            calls.add(invocation.getArguments());
+            return results[calls.size() - 1];
+        });
+        return calls;
+    }
+
+    @Test
+    void generation_WhenMissing_ShouldBeZero() {
+        // Act & Assert
+        assertEquals(0, listCache.generation());
+        when(redisUtils.get(BookListCache.GENERATION_KEY)).thenReturn(5);
+        assertEquals(5, listCache.generation());
+    }
+}
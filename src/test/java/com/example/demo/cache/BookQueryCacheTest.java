@@ -0,0 +1,211 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookCriteria;
+import com.example.demo.model.BookStatus;
+import com.example.demo.utils.RedisUtils;
+import com.example.demo.utils.ScriptArgs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookQueryCacheTest {
+
+    private static final String FICTION_SHARD = "c:fiction";
+
+    @Mock
+    private RedisUtils redisUtils;
+
+    private BookQueryCache queryCache;
+
+    private BookCriteria fiction;
+    private BookCriteria available;
+
+    @BeforeEach
+    void setUp() {
+        queryCache = new BookQueryCache(redisUtils, 10, () -> 1000L);
+        fiction = new BookCriteria("Fiction", null, null, null, null, null, null, null);
+        available = new BookCriteria(null, BookStatus.AVAILABLE, null, 50.0, null, null, null, null);
+
+        lenient().when(redisUtils.hGetAll(BookQueryCache.REGISTRY_PREFIX + FICTION_SHARD))
+                .thenReturn(Collections.singletonMap(fiction.cacheKey(), fiction));
+        lenient().when(redisUtils.hGetAll(BookQueryCache.REGISTRY_PREFIX + BookCriteriaRegistry.ANY_CATEGORY_SHARD))
+                .thenReturn(Collections.singletonMap(available.cacheKey(), available));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void get_ShouldNormalizeIdsToLong() {
+        // Arrange
+        List<Long> deserialized = (List<Long>) (List<?>) Arrays.asList(1, 2L);
+        when(redisUtils.hGet(anyString(), anyString())).thenReturn(new BookIdPage(deserialized, 2));
+
+        // Act
+        BookIdPage page = queryCache.get(fiction, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(Arrays.asList(1L, 2L), page.getIds());
+        assertEquals(2, page.getTotal());
+    }
+
+    @Test
+    void onBookChanged_WhenUpdateLeavesCategory_ShouldInvalidateOnlyMatchingCriteria() {
+        // Arrange
+        Book before = book("Fiction", BookStatus.BORROWED, 80.0);
+        Book after = book("History", BookStatus.BORROWED, 80.0);
+
+        // Act
+        queryCache.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.UPDATED, 1L, after, before));
+
+        // Assert
+        verify(redisUtils).hGetAll(BookQueryCache.REGISTRY_PREFIX + "c:history");
+        verifyInvalidated(FICTION_SHARD, fiction);
+        verify(redisUtils, never()).executeWithStringArgs(any(), anyList(), eq(available.cacheKey()));
+    }
+
+    @Test
+    void onBookChanged_WhenCategoryDiffersOnlyInCase_ShouldInvalidate() {
+        // Arrange
+        Book created = book("fiction", BookStatus.BORROWED, 80.0);
+
+        // Act
+        queryCache.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.CREATED, 1L, created));
+
+        // Assert
+        verifyInvalidated(FICTION_SHARD, fiction);
+    }
+
+    @Test
+    void onBookChanged_ShouldIncrementGenerationBeforeReadingRegistry() {
+        // Arrange
+        Book created = book("History", BookStatus.AVAILABLE, 99.0);
+
+        // Act
+        queryCache.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.CREATED, 1L, created));
+
+        // Assert
+        InOrder inOrder = inOrder(redisUtils);
+        inOrder.verify(redisUtils).increment(BookQueryCache.GENERATION_KEY, 1);
+        inOrder.verify(redisUtils).hGetAll(BookQueryCache.REGISTRY_PREFIX + BookCriteriaRegistry.ANY_CATEGORY_SHARD);
+    }
+
+    @Test
+    void put_ShouldRegisterCriteriaInItsShardWithResultAndGeneration() {
+        // Arrange
+        BookIdPage page = new BookIdPage(Collections.singletonList(1L), 1);
+        List<String> keys = Arrays.asList(BookQueryCache.REGISTRY_PREFIX + FICTION_SHARD,
+                BookQueryCache.EXPIRY_PREFIX + FICTION_SHARD, BookQueryCache.RESULT_PREFIX + fiction.cacheKey(),
+                BookQueryCache.GENERATION_KEY, BookQueryCache.SHARDS_KEY);
+        ScriptArgs args = new ScriptArgs().string(3L).millis(10, TimeUnit.MINUTES).string(1000L)
+                .string(BookCriteriaRegistry.MAX_CRITERIA_PER_SHARD).value(FICTION_SHARD)
+                .string(fiction.cacheKey()).value(fiction)
+                .string("0:10:UNSORTED").value(page);
+        when(redisUtils.executeWithArgs(any(), eq(keys), eq(args))).thenReturn(1L, -1L);
+
+        // Act & Assert
+        assertTrue(queryCache.put(fiction, PageRequest.of(0, 10), page, 3L));
+        assertFalse(queryCache.put(fiction, PageRequest.of(0, 10), page, 3L));
+    }
+
+    @Test
+    void generation_WhenMissing_ShouldBeZero() {
+        // Act & Assert
+        assertEquals(0, queryCache.generation());
+        when(redisUtils.get(BookQueryCache.GENERATION_KEY)).thenReturn(5);
+        assertEquals(5, queryCache.generation());
+    }
+
+    @Test
+    void cacheKey_ShouldIgnoreSurroundingWhitespace() {
+        // Arrange
+        BookCriteria padded = new BookCriteria();
+        padded.setCategory("  Fiction ");
+
+        // Assert
+        assertEquals("Fiction", padded.getCategory());
+        assertEquals(fiction.cacheKey(), padded.cacheKey());
+    }
+
+    @Test
+    void onBookChanged_WhenNoCriteriaMatches_ShouldKeepCache() {
+        // Arrange
+        Book created = book("History", BookStatus.AVAILABLE, 99.0);
+
+        // Act
+        queryCache.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.CREATED, 1L, created));
+
+        // Assert
+        verify(redisUtils).increment(BookQueryCache.GENERATION_KEY, 1);
+        verify(redisUtils).hGetAll(BookQueryCache.REGISTRY_PREFIX + BookCriteriaRegistry.ANY_CATEGORY_SHARD);
+        verify(redisUtils).hGetAll(BookQueryCache.REGISTRY_PREFIX + "c:history");
+        verifyNoMoreInteractions(redisUtils);
+    }
+
+    @Test
+    void onBookChanged_WhenPreviousStateUnknown_ShouldInvalidateAllShards() {
+        // Arrange
+        when(redisUtils.sMembers(BookQueryCache.SHARDS_KEY))
+                .thenReturn(new HashSet<>(Arrays.asList(FICTION_SHARD, BookCriteriaRegistry.ANY_CATEGORY_SHARD)));
+
+        // Act
+        queryCache.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.DELETED, 1L, null));
+
+        // Assert
+        verifyInvalidated(FICTION_SHARD, fiction);
+        verifyInvalidated(BookCriteriaRegistry.ANY_CATEGORY_SHARD, available);
+    }
+
+    @Test
+    void onBookChanged_WhenKeywordAbsentBeforeAndAfter_ShouldKeepKeywordQuery() {
+        // Arrange
+        BookCriteria byTitle = BookCriteria.ofKeyword(" java ", "titleSearchStrategy");
+        lenient().when(redisUtils.hGetAll(BookQueryCache.REGISTRY_PREFIX + BookCriteriaRegistry.ANY_CATEGORY_SHARD))
+                .thenReturn(Collections.singletonMap(byTitle.cacheKey(), byTitle));
+        Book before = book("History", BookStatus.AVAILABLE, 20.0);
+        before.setTitle("Python编程");
+        Book after = book("History", BookStatus.BORROWED, 20.0);
+        after.setTitle("Python编程");
+
+        // Act
+        queryCache.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.UPDATED, 1L, after, before));
+        after.setTitle("Java编程思想");
+        queryCache.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.UPDATED, 1L, after, before));
+
+        // Assert
+        verifyInvalidated(BookCriteriaRegistry.ANY_CATEGORY_SHARD, byTitle);
+    }
+
+    private void verifyInvalidated(String shard, BookCriteria criteria) {
+        verify(redisUtils).executeWithStringArgs(any(), eq(Arrays.asList(BookQueryCache.REGISTRY_PREFIX + shard,
+                BookQueryCache.EXPIRY_PREFIX + shard, BookQueryCache.RESULT_PREFIX + criteria.cacheKey())),
+                eq(criteria.cacheKey()));
+    }
+
+    private Book book(String category, BookStatus status, Double price) {
+        Book book = new Book();
+        book.setId(1L);
+        book.setCategory(category);
+        book.setStatus(status);
+        book.setPrice(price);
+        return book;
+    }
+}
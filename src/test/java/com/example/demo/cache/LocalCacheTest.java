@@ -0,0 +1,69 @@
+package com.example.demo.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalCacheTest {
+
+    @Test
+    void get_WhenPresent_ShouldCountHit() {
+        // Arrange
+        LocalCache<Long, String> cache = new LocalCache<>(10, 1, TimeUnit.MINUTES);
+        cache.put(1L, "a");
+
+        // Act
+        String result = cache.get(1L);
+
+        // Assert
+        assertEquals("a", result);
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(0, cache.stats().getMisses());
+    }
+
+    @Test
+    void put_WhenFull_ShouldEvictLeastRecentlyUsed() {
+        // Arrange
+        LocalCache<Long, String> cache = new LocalCache<>(2, 1, TimeUnit.MINUTES);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(1L);
+
+        // Act
+        cache.put(3L, "c");
+
+        // Assert
+        assertEquals("a", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void get_WhenExpired_ShouldReturnNull() {
+        // Arrange
+        LocalCache<Long, String> cache = new LocalCache<>(10, 0, TimeUnit.MILLISECONDS);
+        cache.put(1L, "a");
+
+        // Act & Assert
+        assertNull(cache.get(1L));
+        assertEquals(1, cache.stats().getMisses());
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void invalidate_ShouldRemoveEntry() {
+        // Arrange
+        LocalCache<Long, String> cache = new LocalCache<>(10, 1, TimeUnit.MINUTES);
+        cache.put(1L, "a");
+
+        // Act
+        cache.invalidate(1L);
+
+        // Assert
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.cache;
+
+import com.example.demo.utils.RedisUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SingleFlightCacheLoaderTest {
+
+    @Mock
+    private RedisUtils redisUtils;
+
+    private SingleFlightCacheLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        loader = new SingleFlightCacheLoader(redisUtils, false, 10000, 2000, 0);
+    }
+
+    @Test
+    void load_WhenCached_ShouldNotCallLoader() {
+        // Arrange
+        long expireAt = System.currentTimeMillis() + 60000;
+        when(redisUtils.get("key")).thenReturn(new CachedValue<>("cached", 10, expireAt));
+
+        // Act
+        String result = loader.load("key", 1, TimeUnit.MINUTES, () -> "loaded");
+
+        // Assert
+        assertEquals("cached", result);
+        verify(redisUtils, never()).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void load_WhenMissing_ShouldStoreLoadedValue() {
+        // Arrange
+        when(redisUtils.get("key")).thenReturn(null);
+
+        // Act
+        String result = loader.load("key", 1, TimeUnit.MINUTES, () -> "loaded");
+
+        // Assert
+        assertEquals("loaded", result);
+        verify(redisUtils).set(eq("key"), any(CachedValue.class), eq(1L), eq(TimeUnit.MINUTES));
+    }
+
+    @Test
+    void singleFlight_WhenConcurrent_ShouldLoadOnce() throws Exception {
+        // Arrange
+        int threads = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> loader.singleFlight("key", () -> {
+                started.countDown();
+                awaitQuietly(release);
+                return loads.incrementAndGet();
+            })));
+        }
+        started.await(5, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        for (Future<Integer> future : futures) {
+            assertEquals(1, future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        executor.shutdownNow();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.cache;
+
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.event.LoansOverdueEvent;
+import com.example.demo.event.ReservationEvent;
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.mapper.ReservationDAO;
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.BorrowStatus;
+import com.example.demo.model.LoanTotals;
+import com.example.demo.model.ReservationDTO;
+import com.example.demo.model.ReservationStatus;
+import com.example.demo.model.UserSummary;
+import com.example.demo.utils.RedisUtils;
+import com.example.demo.utils.ScriptArgs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSummaryCacheTest {
+
+    private static final String KEY = UserSummaryCache.KEY_PREFIX + 7;
+    private static final String GENERATION_KEY = UserSummaryCache.GENERATION_PREFIX + 7;
+    private static final List<String> KEYS = Arrays.asList(KEY, GENERATION_KEY);
+
+    @Mock
+    private RedisUtils redisUtils;
+
+    @Mock
+    private BorrowRecordDAO borrowRecordDAO;
+
+    @Mock
+    private ReservationDAO reservationDAO;
+
+    @Mock
+    private LoanTotals loanTotals;
+
+    private UserSummaryCache summaryCache;
+
+    @BeforeEach
+    void setUp() {
+        SingleFlightCacheLoader loader = new SingleFlightCacheLoader(redisUtils, false, 10000, 2000, 0);
+        summaryCache = new UserSummaryCache(redisUtils, loader, borrowRecordDAO, reservationDAO, 60);
+    }
+
+    @Test
+    void get_WhenCached_ShouldNotQueryDatabase() {
+        // Arrange
+        Map<Object, Object> hash = new HashMap<>();
+        hash.put(UserSummaryCache.ACTIVE_LOANS, 3);
+        hash.put(UserSummaryCache.OVERDUE_LOANS, 1);
+        hash.put(UserSummaryCache.FINE_CENTS, 250L);
+        hash.put(UserSummaryCache.ACTIVE_RESERVATIONS, 2);
+        when(redisUtils.hGetAll(KEY)).thenReturn(hash);
+
+        // Act
+        UserSummary summary = summaryCache.get(7L);
+
+        // Assert
+        assertEquals(new UserSummary(7L, 3L, 1L, 2.5, 2L), summary);
+        verifyNoInteractions(borrowRecordDAO, reservationDAO);
+    }
+
+    @Test
+    void get_WhenMissing_ShouldAggregateAndStore() {
+        // Arrange
+        when(redisUtils.hGetAll(KEY)).thenReturn(Collections.emptyMap());
+        when(loanTotals.getActiveLoans()).thenReturn(4L);
+        when(loanTotals.getOverdueLoans()).thenReturn(1L);
+        when(loanTotals.getOutstandingFines()).thenReturn(1.5);
+        when(borrowRecordDAO.sumActiveLoans(eq(7L), eq(BorrowStatus.OVERDUE), anyCollection())).thenReturn(loanTotals);
+        when(reservationDAO.countByUserAndStatus(eq(7L), anyCollection())).thenReturn(2L);
+        when(redisUtils.get(GENERATION_KEY)).thenReturn(4);
+        ScriptArgs stored = new ScriptArgs().string(4L).millis(60, TimeUnit.MINUTES)
+                .string(UserSummaryCache.ACTIVE_LOANS).value(4L)
+                .string(UserSummaryCache.OVERDUE_LOANS).value(1L)
+                .string(UserSummaryCache.FINE_CENTS).value(150L)
+                .string(UserSummaryCache.ACTIVE_RESERVATIONS).value(2L);
+        when(redisUtils.executeWithArgs(any(), eq(KEYS), eq(stored))).thenReturn(1L);
+
+        // Act
+        UserSummary summary = summaryCache.get(7L);
+
+        // Assert
+        assertEquals(new UserSummary(7L, 4L, 1L, 1.5, 2L), summary);
+        verify(redisUtils).executeWithArgs(any(), eq(KEYS), eq(stored));
+    }
+
+    @Test
+    void get_WhenIncrementedWhileLoading_ShouldReloadWithNewGeneration() {
+        // Arrange
+        when(redisUtils.hGetAll(KEY)).thenReturn(Collections.emptyMap());
+        when(loanTotals.getActiveLoans()).thenReturn(4L, 5L);
+        when(loanTotals.getOverdueLoans()).thenReturn(0L);
+        when(loanTotals.getOutstandingFines()).thenReturn(0.0);
+        when(borrowRecordDAO.sumActiveLoans(eq(7L), eq(BorrowStatus.OVERDUE), anyCollection())).thenReturn(loanTotals);
+        when(reservationDAO.countByUserAndStatus(eq(7L), anyCollection())).thenReturn(0L);
+        when(redisUtils.get(GENERATION_KEY)).thenReturn(4, 5);
+        when(redisUtils.executeWithArgs(any(), eq(KEYS), any(ScriptArgs.class))).thenReturn(0L, 1L);
+
+        // Act
+        UserSummary summary = summaryCache.get(7L);
+
+        // Assert
+        assertEquals(5L, summary.getActiveLoans());
+        verify(redisUtils).executeWithArgs(any(), eq(KEYS), eq(new ScriptArgs().string(5L).millis(60, TimeUnit.MINUTES)
+                .string(UserSummaryCache.ACTIVE_LOANS).value(5L)
+                .string(UserSummaryCache.OVERDUE_LOANS).value(0L)
+                .string(UserSummaryCache.FINE_CENTS).value(0L)
+                .string(UserSummaryCache.ACTIVE_RESERVATIONS).value(0L)));
+    }
+
+    @Test
+    void reserveLoan_ShouldMapScriptResults() {
+        // Arrange
+        when(redisUtils.execute(any(), eq(Arrays.asList(KEY, UserSummaryCache.PENDING_LOANS_PREFIX + 7)),
+                eq(10L), eq(1000L), anyLong())).thenReturn(1L, -2L, -3L, -4L);
+
+        // Act & Assert
+        assertEquals(UserSummaryCache.LoanSlot.RESERVED, summaryCache.reserveLoan(7L, 10, 10.0));
+        assertEquals(UserSummaryCache.LoanSlot.OVERDUE, summaryCache.reserveLoan(7L, 10, 10.0));
+        assertEquals(UserSummaryCache.LoanSlot.FINES_OUTSTANDING, summaryCache.reserveLoan(7L, 10, 10.0));
+        assertEquals(UserSummaryCache.LoanSlot.LIMIT_REACHED, summaryCache.reserveLoan(7L, 10, 10.0));
+    }
+
+    @Test
+    void onBorrowEvent_WhenOverdueLoanReturned_ShouldKeepUnpaidFine() {
+        // Arrange
+        BorrowRecordDTO record = new BorrowRecordDTO(10L, 1L, null, 7L, LocalDateTime.now().minusDays(40),
+                LocalDateTime.now().minusDays(10), LocalDateTime.now(), BorrowStatus.RETURNED, 5.0);
+        ScriptArgs expected = new ScriptArgs().millis(60, TimeUnit.MINUTES)
+                .string(UserSummaryCache.ACTIVE_LOANS).string(-1L)
+                .string(UserSummaryCache.OVERDUE_LOANS).string(-1L);
+
+        // Act
+        summaryCache.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.RETURNED, record, BorrowStatus.OVERDUE));
+
+        // Assert
+        verify(redisUtils).executeWithArgs(any(), eq(KEYS), eq(expected));
+    }
+
+    @Test
+    void onBorrowEvent_WhenFinePaid_ShouldSettleFine() {
+        // Arrange
+        BorrowRecordDTO record = new BorrowRecordDTO(10L, 1L, null, 7L, LocalDateTime.now().minusDays(40),
+                LocalDateTime.now().minusDays(10), LocalDateTime.now(), BorrowStatus.RETURNED, 5.0);
+
+        // Act
+        summaryCache.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.FINE_PAID, record));
+
+        // Assert
+        verify(redisUtils).executeWithArgs(any(), eq(KEYS), eq(new ScriptArgs().millis(60, TimeUnit.MINUTES)
+                .string(UserSummaryCache.FINE_CENTS).string(-500L)));
+    }
+
+    @Test
+    void onReservationEvent_ShouldCountActiveReservations() {
+        // Arrange
+        ReservationDTO reservation = new ReservationDTO(5L, 1L, 7L, null, null, ReservationStatus.PENDING);
+
+        // Act
+        summaryCache.onReservationEvent(new ReservationEvent(ReservationEvent.Type.CREATED, reservation));
+        summaryCache.onReservationEvent(new ReservationEvent(ReservationEvent.Type.EXPIRED, reservation));
+
+        // Assert
+        verify(redisUtils).executeWithArgs(any(), eq(KEYS), eq(new ScriptArgs().millis(60, TimeUnit.MINUTES)
+                .string(UserSummaryCache.ACTIVE_RESERVATIONS).string(1L)));
+        verify(redisUtils).executeWithArgs(any(), eq(KEYS), eq(new ScriptArgs().millis(60, TimeUnit.MINUTES)
+                .string(UserSummaryCache.ACTIVE_RESERVATIONS).string(-1L)));
+    }
+
+    @Test
+    void onLoansOverdue_ShouldIncrementOverdueAndFines() {
+        // Arrange
+        ScriptArgs expected = new ScriptArgs().millis(60, TimeUnit.MINUTES)
+                .string(UserSummaryCache.OVERDUE_LOANS).string(2L)
+                .string(UserSummaryCache.FINE_CENTS).string(100L);
+
+        // Act
+        summaryCache.onLoansOverdue(new LoansOverdueEvent(Collections.singletonMap(7L, 2),
+                Collections.singletonMap(7L, 1.0)));
+
+        // Assert
+        verify(redisUtils).executeWithArgs(any(), eq(KEYS), eq(expected));
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.demo.controller;
 
 import com.example.demo.Service.BookService;
+import com.example.demo.metrics.SqlStatementCounter;
 import com.example.demo.model.Book;
+import com.example.demo.model.BookCriteria;
 import com.example.demo.model.BookDTO;
 import com.example.demo.model.BookStatus;
+import com.example.demo.model.BookSuggestion;
+import com.example.demo.pagination.BookCursorRequest;
+import com.example.demo.pagination.CountedPage;
+import com.example.demo.pagination.CursorSlice;
+import com.example.demo.projection.BookProjection;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,10 +26,15 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import static com.example.demo.metrics.SqlStatementAssertions.assertMaxStatements;
+import static com.example.demo.metrics.SqlStatementAssertions.lazyList;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -102,6 +114,25 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.title").value(testBook.getTitle()));
     }
 
+    @Test
+    void getBookById_ShouldNotInitializeLazyCollections() throws Exception {
+        // Arrange
+        SqlStatementCounter statementCounter = new SqlStatementCounter(0, 1, false);
+        testBook.setBorrowRecords(lazyList(statementCounter, "select * from borrow_records where book_id=?"));
+        testBook.setReservations(lazyList(statementCounter, "select * from reservations where book_id=?"));
+        when(bookService.findBookById(1L)).thenReturn(testBook);
+
+        // Act & Assert
+        assertMaxStatements(statementCounter, 0, () -> {
+            mockMvc.perform(get("/api/books/1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.borrowRecords").doesNotExist())
+                    .andExpect(jsonPath("$.reservations").doesNotExist());
+            testBook.toString();
+            testBook.hashCode();
+        });
+    }
+
     @Test
     void createBook_WithValidData_ShouldReturnCreatedBook() throws Exception {
         // Arrange
@@ -146,7 +177,7 @@ class BookControllerTest {
         Pageable pageable = PageRequest.of(0, 10);
         List<Book> books = Arrays.asList(testBook);
         Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
-        when(bookService.searchBooks(anyString(), anyString(), any(Pageable.class))).thenReturn(bookPage);
+        when(bookService.searchBooks(anyString(), anyString(), any(Pageable.class), eq(false))).thenReturn(bookPage);
 
         // Act & Assert
         mockMvc.perform(get("/api/books/search")
@@ -180,8 +211,7 @@ class BookControllerTest {
         List<Book> books = Arrays.asList(testBook);
         Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
         when(bookService.findBooksByCriteria(
-                anyString(), any(BookStatus.class), anyDouble(), anyDouble(),
-                any(LocalDate.class), any(LocalDate.class), any(Pageable.class)
+                any(BookCriteria.class), any(Pageable.class), eq(false)
         )).thenReturn(bookPage);
 
         // Act & Assert
@@ -198,4 +228,158 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.content[0].id").value(testBook.getId()))
                 .andExpect(jsonPath("$.totalElements").value(1));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void suggestBooks_ShouldCapLimitAndReturnSuggestions() throws Exception {
+        // Arrange
+        BookSuggestion suggestion = new BookSuggestion("Test Book", BookSuggestion.Type.TITLE, 1L);
+        when(bookService.suggestBooks("test", 50)).thenReturn(Collections.singletonList(suggestion));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/books/suggest")
+                .param("prefix", "test")
+                .param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Test Book"))
+                .andExpect(jsonPath("$[0].type").value("TITLE"))
+                .andExpect(jsonPath("$[0].bookId").value(1));
+    }
+
+    @Test
+    void getBooksByCursor_ShouldReturnSliceWithNextCursor() throws Exception {
+        // Arrange
+        CursorSlice<Book> slice = new CursorSlice<>(Collections.singletonList(testBook), "next", true);
+        when(bookService.findAllBooks(any(BookCursorRequest.class))).thenReturn(slice);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/books/cursor")
+                .param("size", "1")
+                .param("sort", "title,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(testBook.getId()))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void getBooksByCursor_WithUnsupportedSort_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/books/cursor")
+                .param("sort", "price"))
+                .andExpect(status().isBadRequest());
+        verify(bookService, never()).findAllBooks(any(BookCursorRequest.class));
+    }
+
+    @Test
+    void findBooksByCriteria_WithApproximateCount_ShouldMarkResponse() throws Exception {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Book> bookPage = new CountedPage<>(Arrays.asList(testBook), pageable, 1000, true);
+        when(bookService.findBooksByCriteria(any(BookCriteria.class), any(Pageable.class), eq(true)))
+                .thenReturn(bookPage);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/books/search/criteria")
+                .param("category", "Test Category")
+                .param("approximateCount", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Approximate-Count", "true"))
+                .andExpect(jsonPath("$.totalElements").value(1000))
+                .andExpect(jsonPath("$.approximateTotal").doesNotExist());
+    }
+
+    @Test
+    void findBooksByCriteria_WithApproximateCountButExactTotal_ShouldNotMarkResponse() throws Exception {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Book> bookPage = new PageImpl<>(Arrays.asList(testBook), pageable, 1000);
+        when(bookService.findBooksByCriteria(any(BookCriteria.class), any(Pageable.class), eq(true)))
+                .thenReturn(bookPage);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/books/search/criteria")
+                .param("category", "Test Category")
+                .param("approximateCount", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Approximate-Count"))
+                .andExpect(jsonPath("$.totalElements").value(1000));
+    }
+
+    @Test
+    void getAllBooks_WithFields_ShouldReturnOnlySelectedFields() throws Exception {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Map<String, Object> row = BookProjection.of("title,price").toMap(testBook);
+        Page<Map<String, Object>> page = new PageImpl<>(Collections.singletonList(row), pageable, 1);
+        when(bookService.findAllBooks(any(Pageable.class),
+                argThat(projection -> projection.getFields().size() == 3))).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/books").param("fields", "title,price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(testBook.getId()))
+                .andExpect(jsonPath("$.content[0].title").value(testBook.getTitle()))
+                .andExpect(jsonPath("$.content[0].price").value(testBook.getPrice()))
+                .andExpect(jsonPath("$.content[0].description").doesNotExist());
+        verify(bookService, never()).findAllBooks(any(Pageable.class));
+    }
+
+    @Test
+    void findBooksByCriteria_WithSummaryFields_ShouldUseProjection() throws Exception {
+        // Arrange
+        Page<Map<String, Object>> page = new PageImpl<>(
+                Collections.singletonList(BookProjection.SUMMARY.toMap(testBook)), PageRequest.of(0, 10), 1);
+        when(bookService.findBooksByCriteria(any(BookCriteria.class), any(Pageable.class), eq(false),
+                eq(BookProjection.SUMMARY))).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/books/search/criteria")
+                .param("category", "Test Category")
+                .param("fields", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].isbn").value(testBook.getIsbn()))
+                .andExpect(jsonPath("$.content[0].availableCopies").value(testBook.getAvailableCopies()))
+                .andExpect(jsonPath("$.content[0].location").doesNotExist());
+    }
+
+    @Test
+    void searchBooks_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/books/search")
+                .param("keyword", "Test")
+                .param("searchType", "title")
+                .param("fields", "title,version"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void getBooksByIds_ShouldReturnBooksInRequestOrder() throws Exception {
+        // Arrange
+        when(bookService.findBooksByIds(Arrays.asList(1L, 2L))).thenReturn(Collections.singletonList(testBook));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/books")
+                .param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testBook.getId()));
+        verify(bookService, never()).findAllBooks(any(Pageable.class));
+    }
+
+    @Test
+    void batchGetBooks_WithTooManyIds_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        StringBuilder ids = new StringBuilder("[1");
+        for (int i = 2; i <= 501; i++) {
+            ids.append(',').append(i);
+        }
+        ids.append(']');
+
+        // Act & Assert
+        mockMvc.perform(post("/api/books/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ids.toString()))
+                .andExpect(status().isBadRequest());
+        verify(bookService, never()).findBooksByIds(any());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用两个H2内存库模拟两个副本，延迟由表中的值给出
+ */
+class ReplicaLagMonitorTest {
+
+    private static final String LAG_QUERY = "SELECT seconds FROM replica_lag";
+
+    private DataSource replica0;
+    private DataSource replica1;
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        replica0 = h2("replica0");
+        replica1 = h2("replica1");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replica0);
+        replicas.put("replica-1", replica1);
+        monitor = new ReplicaLagMonitor(replicas, LAG_QUERY, 5, 1000);
+        setLag(replica0, "0");
+        setLag(replica1, "0");
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.shutdown();
+    }
+
+    @Test
+    void nextReplica_BeforeFirstCheck_ShouldReturnNull() {
+        // Act & Assert
+        assertNull(monitor.nextReplica());
+    }
+
+    @Test
+    void nextReplica_WhenAllInSync_ShouldRoundRobin() {
+        // Arrange
+        monitor.check();
+
+        // Act
+        String first = monitor.nextReplica();
+        String second = monitor.nextReplica();
+        String third = monitor.nextReplica();
+
+        // Assert
+        assertNotEquals(first, second);
+        assertEquals(first, third);
+    }
+
+    @Test
+    void check_ShouldSkipLaggingOrStoppedReplicasUntilTheyRecover() throws SQLException {
+        // Arrange
+        setLag(replica0, "30");
+        setLag(replica1, "NULL");
+
+        // Act & Assert
+        monitor.check();
+        assertNull(monitor.nextReplica());
+
+        setLag(replica0, "2");
+        monitor.check();
+        assertEquals("replica-0", monitor.nextReplica());
+        assertEquals("replica-0", monitor.nextReplica());
+    }
+
+    @Test
+    void check_WithoutLagQuery_ShouldOnlyValidateConnections() {
+        // Arrange
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replica0);
+        ReplicaLagMonitor connectionOnly = new ReplicaLagMonitor(replicas, " ", 5, 1000);
+
+        // Act
+        connectionOnly.check();
+
+        // Assert
+        assertEquals("replica-0", connectionOnly.nextReplica());
+        connectionOnly.shutdown();
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private static void setLag(DataSource dataSource, String seconds) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS replica_lag");
+            statement.execute("CREATE TABLE replica_lag (seconds BIGINT)");
+            statement.execute("INSERT INTO replica_lag VALUES (" + seconds + ")");
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    private ReadYourWritesInterceptor readYourWrites;
+    private ReplicaRoutingDataSource routingDataSource;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        when(lagMonitor.getReplicas()).thenReturn(Collections.singletonMap("replica-0", replica));
+        readYourWrites = new ReadYourWritesInterceptor(5000);
+        routingDataSource = new ReplicaRoutingDataSource(primary, lagMonitor, readYourWrites);
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        readYourWrites.preHandle(request, response, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readYourWrites.afterCompletion(request, response, null, null);
+        RequestContextHolder.resetRequestAttributes();
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void determineCurrentLookupKey_WithoutTransaction_ShouldUsePrimary() {
+        // Act & Assert
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        verify(lagMonitor, never()).nextReplica();
+    }
+
+    @Test
+    void determineCurrentLookupKey_InReadOnlyTransaction_ShouldUseReplica() {
+        // Arrange
+        beginTransaction(true);
+        when(lagMonitor.nextReplica()).thenReturn("replica-0");
+
+        // Act & Assert
+        assertEquals("replica-0", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void determineCurrentLookupKey_WhenNoReplicaAvailable_ShouldFallBackToPrimary() {
+        // Arrange
+        beginTransaction(true);
+        when(lagMonitor.nextReplica()).thenReturn(null);
+
+        // Act & Assert
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void determineCurrentLookupKey_AfterWriteCommitted_ShouldReadFromPrimaryAndSetCookie() {
+        // Arrange
+        beginTransaction(false);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationManager.clear();
+
+        // Act
+        beginTransaction(true);
+        Object key = routingDataSource.determineCurrentLookupKey();
+
+        // Assert
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, key);
+        verify(lagMonitor, never()).nextReplica();
+        assertNotNull(response.getCookie(ReadYourWritesInterceptor.COOKIE_NAME));
+    }
+
+    @Test
+    void determineCurrentLookupKey_WithStickyCookie_ShouldReadFromPrimary() {
+        // Arrange
+        readYourWrites.afterCompletion(request, response, null, null);
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME,
+                String.valueOf(System.currentTimeMillis() + 1000)));
+        readYourWrites.preHandle(request, response, null);
+        beginTransaction(true);
+
+        // Act & Assert
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        verify(lagMonitor, never()).nextReplica();
+    }
+
+    @Test
+    void determineCurrentLookupKey_WithExpiredOrForgedCookie_ShouldUseReplica() {
+        // Arrange
+        readYourWrites.afterCompletion(request, response, null, null);
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME, String.valueOf(Long.MAX_VALUE)));
+        readYourWrites.preHandle(request, response, null);
+        beginTransaction(true);
+        when(lagMonitor.nextReplica()).thenReturn("replica-0");
+
+        // Act & Assert
+        assertEquals("replica-0", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void determineCurrentLookupKey_InsideReadPrimary_ShouldUsePrimaryAndRestoreAfterwards() {
+        // Arrange
+        beginTransaction(true);
+        when(lagMonitor.nextReplica()).thenReturn("replica-0");
+
+        // Act
+        Object key = ReplicaRoutingDataSource.readPrimary(routingDataSource::determineCurrentLookupKey);
+
+        // Assert
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, key);
+        assertEquals("replica-0", routingDataSource.determineCurrentLookupKey());
+        assertNull(response.getCookie(ReadYourWritesInterceptor.COOKIE_NAME));
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.exporter;
+
+import com.example.demo.importer.BookImportFormat;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookExporterTest {
+
+    @Mock
+    private BookDAO bookDAO;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private BookExporter exporter;
+
+    @Test
+    void export_WithCsv_ShouldQuoteSpecialCharactersAndDetachRows() {
+        // Arrange
+        Book first = book(1L, "Java, 2nd Edition", "Alice");
+        first.setPrice(10.5);
+        first.setPublishDate(LocalDate.of(2020, 1, 1));
+        Book second = book(2L, "Say \"Hi\"\nTwice", "Bob");
+        AtomicBoolean closed = new AtomicBoolean();
+        when(bookDAO.streamAll()).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = exporter.export(out, BookImportFormat.CSV, false);
+
+        // Assert
+        assertEquals(2, rows);
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals("id,title,author,isbn,publishDate,status,category,description,price,location,"
+                + "totalCopies,availableCopies", lines[0]);
+        assertEquals("1,\"Java, 2nd Edition\",Alice,,2020-01-01,AVAILABLE,,,10.5,,1,1", lines[1]);
+        assertEquals("2,\"Say \"\"Hi\"\"", lines[2]);
+        assertEquals("Twice\",Bob,,,AVAILABLE,,,,,1,1", lines[3]);
+        assertTrue(closed.get());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void export_WithJsonLinesAndGzip_ShouldWriteOneObjectPerLine() throws IOException {
+        // Arrange
+        when(bookDAO.streamAll()).thenReturn(Stream.of(book(1L, "Java", "Alice"), book(2L, "Go", "Bob")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = exporter.export(out, BookImportFormat.JSON_LINES, true);
+
+        // Assert
+        assertEquals(2, rows);
+        String text = new String(readAll(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))),
+                StandardCharsets.UTF_8);
+        String[] lines = text.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":1,\"title\":\"Java\",\"author\":\"Alice\",\"status\":\"AVAILABLE\","
+                + "\"totalCopies\":1,\"availableCopies\":1}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"id\":2,\"title\":\"Go\""));
+    }
+
+    private static Book book(Long id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setStatus(BookStatus.AVAILABLE);
+        book.setTotalCopies(1);
+        book.setAvailableCopies(1);
+        return book;
+    }
+
+    private static byte[] readAll(GZIPInputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int read;
+        while ((read = in.read(chunk)) > 0) {
+            buffer.write(chunk, 0, read);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.importer;
+
+import com.example.demo.cache.BookListCache;
+import com.example.demo.event.BooksImportedEvent;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookImportResult;
+import com.example.demo.model.BookStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImporterTest {
+
+    @Mock
+    private BookDAO bookDAO;
+
+    @Mock
+    private BookListCache bookListCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<Validator> validatorProvider;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookImporter importer;
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        importer = new BookImporter(bookDAO, bookListCache, eventPublisher, objectMapper,
+                validatorProvider, transactionManager, 2, 100);
+    }
+
+    @Test
+    void importBooks_WithCsv_ShouldInsertInBatchesAndReportBadRows() {
+        // Arrange
+        assignIds();
+        String csv = "title,author,price,publishDate,status\n"
+                + "\"Java, 2nd Edition\",Alice,10.5,2020-01-01,available\n"
+                + "Missing Author,,1,,\n"
+                + "Bad Price,Bob,abc,,\n"
+                + "\"Multi\nLine\",Carol,,,\n"
+                + "Third,Dave,,,\n";
+
+        // Act
+        BookImportResult result = importer.importBooks(stream(csv), BookImportFormat.CSV);
+
+        // Assert
+        assertEquals(5, result.getTotalRows());
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(Arrays.asList(2L, 3L), Arrays.asList(
+                result.getErrors().get(0).getRow(), result.getErrors().get(1).getRow()));
+
+        ArgumentCaptor<List<Book>> batches = captureBatches(2);
+        Book first = batches.getAllValues().get(0).get(0);
+        assertEquals("Java, 2nd Edition", first.getTitle());
+        assertEquals(BookStatus.AVAILABLE, first.getStatus());
+        assertEquals(LocalDate.of(2020, 1, 1), first.getPublishDate());
+        assertEquals("Multi\nLine", batches.getAllValues().get(0).get(1).getTitle());
+        verify(eventPublisher, times(2)).publishEvent(any(BooksImportedEvent.class));
+        verify(bookListCache).addAll(Arrays.asList(1L, 2L));
+        verify(bookListCache).addAll(Arrays.asList(3L));
+    }
+
+    @Test
+    void importBooks_WhenBatchFails_ShouldRetryRowByRow() {
+        // Arrange
+        doThrow(new DataIntegrityViolationException("batch"))
+                .doNothing()
+                .doThrow(new DataIntegrityViolationException("Duplicate entry '978' for key 'isbn'"))
+                .when(bookDAO).batchInsert(anyList());
+        String jsonLines = "{\"title\":\"A\",\"author\":\"X\"}\n"
+                + "\n"
+                + "{\"title\":\"B\",\"author\":\"Y\",\"isbn\":\"978\"}\n";
+
+        // Act
+        BookImportResult result = importer.importBooks(stream(jsonLines), BookImportFormat.JSON_LINES);
+
+        // Assert
+        assertEquals(2, result.getTotalRows());
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertTrue(result.getErrors().get(0).getMessage().contains("Duplicate entry"));
+        verify(bookDAO, times(3)).batchInsert(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<List<Book>> captureBatches(int times) {
+        ArgumentCaptor<List<Book>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookDAO, times(times)).batchInsert(captor.capture());
+        return captor;
+    }
+
+    private void assignIds() {
+        doAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            for (Book book : books) {
+                book.setId(nextId.getAndIncrement());
+            }
+            return null;
+        }).when(bookDAO).batchInsert(anyList());
+    }
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.inventory;
+
+import com.example.demo.cache.BookCache;
+import com.example.demo.exception.NoCopyAvailableException;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.utils.RedisUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookInventoryTest {
+
+    @Mock
+    private RedisUtils redisUtils;
+
+    @Mock
+    private BookDAO bookDAO;
+
+    @Mock
+    private BookCache bookCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookInventory inventory;
+
+    private final List<String> keys = Arrays.asList(BookInventory.STOCK_PREFIX + 1, BookInventory.PENDING_DELTA_KEY);
+
+    private final List<String> loadKeys = Arrays.asList(BookInventory.STOCK_PREFIX + 1, BookInventory.PENDING_DELTA_KEY,
+            BookInventory.SYNC_GENERATION_KEY, BookInventory.RECONCILING_PREFIX + 1);
+
+    @BeforeEach
+    void setUp() {
+        inventory = new BookInventory(redisUtils, bookDAO, bookCache, transactionManager, 1000);
+    }
+
+    @Test
+    void reserve_WhenStockNotLoaded_ShouldLoadFromDatabaseAndRetry() {
+        // Arrange
+        Book book = new Book();
+        book.setId(1L);
+        book.setTotalCopies(5);
+        book.setAvailableCopies(3);
+        when(redisUtils.execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(keys), eq(1L)))
+                .thenReturn(-2L, 2L);
+        when(redisUtils.hGet(BookInventory.SYNC_GENERATION_KEY, "1")).thenReturn(4L);
+        when(redisUtils.execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(loadKeys), eq(1L), eq(3L), eq(5L), eq(4L)))
+                .thenReturn(1L);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(bookDAO.findById(1L)).thenReturn(Optional.of(book));
+
+        // Act
+        int remaining = inventory.reserve(1L);
+
+        // Assert
+        assertEquals(2, remaining);
+        verify(bookDAO).findById(1L);
+    }
+
+    @Test
+    void reserve_WhenReconcileInFlight_ShouldReloadAfterItFinishes() {
+        // Arrange
+        Book book = new Book();
+        book.setId(1L);
+        book.setTotalCopies(5);
+        book.setAvailableCopies(3);
+        when(redisUtils.execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(keys), eq(1L)))
+                .thenReturn(-2L, 2L);
+        when(redisUtils.hGet(BookInventory.SYNC_GENERATION_KEY, "1")).thenReturn(null);
+        when(redisUtils.execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(loadKeys), eq(1L), eq(3L), eq(5L), eq(0L)))
+                .thenReturn(-3L, 1L);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(bookDAO.findById(1L)).thenReturn(Optional.of(book));
+
+        // Act
+        int remaining = inventory.reserve(1L);
+
+        // Assert
+        assertEquals(2, remaining);
+        // 写回中时不加载，重新读取数据库后再加载
+        verify(bookDAO, times(2)).findById(1L);
+    }
+
+    @Test
+    void reserve_WhenNoCopyLeft_ShouldThrow() {
+        // Arrange
+        when(redisUtils.execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(keys), eq(1L))).thenReturn(-1L);
+
+        // Act & Assert
+        assertThrows(NoCopyAvailableException.class, () -> inventory.reserve(1L));
+        verifyNoInteractions(bookDAO);
+    }
+
+    @Test
+    void release_WhenAllCopiesInStock_ShouldThrow() {
+        // Arrange
+        when(redisUtils.execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(keys), eq(1L))).thenReturn(-1L);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> inventory.release(1L));
+    }
+
+    @Test
+    void reconcile_ShouldWriteOneUpdatePerBookAndEvictCache() {
+        // Arrange
+        Map<Object, Object> pending = new LinkedHashMap<>();
+        pending.put("1", -7);
+        pending.put("2", 0);
+        when(redisUtils.hGetAll(BookInventory.PENDING_DELTA_KEY)).thenReturn(pending);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        // Act
+        int reconciled = inventory.reconcile();
+
+        // Assert
+        assertEquals(1, reconciled);
+        InOrder inOrder = inOrder(redisUtils, bookDAO);
+        inOrder.verify(redisUtils).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(Arrays.asList(BookInventory.PENDING_DELTA_KEY, BookInventory.RECONCILING_PREFIX + 1)),
+                eq(1L), eq(-7L), anyLong());
+        inOrder.verify(bookDAO).adjustAvailableCopies(1L, -7);
+        // 提交后才清除写回中标记并递增写回代数
+        inOrder.verify(redisUtils).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(Arrays.asList(BookInventory.SYNC_GENERATION_KEY, BookInventory.RECONCILING_PREFIX + 1)), eq(1L));
+        verify(bookDAO, never()).adjustAvailableCopies(eq(2L), anyInt());
+        verify(bookCache).evict(1L);
+    }
+
+    @Test
+    void reconcile_WhenDatabaseFails_ShouldPutDeltaBack() {
+        // Arrange
+        when(redisUtils.hGetAll(BookInventory.PENDING_DELTA_KEY)).thenReturn(Collections.singletonMap("1", 4));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(bookDAO.adjustAvailableCopies(1L, 4)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act
+        int reconciled = inventory.reconcile();
+
+        // Assert
+        assertEquals(0, reconciled);
+        verify(redisUtils).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(Arrays.asList(BookInventory.PENDING_DELTA_KEY, BookInventory.RECONCILING_PREFIX + 1)),
+                eq(1L), eq(4L));
+        verify(redisUtils, never()).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(Arrays.asList(BookInventory.SYNC_GENERATION_KEY, BookInventory.RECONCILING_PREFIX + 1)), any());
+        verifyNoInteractions(bookCache);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.metrics;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试用的SQL语句数断言
+ * 单元测试中数据库由mock代替，mock在应答时调用SqlStatementCounter.inspect模拟执行一条语句，
+ * 再用这里的断言检查一次操作执行的语句数，防止批量加载退化为逐条查询
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    /**
+     * 统计一次操作执行的语句
+     * @param counter SQL语句计数器
+     * @param action 要统计的操作
+     * @return 操作期间的语句情况
+     */
+    public static SqlStatementStats countStatements(SqlStatementCounter counter, Action action) throws Exception {
+        counter.start();
+        try {
+            action.run();
+        } catch (Exception | Error e) {
+            // 异常时也要清理当前线程的计数
+            counter.stop();
+            throw e;
+        }
+        return counter.stop();
+    }
+
+    /**
+     * 断言一次操作执行的语句数不超过上限，并且没有同一条语句重复执行
+     * @param counter SQL语句计数器，检测重复语句需要配置重复阈值
+     * @param maxStatements 语句数上限
+     * @param action 要检查的操作
+     */
+    public static void assertMaxStatements(SqlStatementCounter counter, int maxStatements, Action action)
+            throws Exception {
+        SqlStatementStats stats = countStatements(counter, action);
+        assertTrue(stats.getStatements() <= maxStatements,
+                "Expected at most " + maxStatements + " SQL statements but was " + stats.getStatements());
+        assertNull(stats.getRepeatedSql(),
+                () -> "SQL statement executed " + stats.getRepeatedCount() + " times: " + stats.getRepeatedSql());
+    }
+
+    /**
+     * 模拟尚未初始化的延迟加载集合，任何访问都记为执行一条语句
+     * @param counter SQL语句计数器
+     * @param sql 初始化集合时执行的语句
+     * @return 空集合
+     */
+    public static <T> List<T> lazyList(SqlStatementCounter counter, String sql) {
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                counter.inspect(sql);
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+
+            @Override
+            public int size() {
+                counter.inspect(sql);
+                return 0;
+            }
+        };
+    }
+
+    /**
+     * 被统计的操作，允许抛出受检异常以便直接包裹MockMvc请求
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+}
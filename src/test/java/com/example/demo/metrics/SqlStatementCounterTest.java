@@ -0,0 +1,78 @@
+package com.example.demo.metrics;
+
+import com.example.demo.exception.SqlBudgetExceededException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementCounterTest {
+
+    private static final String SELECT_BOOK = "select * from books where id=?";
+    private static final String SELECT_RECORDS = "select * from borrow_records where book_id=?";
+
+    @Test
+    void inspect_WhenNotStarted_ShouldNotCount() {
+        // Arrange
+        SqlStatementCounter counter = new SqlStatementCounter(1, 2, true);
+
+        // Act
+        counter.inspect(SELECT_BOOK);
+        counter.inspect(SELECT_BOOK);
+
+        // Assert
+        assertEquals(0, counter.current());
+        assertEquals(0, counter.stop().getStatements());
+    }
+
+    @Test
+    void stop_ShouldReportMostRepeatedStatementOverThreshold() {
+        // Arrange
+        SqlStatementCounter counter = new SqlStatementCounter(0, 3, false);
+        counter.start();
+
+        // Act
+        counter.inspect(SELECT_BOOK);
+        counter.inspect(SELECT_RECORDS);
+        counter.inspect(SELECT_RECORDS);
+        counter.inspect(SELECT_RECORDS);
+        SqlStatementStats stats = counter.stop();
+
+        // Assert
+        assertEquals(4, stats.getStatements());
+        assertFalse(stats.isOverBudget());
+        assertEquals(SELECT_RECORDS, stats.getRepeatedSql());
+        assertEquals(3, stats.getRepeatedCount());
+        assertEquals(0, counter.current());
+    }
+
+    @Test
+    void stop_WhenOverBudgetWithoutFailing_ShouldOnlyMarkStats() {
+        // Arrange
+        SqlStatementCounter counter = new SqlStatementCounter(2, 0, false);
+        counter.start();
+
+        // Act
+        counter.inspect(SELECT_BOOK);
+        counter.inspect(SELECT_BOOK);
+        counter.inspect(SELECT_BOOK);
+        SqlStatementStats stats = counter.stop();
+
+        // Assert
+        assertEquals(3, stats.getStatements());
+        assertTrue(stats.isOverBudget());
+        assertNull(stats.getRepeatedSql());
+    }
+
+    @Test
+    void inspect_WhenOverBudgetAndFailing_ShouldRejectExtraStatement() {
+        // Arrange
+        SqlStatementCounter counter = new SqlStatementCounter(2, 0, true);
+        counter.start();
+        counter.inspect(SELECT_BOOK);
+        counter.inspect(SELECT_RECORDS);
+
+        // Act & Assert
+        assertThrows(SqlBudgetExceededException.class, () -> counter.inspect(SELECT_RECORDS));
+        assertTrue(counter.stop().isOverBudget());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.pagination;
+
+import com.example.demo.model.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCursorRequestTest {
+
+    @Test
+    void of_WithDefaults_ShouldSortByIdAscending() {
+        // Act
+        BookCursorRequest request = BookCursorRequest.of(null, null, null);
+
+        // Assert
+        assertEquals(BookCursorRequest.DEFAULT_SIZE, request.getSize());
+        assertEquals(Sort.by(Sort.Direction.ASC, "id"), request.getSort());
+        assertNull(request.afterCursor());
+    }
+
+    @Test
+    void of_WithOversizedPage_ShouldClampSize() {
+        // Act
+        BookCursorRequest request = BookCursorRequest.of("id", null, 1000);
+
+        // Assert
+        assertEquals(BookCursorRequest.MAX_SIZE, request.getSize());
+    }
+
+    @Test
+    void of_WithUnsupportedSort_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> BookCursorRequest.of("price", null, 10));
+    }
+
+    @Test
+    void toSlice_WithExtraRow_ShouldReturnNextCursorUsableForNextPage() {
+        // Arrange
+        BookCursorRequest request = BookCursorRequest.of("title,desc", null, 2);
+        List<Book> rows = Arrays.asList(book(3L, "C"), book(1L, "B"), book(2L, "A"));
+
+        // Act
+        CursorSlice<Book> slice = request.toSlice(rows);
+        BookCursorRequest next = BookCursorRequest.of("title,desc", slice.getNextCursor(), 2);
+
+        // Assert
+        assertTrue(slice.isHasNext());
+        assertEquals(2, slice.getContent().size());
+        assertEquals(1L, slice.getContent().get(1).getId());
+        assertNotNull(next.afterCursor());
+        assertEquals(Sort.by(Sort.Direction.DESC, "title").and(Sort.by(Sort.Direction.DESC, "id")), next.getSort());
+    }
+
+    @Test
+    void toSlice_WithoutExtraRow_ShouldHaveNoNextCursor() {
+        // Arrange
+        BookCursorRequest request = BookCursorRequest.of(null, null, 2);
+
+        // Act
+        CursorSlice<Book> slice = request.toSlice(Collections.singletonList(book(1L, "A")));
+
+        // Assert
+        assertFalse(slice.isHasNext());
+        assertNull(slice.getNextCursor());
+    }
+
+    @Test
+    void of_WithCursorFromDifferentSort_ShouldThrowException() {
+        // Arrange
+        BookCursorRequest request = BookCursorRequest.of("title", null, 1);
+        String cursor = request.toSlice(Arrays.asList(book(1L, "A"), book(2L, "B"))).getNextCursor();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> BookCursorRequest.of("id", cursor, 1));
+        assertThrows(IllegalArgumentException.class, () -> BookCursorRequest.of("title", "not-a-cursor!", 1));
+    }
+
+    @Test
+    void of_WithTamperedDateCursor_ShouldThrowException() {
+        // Arrange
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("CREATED_AT,ASC,1,not-a-date".getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> BookCursorRequest.of("createdAt", cursor, 1));
+    }
+
+    private Book book(Long id, String title) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        return book;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.projection;
+
+import com.example.demo.model.Book;
+import com.example.demo.model.BookStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookProjectionTest {
+
+    @Test
+    void of_ShouldAlwaysIncludeIdAndKeepDeclarationOrder() {
+        // Act
+        BookProjection projection = BookProjection.of("price, title,price");
+
+        // Assert
+        assertEquals(Arrays.asList(BookProjection.Field.ID, BookProjection.Field.TITLE, BookProjection.Field.PRICE),
+                projection.getFields());
+    }
+
+    @Test
+    void of_WithSummary_ShouldReturnSummaryFields() {
+        // Act & Assert
+        assertSame(BookProjection.SUMMARY, BookProjection.of("summary"));
+        assertEquals(7, BookProjection.SUMMARY.getFields().size());
+        assertFalse(BookProjection.SUMMARY.getFields().contains(BookProjection.Field.DESCRIPTION));
+    }
+
+    @Test
+    void of_WithUnknownOrEmptyField_ShouldThrow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> BookProjection.of("title,borrowRecords"));
+        assertThrows(IllegalArgumentException.class, () -> BookProjection.of(" "));
+    }
+
+    @Test
+    void toMap_ShouldCopySelectedFieldsOnly() {
+        // Arrange
+        Book book = new Book();
+        book.setId(1L);
+        book.setTitle("Test Book");
+        book.setStatus(BookStatus.AVAILABLE);
+        book.setDescription("Long description");
+
+        // Act
+        Map<String, Object> row = BookProjection.of("status,title").toMap(book);
+
+        // Assert
+        assertEquals(Arrays.asList("id", "title", "status"), Arrays.asList(row.keySet().toArray()));
+        assertEquals(BookStatus.AVAILABLE, row.get("status"));
+        assertFalse(row.containsKey("description"));
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.demo.reservation;
+
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.event.ReservationEvent;
+import com.example.demo.exception.NoCopyAvailableException;
+import com.example.demo.inventory.BookInventory;
+import com.example.demo.mapper.ReservationDAO;
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.BorrowStatus;
+import com.example.demo.model.ReservationDTO;
+import com.example.demo.model.ReservationStatus;
+import com.example.demo.utils.RedisUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationQueueTest {
+
+    private static final String QUEUE = ReservationQueue.QUEUE_PREFIX + 1;
+    private static final List<String> HOLD_KEYS = Arrays.asList(ReservationQueue.HOLD_KEY, ReservationQueue.CLAIMED_KEY);
+
+    @Mock
+    private RedisUtils redisUtils;
+
+    @Mock
+    private ReservationDAO reservationDAO;
+
+    @Mock
+    private BookInventory bookInventory;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ReservationQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new ReservationQueue(redisUtils, reservationDAO, bookInventory, transactionManager, eventPublisher,
+                3, 1000, 500);
+    }
+
+    @Test
+    void onBorrowEvent_WhenNobodyWaiting_ShouldNotTouchInventory() {
+        // Arrange
+        when(redisUtils.zSize(QUEUE)).thenReturn(0L);
+
+        // Act
+        queue.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.RETURNED, borrowRecord()));
+
+        // Assert
+        verifyNoInteractions(bookInventory, reservationDAO);
+    }
+
+    @Test
+    void onReservationEvent_OnlyWhenCreated_ShouldTryToPromote() {
+        // Arrange
+        when(redisUtils.zSize(QUEUE)).thenReturn(1L);
+        when(bookInventory.reserve(1L)).thenThrow(new NoCopyAvailableException("No copy available for book: 1"));
+        ReservationDTO reservation = new ReservationDTO(5L, 1L, 7L, null, null, ReservationStatus.PENDING);
+
+        // Act
+        queue.onReservationEvent(new ReservationEvent(ReservationEvent.Type.CREATED, reservation));
+        queue.onReservationEvent(new ReservationEvent(ReservationEvent.Type.CANCELLED, reservation));
+
+        // Assert
+        verify(bookInventory, times(1)).reserve(1L);
+    }
+
+    @Test
+    void promote_ShouldSkipStaleEntriesAndHoldCopyForNextInLine() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(redisUtils.zSize(QUEUE)).thenReturn(2L);
+        when(redisUtils.zPopMin(QUEUE)).thenReturn(4, 6L);
+        // 预约4已取消
+        when(reservationDAO.approve(eq(4L), any(), eq(ReservationStatus.APPROVED), eq(ReservationStatus.PENDING), any()))
+                .thenReturn(0);
+        when(reservationDAO.approve(eq(6L), any(), eq(ReservationStatus.APPROVED), eq(ReservationStatus.PENDING), any()))
+                .thenReturn(1);
+        when(reservationDAO.findViewById(6L)).thenReturn(Optional.of(reservation(6L, ReservationStatus.APPROVED)));
+
+        // Act
+        queue.promote(1L);
+
+        // Assert
+        verify(bookInventory).reserve(1L);
+        verify(bookInventory, never()).release(any());
+        verify(redisUtils).executeWithStringArgs(any(), eq(HOLD_KEYS), eq("1:7"));
+        verify(redisUtils).zAdd(eq(ReservationQueue.EXPIRY_KEY), eq(6L), anyDouble());
+    }
+
+    @Test
+    void promote_WhenCopyTakenConcurrently_ShouldLeaveQueue() {
+        // Arrange
+        when(redisUtils.zSize(QUEUE)).thenReturn(1L);
+        when(bookInventory.reserve(1L)).thenThrow(new NoCopyAvailableException("No copy available for book: 1"));
+
+        // Act
+        queue.promote(1L);
+
+        // Assert
+        verify(redisUtils, never()).zPopMin(any());
+    }
+
+    @Test
+    void handOver_WhenQueueEmpty_ShouldReleaseCopy() {
+        // Arrange
+        when(redisUtils.zPopMin(QUEUE)).thenReturn(null);
+
+        // Act
+        queue.handOver(1L);
+
+        // Assert
+        verify(bookInventory).release(1L);
+    }
+
+    @Test
+    void expire_ShouldBatchPendingAndPassExpiredHoldToNextInLine() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(redisUtils.zPopByScore(eq(ReservationQueue.EXPIRY_KEY), anyDouble(), eq(500L)))
+                .thenReturn(Arrays.<Object>asList(2L, 3L, 5L));
+        ReservationDTO pending2 = reservation(2L, ReservationStatus.PENDING);
+        ReservationDTO pending3 = reservation(3L, ReservationStatus.PENDING);
+        ReservationDTO approved5 = reservation(5L, ReservationStatus.APPROVED);
+        when(reservationDAO.findViews(eq(Arrays.asList(2L, 3L, 5L)), anyCollection()))
+                .thenReturn(Arrays.asList(pending2, pending3, approved5));
+        when(reservationDAO.expire(eq(Arrays.asList(2L, 3L)), eq(ReservationStatus.REJECTED),
+                eq(Collections.singletonList(ReservationStatus.PENDING)), any())).thenReturn(2);
+        when(reservationDAO.expire(eq(Collections.singletonList(5L)), eq(ReservationStatus.REJECTED),
+                eq(Collections.singletonList(ReservationStatus.APPROVED)), any())).thenReturn(1);
+        when(redisUtils.executeWithStringArgs(any(), eq(HOLD_KEYS), eq("1:7"), anyString(), anyString()))
+                .thenReturn(1L);
+        when(redisUtils.zPopMin(QUEUE)).thenReturn(null);
+
+        // Act
+        int expired = queue.expire();
+
+        // Assert
+        assertEquals(3, expired);
+        verify(redisUtils).zRemove(QUEUE, 2L);
+        verify(redisUtils).zRemove(QUEUE, 3L);
+        // 没有人排队，保留的副本还给库存
+        verify(bookInventory).release(1L);
+        verify(eventPublisher, times(3)).publishEvent(any(ReservationEvent.class));
+    }
+
+    @Test
+    void claimHold_ShouldOnlySucceedOnce() {
+        // Arrange
+        when(redisUtils.executeWithStringArgs(any(), eq(HOLD_KEYS), eq("1:7"), anyString(), anyString()))
+                .thenReturn(1L, 0L);
+
+        // Act & Assert
+        assertTrue(queue.claimHold(7L, 1L));
+        assertFalse(queue.claimHold(7L, 1L));
+    }
+
+    @Test
+    void recover_ShouldRequeuePendingAndOnlyRestoreUnclaimedHolds() {
+        // Arrange
+        ReservationDTO pending = reservation(2L, ReservationStatus.PENDING);
+        ReservationDTO approved = reservation(5L, ReservationStatus.APPROVED);
+        when(reservationDAO.findViewsAfter(anyCollection(), eq(0L), any()))
+                .thenReturn(Arrays.asList(pending, approved));
+
+        // Act
+        int recovered = queue.recover();
+
+        // Assert
+        assertEquals(2, recovered);
+        verify(redisUtils).zAdd(QUEUE, 2L, 2L);
+        // 保留由脚本按不存在且未被取走的条件重建，不直接HSET
+        verify(redisUtils).executeWithStringArgs(any(), eq(HOLD_KEYS), eq("1:7"));
+        verify(redisUtils, never()).hSet(anyString(), anyString(), any());
+    }
+
+    private static ReservationDTO reservation(Long id, ReservationStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ReservationDTO(id, 1L, 7L, now.minusDays(31), now.minusMinutes(1), status);
+    }
+
+    private static BorrowRecordDTO borrowRecord() {
+        LocalDateTime now = LocalDateTime.now();
+        return new BorrowRecordDTO(10L, 1L, null, 9L, now.minusDays(3), now.plusDays(27), now,
+                BorrowStatus.RETURNED, 0.0);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticLockRetryTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OptimisticLockRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        retry = new OptimisticLockRetry(transactionManager, new SimpleMeterRegistry(), 3, 0, 0);
+    }
+
+    @Test
+    void execute_WhenConflictIsTransient_ShouldRetryInNewTransaction() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        String result = retry.execute("update", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "ok";
+        });
+
+        // Assert
+        assertEquals("ok", result);
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        ConflictStats stats = retry.stats().get("update");
+        assertEquals(1, stats.getCalls());
+        assertEquals(3, stats.getAttempts());
+        assertEquals(2, stats.getConflicts());
+        assertEquals(0, stats.getExhausted());
+        assertEquals(2.0 / 3, stats.getConflictRate(), 1e-9);
+    }
+
+    @Test
+    void execute_WhenAlwaysConflicting_ShouldGiveUpAfterMaxAttempts() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> retry.execute("update", () -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }));
+        assertEquals(3, calls.get());
+        assertEquals(1, retry.stats().get("update").getExhausted());
+    }
+
+    @Test
+    void execute_WhenOtherErrorOccurs_ShouldNotRetry() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> retry.execute("update", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("Book is already borrowed");
+        }));
+        assertEquals(1, calls.get());
+        assertEquals(0, retry.stats().get("update").getConflicts());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.search;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookCriteria;
+import com.example.demo.model.BookFacets;
+import com.example.demo.model.BookStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookFacetIndexTest {
+
+    @Mock
+    private BookDAO bookDAO;
+
+    private BookFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(0L)).thenReturn(Arrays.asList(
+                book(1L, "Fiction", BookStatus.AVAILABLE, 15.0, LocalDate.of(2020, 1, 1)),
+                book(2L, "Fiction", BookStatus.BORROWED, 45.0, LocalDate.of(2021, 1, 1)),
+                book(3L, "History", BookStatus.AVAILABLE, 60.0, LocalDate.of(2019, 1, 1)),
+                book(4L, "Fiction", BookStatus.AVAILABLE, null, null)));
+        when(bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(4L)).thenReturn(Collections.emptyList());
+        index = new BookFacetIndex(bookDAO, new double[]{20, 50});
+        index.rebuild();
+    }
+
+    @Test
+    void search_ShouldFilterAndCountFacetsIgnoringOwnDimension() {
+        // Arrange
+        BookCriteria criteria = new BookCriteria("Fiction", BookStatus.AVAILABLE, null, null, null, null, null, null);
+
+        // Act
+        BookFacetIndex.Result result = index.search(criteria, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(Arrays.asList(1L, 4L), result.getIds().getContent());
+        assertEquals(2, result.getIds().getTotalElements());
+        BookFacets facets = result.getFacets();
+        // 分类计数只应用状态条件
+        assertEquals(Long.valueOf(2), facets.getCategories().get("Fiction"));
+        assertEquals(Long.valueOf(1), facets.getCategories().get("History"));
+        // 状态计数只应用分类条件
+        assertEquals(Long.valueOf(2), facets.getStatuses().get("AVAILABLE"));
+        assertEquals(Long.valueOf(1), facets.getStatuses().get("BORROWED"));
+        assertEquals(Long.valueOf(1), facets.getPriceBands().get("0-20"));
+        assertEquals(Long.valueOf(0), facets.getPriceBands().get("20-50"));
+    }
+
+    @Test
+    void search_WithPriceAndDateRange_ShouldExcludeNullValues() {
+        // Arrange
+        BookCriteria criteria = new BookCriteria(null, null, 10.0, 50.0,
+                LocalDate.of(2019, 6, 1), null, null, null);
+
+        // Act
+        BookFacetIndex.Result result = index.search(criteria, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price")));
+
+        // Assert
+        assertEquals(Arrays.asList(2L, 1L), result.getIds().getContent());
+    }
+
+    @Test
+    void onBookChanged_ShouldReflectUpdatesAndDeletes() {
+        // Arrange
+        Book moved = book(1L, "History", BookStatus.AVAILABLE, 15.0, LocalDate.of(2020, 1, 1));
+
+        // Act
+        index.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.UPDATED, 1L, moved));
+        index.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.DELETED, 3L, null));
+        BookFacetIndex.Result result = index.search(
+                new BookCriteria("History", null, null, null, null, null, null, null), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(Collections.singletonList(1L), result.getIds().getContent());
+        assertEquals(Long.valueOf(2), result.getFacets().getCategories().get("Fiction"));
+    }
+
+    @Test
+    void search_WithLaterPage_ShouldKeepSortOrderAndTotal() {
+        // Act
+        BookFacetIndex.Result result = index.search(new BookCriteria(null, null, null, null, null, null, null, null),
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "publishDate")));
+
+        // Assert
+        // 出版日期降序：2(2021) 1(2020) 3(2019) 4(null)
+        assertEquals(Arrays.asList(3L, 4L), result.getIds().getContent());
+        assertEquals(4, result.getIds().getTotalElements());
+    }
+
+    @Test
+    void search_ShouldMatchCategoryIgnoringCaseLikeDatabase() {
+        // Arrange
+        BookCriteria criteria = new BookCriteria("fiction", null, null, null, null, null, null, null);
+
+        // Act
+        BookFacetIndex.Result result = index.search(criteria, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(Arrays.asList(1L, 2L, 4L), result.getIds().getContent());
+        assertEquals(Long.valueOf(3), result.getFacets().getCategories().get("Fiction"));
+    }
+
+    @Test
+    void supports_ShouldRejectColumnsNotInIndex() {
+        // Assert
+        assertTrue(index.supports(Sort.by("price", "id")));
+        assertFalse(index.supports(Sort.by("title")));
+    }
+
+    private Book book(Long id, String category, BookStatus status, Double price, LocalDate publishDate) {
+        Book book = new Book();
+        book.setId(id);
+        book.setCategory(category);
+        book.setStatus(status);
+        book.setPrice(price);
+        book.setPublishDate(publishDate);
+        return book;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.search;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import com.example.demo.utils.RedisUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookIndexSynchronizerTest {
+
+    @Mock
+    private RedisUtils redisUtils;
+
+    @Mock
+    private BookDAO bookDAO;
+
+    @Mock
+    private BookFacetIndex bookFacetIndex;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookSuggester bookSuggester;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookIndexSynchronizer synchronizer;
+
+    @BeforeEach
+    void setUp() {
+        synchronizer = new BookIndexSynchronizer(redisUtils, bookDAO, bookFacetIndex, bookSearchIndex,
+                bookSuggester, transactionManager, 0);
+    }
+
+    @Test
+    void onMessage_FromOwnNode_ShouldBeIgnored() {
+        // Arrange
+        synchronizer.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.UPDATED, 1L, book(1L)));
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisUtils).publish(eq(BookIndexSynchronizer.CHANGE_CHANNEL), published.capture());
+
+        // Act
+        synchronizer.onMessage(message(published.getValue()), null);
+
+        // Assert
+        assertTrue(published.getValue().endsWith("|1"));
+        verifyNoInteractions(bookDAO, bookFacetIndex, bookSearchIndex, bookSuggester);
+    }
+
+    @Test
+    void onMessage_FromOtherNode_ShouldReloadBooksAndApplyDeletes() {
+        // Arrange
+        when(bookDAO.findAllById(Arrays.asList(1L, 2L))).thenReturn(Collections.singletonList(book(1L)));
+
+        // Act
+        synchronizer.onMessage(message("other-node|1,2"), null);
+
+        // Assert
+        ArgumentCaptor<BookChangeEvent> events = ArgumentCaptor.forClass(BookChangeEvent.class);
+        verify(bookFacetIndex, times(2)).onBookChanged(events.capture());
+        assertEquals(BookChangeEvent.Type.UPDATED, events.getAllValues().get(0).getType());
+        assertEquals(Long.valueOf(1L), events.getAllValues().get(0).getBook().getId());
+        assertEquals(BookChangeEvent.Type.DELETED, events.getAllValues().get(1).getType());
+        assertEquals(Long.valueOf(2L), events.getAllValues().get(1).getBookId());
+        verify(bookSearchIndex).onBookChanged(events.getAllValues().get(0));
+        verify(bookSearchIndex).onBookChanged(events.getAllValues().get(1));
+        verify(bookSuggester).onBookChanged(events.getAllValues().get(0));
+        verify(bookSuggester).onBookChanged(events.getAllValues().get(1));
+    }
+
+    @Test
+    void onMessage_WithMalformedBody_ShouldBeIgnored() {
+        // Act
+        synchronizer.onMessage(message("other-node|abc"), null);
+
+        // Assert
+        verify(bookDAO, never()).findAllById(any());
+        verifyNoInteractions(bookFacetIndex, bookSearchIndex, bookSuggester);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(BookIndexSynchronizer.CHANGE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Book book(Long id) {
+        Book book = new Book();
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.search;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+    @Mock
+    private BookDAO bookDAO;
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex(bookDAO);
+        index.onBookChanged(created(book(1L, "深入理解Java虚拟机", "周志明", "JVM高级特性")));
+        index.onBookChanged(created(book(2L, "Java编程思想", "Bruce Eckel", "经典的Java入门书")));
+        index.onBookChanged(created(book(3L, "算法导论", "Thomas Cormen", "讲解Java以外的算法")));
+    }
+
+    @Test
+    void tokenize_ShouldSplitCjkIntoBigramsAndLowercaseWords() {
+        assertEquals(Arrays.asList("深入", "入理", "理解", "java"), BookTokenizer.tokenize("深入理解 Java"));
+        assertEquals(Collections.singletonList("书"), BookTokenizer.tokenize("书"));
+    }
+
+    @Test
+    void search_ShouldRankByWeightedTermFrequency() {
+        // Act
+        Page<Long> result = index.search("java", PageRequest.of(0, 10));
+
+        // Assert：标题+描述 > 仅标题 > 仅描述
+        assertEquals(3, result.getTotalElements());
+        assertEquals(Arrays.asList(2L, 1L, 3L), result.getContent());
+    }
+
+    @Test
+    void search_ShouldRequireAllTerms() {
+        // Act
+        Page<Long> result = index.search("理解 java", PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(Collections.singletonList(1L), result.getContent());
+    }
+
+    @Test
+    void search_ShouldMatchSingleCjkCharacter() {
+        // Act
+        Page<Long> result = index.search("算", PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(Collections.singletonList(3L), result.getContent());
+    }
+
+    @Test
+    void onBookChanged_WhenDeleted_ShouldRemoveFromIndex() {
+        // Act
+        index.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.DELETED, 1L, null));
+
+        // Assert
+        assertEquals(0, index.search("虚拟机", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void onBookChanged_WhenUpdated_ShouldReindexTitle() {
+        // Act
+        index.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.UPDATED, 2L,
+                book(2L, "Thinking in Java", "Bruce Eckel", null)));
+
+        // Assert
+        assertEquals(Collections.singletonList(2L), index.search("thinking", PageRequest.of(0, 10)).getContent());
+        assertEquals(0, index.search("编程", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    private static BookChangeEvent created(Book book) {
+        return new BookChangeEvent(BookChangeEvent.Type.CREATED, book.getId(), book);
+    }
+
+    private static Book book(Long id, String title, String author, String description) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setDescription(description);
+        return book;
+    }
+}
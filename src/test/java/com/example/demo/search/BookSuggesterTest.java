@@ -0,0 +1,211 @@
+package com.example.demo.search;
+
+import com.example.demo.event.BookChangeEvent;
+import com.example.demo.event.BorrowEvent;
+import com.example.demo.mapper.BookDAO;
+import com.example.demo.mapper.BorrowRecordDAO;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookBorrowCount;
+import com.example.demo.model.BookSuggestion;
+import com.example.demo.model.BorrowRecordDTO;
+import com.example.demo.model.BorrowStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookSuggesterTest {
+
+    @Mock
+    private BookDAO bookDAO;
+
+    @Mock
+    private BorrowRecordDAO borrowRecordDAO;
+
+    private BookSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new BookSuggester(bookDAO, borrowRecordDAO);
+        suggester.onBookChanged(created(book(1L, "Java编程思想", "Bruce Eckel", "978-7-111-21382-6")));
+        suggester.onBookChanged(created(book(2L, "Java核心技术", "Cay Horstmann", "9787111636663")));
+        suggester.onBookChanged(created(book(3L, "JavaScript高级程序设计", "Matt Frisbie", "9787115545381")));
+        suggester.onBookChanged(created(book(4L, "Effective Java", "Joshua Bloch", "9787111612728")));
+        checkOut(1L, 3);
+        checkOut(2L, 10);
+        checkOut(3L, 5);
+        suggester.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        suggester.shutdown();
+    }
+
+    @Test
+    void suggest_ShouldReturnPrefixMatchesByPopularity() {
+        // Act
+        List<BookSuggestion> result = suggester.suggest("jav", 10);
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals("Java核心技术", result.get(0).getText());
+        assertEquals("JavaScript高级程序设计", result.get(1).getText());
+        assertEquals("Java编程思想", result.get(2).getText());
+    }
+
+    @Test
+    void suggest_ShouldRespectLimit() {
+        // Act
+        List<BookSuggestion> result = suggester.suggest("java", 1);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(2L, result.get(0).getBookId());
+    }
+
+    @Test
+    void suggest_AfterCheckouts_ShouldRankByBorrowCount() {
+        // Act
+        checkOut(1L, 8);
+        suggester.onBorrowEvent(borrowEvent(BorrowEvent.Type.RETURNED, 3L));
+        suggester.rebuild();
+
+        // Assert: 归还不计入借阅次数
+        List<BookSuggestion> result = suggester.suggest("jav", 10);
+        assertEquals("Java编程思想", result.get(0).getText());
+        assertEquals("JavaScript高级程序设计", result.get(2).getText());
+    }
+
+    @Test
+    void suggest_ShouldMatchIsbnWithoutHyphens() {
+        // Act
+        List<BookSuggestion> result = suggester.suggest("978711121", 10);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(BookSuggestion.Type.ISBN, result.get(0).getType());
+        assertEquals(1L, result.get(0).getBookId());
+    }
+
+    @Test
+    void suggest_ShouldMatchAuthor() {
+        // Act
+        List<BookSuggestion> result = suggester.suggest("Joshua", 10);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(BookSuggestion.Type.AUTHOR, result.get(0).getType());
+        assertNull(result.get(0).getBookId());
+    }
+
+    @Test
+    void suggest_AfterDelete_ShouldNotReturnBook() {
+        // Act
+        suggester.onBookChanged(new BookChangeEvent(BookChangeEvent.Type.DELETED, 2L, null));
+        suggester.rebuild();
+
+        // Assert
+        assertTrue(suggester.suggest("java核心", 10).isEmpty());
+    }
+
+    @Test
+    void load_ShouldDropBooksDeletedOnOtherNodes() {
+        // Arrange
+        when(bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(0L)).thenReturn(Arrays.asList(
+                book(1L, "Java编程思想", "Bruce Eckel", "978-7-111-21382-6"),
+                book(3L, "JavaScript高级程序设计", "Matt Frisbie", "9787115545381")));
+        when(bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(3L)).thenReturn(Collections.emptyList());
+
+        // Act
+        suggester.load();
+
+        // Assert
+        assertTrue(suggester.suggest("java核心", 10).isEmpty());
+        assertTrue(suggester.suggest("effective", 10).isEmpty());
+        assertEquals(2, suggester.suggest("jav", 10).size());
+    }
+
+    @Test
+    void load_ShouldReplaceBorrowCountsWithDatabaseTotals() {
+        // Arrange
+        when(bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(0L)).thenReturn(Arrays.asList(
+                book(1L, "Java编程思想", "Bruce Eckel", "978-7-111-21382-6"),
+                book(3L, "JavaScript高级程序设计", "Matt Frisbie", "9787115545381")));
+        when(bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(3L)).thenReturn(Collections.emptyList());
+        when(borrowRecordDAO.countBorrowsByBook()).thenReturn(Collections.singletonList(borrowCount(1L, 20)));
+
+        // Act
+        suggester.load();
+
+        // Assert: 数据库中没有借阅记录的图书热度归零
+        List<BookSuggestion> result = suggester.suggest("jav", 10);
+        assertEquals("Java编程思想", result.get(0).getText());
+        assertEquals("JavaScript高级程序设计", result.get(1).getText());
+    }
+
+    @Test
+    void load_ShouldKeepChangesReceivedWhileLoading() {
+        // Arrange
+        when(bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(0L)).thenAnswer(invocation -> {
+            // 加载期间新建的图书不在已读取的结果中
+            suggester.onBookChanged(created(book(5L, "Java并发编程实战", "Brian Goetz", "9787111370048")));
+            return Collections.singletonList(book(1L, "Java编程思想", "Bruce Eckel", "978-7-111-21382-6"));
+        });
+        when(bookDAO.findTop1000ByIdGreaterThanOrderByIdAsc(1L)).thenReturn(Collections.emptyList());
+
+        // Act
+        suggester.load();
+
+        // Assert
+        assertEquals(1, suggester.suggest("java并发", 10).size());
+    }
+
+    private static BookChangeEvent created(Book book) {
+        return new BookChangeEvent(BookChangeEvent.Type.CREATED, book.getId(), book);
+    }
+
+    private void checkOut(Long bookId, int times) {
+        for (int i = 0; i < times; i++) {
+            suggester.onBorrowEvent(borrowEvent(BorrowEvent.Type.CHECKED_OUT, bookId));
+        }
+    }
+
+    private static BorrowEvent borrowEvent(BorrowEvent.Type type, Long bookId) {
+        return new BorrowEvent(type, new BorrowRecordDTO(null, bookId, null, 1L,
+                null, null, null, BorrowStatus.BORROWED, 0.0));
+    }
+
+    private static BookBorrowCount borrowCount(Long bookId, long borrows) {
+        return new BookBorrowCount() {
+            @Override
+            public Long getBookId() {
+                return bookId;
+            }
+
+            @Override
+            public Number getBorrows() {
+                return borrows;
+            }
+        };
+    }
+
+    private static Book book(Long id, String title, String author, String isbn) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setIsbn(isbn);
+        return book;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.serializer;
+
+import com.example.demo.cache.CachedValue;
+import com.example.demo.model.Book;
+import com.example.demo.model.BookStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookBinaryRedisSerializerTest {
+
+    private RedisSerializer<Object> serializer;
+    private Book testBook;
+
+    @BeforeEach
+    void setUp() {
+        serializer = RedisSerializers.binary(1024);
+
+        testBook = new Book();
+        testBook.setId(1L);
+        testBook.setTitle("深入理解Java虚拟机");
+        testBook.setAuthor("周志明");
+        testBook.setIsbn("9787111641247");
+        testBook.setPublishDate(LocalDate.of(2019, 12, 1));
+        testBook.setStatus(BookStatus.AVAILABLE);
+        testBook.setCategory("计算机");
+        testBook.setDescription("Test Description");
+        testBook.setPrice(129.0);
+        testBook.setLocation("A区-1层-01架-01号");
+        testBook.setTotalCopies(10);
+        testBook.setAvailableCopies(5);
+        testBook.setCreatedAt(LocalDate.of(2024, 1, 1));
+        testBook.setUpdatedAt(LocalDate.of(2024, 1, 2));
+        testBook.setVersion(3);
+    }
+
+    @Test
+    void book_ShouldRoundTrip() {
+        // Act
+        byte[] bytes = serializer.serialize(testBook);
+        Object result = serializer.deserialize(bytes);
+
+        // Assert
+        assertEquals(BookBinaryRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(testBook, result);
+    }
+
+    @Test
+    void versionOneBook_ShouldStillBeReadable() {
+        // Arrange: 版本1的格式没有末尾的乐观锁版本号
+        testBook.setVersion(0);
+        byte[] current = serializer.serialize(testBook);
+        byte[] versionOne = Arrays.copyOf(current, current.length - 1);
+        versionOne[1] = 1;
+
+        // Act
+        Object result = serializer.deserialize(versionOne);
+
+        // Assert
+        assertEquals(testBook, result);
+    }
+
+    @Test
+    void bookWithNullFields_ShouldRoundTrip() {
+        // Arrange
+        Book book = new Book();
+        book.setId(2L);
+        book.setTitle("Title");
+        book.setAuthor("Author");
+        book.setStatus(null);
+        book.setTotalCopies(null);
+
+        // Act
+        Object result = serializer.deserialize(serializer.serialize(book));
+
+        // Assert
+        assertEquals(book, result);
+    }
+
+    @Test
+    void bookPage_ShouldRoundTrip() {
+        // Arrange
+        Page<Book> page = new PageImpl<>(Arrays.asList(testBook), PageRequest.of(2, 10), 21);
+
+        // Act
+        Page<?> result = (Page<?>) serializer.deserialize(serializer.serialize(page));
+
+        // Assert
+        assertEquals(page.getContent(), result.getContent());
+        assertEquals(2, result.getNumber());
+        assertEquals(10, result.getSize());
+        assertEquals(21, result.getTotalElements());
+    }
+
+    @Test
+    void cachedBookList_ShouldRoundTripWithCompression() {
+        // Arrange
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            books.add(testBook);
+        }
+        CachedValue<List<Book>> cached = new CachedValue<>(books, 12, 123456789L);
+
+        // Act
+        byte[] bytes = serializer.serialize(cached);
+        Object result = serializer.deserialize(bytes);
+
+        // Assert
+        assertNotEquals(0, bytes[2] & BookBinaryRedisSerializer.FLAG_COMPRESSED);
+        assertEquals(cached, result);
+    }
+
+    @Test
+    void number_ShouldBeStoredAsDecimalText() {
+        // Act
+        byte[] bytes = serializer.serialize(42L);
+
+        // Assert
+        assertEquals("42", new String(bytes, StandardCharsets.UTF_8));
+        assertEquals(42L, ((Number) serializer.deserialize(bytes)).longValue());
+    }
+}
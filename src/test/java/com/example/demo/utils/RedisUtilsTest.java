@@ -0,0 +1,97 @@
+package com.example.demo.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisUtilsTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private MeterRegistry meterRegistry;
+    private RedisUtils redisUtils;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        redisUtils = new RedisUtils(redisTemplate, meterRegistry);
+    }
+
+    @Test
+    void keyPrefix_ShouldDropIdsAndKeepAtMostTwoSegments() {
+        // Act & Assert
+        assertEquals("book:", RedisUtils.keyPrefix("book:42"));
+        assertEquals("book:category:", RedisUtils.keyPrefix("book:category:Test Category"));
+        assertEquals("book:status:", RedisUtils.keyPrefix("book:status:AVAILABLE"));
+        assertEquals("book:query:", RedisUtils.keyPrefix("book:query:c4:文学|s9:AVAILABLE"));
+        assertEquals("book:count", RedisUtils.keyPrefix("book:count"));
+        assertEquals("user:summary:", RedisUtils.keyPrefix("user:summary:7"));
+    }
+
+    @Test
+    void get_ShouldCountHitsAndMissesByKeyPrefix() {
+        // Arrange
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("book:1")).thenReturn("cached");
+        when(valueOperations.multiGet(Arrays.asList("book:2", "book:3"))).thenReturn(Arrays.asList(null, "cached"));
+
+        // Act
+        redisUtils.get("book:1");
+        redisUtils.get("book:category:文学");
+        redisUtils.multiGet(Arrays.asList("book:2", "book:3"));
+
+        // Assert
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "book:").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "book:").tag("result", "miss").counter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "book:category:").tag("result", "miss")
+                .counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void executeWithArgs_ShouldWriteStringsAsUtf8AndValuesWithValueSerializer() {
+        // Arrange
+        RedisScript<Long> script = new DefaultRedisScript<>("return 1", Long.class);
+        RedisSerializer<Object> valueSerializer = new GenericJackson2JsonRedisSerializer();
+        when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) valueSerializer);
+
+        // Act
+        redisUtils.executeWithArgs(script, Collections.singletonList("k"),
+                new ScriptArgs().string("field").millis(2, TimeUnit.SECONDS).value("v"));
+
+        // Assert
+        ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).execute(eq(script), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(Collections.singletonList("k")), args.capture());
+        assertEquals(3, args.getAllValues().size());
+        assertArrayEquals("field".getBytes(StandardCharsets.UTF_8), (byte[]) args.getAllValues().get(0));
+        assertArrayEquals("2000".getBytes(StandardCharsets.UTF_8), (byte[]) args.getAllValues().get(1));
+        assertArrayEquals(valueSerializer.serialize("v"), (byte[]) args.getAllValues().get(2));
+    }
+}